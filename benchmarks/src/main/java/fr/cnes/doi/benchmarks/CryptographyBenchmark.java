@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.benchmarks;
+
+import fr.cnes.doi.security.UtilsCryptography;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the decryption of the encrypted values of the configuration file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptographyBenchmark {
+
+    /**
+     * Encrypted value.
+     */
+    private String encrypted;
+
+    /**
+     * Empty constructor.
+     */
+    public CryptographyBenchmark() {
+        // JMH state
+    }
+
+    /**
+     * Encrypts the value decrypted by the benchmark.
+     */
+    @Setup
+    public void setUp() {
+        this.encrypted = UtilsCryptography.encrypt("jdbc:postgresql://localhost:5432/doidb");
+    }
+
+    /**
+     * Decrypts a value with the default key.
+     *
+     * @return the decrypted value
+     */
+    @Benchmark
+    public String decrypt() {
+        return UtilsCryptography.decrypt(this.encrypted);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.benchmarks;
+
+import fr.cnes.doi.client.ClientMDS;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the check of the characters of a DOI name, done for each request
+ * on a DOI.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoiNameBenchmark {
+
+    /**
+     * DOI name to check.
+     */
+    @Param({
+        "10.80163/828606/8c3e91ad45ca855b477126bc073ae44b",
+        "10.80163/828606/PROJECT-2019-01_file.name+v2:part/section/subsection/item"
+    })
+    private String doiName;
+
+    /**
+     * Empty constructor.
+     */
+    public DoiNameBenchmark() {
+        // JMH state
+    }
+
+    /**
+     * Checks the characters of the DOI name.
+     *
+     * @return the checked DOI name
+     */
+    @Benchmark
+    public String checkIfAllCharsAreValid() {
+        ClientMDS.checkIfAllCharsAreValid(this.doiName);
+        return this.doiName;
+    }
+
+}
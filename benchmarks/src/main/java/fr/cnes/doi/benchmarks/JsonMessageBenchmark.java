@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.benchmarks;
+
+import fr.cnes.doi.logging.business.JsonMessage;
+import fr.cnes.doi.services.DoiMonitoringRecord;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Request;
+import org.restlet.data.ChallengeResponse;
+import org.restlet.data.ChallengeScheme;
+import org.restlet.data.Method;
+
+/**
+ * Benchmarks the JSON formatting of the objects logged by the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMessageBenchmark {
+
+    /**
+     * Request, as logged by the verifiers.
+     */
+    private Request request;
+
+    /**
+     * Monitoring record, as returned by the monitoring resource.
+     */
+    private DoiMonitoringRecord record;
+
+    /**
+     * Empty constructor.
+     */
+    public JsonMessageBenchmark() {
+        // JMH state
+    }
+
+    /**
+     * Creates the objects to format.
+     */
+    @Setup
+    public void setUp() {
+        this.request = new Request(Method.GET,
+                "http://localhost:8182/mds/dois/10.80163/828606/8c3e91ad45ca855b477126bc073ae44b");
+        this.request.setChallengeResponse(new ChallengeResponse(ChallengeScheme.HTTP_BASIC,
+                "malapert", "pwd"));
+        this.record = new DoiMonitoringRecord("Get a DOI", Method.GET, "/mds/dois/{doiName}",
+                TimeUnit.MINUTES.toMillis(5), 10);
+        for (int i = 0; i < 1000; i++) {
+            this.record.addMeasurement(i % 100);
+        }
+    }
+
+    /**
+     * Formats a request.
+     *
+     * @return the JSON message
+     */
+    @Benchmark
+    public String formatRequest() {
+        return new JsonMessage(this.request).getFormattedMessage();
+    }
+
+    /**
+     * Formats a monitoring record.
+     *
+     * @return the JSON message
+     */
+    @Benchmark
+    public String formatRecord() {
+        return new JsonMessage(this.record).getFormattedMessage();
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.benchmarks;
+
+import fr.cnes.doi.client.ClientMDS;
+import fr.cnes.doi.exception.ClientMdsException;
+import fr.cnes.doi.utils.MetadataCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.ValidationException;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
+import org.datacite.schema.kernel_4.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.xml.sax.SAXException;
+
+/**
+ * Benchmarks the parsing and the validation of kernel-4 metadata, done for
+ * each metadata upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataBenchmark {
+
+    /**
+     * Directory of the samples in the classpath.
+     */
+    private static final String SAMPLES = "/samples/";
+
+    /**
+     * Kernel-4 sample.
+     */
+    @Param({"kernel4-small.xml", "kernel4-large.xml"})
+    private String sample;
+
+    /**
+     * Sample content.
+     */
+    private byte[] xml;
+
+    /**
+     * MDS client, not connected to DataCite in these benchmarks.
+     */
+    private ClientMDS client;
+
+    /**
+     * Empty constructor.
+     */
+    public MetadataBenchmark() {
+        // JMH state
+    }
+
+    /**
+     * Loads the sample and checks that it is valid.
+     *
+     * @throws IOException When the sample cannot be read
+     * @throws ClientMdsException When the client cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException, ClientMdsException {
+        try (InputStream input = MetadataBenchmark.class.getResourceAsStream(SAMPLES
+                + this.sample)) {
+            if (input == null) {
+                throw new IOException("Unknown sample " + this.sample);
+            }
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int len;
+            while ((len = input.read(buffer)) != -1) {
+                output.write(buffer, 0, len);
+            }
+            this.xml = output.toByteArray();
+        }
+        this.client = new ClientMDS(ClientMDS.Context.DEV);
+        try {
+            MetadataCodec.getInstance().unmarshalAndValidate(new ByteArrayInputStream(this.xml));
+        } catch (JAXBException ex) {
+            throw new IllegalStateException(this.sample + " is not a valid kernel-4 sample", ex);
+        }
+    }
+
+    /**
+     * Parses the metadata as the MDS metadata resource does.
+     *
+     * @return the Resource object from DataCite
+     * @throws ValidationException When the metadata is not valid
+     */
+    @Benchmark
+    public Resource parseMetadata() throws ValidationException {
+        return this.client.parseMetadata(new ByteArrayRepresentation(this.xml));
+    }
+
+    /**
+     * Parses the metadata and checks it against the schema in one pass.
+     *
+     * @return the Resource object from DataCite
+     * @throws JAXBException When the metadata is not valid
+     */
+    @Benchmark
+    public Resource unmarshalAndValidate() throws JAXBException {
+        return MetadataCodec.getInstance().unmarshalAndValidate(
+                new ByteArrayInputStream(this.xml));
+    }
+
+    /**
+     * Checks the metadata against the compiled schema, without binding it.
+     *
+     * @return the validator
+     * @throws IOException When the metadata cannot be read
+     * @throws SAXException When the metadata is not valid
+     */
+    @Benchmark
+    public Validator validate() throws IOException, SAXException {
+        final Validator validator = MetadataCodec.getInstance().getSchema().newValidator();
+        validator.validate(new StreamSource(new ByteArrayInputStream(this.xml)));
+        return validator;
+    }
+
+}
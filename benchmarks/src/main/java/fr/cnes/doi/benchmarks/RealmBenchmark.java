@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.benchmarks;
+
+import fr.cnes.doi.db.MyMemoryRealm;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Application;
+import org.restlet.data.ClientInfo;
+import org.restlet.security.Group;
+import org.restlet.security.Role;
+import org.restlet.security.User;
+
+/**
+ * Benchmarks the enrolment of the authenticated users in a realm filled as
+ * the MDS application does : one role per project, each user being a member
+ * of {@value #PROJECTS_BY_USER} projects, and a group of administrators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealmBenchmark {
+
+    /**
+     * Number of projects of each user.
+     */
+    private static final int PROJECTS_BY_USER = 2;
+
+    /**
+     * Number of users by project.
+     */
+    private static final int USERS_BY_PROJECT = 10;
+
+    /**
+     * One user in {@value #ADMIN_RATIO} is an administrator.
+     */
+    private static final int ADMIN_RATIO = 50;
+
+    /**
+     * Number of users of the realm.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    private int nbUsers;
+
+    /**
+     * Realm.
+     */
+    private MyMemoryRealm realm;
+
+    /**
+     * Users of the realm.
+     */
+    private User[] users;
+
+    /**
+     * Index of the next user to enrole.
+     */
+    private int next;
+
+    /**
+     * Empty constructor.
+     */
+    public RealmBenchmark() {
+        // JMH state
+    }
+
+    /**
+     * Fills the realm.
+     */
+    @Setup
+    public void setUp() {
+        final Application app = new Application();
+        this.realm = new MyMemoryRealm();
+        final Group administrators = new Group("Administrator", "Administrators");
+        this.realm.getRootGroups().add(administrators);
+        final Role admin = new Role(app, "admin");
+        this.realm.map(administrators, admin);
+
+        final int nbProjects = Math.max(1, this.nbUsers * PROJECTS_BY_USER / USERS_BY_PROJECT);
+        final Role[] projects = new Role[nbProjects];
+        for (int i = 0; i < nbProjects; i++) {
+            projects[i] = new Role(app, String.valueOf(100000 + i), "Role " + (100000 + i));
+        }
+
+        this.users = new User[this.nbUsers];
+        for (int i = 0; i < this.nbUsers; i++) {
+            final User user = new User("user" + i, "password" + i);
+            this.realm.getUsers().add(user);
+            for (int j = 0; j < PROJECTS_BY_USER; j++) {
+                this.realm.map(user, projects[(i + j * USERS_BY_PROJECT) % nbProjects]);
+            }
+            if (i % ADMIN_RATIO == 0) {
+                this.realm.addMemberUser(administrators, user);
+            }
+            this.users[i] = user;
+        }
+    }
+
+    /**
+     * Returns the next user, all the users being used in turn.
+     *
+     * @return the user
+     */
+    private User nextUser() {
+        final User user = this.users[this.next];
+        this.next = (this.next + 1) % this.users.length;
+        return user;
+    }
+
+    /**
+     * Enroles an authenticated user, as done for each request.
+     *
+     * @return the client information with the roles of the user
+     */
+    @Benchmark
+    public ClientInfo enrole() {
+        final ClientInfo clientInfo = new ClientInfo();
+        clientInfo.setUser(new User(nextUser().getIdentifier()));
+        this.realm.getEnroler().enrole(clientInfo);
+        return clientInfo;
+    }
+
+    /**
+     * Enroles an authenticated user after a change of the realm, so that the
+     * roles of the user are resolved again.
+     *
+     * @return the client information with the roles of the user
+     */
+    @Benchmark
+    public ClientInfo enroleAfterChange() {
+        this.realm.invalidateEnrolments();
+        return enrole();
+    }
+
+    /**
+     * Finds the roles mapped to a user.
+     *
+     * @return the roles
+     */
+    @Benchmark
+    public Set<Role> findRoles() {
+        return this.realm.findRoles(nextUser());
+    }
+
+    /**
+     * Finds the groups of a user.
+     *
+     * @return the groups
+     */
+    @Benchmark
+    public Set<Group> findGroups() {
+        return this.realm.findGroups(nextUser());
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.benchmarks;
+
+import fr.cnes.doi.security.TokenSecurity;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the creation and the check of the JWT tokens, done for each
+ * request authenticated by a token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenSecurityBenchmark {
+
+    /**
+     * User creating the tokens.
+     */
+    private static final String USER_ID = "malapert";
+
+    /**
+     * Token service.
+     */
+    private TokenSecurity tokenSecurity;
+
+    /**
+     * Token checked by {@link #getTokenInformation()}.
+     */
+    private String token;
+
+    /**
+     * Empty constructor.
+     */
+    public TokenSecurityBenchmark() {
+        // JMH state
+    }
+
+    /**
+     * Creates the token checked by the benchmark.
+     */
+    @Setup
+    public void setUp() {
+        this.tokenSecurity = TokenSecurity.getInstance();
+        this.token = this.tokenSecurity.generate(USER_ID, TokenSecurity.TimeUnit.YEAR, 1);
+    }
+
+    /**
+     * Creates a token without project.
+     *
+     * @return the token
+     */
+    @Benchmark
+    public String generate() {
+        return this.tokenSecurity.generate(USER_ID, TokenSecurity.TimeUnit.HOUR, 1);
+    }
+
+    /**
+     * Parses and checks the signature of a token.
+     *
+     * @return the claims of the token
+     */
+    @Benchmark
+    public Jws<Claims> getTokenInformation() {
+        return this.tokenSecurity.getTokenInformation(this.token);
+    }
+
+}
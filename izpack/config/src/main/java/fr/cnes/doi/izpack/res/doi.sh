@@ -3,7 +3,7 @@ case "$1" in
     start)
             echo -n "Starting DOI-server"
             cd ${INSTALL_PATH}
-            java -Dlog4j.configurationFile=./log4j2.xml -jar DOI-server.jar -f config.properties --start
+            java -Dlog4j.configurationFile=./log4j2.xml -Dcom.sun.jndi.ldap.connect.pool.timeout=300000 -jar DOI-server.jar -f config.properties --start
             ;;
    stop) 
           echo -n "Stopping DOI-server"
@@ -16,7 +16,7 @@ case "$1" in
           java -jar DOI-server.jar -f config.properties --stop
           echo -n "Starting SOI-server"
           cd ${INSTALL_PATH}
-          java -Dlog4j.configurationFile=./log4j2.xml -jar DOI-server.jar -f config.properties --start
+          java -Dlog4j.configurationFile=./log4j2.xml -Dcom.sun.jndi.ldap.connect.pool.timeout=300000 -jar DOI-server.jar -f config.properties --start
           ;;
    status)
           echo -n "Status DOI-server"
@@ -48,17 +48,22 @@ import fr.cnes.doi.client.ClientMDS;
 import fr.cnes.doi.exception.ClientMdsException;
 import fr.cnes.doi.logging.business.JsonMessage;
 import fr.cnes.doi.resource.admin.AuthenticateResource;
+import fr.cnes.doi.resource.admin.ClientMonitoringResource;
 import fr.cnes.doi.resource.admin.ManageProjectUsersResource;
 import fr.cnes.doi.resource.admin.ManageProjectsResource;
 import fr.cnes.doi.resource.admin.ManageSuperUserResource;
 import fr.cnes.doi.resource.admin.ManageSuperUsersResource;
 import fr.cnes.doi.resource.admin.ManageUsersResource;
+import fr.cnes.doi.resource.admin.MonitoringResource;
+import fr.cnes.doi.resource.admin.UsersMonitoringResource;
 import fr.cnes.doi.resource.admin.RedirectingResource;
 import fr.cnes.doi.resource.admin.SuffixProjectsDoisResource;
 import fr.cnes.doi.resource.admin.SuffixProjectsResource;
 import fr.cnes.doi.resource.admin.TokenResource;
 import fr.cnes.doi.security.AllowerIP;
 import fr.cnes.doi.services.DOIUsersUpdate;
+import fr.cnes.doi.services.DoiMonitoring;
+import fr.cnes.doi.services.LandingPageCheckPlanner;
 import fr.cnes.doi.services.LandingPageMonitoring;
 import fr.cnes.doi.services.UpdateTokenDataBase;
 import fr.cnes.doi.settings.Consts;
@@ -72,12 +77,14 @@ import fr.cnes.doi.utils.spec.Requirement;
  *
  * The administration application provides the following features:
  * <ul>
- * <li>An asynchronous task to check the availability of created landing pages 
- * each {@value #PERIOD_SCHEDULER_FOR_LANDINGPAGE} days</li>
+ * <li>An asynchronous task to check the availability of created landing pages
+ * (period in configuration file)</li>
  * <li>An asynchronous task to update users from auth services 
  * (period in configuration file)</li>
  * <li>An asynchronous task to check the expired tokens 
  * each {@value #PERIOD_SCHEDULER_FOR_TOKEN_DB} days</li>
+ * <li>An asynchronous task to refresh the cached DOI list
+ * (period in configuration file)</li>
  * <li>The form for creating DOI</li>
  * <li>The Datacite status page to check Datacite services availability</li>
  * <li>The Datacite stats page</li>
@@ -106,6 +113,9 @@ import fr.cnes.doi.utils.spec.Requirement;
  * |_ ____________<br>
  * |_|************|____ suffixProject (Get a random suffix - authorization)<br>
  * |_|IP_filtering|____ token (Create a token - authorization)<br>
+ * |_|            |____ monitoring (Latency statistics - authorization)<br>
+ * |_|            |____ monitoring/clients (Circuit breakers - authorization)<br>
+ * |_|            |____ monitoring/users (Users synchronization - authorization)<br>
  * |_|____________|____ token/{tokenID} (Get token information -
  * authorization)<br>
  *
@@ -202,6 +212,24 @@ public final class AdminApplication extends AbstractApplication {
      */
     public static final String TOKEN_NAME_URI = "/{" + TOKEN_TEMPLATE + "}";
 
+    /**
+     * URI {@value #MONITORING_URI} to get the latency statistics of the
+     * monitored features.
+     */
+    public static final String MONITORING_URI = "/monitoring";
+
+    /**
+     * URI {@value #CLIENTS_URI} to get the circuit breakers and the retries of
+     * the requests to the remote services.
+     */
+    public static final String CLIENTS_URI = "/clients";
+
+    /**
+     * URI {@value #USERS_SYNC_URI} to get the statistics of the
+     * synchronization of the users with the authentication system.
+     */
+    public static final String USERS_SYNC_URI = "/users";
+
     /**
      * URI {@value #IHM_URI} where the web site is located.
      */
@@ -217,11 +245,6 @@ public final class AdminApplication extends AbstractApplication {
      */
     private static final String IHM_CLASSPATH = "class/ihm";
 
-    /**
-     * The period between successive executions : {@value #PERIOD_SCHEDULER_FOR_LANDINGPAGE}.
-     */
-    private static final int PERIOD_SCHEDULER_FOR_LANDINGPAGE = 1;
-
     /**
      * The period between successive executions :
      * {@value #PERIOD_SCHEDULER_FOR_TOKEN_DB}.
@@ -238,13 +261,35 @@ public final class AdminApplication extends AbstractApplication {
      */
     private final ClientMDS client;
 
+    /**
+     * Speed monitoring of the applications.
+     */
+    private final DoiMonitoring monitoring;
+
+    /**
+     * Task updating the users of the database from the authentication system.
+     */
+    private final DOIUsersUpdate usersUpdate;
+
     /**
      * Constructor.
      * @param client Client MDS
      */
     public AdminApplication(final ClientMDS client) {
+        this(client, new DoiMonitoring());
+    }
+
+    /**
+     * Constructor.
+     * @param client Client MDS
+     * @param monitoring speed monitoring of the applications
+     */
+    public AdminApplication(final ClientMDS client, final DoiMonitoring monitoring) {
         super();
         this.client = client;
+        this.monitoring = monitoring;
+        this.usersUpdate = new DOIUsersUpdate(DoiSettings.getInstance().getInt(
+                Consts.DB_UPDATE_JOB_FULL_SYNC_PERIOD, DOIUsersUpdate.DEFAULT_FULL_SYNC_PERIOD));
         init();
     }
 
@@ -259,20 +304,22 @@ public final class AdminApplication extends AbstractApplication {
                 "Provides an application for handling features related to "
                         + "the administration system of the DOI server.");
 
-        // Create a pool executor with 3 tasks
-        ScheduledExecutorService executor = Executors.newScheduledThreadPool(3);
+        // Create a pool executor with 4 tasks
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(4);
 
         // 1 - Check landing pages
+        final int periodLandingPage = DoiSettings.getInstance().getInt(
+                Consts.LANDING_PAGE_PERIOD, LandingPageCheckPlanner.DEFAULT_PERIOD);
         LOG.info("Sets CheckLandingPage running at each {} {}",
-                PERIOD_SCHEDULER_FOR_LANDINGPAGE, PERIOD_UNIT);
+                periodLandingPage, TimeUnit.MINUTES);
         executor.scheduleAtFixedRate(new LandingPageMonitoring(this.client), 0,
-                PERIOD_SCHEDULER_FOR_LANDINGPAGE, PERIOD_UNIT);
+                periodLandingPage, TimeUnit.MINUTES);
 
         // 2 - Check users from auth service
         LOG.info("Sets UpdateDataBaseTask running at each {} {}",
                 DoiSettings.getInstance().getInt(Consts.DB_UPDATE_JOB_PERIOD),
                 TimeUnit.MINUTES);
-        executor.scheduleAtFixedRate(new DOIUsersUpdate(), 0,
+        executor.scheduleAtFixedRate(this.usersUpdate, 0,
                 DoiSettings.getInstance().getInt(Consts.DB_UPDATE_JOB_PERIOD),
                 TimeUnit.MINUTES);
 
@@ -282,6 +329,13 @@ public final class AdminApplication extends AbstractApplication {
         executor.scheduleAtFixedRate(new UpdateTokenDataBase(), 0,
                 PERIOD_SCHEDULER_FOR_TOKEN_DB, PERIOD_UNIT);
 
+        // 4 - Refresh the DOI catalogue
+        final int periodDoiCatalog = ClientMDS.getDoiCatalogRefreshPeriod();
+        LOG.info("Sets refreshDoiCatalog running at each {} {}",
+                periodDoiCatalog, TimeUnit.MINUTES);
+        executor.scheduleAtFixedRate(this::refreshDois, periodDoiCatalog,
+                periodDoiCatalog, TimeUnit.MINUTES);
+
         getMetadataService().addExtension("xsd", MediaType.TEXT_XML, true);
         LOG.traceExit();
     }
@@ -481,6 +535,10 @@ public final class AdminApplication extends AbstractApplication {
         router.attach(ROLE_USERS_URI, AuthenticateResource.class);
         router.attach(ROLE_ADMIN_URI, AuthenticateResource.class);
 
+        router.attach(MONITORING_URI, MonitoringResource.class);
+        router.attach(MONITORING_URI + CLIENTS_URI, ClientMonitoringResource.class);
+        router.attach(MONITORING_URI + USERS_SYNC_URI, UsersMonitoringResource.class);
+
         return LOG.traceExit(router);
     }
 
@@ -545,6 +603,25 @@ public final class AdminApplication extends AbstractApplication {
         return LOG;
     }
 
+    /**
+     * Returns the speed monitoring of the applications.
+     *
+     * @return the monitoring object
+     */
+    public DoiMonitoring getMonitoring() {
+        return this.monitoring;
+    }
+
+    /**
+     * Returns the task updating the users of the database from the
+     * authentication system.
+     *
+     * @return the users update task
+     */
+    public DOIUsersUpdate getUsersUpdate() {
+        return this.usersUpdate;
+    }
+
 
     /**
      * Returns only the dois within the specified project from the search
@@ -558,4 +635,18 @@ public final class AdminApplication extends AbstractApplication {
     public List<String> getDois(final String idProject) throws ClientMdsException {
         return this.client.getDois(idProject);
     }    
+
+    /**
+     * Refreshes the cached DOI catalogue. An error is only logged so that the
+     * next scheduled refresh happens.
+     */
+    private void refreshDois() {
+        LOG.traceEntry();
+        try {
+            this.client.refreshDois();
+        } catch (ClientMdsException | RuntimeException ex) {
+            LOG.error("Cannot refresh the DOI catalogue", ex);
+        }
+        LOG.traceExit();
+    }
 }
@@ -18,12 +18,19 @@
  */
 package fr.cnes.doi.application;
 
+import fr.cnes.doi.client.CitationCache;
+import fr.cnes.doi.client.CitationRenderer;
 import fr.cnes.doi.client.ClientCrossCiteCitation;
+import fr.cnes.doi.resource.citation.BibliographyCitationResource;
 import fr.cnes.doi.resource.citation.FormatCitationResource;
 import fr.cnes.doi.resource.citation.LanguageCitationResource;
 import fr.cnes.doi.resource.citation.StyleCitationResource;
 import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
 import fr.cnes.doi.utils.spec.Requirement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
@@ -68,6 +75,14 @@ import org.restlet.routing.Router;
  * |__ style<br>
  * |__ language<br>
  * |__ format<br>
+ * |__ bibliography<br>
+ * <p>
+ * <b>Cache</b><br>
+ * --------------<br>
+ * The style and locale lists are cached and refreshed in the background. The
+ * formatted citations are cached by DOI, style and language until the metadata
+ * of the DOI is updated. The responses carry an entity tag and a Cache-Control
+ * header.
  *
  * @see <a href="http://citation.crosscite.org/">Making a citation</a>
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
@@ -92,6 +107,11 @@ public final class DoiCrossCiteApplication extends AbstractApplication {
      * URI {@value #FORMAT_URI} to retrieves the citation.
      */
     public static final String FORMAT_URI = "/format";
+    /**
+     * URI {@value #BIBLIOGRAPHY_URI} to retrieves the citations of several
+     * DOIs in several styles.
+     */
+    public static final String BIBLIOGRAPHY_URI = "/bibliography";
     /**
      * Application name.
      */
@@ -107,6 +127,26 @@ public final class DoiCrossCiteApplication extends AbstractApplication {
      */
     private final ClientCrossCiteCitation client;
 
+    /**
+     * Cache of the styles, locales and formatted citations.
+     */
+    private final CitationCache citationCache;
+
+    /**
+     * Renderer of the citations of several DOIs.
+     */
+    private final CitationRenderer citationRenderer;
+
+    /**
+     * Period in minutes between two refreshes of the style and locale lists.
+     */
+    private final int listRefreshPeriod;
+
+    /**
+     * Thread refreshing the style and locale lists.
+     */
+    private final ScheduledExecutorService executor;
+
     /**
      * Constructs the application.
      */
@@ -142,6 +182,40 @@ public final class DoiCrossCiteApplication extends AbstractApplication {
         this.client = new ClientCrossCiteCitation(
                 ClientCrossCiteCitation.Context.valueOf(contextMode)
         );
+        final DoiSettings settings = DoiSettings.getInstance();
+        this.listRefreshPeriod = settings.getInt(Consts.CROSSCITE_LIST_REFRESH_PERIOD,
+                CitationCache.DEFAULT_LIST_REFRESH_PERIOD);
+        final int citationMaxAge = settings.getInt(Consts.CROSSCITE_CITATION_MAX_AGE,
+                CitationCache.DEFAULT_CITATION_MAX_AGE);
+        // a list older than two refresh periods is loaded again on request
+        this.citationCache = new CitationCache(this.client::getStyles,
+                this.client::getLanguages, this.client::getFormat,
+                2 * TimeUnit.MINUTES.toMillis(this.listRefreshPeriod),
+                settings.getInt(Consts.CROSSCITE_CITATION_CACHE_SIZE,
+                        CitationCache.DEFAULT_CITATION_CACHE_SIZE),
+                TimeUnit.MINUTES.toMillis(citationMaxAge));
+        this.citationRenderer = new CitationRenderer(
+                (doiName, style, language) -> this.citationCache.getFormat(doiName, style,
+                        language).getText(),
+                settings.getInt(Consts.CROSSCITE_BATCH_PARALLELISM,
+                        CitationRenderer.DEFAULT_PARALLELISM),
+                settings.getLong(Consts.CROSSCITE_BATCH_TIMEOUT,
+                        CitationRenderer.DEFAULT_TIMEOUT),
+                settings.getInt(Consts.CROSSCITE_BATCH_MAX_CITATIONS,
+                        CitationRenderer.DEFAULT_MAX_CITATIONS),
+                settings.getInt(Consts.CROSSCITE_BATCH_QUEUE_SIZE,
+                        CitationRenderer.DEFAULT_QUEUE_SIZE));
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "doi-crosscite-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (this.listRefreshPeriod > 0) {
+            LOG.info("Sets refreshCrossCiteLists running at each {} {}",
+                    this.listRefreshPeriod, TimeUnit.MINUTES);
+            this.executor.scheduleAtFixedRate(this.citationCache::refreshLists, 0,
+                    this.listRefreshPeriod, TimeUnit.MINUTES);
+        }
     }
 
     /**
@@ -154,6 +228,8 @@ public final class DoiCrossCiteApplication extends AbstractApplication {
      * different languages for a citation</li>
      * <li>{@link DoiCrossCiteApplication#FORMAT_URI} to access to the formatted
      * citation</li>
+     * <li>{@link DoiCrossCiteApplication#BIBLIOGRAPHY_URI} to access to the
+     * formatted citations of several DOIs</li>
      * </ul>
      *
      * @return router
@@ -186,6 +262,7 @@ public final class DoiCrossCiteApplication extends AbstractApplication {
         router.attach(STYLES_URI, StyleCitationResource.class);
         router.attach(LANGUAGE_URI, LanguageCitationResource.class);
         router.attach(FORMAT_URI, FormatCitationResource.class);
+        router.attach(BIBLIOGRAPHY_URI, BibliographyCitationResource.class);
         
         logContext.setNext(router);
 
@@ -201,6 +278,47 @@ public final class DoiCrossCiteApplication extends AbstractApplication {
         return this.client;
     }
 
+    /**
+     * Returns the cache of the styles, locales and formatted citations.
+     *
+     * @return the cache
+     */
+    public CitationCache getCitationCache() {
+        return this.citationCache;
+    }
+
+    /**
+     * Returns the renderer of the citations of several DOIs.
+     *
+     * @return the renderer
+     */
+    public CitationRenderer getCitationRenderer() {
+        return this.citationRenderer;
+    }
+
+    /**
+     * Returns the maximum age in seconds of the style and locale lists for the
+     * HTTP caches.
+     *
+     * @return the maximum age in seconds
+     */
+    public int getListMaxAge() {
+        return (int) TimeUnit.MINUTES.toSeconds(this.listRefreshPeriod);
+    }
+
+    /**
+     * Stops the refresh of the style and locale lists, the renderer and the
+     * application.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        this.executor.shutdownNow();
+        this.citationRenderer.shutdown();
+        super.stop();
+    }
+
     /**
      * Returns the logger.
      *
@@ -51,6 +51,7 @@ import fr.cnes.doi.resource.mds.MetadatasResource;
 import fr.cnes.doi.resource.mds.MetadatasValidatorResource;
 import fr.cnes.doi.security.TokenSecurity;
 import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.utils.MetadataCodec;
 import fr.cnes.doi.utils.spec.Requirement;
 import org.apache.logging.log4j.ThreadContext;
 import org.restlet.data.ClientInfo;
@@ -202,6 +203,8 @@ public final class DoiMdsApplication extends AbstractApplication {
                 + "</ul>");
         this.client = client;
         this.tokenDB = TokenSecurity.getInstance().getTokenDB();
+        // compiles the DataCite schema once at startup
+        MetadataCodec.getInstance();
     }
 
     /**
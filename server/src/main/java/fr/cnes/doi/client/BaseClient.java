@@ -18,19 +18,48 @@
  */
 package fr.cnes.doi.client;
 
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
 import fr.cnes.httpclient.HttpClient;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.logging.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restlet.Client;
 import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Restlet;
+import org.restlet.data.ChallengeResponse;
+import org.restlet.data.ChallengeScheme;
 import org.restlet.data.Parameter;
 import org.restlet.data.Protocol;
+import org.restlet.data.Reference;
+import org.restlet.ext.httpclient4.HttpDOIClientHelper;
 import org.restlet.resource.ClientResource;
 import org.restlet.util.Series;
 
 /**
- * Base client
+ * Base client.
+ *
+ * <p>
+ * The HTTP connector, and thus its pool of connections, is shared by all the
+ * requests of the client. A {@link ClientResource} is not thread-safe, so each
+ * request must be done on its own resource created by
+ * {@link #createClientResource(Reference)}.
+ *
+ * <p>
+ * The requests go through a {@link ResilienceFilter} : the idempotent requests
+ * are retried with an exponential backoff and the requests to a remote service
+ * fail fast while its {@link CircuitBreaker} is open.
  *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
@@ -41,20 +70,50 @@ public class BaseClient {
      */
     public static final int DATACITE_MOCKSERVER_PORT = 1080;
 
+    /**
+     * Default maximum number of connections of the pool
+     * {@value #DEFAULT_MAX_TOTAL_CONNECTIONS}.
+     */
+    public static final String DEFAULT_MAX_TOTAL_CONNECTIONS = "50";
+
+    /**
+     * Default maximum number of connections of the pool for a same host
+     * {@value #DEFAULT_MAX_CONNECTIONS_PER_HOST}.
+     */
+    public static final String DEFAULT_MAX_CONNECTIONS_PER_HOST = "20";
+
+    /**
+     * Default timeout in ms to get a connection, to connect and to wait for
+     * data {@value #DEFAULT_TIMEOUT}. The timeout of each attempt is also
+     * limited to the time remaining before the deadline of the request.
+     */
+    public static final String DEFAULT_TIMEOUT = "10000";
+
+    /**
+     * Default maximum number of asynchronous requests waiting for a thread
+     * {@value #DEFAULT_ASYNC_QUEUE_SIZE}.
+     */
+    public static final String DEFAULT_ASYNC_QUEUE_SIZE = "1000";
+
     /**
      * Logger.
      */
     private static final Logger LOG = LogManager.getLogger(BaseClient.class.getName());
 
     /**
-     * Number of retry when an error happens.
+     * HTTP connector shared by all the requests.
      */
-    private static final int NB_RETRY = 10;
+    private final Client httpClient;
 
     /**
-     * Delay between two {@link #NB_RETRY} in ms.
+     * Filter retrying the requests before the HTTP connector.
      */
-    private static final int NB_DELAY = 1000;
+    private volatile Restlet resilience;
+
+    /**
+     * Credentials sent with each request or null.
+     */
+    private volatile ChallengeResponse challengeResponse;
 
     /**
      * Client, which executes request.
@@ -67,28 +126,107 @@ public class BaseClient {
      * @param uri URI of the client's end point
      */
     public BaseClient(final String uri) {
-        this.client = new ClientResource(uri);
+        this.httpClient = new Client(new Context(), Protocol.HTTPS);
+        final Series<Parameter> parameters = this.httpClient.getContext().getParameters();
+        parameters.add(HttpClient.MAX_RETRY, "0");
+        parameters.add(HttpClient.CONNECTION_MAX_TOTAL, DoiSettings.getInstance().getString(
+                Consts.CLIENT_MAX_TOTAL_CONNECTIONS, DEFAULT_MAX_TOTAL_CONNECTIONS));
+        parameters.add(HttpClient.CONNECTION_MAX_PER_ROUTE, DoiSettings.getInstance().getString(
+                Consts.CLIENT_MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        parameters.add(HttpDOIClientHelper.SOCKET_TIMEOUT, DoiSettings.getInstance().getString(
+                Consts.CLIENT_TIMEOUT, DEFAULT_TIMEOUT));
+        this.resilience = new ResilienceFilter(this.httpClient.getContext(), this.httpClient,
+                RetryPolicy.fromSettings());
+        this.client = createClientResource(new Reference(uri));
         this.client.getLogger().setLevel(Level.OFF);
-        this.client.setLoggable(false);
-        this.client.setRetryOnError(true);
-        this.client.setRetryAttempts(NB_RETRY);
-        this.client.setRetryDelay(NB_DELAY);
-        final Client configureClient = new Client(new Context(), Protocol.HTTPS);
-        final Series<Parameter> parameters = configureClient.getContext().getParameters();
-        parameters.add(HttpClient.MAX_RETRY, String.valueOf(this.client.getRetryAttempts()));
-        parameters.add(HttpClient.RETRY_DELAY, String.valueOf(this.client.getRetryDelay()));
-        this.client.setNext(configureClient);
+    }
+
+    /**
+     * Creates a new resource for one request. The resource uses the shared HTTP
+     * connector through the {@link ResilienceFilter} and the credentials of
+     * this client.
+     *
+     * @param reference URI to request
+     * @return the client resource
+     */
+    public final ClientResource createClientResource(final Reference reference) {
+        final ClientResource resource = new ClientResource(reference);
+        resource.setLoggable(false);
+        resource.setRetryOnError(false);
+        if (this.challengeResponse != null) {
+            resource.setChallengeResponse(this.challengeResponse);
+        }
+        resource.setNext(this.resilience);
+        return resource;
+    }
+
+    /**
+     * Sets the credentials sent with each request.
+     *
+     * @param scheme authentication scheme
+     * @param login login
+     * @param pwd password
+     */
+    public final void setChallengeResponse(final ChallengeScheme scheme, final String login,
+            final String pwd) {
+        this.challengeResponse = new ChallengeResponse(scheme, login, pwd);
+        this.client.setChallengeResponse(this.challengeResponse);
     }
 
     /**
      * Returns the client.
      *
      * @return the client
+     * @deprecated the returned resource is shared and not thread-safe, use
+     * {@link #createClientResource(Reference)} for each request.
      */
+    @Deprecated
     public final ClientResource getClient() {
         return client;
     }
 
+    /**
+     * Returns the HTTP connector shared by all the requests.
+     *
+     * @return the HTTP connector
+     */
+    protected final Client getHttpClient() {
+        return this.httpClient;
+    }
+
+    /**
+     * Replaces the retry policy and the circuit breakers of the requests.
+     *
+     * @param policy retry policy
+     * @param breakers gives the circuit breaker of a request
+     */
+    protected final void setResilience(final RetryPolicy policy,
+            final Function<Request, CircuitBreaker> breakers) {
+        this.resilience = new ResilienceFilter(this.httpClient.getContext(), this.httpClient,
+                policy, breakers);
+        this.client.setNext(this.resilience);
+    }
+
+    /**
+     * Executes a request in a thread of the pool of asynchronous requests.
+     *
+     * @param <T> the type of the response
+     * @param call request to execute
+     * @return the future response, completed exceptionally by the exception of
+     * the request
+     * @throws RejectedExecutionException when too many asynchronous requests
+     * are waiting for a thread
+     */
+    protected final <T> CompletableFuture<T> supplyAsync(final Callable<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, AsyncExecutorHolder.EXECUTOR);
+    }
+
     /**
      * Returns the logger.
      *
@@ -98,4 +236,47 @@ public class BaseClient {
         return LOG;
     }
 
+    /**
+     * Creates the executor of the asynchronous requests. The requests exceeding
+     * the capacity of the queue are rejected.
+     *
+     * @param nbThreads number of threads
+     * @param queueSize maximum number of requests waiting for a thread
+     * @return the executor
+     */
+    static ExecutorService createAsyncExecutor(final int nbThreads, final int queueSize) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(nbThreads, nbThreads,
+                AsyncExecutorHolder.KEEP_ALIVE, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    final Thread thread = new Thread(runnable,
+                            "doi-client-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Threads executing the asynchronous requests. The pool has the size of
+     * the connection pool so that a thread never waits for a connection.
+     */
+    private static final class AsyncExecutorHolder {
+
+        /**
+         * Idle time in seconds before a thread is released.
+         */
+        private static final long KEEP_ALIVE = 60L;
+
+        /**
+         * Executor.
+         */
+        private static final ExecutorService EXECUTOR = createAsyncExecutor(
+                Integer.parseInt(DoiSettings.getInstance().getString(
+                        Consts.CLIENT_MAX_TOTAL_CONNECTIONS, DEFAULT_MAX_TOTAL_CONNECTIONS)),
+                Integer.parseInt(DoiSettings.getInstance().getString(
+                        Consts.CLIENT_ASYNC_QUEUE_SIZE, DEFAULT_ASYNC_QUEUE_SIZE)));
+    }
+
 }
@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.restlet.data.Status;
+
+/**
+ * Circuit breaker of a remote service.
+ *
+ * <p>
+ * After a number of consecutive failures, the breaker opens and the requests
+ * to the service fail fast without waiting for the service. After the open
+ * duration, one trial request is let through (half-open) : the breaker closes
+ * when it succeeds and opens again when it fails. A failure is a connector
+ * error, 502, 503 or 504 : the service is unreachable or overloaded. Any other
+ * response, 500 included, shows that the service answers.
+ *
+ * <p>
+ * There is one breaker by endpoint (scheme, host and port), shared by all the
+ * clients requesting it.
+ */
+public final class CircuitBreaker {
+
+    /**
+     * Default number of consecutive failures opening the breaker :
+     * {@value #DEFAULT_FAILURE_THRESHOLD}.
+     */
+    public static final String DEFAULT_FAILURE_THRESHOLD = "5";
+
+    /**
+     * Default duration in ms during which an open breaker fails fast :
+     * {@value #DEFAULT_OPEN_DURATION}.
+     */
+    public static final String DEFAULT_OPEN_DURATION = "30000";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(CircuitBreaker.class.getName());
+
+    /**
+     * Breakers by endpoint.
+     */
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    /**
+     * State of a breaker.
+     */
+    public enum State {
+        /**
+         * The requests are sent.
+         */
+        CLOSED,
+        /**
+         * The requests fail fast.
+         */
+        OPEN,
+        /**
+         * One trial request is sent.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Endpoint of the remote service.
+     */
+    private final String endpoint;
+
+    /**
+     * Number of consecutive failures opening the breaker, 0 to never open.
+     */
+    private final int failureThreshold;
+
+    /**
+     * Duration in ms during which an open breaker fails fast.
+     */
+    private final long openDuration;
+
+    /**
+     * Current state.
+     */
+    private State state = State.CLOSED;
+
+    /**
+     * Number of consecutive failures.
+     */
+    private int consecutiveFailures;
+
+    /**
+     * Opening time in ms since epoch.
+     */
+    private long openedAt;
+
+    /**
+     * True when the trial request of the half-open state is running.
+     */
+    private boolean isTrialRunning;
+
+    /**
+     * Number of sent requests.
+     */
+    private long nbCalls;
+
+    /**
+     * Number of failed requests.
+     */
+    private long nbFailures;
+
+    /**
+     * Number of retries.
+     */
+    private long nbRetries;
+
+    /**
+     * Number of requests rejected by the open breaker.
+     */
+    private long nbRejected;
+
+    /**
+     * Number of openings.
+     */
+    private long nbOpened;
+
+    /**
+     * Creates a breaker.
+     *
+     * @param endpoint endpoint of the remote service
+     * @param failureThreshold number of consecutive failures opening the
+     * breaker, 0 to never open
+     * @param openDuration duration in ms during which an open breaker fails
+     * fast
+     */
+    CircuitBreaker(final String endpoint, final int failureThreshold, final long openDuration) {
+        this.endpoint = endpoint;
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.openDuration = Math.max(0, openDuration);
+    }
+
+    /**
+     * Returns the breaker of an endpoint, created with the settings of the
+     * configuration file.
+     *
+     * @param endpoint endpoint of the remote service
+     * @return the breaker
+     */
+    public static CircuitBreaker getBreaker(final String endpoint) {
+        return BREAKERS.computeIfAbsent(endpoint, key -> {
+            final DoiSettings settings = DoiSettings.getInstance();
+            return new CircuitBreaker(key,
+                    settings.getInt(Consts.CLIENT_BREAKER_THRESHOLD, DEFAULT_FAILURE_THRESHOLD),
+                    settings.getLong(Consts.CLIENT_BREAKER_OPEN_DURATION, DEFAULT_OPEN_DURATION));
+        });
+    }
+
+    /**
+     * Returns the breaker of an endpoint, created with the given settings when
+     * it does not exist.
+     *
+     * @param endpoint endpoint of the remote service
+     * @param failureThreshold number of consecutive failures opening the
+     * breaker, 0 to never open
+     * @param openDuration duration in ms during which an open breaker fails
+     * fast
+     * @return the breaker
+     */
+    public static CircuitBreaker getBreaker(final String endpoint, final int failureThreshold,
+            final long openDuration) {
+        return BREAKERS.computeIfAbsent(endpoint,
+                key -> new CircuitBreaker(key, failureThreshold, openDuration));
+    }
+
+    /**
+     * Returns the breakers of all the endpoints.
+     *
+     * @return the breakers
+     */
+    public static List<CircuitBreaker> getBreakers() {
+        return new ArrayList<>(BREAKERS.values());
+    }
+
+    /**
+     * Tests if a status shows that the remote service is unreachable or
+     * overloaded.
+     *
+     * @param status status of a response
+     * @return True when the status is a failure of the service
+     */
+    public static boolean isFailure(final Status status) {
+        final int code = status.getCode();
+        return status.isConnectorError()
+                || code == Status.SERVER_ERROR_BAD_GATEWAY.getCode()
+                || code == Status.SERVER_ERROR_SERVICE_UNAVAILABLE.getCode()
+                || code == Status.SERVER_ERROR_GATEWAY_TIMEOUT.getCode();
+    }
+
+    /**
+     * Tests if a request can be sent and counts it.
+     *
+     * @param time current time in ms since epoch
+     * @return True when the request can be sent, False when it must fail fast
+     */
+    synchronized boolean tryAcquire(final long time) {
+        final boolean isAllowed;
+        if (this.state == State.OPEN && time - this.openedAt >= this.openDuration) {
+            this.state = State.HALF_OPEN;
+            this.isTrialRunning = false;
+        }
+        if (this.state == State.CLOSED) {
+            isAllowed = true;
+        } else if (this.state == State.HALF_OPEN && !this.isTrialRunning) {
+            this.isTrialRunning = true;
+            isAllowed = true;
+        } else {
+            isAllowed = false;
+        }
+        if (isAllowed) {
+            this.nbCalls++;
+        } else {
+            this.nbRejected++;
+        }
+        return isAllowed;
+    }
+
+    /**
+     * Records a response of the service.
+     */
+    synchronized void onSuccess() {
+        if (this.state != State.CLOSED) {
+            LOGGER.info("Circuit breaker of {} closed", this.endpoint);
+        }
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+        this.isTrialRunning = false;
+    }
+
+    /**
+     * Records a failure of the service.
+     *
+     * @param time current time in ms since epoch
+     */
+    synchronized void onFailure(final long time) {
+        this.nbFailures++;
+        this.consecutiveFailures++;
+        this.isTrialRunning = false;
+        if (this.failureThreshold > 0 && (this.state == State.HALF_OPEN
+                || this.consecutiveFailures >= this.failureThreshold)) {
+            if (this.state != State.OPEN) {
+                this.nbOpened++;
+                LOGGER.warn("Circuit breaker of {} opened after {} consecutive failures",
+                        this.endpoint, this.consecutiveFailures);
+            }
+            this.state = State.OPEN;
+            this.openedAt = time;
+        }
+    }
+
+    /**
+     * Counts a retry.
+     */
+    synchronized void onRetry() {
+        this.nbRetries++;
+    }
+
+    /**
+     * Returns the endpoint of the remote service.
+     *
+     * @return the endpoint
+     */
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    /**
+     * Returns the number of consecutive failures.
+     *
+     * @return the number of consecutive failures
+     */
+    public synchronized int getConsecutiveFailures() {
+        return this.consecutiveFailures;
+    }
+
+    /**
+     * Returns the number of sent requests, retries included.
+     *
+     * @return the number of sent requests
+     */
+    public synchronized long getNbCalls() {
+        return this.nbCalls;
+    }
+
+    /**
+     * Returns the number of failed requests.
+     *
+     * @return the number of failed requests
+     */
+    public synchronized long getNbFailures() {
+        return this.nbFailures;
+    }
+
+    /**
+     * Returns the number of retries.
+     *
+     * @return the number of retries
+     */
+    public synchronized long getNbRetries() {
+        return this.nbRetries;
+    }
+
+    /**
+     * Returns the number of requests rejected by the open breaker.
+     *
+     * @return the number of rejected requests
+     */
+    public synchronized long getNbRejected() {
+        return this.nbRejected;
+    }
+
+    /**
+     * Returns the number of openings.
+     *
+     * @return the number of openings
+     */
+    public synchronized long getNbOpened() {
+        return this.nbOpened;
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.exception.ClientCrossCiteException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache of the CrossCite styles, locales and formatted citations.
+ *
+ * <p>
+ * The style and locale lists change rarely : they are kept as immutable
+ * snapshots, loaded on the first request and refreshed in the background by
+ * {@link #refreshLists()}. When a refresh fails, the previous list is kept.
+ * The formatted citations are kept in a LRU cache by DOI, style and language
+ * and are removed by {@link #invalidate(java.lang.String)} when the metadata
+ * of the DOI is updated. A maximum age of 0 disables the cache.
+ */
+public final class CitationCache {
+
+    /**
+     * Default period in minutes between two refreshes of the style and locale
+     * lists : {@value #DEFAULT_LIST_REFRESH_PERIOD}.
+     */
+    public static final String DEFAULT_LIST_REFRESH_PERIOD = "1440";
+
+    /**
+     * Default maximum number of formatted citations in the cache :
+     * {@value #DEFAULT_CITATION_CACHE_SIZE}.
+     */
+    public static final String DEFAULT_CITATION_CACHE_SIZE = "1000";
+
+    /**
+     * Default maximum age in minutes of a formatted citation :
+     * {@value #DEFAULT_CITATION_MAX_AGE}.
+     */
+    public static final String DEFAULT_CITATION_MAX_AGE = "1440";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(CitationCache.class.getName());
+
+    /**
+     * Style list.
+     */
+    private final CachedList styles;
+
+    /**
+     * Locale list.
+     */
+    private final CachedList languages;
+
+    /**
+     * Formats the citations.
+     */
+    private final CitationLoader citationLoader;
+
+    /**
+     * Maximum number of formatted citations.
+     */
+    private final int maxEntries;
+
+    /**
+     * Maximum age of a formatted citation in milliseconds.
+     */
+    private final long maxAge;
+
+    /**
+     * Formatted citations in access order, guarded by itself.
+     */
+    private final Map<CitationKey, Citation> citations;
+
+    /**
+     * Number of invalidations, to not cache a citation formatted before an
+     * invalidation. Guarded by {@link #citations}.
+     */
+    private long nbInvalidations;
+
+    /**
+     * Creates a cache.
+     *
+     * @param stylesLoader loader of the style list
+     * @param languagesLoader loader of the locale list
+     * @param citationLoader loader of the formatted citations
+     * @param listMaxAge maximum age of the style and locale lists in
+     * milliseconds, after which a request loads them again
+     * @param maxEntries maximum number of formatted citations
+     * @param maxAge maximum age of a formatted citation in milliseconds
+     * @throws IllegalArgumentException if maxEntries is not strictly positive
+     * or a maximum age is negative
+     */
+    public CitationCache(final ListLoader stylesLoader, final ListLoader languagesLoader,
+            final CitationLoader citationLoader, final long listMaxAge, final int maxEntries,
+            final long maxAge) {
+        if (maxEntries <= 0 || listMaxAge < 0 || maxAge < 0) {
+            throw new IllegalArgumentException(
+                    "maxEntries must be > 0 and the maximum ages must be >= 0");
+        }
+        this.styles = new CachedList("styles", stylesLoader, listMaxAge);
+        this.languages = new CachedList("locales", languagesLoader, listMaxAge);
+        this.citationLoader = citationLoader;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.citations = new LinkedHashMap<CitationKey, Citation>(16, 0.75f, true) {
+            /**
+             * Serial number.
+             */
+            private static final long serialVersionUID = 1L;
+
+            /**
+             * Removes the least recently used citation when the cache is
+             * full.
+             *
+             * @param eldest least recently used citation
+             * @return True when the cache is full
+             */
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CitationKey, Citation> eldest) {
+                return size() > CitationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the style list.
+     *
+     * @return the style list
+     * @throws ClientCrossCiteException When the list is not loaded yet and
+     * cannot be loaded
+     */
+    public ListSnapshot getStyles() throws ClientCrossCiteException {
+        return this.styles.get();
+    }
+
+    /**
+     * Returns the locale list.
+     *
+     * @return the locale list
+     * @throws ClientCrossCiteException When the list is not loaded yet and
+     * cannot be loaded
+     */
+    public ListSnapshot getLanguages() throws ClientCrossCiteException {
+        return this.languages.get();
+    }
+
+    /**
+     * Loads the style and locale lists again. A list that cannot be loaded is
+     * kept.
+     */
+    public void refreshLists() {
+        LOGGER.traceEntry();
+        for (final CachedList list : new CachedList[]{this.styles, this.languages}) {
+            try {
+                list.refresh();
+            } catch (ClientCrossCiteException ex) {
+                LOGGER.catching(Level.WARN, ex);
+            }
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Returns the formatted citation of a DOI, from the cache when it is
+     * present and not too old.
+     *
+     * @param doiName DOI name
+     * @param style style of the citation
+     * @param language language of the citation
+     * @return the formatted citation
+     * @throws ClientCrossCiteException When the citation cannot be formatted
+     */
+    public Citation getFormat(final String doiName, final String style, final String language)
+            throws ClientCrossCiteException {
+        final CitationKey key = new CitationKey(doiName, style, language);
+        final long generation;
+        synchronized (this.citations) {
+            final Citation cached = this.citations.get(key);
+            if (cached != null
+                    && System.currentTimeMillis() - cached.getLoadTime() < this.maxAge) {
+                return cached;
+            }
+            generation = this.nbInvalidations;
+        }
+        final Citation citation = new Citation(
+                this.citationLoader.format(doiName, style, language), System.currentTimeMillis());
+        synchronized (this.citations) {
+            if (this.maxAge > 0 && generation == this.nbInvalidations) {
+                this.citations.put(key, citation);
+            }
+        }
+        return citation;
+    }
+
+    /**
+     * Removes the formatted citations of a DOI.
+     *
+     * @param doiName DOI name
+     */
+    public void invalidate(final String doiName) {
+        final String doi = CitationKey.normalize(doiName);
+        synchronized (this.citations) {
+            this.nbInvalidations++;
+            final Iterator<CitationKey> iter = this.citations.keySet().iterator();
+            while (iter.hasNext()) {
+                if (iter.next().doi.equals(doi)) {
+                    iter.remove();
+                }
+            }
+        }
+        LOGGER.debug("Citations of {} removed from the cache", doiName);
+    }
+
+    /**
+     * Returns the number of formatted citations in the cache.
+     *
+     * @return the number of formatted citations
+     */
+    public int getSize() {
+        synchronized (this.citations) {
+            return this.citations.size();
+        }
+    }
+
+    /**
+     * Loads a list from CrossCite.
+     */
+    @FunctionalInterface
+    public interface ListLoader {
+
+        /**
+         * Loads the list.
+         *
+         * @return the list
+         * @throws ClientCrossCiteException When the list cannot be loaded
+         */
+        List<String> load() throws ClientCrossCiteException;
+    }
+
+    /**
+     * Formats a citation with CrossCite.
+     */
+    @FunctionalInterface
+    public interface CitationLoader {
+
+        /**
+         * Formats a citation.
+         *
+         * @param doiName DOI name
+         * @param style style of the citation
+         * @param language language of the citation
+         * @return the formatted citation
+         * @throws ClientCrossCiteException When the citation cannot be
+         * formatted
+         */
+        String format(String doiName, String style, String language)
+                throws ClientCrossCiteException;
+    }
+
+    /**
+     * Immutable list with its entity tag.
+     */
+    public static final class ListSnapshot {
+
+        /**
+         * Values.
+         */
+        private final List<String> values;
+
+        /**
+         * Entity tag of the values.
+         */
+        private final String tag;
+
+        /**
+         * Loading date in milliseconds since epoch.
+         */
+        private final long loadTime;
+
+        /**
+         * Creates a snapshot.
+         *
+         * @param values values
+         * @param loadTime loading date in milliseconds since epoch
+         */
+        ListSnapshot(final List<String> values, final long loadTime) {
+            this.values = Collections.unmodifiableList(new ArrayList<>(values));
+            this.tag = DoiCatalog.computeTag(this.values);
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * Returns the values.
+         *
+         * @return the values
+         */
+        public List<String> getValues() {
+            return this.values;
+        }
+
+        /**
+         * Returns the entity tag of the values.
+         *
+         * @return the entity tag value
+         */
+        public String getTag() {
+            return this.tag;
+        }
+
+        /**
+         * Returns the loading date.
+         *
+         * @return the loading date in milliseconds since epoch
+         */
+        public long getLoadTime() {
+            return this.loadTime;
+        }
+    }
+
+    /**
+     * Formatted citation with its entity tag.
+     */
+    public static final class Citation {
+
+        /**
+         * Formatted citation.
+         */
+        private final String text;
+
+        /**
+         * Entity tag of the citation.
+         */
+        private final String tag;
+
+        /**
+         * Loading date in milliseconds since epoch.
+         */
+        private final long loadTime;
+
+        /**
+         * Creates a citation.
+         *
+         * @param text formatted citation
+         * @param loadTime loading date in milliseconds since epoch
+         */
+        Citation(final String text, final long loadTime) {
+            this.text = text;
+            this.tag = DoiCatalog.computeTag(Collections.singletonList(text));
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * Returns the formatted citation.
+         *
+         * @return the formatted citation
+         */
+        public String getText() {
+            return this.text;
+        }
+
+        /**
+         * Returns the entity tag of the citation.
+         *
+         * @return the entity tag value
+         */
+        public String getTag() {
+            return this.tag;
+        }
+
+        /**
+         * Returns the loading date.
+         *
+         * @return the loading date in milliseconds since epoch
+         */
+        public long getLoadTime() {
+            return this.loadTime;
+        }
+    }
+
+    /**
+     * List loaded on the first request and refreshed periodically.
+     */
+    private static final class CachedList {
+
+        /**
+         * Name of the list.
+         */
+        private final String name;
+
+        /**
+         * Loader of the list.
+         */
+        private final ListLoader loader;
+
+        /**
+         * Maximum age of the list in milliseconds.
+         */
+        private final long maxAge;
+
+        /**
+         * Lock to load only one list at a time.
+         */
+        private final Object loadLock = new Object();
+
+        /**
+         * Current snapshot or null when it is not loaded yet.
+         */
+        private volatile ListSnapshot snapshot;
+
+        /**
+         * Creates a list.
+         *
+         * @param name name of the list
+         * @param loader loader of the list
+         * @param maxAge maximum age of the list in milliseconds
+         */
+        CachedList(final String name, final ListLoader loader, final long maxAge) {
+            this.name = name;
+            this.loader = loader;
+            this.maxAge = maxAge;
+        }
+
+        /**
+         * Returns the list, loading it when it is missing or too old. A too
+         * old list is still returned when it cannot be loaded again.
+         *
+         * @return the list
+         * @throws ClientCrossCiteException When the list is not loaded yet and
+         * cannot be loaded
+         */
+        ListSnapshot get() throws ClientCrossCiteException {
+            ListSnapshot current = this.snapshot;
+            if (current == null || System.currentTimeMillis() - current.getLoadTime()
+                    >= this.maxAge) {
+                synchronized (this.loadLock) {
+                    current = this.snapshot;
+                    if (current == null || System.currentTimeMillis() - current.getLoadTime()
+                            >= this.maxAge) {
+                        current = load(current);
+                    }
+                }
+            }
+            return current;
+        }
+
+        /**
+         * Loads the list again.
+         *
+         * @throws ClientCrossCiteException When the list cannot be loaded
+         */
+        void refresh() throws ClientCrossCiteException {
+            synchronized (this.loadLock) {
+                final ListSnapshot result = new ListSnapshot(this.loader.load(),
+                        System.currentTimeMillis());
+                this.snapshot = result;
+                LOGGER.info("CrossCite {} loaded : {} values", this.name,
+                        result.getValues().size());
+            }
+        }
+
+        /**
+         * Loads the list, keeping the previous one when it cannot be loaded.
+         * Must be called with the lock held.
+         *
+         * @param previous previous list or null
+         * @return the loaded list or the previous one
+         * @throws ClientCrossCiteException When the list cannot be loaded and
+         * there is no previous one
+         */
+        private ListSnapshot load(final ListSnapshot previous) throws ClientCrossCiteException {
+            try {
+                refresh();
+                return this.snapshot;
+            } catch (ClientCrossCiteException ex) {
+                if (previous == null) {
+                    throw LOGGER.throwing(ex);
+                }
+                LOGGER.catching(Level.WARN, ex);
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * Key of a formatted citation.
+     */
+    private static final class CitationKey {
+
+        /**
+         * DOI name in upper case, DOI names being case insensitive.
+         */
+        private final String doi;
+
+        /**
+         * Style of the citation.
+         */
+        private final String style;
+
+        /**
+         * Language of the citation.
+         */
+        private final String language;
+
+        /**
+         * Creates a key.
+         *
+         * @param doi DOI name
+         * @param style style of the citation
+         * @param language language of the citation
+         */
+        CitationKey(final String doi, final String style, final String language) {
+            this.doi = normalize(doi);
+            this.style = style;
+            this.language = language;
+        }
+
+        /**
+         * Normalizes a DOI name.
+         *
+         * @param doi DOI name
+         * @return the DOI name in upper case
+         */
+        static String normalize(final String doi) {
+            return doi.toUpperCase(Locale.ROOT);
+        }
+
+        /**
+         * Tests the equality with another key.
+         *
+         * @param obj other object
+         * @return True when the DOI, the style and the language are equal
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CitationKey)) {
+                return false;
+            }
+            final CitationKey other = (CitationKey) obj;
+            return this.doi.equals(other.doi) && Objects.equals(this.style, other.style)
+                    && Objects.equals(this.language, other.language);
+        }
+
+        /**
+         * Returns the hash code.
+         *
+         * @return the hash code
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.doi, this.style, this.language);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.exception.ClientCrossCiteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Renders the citations of several DOIs in several styles concurrently.
+ *
+ * <p>
+ * The citations are formatted by a pool of threads, shared by all the
+ * batches, so that the number of concurrent requests to CrossCite is bounded
+ * whatever the number of batches. The citations waiting for a thread are
+ * queued in a bounded queue : a batch that does not fit in the queue is
+ * rejected. A batch must be formatted within a timeout starting when the
+ * batch is submitted; the citations not formatted at this deadline are
+ * cancelled. A citation in error or too long is returned with its error
+ * without failing the other citations.
+ */
+public final class CitationRenderer {
+
+    /**
+     * Default number of citations formatted in parallel :
+     * {@value #DEFAULT_PARALLELISM}.
+     */
+    public static final String DEFAULT_PARALLELISM = "8";
+
+    /**
+     * Default timeout in ms to format a batch : {@value #DEFAULT_TIMEOUT}.
+     */
+    public static final String DEFAULT_TIMEOUT = "10000";
+
+    /**
+     * Default maximum number of citations in a batch :
+     * {@value #DEFAULT_MAX_CITATIONS}.
+     */
+    public static final String DEFAULT_MAX_CITATIONS = "1000";
+
+    /**
+     * Default maximum number of citations waiting for a thread, for all the
+     * batches : {@value #DEFAULT_QUEUE_SIZE}.
+     */
+    public static final String DEFAULT_QUEUE_SIZE = "2000";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(CitationRenderer.class.getName());
+
+    /**
+     * Formats a citation.
+     */
+    private final CitationCache.CitationLoader loader;
+
+    /**
+     * Timeout in ms to format a batch.
+     */
+    private final long timeout;
+
+    /**
+     * Maximum number of citations in a batch.
+     */
+    private final int maxCitations;
+
+    /**
+     * Threads formatting the citations.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates a renderer whose queue holds one batch of the maximum size.
+     *
+     * @param loader formats a citation
+     * @param parallelism number of citations formatted in parallel
+     * @param timeout timeout in ms to format a batch
+     * @param maxCitations maximum number of citations in a batch
+     * @throws IllegalArgumentException if a parameter is not strictly positive
+     */
+    public CitationRenderer(final CitationCache.CitationLoader loader, final int parallelism,
+            final long timeout, final int maxCitations) {
+        this(loader, parallelism, timeout, maxCitations, maxCitations);
+    }
+
+    /**
+     * Creates a renderer.
+     *
+     * @param loader formats a citation
+     * @param parallelism number of citations formatted in parallel
+     * @param timeout timeout in ms to format a batch
+     * @param maxCitations maximum number of citations in a batch
+     * @param queueSize maximum number of citations waiting for a thread, for
+     * all the batches
+     * @throws IllegalArgumentException if a parameter is not strictly positive
+     */
+    public CitationRenderer(final CitationCache.CitationLoader loader, final int parallelism,
+            final long timeout, final int maxCitations, final int queueSize) {
+        if (parallelism <= 0 || timeout <= 0 || maxCitations <= 0 || queueSize <= 0) {
+            throw new IllegalArgumentException(
+                    "parallelism, timeout, maxCitations and queueSize must be > 0");
+        }
+        this.loader = loader;
+        this.timeout = timeout;
+        this.maxCitations = maxCitations;
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism,
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    final Thread thread = new Thread(runnable,
+                            "doi-citation-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Returns the maximum number of citations in a batch.
+     *
+     * @return the maximum number of citations
+     */
+    public int getMaxCitations() {
+        return this.maxCitations;
+    }
+
+    /**
+     * Formats the citations of each DOI in each style. The citations are
+     * returned in the order of the DOIs then of the styles.
+     *
+     * @param dois DOI names
+     * @param styles styles of the citations
+     * @param language language of the citations
+     * @return the citations
+     * @throws IllegalArgumentException if the batch has more than the maximum
+     * number of citations
+     * @throws RejectedExecutionException if the queue cannot hold the batch
+     * @throws InterruptedException if the current thread is interrupted while
+     * waiting for the citations
+     */
+    public List<Entry> render(final List<String> dois, final List<String> styles,
+            final String language) throws InterruptedException {
+        LOGGER.traceEntry("Parameters : {}, {} and {}", dois, styles, language);
+        if ((long) dois.size() * styles.size() > this.maxCitations) {
+            throw LOGGER.throwing(new IllegalArgumentException(
+                    "A batch cannot have more than " + this.maxCitations + " citations"));
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeout);
+        final List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (final String doi : dois) {
+                for (final String style : styles) {
+                    futures.add(this.executor.submit(() -> this.loader.format(doi, style,
+                            language)));
+                }
+            }
+            final List<Entry> entries = new ArrayList<>(futures.size());
+            int index = 0;
+            for (final String doi : dois) {
+                for (final String style : styles) {
+                    entries.add(toEntry(doi, style, futures.get(index++), deadline));
+                }
+            }
+            return LOGGER.traceExit(entries);
+        } catch (RejectedExecutionException ex) {
+            throw LOGGER.throwing(new RejectedExecutionException(
+                    "Too many citations are waiting to be formatted", ex));
+        } finally {
+            // releases the threads and the queue from the citations not formatted
+            for (final Future<String> future : futures) {
+                if (future.cancel(true)) {
+                    this.executor.remove((Runnable) future);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the threads.
+     */
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Waits for a citation until the deadline of the batch and converts it to
+     * an entry. A citation not formatted at the deadline is cancelled.
+     *
+     * @param doi DOI name
+     * @param style style of the citation
+     * @param future future citation
+     * @param deadline deadline of the batch as given by {@link System#nanoTime()}
+     * @return the entry
+     * @throws InterruptedException if the current thread is interrupted while
+     * waiting for the citation
+     */
+    private Entry toEntry(final String doi, final String style,
+            final Future<String> future, final long deadline) throws InterruptedException {
+        Entry entry;
+        try {
+            entry = new Entry(doi, style, future.get(Math.max(0, deadline - System.nanoTime()),
+                    TimeUnit.NANOSECONDS), null);
+        } catch (TimeoutException | CancellationException ex) {
+            future.cancel(true);
+            LOGGER.debug("No citation of {} in {} after {} ms", doi, style, this.timeout);
+            entry = new Entry(doi, style, null, "No citation after " + this.timeout + " ms");
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            final String error = cause instanceof ClientCrossCiteException
+                    ? ((ClientCrossCiteException) cause).getDetailMessage()
+                    : cause.getMessage();
+            LOGGER.debug("Cannot format the citation of {} in {} : {}", doi, style, error);
+            entry = new Entry(doi, style, null, error);
+        }
+        return entry;
+    }
+
+    /**
+     * Citation of a DOI in a style.
+     */
+    public static final class Entry {
+
+        /**
+         * DOI name.
+         */
+        private final String doi;
+
+        /**
+         * Style of the citation.
+         */
+        private final String style;
+
+        /**
+         * Formatted citation or null when there is an error.
+         */
+        private final String citation;
+
+        /**
+         * Error or null when the citation is formatted.
+         */
+        private final String error;
+
+        /**
+         * Creates an entry.
+         *
+         * @param doi DOI name
+         * @param style style of the citation
+         * @param citation formatted citation or null
+         * @param error error or null
+         */
+        Entry(final String doi, final String style, final String citation,
+                final String error) {
+            this.doi = doi;
+            this.style = style;
+            this.citation = citation;
+            this.error = error;
+        }
+
+        /**
+         * Returns the DOI name.
+         *
+         * @return the DOI name
+         */
+        public String getDoi() {
+            return this.doi;
+        }
+
+        /**
+         * Returns the style of the citation.
+         *
+         * @return the style
+         */
+        public String getStyle() {
+            return this.style;
+        }
+
+        /**
+         * Returns the formatted citation.
+         *
+         * @return the formatted citation or null when there is an error
+         */
+        public String getCitation() {
+            return this.citation;
+        }
+
+        /**
+         * Returns the error.
+         *
+         * @return the error or null when the citation is formatted
+         */
+        public String getError() {
+            return this.error;
+        }
+    }
+}
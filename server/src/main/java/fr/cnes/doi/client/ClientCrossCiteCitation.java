@@ -20,12 +20,14 @@ package fr.cnes.doi.client;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 import org.restlet.data.CharacterSet;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
 import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -37,6 +39,10 @@ import fr.cnes.doi.utils.spec.Requirement;
  * Client to query the citation service. This class queries
  * <a href="https://citation.crosscite.org/">CrossCite</a>.
  *
+ * <p>
+ * The client is stateless and thread-safe : each request uses its own
+ * {@link ClientResource} on the pooled HTTP connector of {@link BaseClient}.
+ *
  * @author Jean-Christophe Malapert (Jean-Christophe.malapert@cnes.fr)
  */
 @Requirement(reqId = Requirement.DOI_INTER_020, reqName = Requirement.DOI_INTER_020_NAME)
@@ -67,6 +73,11 @@ public class ClientCrossCiteCitation extends BaseClient {
      */
     public static final String FORMAT_URI = "format";
 
+    /**
+     * JSON parser of the lists, which is thread-safe once configured.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     /**
      * Context use.
      */
@@ -92,10 +103,13 @@ public class ClientCrossCiteCitation extends BaseClient {
     }
 
     /**
-     * Init the endpoint.
+     * Creates the URL to query.
+     *
+     * @param segment segment to add to the end point service
+     * @return the URL
      */
-    protected void init() {
-        this.getClient().setReference(new Reference(this.contextUse.getCrossCiteUrl()));
+    private Reference createReference(final String segment) {
+        return new Reference(this.contextUse.getCrossCiteUrl()).addSegment(segment);
     }
 
     /**
@@ -107,21 +121,19 @@ public class ClientCrossCiteCitation extends BaseClient {
      * CrossCite
      */
     private List<String> getList(final String segment) throws ClientCrossCiteException {
+        final ClientResource client = this.createClientResource(createReference(segment));
         try {
-            final Reference ref = getClient().addSegment(segment);
-            this.getClient().setReference(ref);
-            final Representation rep = this.getClient().get();
-            final Status status = this.getClient().getStatus();
+            final Representation rep = client.get();
+            final Status status = client.getStatus();
             if (status.isSuccess()) {
-                final ObjectMapper mapper = new ObjectMapper();
-                return mapper.readValue(rep.getStream(), List.class);
+                return MAPPER.readValue(rep.getStream(), List.class);
             } else {
                 throw new ClientCrossCiteException(status, status.getDescription());
             }
         } catch (IOException | ResourceException ex) {
             throw new ClientCrossCiteException(Status.SERVER_ERROR_INTERNAL, ex.getMessage(), ex);
         } finally {
-            this.getClient().release();
+            client.release();
         }
     }
 
@@ -133,7 +145,6 @@ public class ClientCrossCiteCitation extends BaseClient {
      * Exception when a problem happens during the request to Cross Cite
      */
     public List<String> getStyles() throws ClientCrossCiteException {
-        init();
         return getList(STYLE_URI);
     }
 
@@ -145,7 +156,6 @@ public class ClientCrossCiteCitation extends BaseClient {
      * Exception when a problem happens during the request to Cross Cite
      */
     public List<String> getLanguages() throws ClientCrossCiteException {
-        init();
         return getList(LOCALE_URI);
     }
 
@@ -162,16 +172,15 @@ public class ClientCrossCiteCitation extends BaseClient {
     public String getFormat(final String doiName,
             final String style,
             final String language) throws ClientCrossCiteException {
-        init();
+        final Reference ref = createReference(FORMAT_URI)
+                .addQueryParameter("doi", doiName)
+                .addQueryParameter("style", style)
+                .addQueryParameter("lang", language);
+        final ClientResource client = this.createClientResource(ref);
         final String result;
         try {
-            Reference ref = this.getClient().addSegment(FORMAT_URI);
-            ref = ref.addQueryParameter("doi", doiName);
-            ref = ref.addQueryParameter("style", style);
-            ref = ref.addQueryParameter("lang", language);
-            this.getClient().setReference(ref);
-            final Representation rep = this.getClient().get();
-            final Status status = this.getClient().getStatus();
+            final Representation rep = client.get();
+            final Status status = client.getStatus();
             if (status.isSuccess()) {
             	rep.setCharacterSet(CharacterSet.UTF_8);
                 result = rep.getText();
@@ -184,10 +193,26 @@ public class ClientCrossCiteCitation extends BaseClient {
         } catch (ResourceException ex) {
             throw new ClientCrossCiteException(ex.getStatus(), ex.getMessage(), ex);
         } finally {
-            this.getClient().release();
+            client.release();
         }
     }
 
+    /**
+     * Returns asynchronously the citation of a DOI based on the selected style
+     * and language.
+     *
+     * @param doiName DOI name
+     * @param style Selected style to format the citation
+     * @param language Selected language to format the citation
+     * @return the future formatted citation, completed exceptionally by a
+     * {@link ClientCrossCiteException} when an error happens
+     * @see #getFormat(java.lang.String, java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<String> getFormatAsync(final String doiName, final String style,
+            final String language) {
+        return this.supplyAsync(() -> this.getFormat(doiName, style, language));
+    }
+
     /**
      * Options for each context.
      */
@@ -18,86 +18,240 @@
  */
 package fr.cnes.doi.client;
 
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
 import fr.cnes.httpclient.HttpClient;
-import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import org.restlet.Client;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import org.restlet.data.Method;
 import org.restlet.data.Parameter;
+import org.restlet.data.Range;
+import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.ext.httpclient4.HttpDOIClientHelper;
 import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
 import org.restlet.util.Series;
 
 /**
  * Checks the status of the landing page.
  *
+ * <p>
+ * The landing pages are checked in parallel. Each landing page is first
+ * requested with HEAD. When HEAD fails, because some servers do not implement
+ * it, the landing page is requested with a GET limited to the first byte.
+ *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
 public class ClientLandingPage extends BaseClient {
 
+    /**
+     * Default number of landing pages checked in parallel
+     * {@value #DEFAULT_PARALLELISM}.
+     */
+    public static final String DEFAULT_PARALLELISM = "16";
+
+    /**
+     * Default timeout in ms of each request {@value #DEFAULT_TIMEOUT}.
+     */
+    public static final String DEFAULT_TIMEOUT = "10000";
+
     /**
      * DOI name resolver {@value #BASE_URI}.
      */
     private static final String BASE_URI = "http://doi.org";
 
+    /**
+     * Maximum number of redirections {@value #MAX_REDIRECTION}.
+     */
+    private static final int MAX_REDIRECTION = 5;
+
+    /**
+     * Maximum number of attempts of a request {@value #MAX_ATTEMPTS}.
+     */
+    private static final int MAX_ATTEMPTS = 2;
+
+    /**
+     * Delay in ms before a retry {@value #RETRY_DELAY}.
+     */
+    private static final int RETRY_DELAY = 500;
+
+    /**
+     * Name of the circuit breaker counting the requests to the landing pages
+     * {@value #BREAKER_NAME}.
+     */
+    private static final String BREAKER_NAME = "landing pages";
+
+    /**
+     * Number of checked landing pages between two progress logs
+     * {@value #PROGRESS_STEP}.
+     */
+    private static final int PROGRESS_STEP = 1000;
+
     /**
      * List of offline landing pages.
      */
     private final Map<String, Status> errors = new ConcurrentHashMap<>();
 
+    /**
+     * Number of landing pages checked in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * URI of the DOI name resolver.
+     */
+    private final String resolver;
+
     /**
      * Constructor
+     */
+    public ClientLandingPage() {
+        this(BASE_URI);
+    }
+
+    /**
+     * Constructor with a DOI name resolver.
+     *
+     * @param resolver URI of the DOI name resolver
+     */
+    ClientLandingPage(final String resolver) {
+        super(resolver);
+        this.resolver = resolver;
+        final DoiSettings settings = DoiSettings.getInstance();
+        this.parallelism = settings.getInt(Consts.LANDING_PAGE_PARALLELISM, DEFAULT_PARALLELISM);
+        final String timeout = settings.getString(Consts.LANDING_PAGE_TIMEOUT, DEFAULT_TIMEOUT);
+        final String maxPerHost = settings.getString(Consts.LANDING_PAGE_MAX_CONNECTIONS_PER_HOST,
+                String.valueOf(this.parallelism));
+        final Series<Parameter> parameters = this.getHttpClient().getContext().getParameters();
+        parameters.set(HttpClient.MAX_REDIRECTION, String.valueOf(MAX_REDIRECTION), false);
+        parameters.set(HttpClient.CONNECTION_MAX_TOTAL, String.valueOf(this.parallelism), false);
+        parameters.set(HttpClient.CONNECTION_MAX_PER_ROUTE, maxPerHost, false);
+        parameters.set(HttpDOIClientHelper.SOCKET_TIMEOUT, timeout, false);
+        // the landing pages are on many hosts, behind the DOI resolver : the
+        // breaker only counts the requests and retries and never opens
+        final CircuitBreaker breaker = CircuitBreaker.getBreaker(BREAKER_NAME, 0, 0);
+        this.setResilience(new RetryPolicy(MAX_ATTEMPTS, RETRY_DELAY, RETRY_DELAY,
+                MAX_ATTEMPTS * Long.parseLong(timeout)), request -> breaker);
+    }
+
+    /**
+     * Constructor checking the landing pages.
      *
      * @param dois List of DOIs to check
      */
     public ClientLandingPage(final List<String> dois) {
-        super(BASE_URI);
-        checkDoi(dois);
+        this();
+        checkDoi(dois, null);
     }
 
     /**
-     * Tests for each DOI if the landing page is online.
+     * Tests for each DOI if the landing page is online. Each landing page is
+     * given to the listener with its status as soon as it is checked.
      *
      * @param dois dois to check
+     * @param listener listener called, from the checking threads, for each
+     * checked landing page or null
      */
-    //TODO : check with Head before. If not implemented, check with get
-    private void checkDoi(final List<String> dois) {
+    public void checkDoi(final Collection<String> dois,
+            final BiConsumer<String, Status> listener) {
         this.getLog().traceEntry("Parameters\n\tdois : {}", dois);
-        this.getClient().setMaxRedirects(5);
-        this.getClient().setLoggable(true);
-        final Client configurationClient = (Client) this.getClient().getNext();
-        final Series<Parameter> parameters = configurationClient.getContext().getParameters();
-        parameters.add(HttpClient.MAX_REDIRECTION, String.
-                valueOf(this.getClient().getMaxRedirects()));
-        this.getLog().info("{} landing pages to check.", dois.size());
-        for (final String doi : dois) {
-            this.getClient().setReference(BASE_URI);
-            this.getClient().addSegment(doi);
-            this.getLog().info("Checking landing page {}", doi);
+        this.getLog().info("{} landing pages to check with {} threads.", dois.size(),
+                this.parallelism);
+        final AtomicInteger nbChecked = new AtomicInteger();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(this.parallelism,
+                runnable -> {
+                    final Thread thread = new Thread(runnable,
+                            "landing-page-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            final CompletableFuture<?>[] checks = dois.stream()
+                    .map(doi -> CompletableFuture.runAsync(() -> {
+                        checkLandingPage(doi, listener);
+                        final int nb = nbChecked.incrementAndGet();
+                        if (nb % PROGRESS_STEP == 0) {
+                            this.getLog().info("{} landing pages checked", nb);
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(checks).join();
+        } finally {
+            executor.shutdown();
+        }
+        this.getLog().info("{} landing pages checked, {} off-line", nbChecked.get(),
+                this.errors.size());
+        this.getLog().traceExit();
+    }
+
+    /**
+     * Checks a landing page with HEAD then with a ranged GET when HEAD fails.
+     *
+     * @param doi DOI
+     * @param listener listener called with the status of the landing page or
+     * null
+     */
+    private void checkLandingPage(final String doi, final BiConsumer<String, Status> listener) {
+        this.getLog().debug("Checking landing page {}", doi);
+        Status status = request(doi, Method.HEAD);
+        if (status.isError()) {
+            this.getLog().debug("HEAD on {} returns {}, checking with GET", doi, status);
+            status = request(doi, Method.GET);
+        }
+        if (status.isError()) {
+            this.getLog().error("Error for landing page {} : {}", doi, status);
+            this.errors.put(doi, status);
+        }
+        if (listener != null) {
             try {
-                final Representation rep = this.getClient().get();
-                rep.exhaust();
-                final Status status = this.getClient().getStatus();
-                if (status.isError()) {
-                    this.errors.put(doi, status);
-                    this.getLog().error("Error for landing page {}", doi);
-                } else {
-                    this.getLog().info("OK");
-                }
-            } catch (ResourceException ex) {
-                this.getLog().error("Checking landing pages", ex);
-                this.errors.put(doi, ex.getStatus());
-            } catch (IOException ex) {
-                this.getLog().error("Checking landing pages", ex);
-                this.errors.put(doi, new Status(Status.SERVER_ERROR_INTERNAL, ex));
-            } finally {
-                this.getClient().release();
+                listener.accept(doi, status);
+            } catch (RuntimeException ex) {
+                this.getLog().error("Cannot handle the status of the landing page " + doi, ex);
             }
         }
-        this.getLog().traceExit();
+    }
+
+    /**
+     * Requests the landing page of a DOI.
+     *
+     * @param doi DOI
+     * @param method HEAD or GET. The GET only asks for the first byte.
+     * @return the status of the response
+     */
+    private Status request(final String doi, final Method method) {
+        final ClientResource client = this.createClientResource(new Reference(this.resolver));
+        client.addSegment(doi);
+        client.setMaxRedirects(MAX_REDIRECTION);
+        Status status;
+        try {
+            final Representation rep;
+            if (Method.HEAD.equals(method)) {
+                rep = client.head();
+            } else {
+                client.setRanges(Collections.singletonList(new Range(0, 1)));
+                rep = client.get();
+            }
+            status = client.getStatus();
+            if (rep != null) {
+                rep.release();
+            }
+        } catch (ResourceException ex) {
+            status = ex.getStatus();
+        } finally {
+            client.release();
+        }
+        return status;
     }
 
     /**
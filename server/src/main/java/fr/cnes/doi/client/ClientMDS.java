@@ -18,15 +18,19 @@
  */
 package fr.cnes.doi.client;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 import javax.xml.bind.JAXBException;
@@ -44,12 +48,17 @@ import org.restlet.data.MediaType;
 import org.restlet.data.Parameter;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
-import org.restlet.ext.jaxb.JaxbRepresentation;
+import org.restlet.data.Tag;
+import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
+import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
 
 import fr.cnes.doi.exception.ClientMdsException;
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
+import fr.cnes.doi.utils.MetadataCodec;
 import fr.cnes.doi.utils.Utils;
 import fr.cnes.doi.utils.spec.Requirement;
 
@@ -123,6 +132,12 @@ public class ClientMDS extends BaseClient {
      */
     public static final String SCHEMA_DATACITE = "https://schema.datacite.org/meta/kernel-4-4/metadata.xsd";
 
+    /**
+     * Default period in minutes between two refreshes of the DOI catalogue
+     * {@value #DEFAULT_DOI_CATALOG_REFRESH_PERIOD}.
+     */
+    public static final String DEFAULT_DOI_CATALOG_REFRESH_PERIOD = "10";
+
     /**
      * DataCite recommends that only the following characters are used within a
      * DOI name:
@@ -156,6 +171,20 @@ public class ClientMDS extends BaseClient {
      * Context.
      */
     private final Context context;
+    /**
+     * Cached catalogue of the DOIs.
+     */
+    private final DoiCatalog doiCatalog;
+
+    /**
+     * Cached metadata by DOI.
+     */
+    private final MetadataCache metadataCache;
+
+    /**
+     * Listeners notified with the DOI name when its metadata is updated.
+     */
+    private final List<Consumer<String>> metadataListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Creates a client to handle DataCite server.
@@ -190,6 +219,29 @@ public class ClientMDS extends BaseClient {
         super(context.getDataCiteUrl());
         this.context = context;
         this.testMode = this.context.hasTestMode() ? TEST_MODE : null;
+        // a snapshot older than two refresh periods is loaded again on request
+        this.doiCatalog = new DoiCatalog(() -> this.getList(DOI_RESOURCE),
+                task -> this.supplyAsync(Executors.callable(task)),
+                2 * TimeUnit.MINUTES.toMillis(getDoiCatalogRefreshPeriod()));
+        final DoiSettings settings = DoiSettings.getInstance();
+        this.metadataCache = new MetadataCache(this::loadMetadata,
+                task -> this.supplyAsync(Executors.callable(task)),
+                settings.getInt(Consts.METADATA_CACHE_SIZE, MetadataCache.DEFAULT_CACHE_SIZE),
+                TimeUnit.MINUTES.toMillis(settings.getLong(Consts.METADATA_CACHE_MAX_AGE,
+                        MetadataCache.DEFAULT_MAX_AGE)),
+                TimeUnit.MINUTES.toMillis(settings.getLong(Consts.METADATA_CACHE_REVALIDATE_AGE,
+                        MetadataCache.DEFAULT_REVALIDATE_AGE)));
+    }
+
+    /**
+     * Returns the period in minutes between two refreshes of the DOI
+     * catalogue.
+     *
+     * @return the period in minutes
+     */
+    public static int getDoiCatalogRefreshPeriod() {
+        return DoiSettings.getInstance().getInt(Consts.DOI_CATALOG_REFRESH_PERIOD,
+                DEFAULT_DOI_CATALOG_REFRESH_PERIOD);
     }
 
     /**
@@ -224,7 +276,7 @@ public class ClientMDS extends BaseClient {
         this(context);
         this.getLog().debug("Authentication with HTTP_BASIC : {}/{}",
                 login, Utils.transformPasswordToStars(pwd));
-        this.getClient().setChallengeResponse(ChallengeScheme.HTTP_BASIC, login, pwd);
+        this.setChallengeResponse(ChallengeScheme.HTTP_BASIC, login, pwd);
     }
 
     /**
@@ -240,7 +292,7 @@ public class ClientMDS extends BaseClient {
         this(Context.PROD);
         this.getLog().debug("Authentication with HTTP_BASIC : {}/{}",
                 login, Utils.transformPasswordToStars(pwd));
-        this.getClient().setChallengeResponse(ChallengeScheme.HTTP_BASIC, login, pwd);
+        this.setChallengeResponse(ChallengeScheme.HTTP_BASIC, login, pwd);
     }
 
     /**
@@ -271,22 +323,15 @@ public class ClientMDS extends BaseClient {
     }
 
     /**
-     * Init the client to the reference {@link #DATA_CITE_URL} or
-     * {@link #DATA_CITE_TEST_URL}
-     */
-    private void initReference() {
-        this.getClient().setReference(this.context.getDataCiteUrl());
-    }
-
-    /**
-     * Create reference. The parameter ?testMode=true is added in DEV context
+     * Create reference from {@link #DATA_CITE_URL} or
+     * {@link #DATA_CITE_TEST_URL}. The parameter ?testMode=true is added in DEV
+     * context
      *
      * @param segment segment to add to the end point
      * @return new URL
      */
     private Reference createReference(final String segment) {
-        this.initReference();
-        Reference url = this.getClient().addSegment(segment);
+        Reference url = new Reference(this.context.getDataCiteUrl()).addSegment(segment);
         if (this.getTestMode() != null) {
             url = url.addQueryParameter(this.getTestMode());
         }
@@ -375,11 +420,10 @@ public class ClientMDS extends BaseClient {
      * CrossCite
      */
     private List<String> getList(final String segment) throws ClientMdsException {
+        final ClientResource client = this.createClientResource(this.createReference(segment));
         try {
-            final Reference ref = this.createReference(segment);
-            this.getClient().setReference(ref);
-            final Representation rep = this.getClient().get();
-            final Status status = this.getClient().getStatus();
+            final Representation rep = client.get();
+            final Status status = client.getStatus();
             if (status.isSuccess()) {
                 final String result = rep.getText();
                 return Arrays.asList(result.split("\n"));
@@ -389,7 +433,7 @@ public class ClientMDS extends BaseClient {
         } catch (IOException | ResourceException ex) {
             throw new ClientMdsException(Status.SERVER_ERROR_INTERNAL, ex.getMessage(), ex);
         } finally {
-            this.getClient().release();
+            client.release();
         }
     }    
 
@@ -415,41 +459,133 @@ public class ClientMDS extends BaseClient {
         final Reference url = createReferenceWithDOI(DOI_RESOURCE, doiName);
         this.getLog().info("GET {0}", url.toString());
 
-        this.getClient().setReference(url);
+        final ClientResource client = this.createClientResource(url);
         Representation rep;
         try {
-            rep = this.getClient().get();
+            rep = client.get();
             return (rep == null) ? "" : this.getText(rep);
         } catch (ResourceException ex) {
-            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), this.getClient().
-                    getResponseEntity(), ex);
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(),
+                    client.getResponseEntity(), ex);
         } finally {
-            this.getClient().release();
+            client.release();
         }
     }
+
+    /**
+     * Returns asynchronously the URL associated with a given DOI.
+     *
+     * @param doiName DOI name
+     * @return the future URL, completed exceptionally by a
+     * {@link ClientMdsException} when an error happens
+     * @see #getDoi(java.lang.String)
+     */
+    public CompletableFuture<String> getDoiAsync(final String doiName) {
+        return this.supplyAsync(() -> this.getDoi(doiName));
+    }
     
+    /**
+     * Returns the list of all DOIs from the DOI catalogue.
+     *
+     * @return the DOI names
+     * @throws fr.cnes.doi.exception.ClientMdsException When an error happens
+     * with Datacite
+     * @see #getDoiSnapshot()
+     */
     public List<String> getDois() throws ClientMdsException {
-        return getList(DOI_RESOURCE);
+        return this.doiCatalog.getSnapshot().getDois();
     }
-    
+
     /**
-     * Returns only the dois within the specified project from the search
-     * result.
+     * Returns only the dois within the specified project from the DOI
+     * catalogue. The project suffix is the second segment of the DOI name.
      *
      * @param idProject project ID
-     * @return the search result
+     * @return the DOI names of the project
      * @throws fr.cnes.doi.exception.ClientMdsException When an error happens 
      * with Datacite
      */
     public List<String> getDois(final String idProject) throws ClientMdsException {
-        final List<String> doiListFiltered = new ArrayList<>();
-        for (final String doi : this.getDois()) {
-            if (doi.contains(idProject)) {
-                doiListFiltered.add(doi);
-            }
+        return this.doiCatalog.getSnapshot().getDois(idProject);
+    }
+
+    /**
+     * Requests the DOI list to DataCite and returns it as a stream, bypassing
+     * the DOI catalogue. The DOIs are copied from DataCite to the client as
+     * they arrive, so that the memory used does not depend on the number of
+     * DOIs. The returned representation must be written or released.
+     *
+     * @param projectSuffix project suffix of the returned DOIs or null to
+     * return all of them
+     * @return the DOI list as text/uri-list or null when DataCite has no DOI
+     * @throws fr.cnes.doi.exception.ClientMdsException When an error happens
+     * with Datacite
+     */
+    public Representation getDoisAsStream(final String projectSuffix)
+            throws ClientMdsException {
+        final ClientResource client = this.createClientResource(
+                this.createReference(DOI_RESOURCE));
+        final Representation rep;
+        try {
+            rep = client.get();
+        } catch (ResourceException ex) {
+            client.release();
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), ex);
         }
-        return Collections.unmodifiableList(doiListFiltered);
-    }    
+        final Representation result;
+        if (rep == null || !rep.isAvailable()
+                || client.getStatus().equals(Status.SUCCESS_NO_CONTENT)) {
+            client.release();
+            result = null;
+        } else {
+            result = new DoiListRepresentation(rep, client, projectSuffix);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the current snapshot of the DOI catalogue. The DOI list is
+     * requested to DataCite only when the snapshot is missing, stale or too
+     * old.
+     *
+     * @return the snapshot
+     * @throws fr.cnes.doi.exception.ClientMdsException When an error happens
+     * with Datacite
+     */
+    public DoiCatalog.Snapshot getDoiSnapshot() throws ClientMdsException {
+        return this.doiCatalog.getSnapshot();
+    }
+
+    /**
+     * Requests the DOI list to DataCite and refreshes the DOI catalogue.
+     *
+     * @throws fr.cnes.doi.exception.ClientMdsException When an error happens
+     * with Datacite
+     */
+    public void refreshDois() throws ClientMdsException {
+        this.doiCatalog.refresh();
+    }
+
+    /**
+     * Adds a listener notified with the DOI name when the metadata of a DOI is
+     * created, updated or deleted through this client.
+     *
+     * @param listener listener
+     */
+    public void addMetadataListener(final Consumer<String> listener) {
+        this.metadataListeners.add(listener);
+    }
+
+    /**
+     * Notifies the listeners that the metadata of a DOI has changed.
+     *
+     * @param doiName DOI name
+     */
+    private void fireMetadataChanged(final String doiName) {
+        for (final Consumer<String> listener : this.metadataListeners) {
+            listener.accept(doiName);
+        }
+    }
 
     /**
      * Will mint new DOI if specified DOI doesn't exist.
@@ -476,40 +612,56 @@ public class ClientMDS extends BaseClient {
      * @see "https://mds.datacite.org/static/apidoc#tocAnchor-15"
      */
     public String createDoi(final Form form) throws ClientMdsException {
+        this.checkInputForm(form);
+        final Reference url = createReference(DOI_RESOURCE+"/"+form.getFirstValue(POST_DOI));
+        this.getLog().debug("PUT {0}", url.toString());
+        final ClientResource client = this.createClientResource(url);
         try {
-            this.checkInputForm(form);
-            final Reference url = createReference(DOI_RESOURCE+"/"+form.getFirstValue(POST_DOI));
-            this.getLog().debug("PUT {0}", url.toString());
-            final Representation rep = createRequest(url, form);
-            return getText(rep);
+            final Representation rep = createRequest(client, form);
+            final String result = getText(rep);
+            this.doiCatalog.add(form.getFirstValue(POST_DOI));
+            return result;
         } catch (ResourceException ex) {
-            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), this.getClient().
-                    getResponseEntity(), ex);
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(),
+                    client.getResponseEntity(), ex);
         } finally {
-            this.getClient().release();
+            client.release();
         }
     }
 
+    /**
+     * Mints asynchronously a new DOI.
+     *
+     * @param form A form with the following attributes doi and url
+     * @return the future short explanation of status code, completed
+     * exceptionally by a {@link ClientMdsException} or an
+     * {@link IllegalArgumentException} when an error happens
+     * @see #createDoi(org.restlet.data.Form)
+     */
+    public CompletableFuture<String> createDoiAsync(final Form form) {
+        return this.supplyAsync(() -> this.createDoi(form));
+    }
+
     /**
      * Creates the request and requests the DOI creation
      *
-     * @param url url
+     * @param client client resource of the request
      * @param form form
      * @return representation of the response
      */
-    private Representation createRequest(final Reference url, final Form form) {
-        this.getClient().setReference(url);
+    private Representation createRequest(final ClientResource client, final Form form) {
+        final Reference url = client.getReference();
         String requestBody = POST_DOI + "=" + form.getFirstValue(POST_DOI) + "\n"
                 + POST_URL + "=" + form.getFirstValue(POST_URL);
         requestBody = new String(requestBody.getBytes(
                 StandardCharsets.UTF_8),
                 StandardCharsets.UTF_8
         );
-        final Map<String, Object> requestAttributes = this.getClient().getRequestAttributes();
+        final Map<String, Object> requestAttributes = client.getRequestAttributes();
         requestAttributes.put("charset", StandardCharsets.UTF_8);
         requestAttributes.put("Content-Type", "text/plain");
         this.getLog().info("PUT {} with parameters {}", url, requestBody);
-        return this.getClient().put(requestBody, MediaType.TEXT_PLAIN);
+        return client.put(requestBody, MediaType.TEXT_PLAIN);
     }
 
     /**
@@ -520,12 +672,11 @@ public class ClientMDS extends BaseClient {
      * @throws ClientMdsException Will throw when a problem happens during the
      * parsing
      */
-    private synchronized Resource parseDataciteResource(final Representation rep) throws
+    private Resource parseDataciteResource(final Representation rep) throws
             ClientMdsException {
-        final JaxbRepresentation<Resource> resource = new JaxbRepresentation<>(rep, Resource.class);
         try {
-            return resource.getObject();
-        } catch (IOException ex) {
+            return MetadataCodec.getInstance().unmarshal(rep.getStream(), null);
+        } catch (IOException | JAXBException ex) {
             throw new ClientMdsException(Status.SERVER_ERROR_INTERNAL, ex);
         }
     }
@@ -556,7 +707,8 @@ public class ClientMDS extends BaseClient {
     /**
      * Returns the metadata based on its DOI name. A status of 200 is an
      * operation successful. The DOI prefix may replace according to the
-     * {@link ClientMDS#context}.
+     * {@link ClientMDS#context}. The metadata comes from the metadata cache
+     * when it is present, and is tagged with its content hash.
      *
      * @param doiName DOI name
      * @return the metadata as XML
@@ -574,19 +726,69 @@ public class ClientMDS extends BaseClient {
      * @see "https://mds.datacite.org/static/apidoc#tocAnchor-15"
      */
     public Representation getMetadata(final String doiName) throws ClientMdsException {
+        final MetadataCache.Metadata metadata = this.getCachedMetadata(doiName);
+        final Representation rep = new ByteArrayRepresentation(metadata.getXml(),
+                MediaType.APPLICATION_XML);
+        rep.setCharacterSet(CharacterSet.UTF_8);
+        rep.setTag(new Tag(metadata.getTag(), false));
+        return rep;
+    }
+
+    /**
+     * Returns the metadata based on its DOI name from the metadata cache,
+     * which requests DataCite when the metadata is missing or too old.
+     *
+     * @param doiName DOI name
+     * @return the raw XML of the metadata and its entity tag
+     * @throws ClientMdsException - if an error happens
+     * @see #getMetadata(java.lang.String)
+     */
+    public MetadataCache.Metadata getCachedMetadata(final String doiName)
+            throws ClientMdsException {
+        return this.metadataCache.get(doiName);
+    }
+
+    /**
+     * Requests the metadata of a DOI to DataCite.
+     *
+     * @param doiName DOI name
+     * @return the XML of the metadata
+     * @throws ClientMdsException - if an error happens
+     */
+    private byte[] loadMetadata(final String doiName) throws ClientMdsException {
         final Reference url = createReferenceWithDOI(METADATA_RESOURCE, doiName);
-        this.getLog().debug("GET {}", url.toString());
-        this.getClient().setReference(url);
+        final ClientResource client = this.createClientResource(url);
         this.getLog().info("GET {}", url);
         try {
-            return this.getClient().get(MediaType.APPLICATION_XML);
+            final Representation rep = client.get(MediaType.APPLICATION_XML);
+            final ByteArrayOutputStream xml = new ByteArrayOutputStream();
+            if (rep != null) {
+                rep.write(xml);
+            }
+            return xml.toByteArray();
         } catch (ResourceException ex) {
-            this.getClient().release();
-            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), this.getClient().
-                    getResponseEntity(), ex);
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(),
+                    client.getResponseEntity(), ex);
+        } catch (IOException ex) {
+            throw new ClientMdsException(Status.SERVER_ERROR_INTERNAL, ex);
+        } finally {
+            client.release();
         }
     }
 
+    /**
+     * Returns asynchronously the metadata based on its DOI name. The metadata
+     * is fully read before the future is completed.
+     *
+     * @param doiName DOI name
+     * @return the future metadata as XML, completed exceptionally by a
+     * {@link ClientMdsException} when an error happens
+     * @see #getMetadata(java.lang.String)
+     */
+    public CompletableFuture<String> getMetadataAsync(final String doiName) {
+        return this.supplyAsync(() -> this.getText(this.getMetadata(doiName)));
+    }
+
     /**
      * This request stores new version of metadata. Creates metadata with 201
      * status when operation successful. The DOI prefix may replace according to
@@ -613,8 +815,6 @@ public class ClientMDS extends BaseClient {
      * Creates metadata with 201 status when operation successful. The DOI
      * prefix may replace according to the {@link ClientMDS#context}.
      *
-     * The method is synchronized because marshall method is not thread-safe.
-     *
      * @param entity Metadata
      * @return short explanation of status code e.g. CREATED,
      * HANDLE_ALREADY_EXISTS etc
@@ -628,47 +828,65 @@ public class ClientMDS extends BaseClient {
      * @see "https://mds.datacite.org/static/apidoc#tocAnchor-18"
      */
     public String createMetadata(final Resource entity) throws ClientMdsException {
+        ClientResource client = null;
         try {
             final Identifier identifier = entity.getIdentifier();
-            identifier.setValue(getDoiAccorgindToContext(identifier.getValue()));
+            final String doiName = identifier.getValue();
+            identifier.setValue(getDoiAccorgindToContext(doiName));
             final Reference url = createReference(METADATA_RESOURCE+"/"+identifier.getValue());
             this.getLog().debug("PUT {}", url.toString());
-            final JaxbRepresentation<Resource> result = new JaxbRepresentation<>(entity);
-            result.setCharacterSet(CharacterSet.UTF_8);
-            result.setMediaType(MediaType.APPLICATION_XML);
-            this.getClient().setReference(url);
-            this.getClient().getRequestAttributes().put("Content-Type", "application/xml");
-            this.getClient().getRequestAttributes().put("charset", "UTF-8");
-            this.getClient().setMethod(null);
-            final Representation response = this.getClient().put(result);
-            return getText(response);
+            final String xml = MetadataCodec.getInstance().marshal(entity);
+            final Representation result = new StringRepresentation(xml,
+                    MediaType.APPLICATION_XML, null, CharacterSet.UTF_8);
+            client = this.createClientResource(url);
+            client.getRequestAttributes().put("Content-Type", "application/xml");
+            client.getRequestAttributes().put("charset", "UTF-8");
+            final Representation response = client.put(result);
+            final String text = getText(response);
+            this.doiCatalog.refreshInBackground();
+            // DataCite may complete the metadata : they are loaded again on request
+            this.metadataCache.invalidate(doiName);
+            fireMetadataChanged(doiName);
+            return text;
         } catch (ResourceException ex) {
-            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), this.getClient().
-                    getResponseEntity(), ex);
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(),
+                    client == null ? null : client.getResponseEntity(), ex);
+        } catch (JAXBException ex) {
+            throw new ClientMdsException(Status.SERVER_ERROR_INTERNAL, ex);
         } finally {
-            this.getClient().release();
+            if (client != null) {
+                client.release();
+            }
         }
     }
 
     /**
-     * Parses the metadata and returns the Resource object from DataCite.
+     * Creates asynchronously metadata.
      *
-     * The method is synchronized because unmarshall method is not thread-safe.
+     * @param entity Metadata
+     * @return the future short explanation of status code, completed
+     * exceptionally by a {@link ClientMdsException} when an error happens
+     * @see #createMetadata(org.datacite.schema.kernel_4.Resource)
+     */
+    public CompletableFuture<String> createMetadataAsync(final Resource entity) {
+        return this.supplyAsync(() -> this.createMetadata(entity));
+    }
+
+    /**
+     * Parses the metadata and returns the Resource object from DataCite.
      *
      * @param entity metadata
      * @return the Resource object from DataCite
      * @throws ValidationException When validation failed
      */
-    public synchronized Resource parseMetadata(final Representation entity) throws
+    public Resource parseMetadata(final Representation entity) throws
             ValidationException {
 
         try {
-            final JaxbRepresentation<Resource> resourceEntity = new JaxbRepresentation<>(entity,
-                    Resource.class);
-            final MyValidationEventHandler validationHandler = new MyValidationEventHandler(this.
-                    getClient().getLogger());
-            resourceEntity.setValidationEventHandler(validationHandler);
-            final Resource resource = resourceEntity.getObject();
+            final MyValidationEventHandler validationHandler = new MyValidationEventHandler(
+                    java.util.logging.Logger.getLogger(ClientMDS.class.getName()));
+            final Resource resource = MetadataCodec.getInstance().unmarshal(entity.getStream(),
+                    validationHandler);
             if (validationHandler.isValid()) {
                 return resource;
             } else {
@@ -725,13 +943,16 @@ public class ClientMDS extends BaseClient {
     public Representation deleteMetadata(final String doiName) throws ClientMdsException {
         final Reference url = createReferenceWithDOI(METADATA_RESOURCE, doiName);
         this.getLog().debug("DELETE {}", url.toString());
-        this.getClient().setReference(url);
+        final ClientResource client = this.createClientResource(url);
         try {
-            return this.getClient().delete();
+            final Representation result = client.delete();
+            this.metadataCache.invalidate(doiName);
+            fireMetadataChanged(doiName);
+            return result;
         } catch (ResourceException ex) {
-            this.getClient().release();
-            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), this.getClient().
-                    getResponseEntity(), ex);
+            client.release();
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(),
+                    client.getResponseEntity(), ex);
         }
     }
 
@@ -756,16 +977,16 @@ public class ClientMDS extends BaseClient {
         final String result;
         final Reference url = createReferenceWithDOI(MEDIA_RESOURCE, doiName);
         this.getLog().debug("GET {}", url.toString());
-        this.getClient().setReference(url);
+        final ClientResource client = this.createClientResource(url);
         try {
-            final Representation response = this.getClient().get();
+            final Representation response = client.get();
             result = this.getText(response);
             return result;
         } catch (ResourceException ex) {
-            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), this.getClient().
-                    getResponseEntity(), ex);
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(),
+                    client.getResponseEntity(), ex);
         } finally {
-            this.getClient().release();
+            client.release();
         }
     }
 
@@ -795,20 +1016,33 @@ public class ClientMDS extends BaseClient {
         final String result;
         final Reference url = createReferenceWithDOI(MEDIA_RESOURCE, doiName);
         this.getLog().debug("POST {}", url.toString());
-        this.getClient().setReference(url);
+        final ClientResource client = this.createClientResource(url);
         final Representation entity = createEntity(form);
         try {
-            final Representation response = this.getClient().post(entity, MediaType.TEXT_PLAIN);
+            final Representation response = client.post(entity, MediaType.TEXT_PLAIN);
             result = this.getText(response);
             return result;
         } catch (ResourceException ex) {
-            throw new ClientMdsException(ex.getStatus(), ex.getMessage(), this.getClient().
-                    getResponseEntity(), ex);
+            throw new ClientMdsException(ex.getStatus(), ex.getMessage(),
+                    client.getResponseEntity(), ex);
         } finally {
-            this.getClient().release();
+            client.release();
         }
     }
 
+    /**
+     * Adds/updates asynchronously media type/urls pairs to a DOI.
+     *
+     * @param doiName DOI identifier
+     * @param form Multiple lines in the following format{mime-type}={url}
+     * @return the future short explanation of status code, completed
+     * exceptionally by a {@link ClientMdsException} when an error happens
+     * @see #createMedia(java.lang.String, org.restlet.data.Form)
+     */
+    public CompletableFuture<String> createMediaAsync(final String doiName, final Form form) {
+        return this.supplyAsync(() -> this.createMedia(doiName, form));
+    }
+
     /**
      * Creates an entity based on the form. The form contains a set of
      * mime-type/url
@@ -0,0 +1,612 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.exception.ClientMdsException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cached catalogue of the DOIs registered at DataCite.
+ *
+ * <p>
+ * The catalogue is an immutable snapshot of the DOI list, indexed by project
+ * suffix. A DOI name follows the syntax <i>prefix/projectSuffix/...</i> so that
+ * the project suffix is the second segment of the DOI name. The snapshot is
+ * loaded again when it is older than the maximum age; it can also be loaded
+ * again in the background while the current snapshot is still served. A DOI
+ * created by the server is appended to the current snapshot: the list, the
+ * index and the entity tag are extended without copying or hashing the whole
+ * list again.
+ */
+public final class DoiCatalog {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(DoiCatalog.class.getName());
+
+    /**
+     * Separator of the segments in a DOI name.
+     */
+    private static final char SEPARATOR = '/';
+
+    /**
+     * Number of bytes of the hash kept in the entity tag {@value #TAG_LENGTH}.
+     */
+    private static final int TAG_LENGTH = 16;
+
+    /**
+     * Loads the DOI list from DataCite.
+     */
+    private final DoiLoader loader;
+
+    /**
+     * Executes the background refreshes.
+     */
+    private final Executor executor;
+
+    /**
+     * Maximum age of a snapshot in milliseconds.
+     */
+    private final long maxAge;
+
+    /**
+     * Lock to load only one snapshot at a time.
+     */
+    private final Object loadLock = new Object();
+
+    /**
+     * Lock to replace the snapshot, held for a short time.
+     */
+    private final Object updateLock = new Object();
+
+    /**
+     * True while a background refresh is submitted or running.
+     */
+    private final AtomicBoolean isRefreshing = new AtomicBoolean();
+
+    /**
+     * DOIs added while the DOI list is loaded, appended to the loaded snapshot
+     * when they are missing. Guarded by {@link #updateLock}.
+     */
+    private final List<String> addedDuringLoad = new ArrayList<>();
+
+    /**
+     * True while the DOI list is loaded. Guarded by {@link #updateLock}.
+     */
+    private boolean isLoading;
+
+    /**
+     * Current snapshot or null when it is not loaded yet.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a catalogue.
+     *
+     * @param loader loader of the DOI list
+     * @param executor executor of the background refreshes
+     * @param maxAge maximum age of a snapshot in milliseconds
+     * @throws IllegalArgumentException if maxAge is not strictly positive
+     */
+    public DoiCatalog(final DoiLoader loader, final Executor executor, final long maxAge) {
+        if (maxAge <= 0) {
+            throw new IllegalArgumentException("maxAge must be > 0");
+        }
+        this.loader = loader;
+        this.executor = executor;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Returns the current snapshot, loading it when it is missing or too old.
+     *
+     * @return the snapshot
+     * @throws ClientMdsException When the DOI list cannot be loaded
+     */
+    public Snapshot getSnapshot() throws ClientMdsException {
+        Snapshot current = this.snapshot;
+        if (current == null || isTooOld(current)) {
+            synchronized (this.loadLock) {
+                current = this.snapshot;
+                if (current == null || isTooOld(current)) {
+                    current = load();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Loads the DOI list again.
+     *
+     * @return the new snapshot
+     * @throws ClientMdsException When the DOI list cannot be loaded
+     */
+    public Snapshot refresh() throws ClientMdsException {
+        synchronized (this.loadLock) {
+            return load();
+        }
+    }
+
+    /**
+     * Loads the DOI list again in the background. The current snapshot is
+     * served until the new one is loaded. Nothing is done when the snapshot is
+     * not loaded yet or when a background refresh is already pending.
+     */
+    public void refreshInBackground() {
+        if (this.snapshot != null && this.isRefreshing.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(() -> {
+                    try {
+                        refresh();
+                    } catch (ClientMdsException | RuntimeException ex) {
+                        LOGGER.catching(Level.WARN, ex);
+                    } finally {
+                        this.isRefreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                this.isRefreshing.set(false);
+                LOGGER.catching(Level.WARN, ex);
+            }
+        }
+    }
+
+    /**
+     * Adds a DOI created by the server to the current snapshot. Nothing is done
+     * when the snapshot is not loaded yet or already contains the DOI. A DOI
+     * added while the DOI list is loaded is also added to the loaded snapshot.
+     *
+     * @param doi DOI name
+     */
+    public void add(final String doi) {
+        synchronized (this.updateLock) {
+            if (this.isLoading) {
+                this.addedDuringLoad.add(doi);
+            }
+            final Snapshot current = this.snapshot;
+            if (current != null && !current.contains(doi)) {
+                this.snapshot = current.with(doi);
+                LOGGER.debug("{} added to the DOI catalogue", doi);
+            }
+        }
+    }
+
+    /**
+     * Tests if a snapshot is older than the maximum age.
+     *
+     * @param current snapshot
+     * @return True when the snapshot is too old otherwise False
+     */
+    private boolean isTooOld(final Snapshot current) {
+        return System.currentTimeMillis() - current.getLoadTime() >= this.maxAge;
+    }
+
+    /**
+     * Loads the DOI list and replaces the snapshot. The entity tag is kept when
+     * the DOI list has not changed. Must be called with the load lock held.
+     *
+     * @return the new snapshot
+     * @throws ClientMdsException When the DOI list cannot be loaded
+     */
+    private Snapshot load() throws ClientMdsException {
+        LOGGER.traceEntry();
+        synchronized (this.updateLock) {
+            this.isLoading = true;
+            this.addedDuringLoad.clear();
+        }
+        Snapshot result;
+        try {
+            final List<String> dois = this.loader.load();
+            synchronized (this.updateLock) {
+                result = new Snapshot(dois, System.currentTimeMillis());
+                for (final String doi : this.addedDuringLoad) {
+                    if (!result.contains(doi)) {
+                        result = result.with(doi);
+                    }
+                }
+                this.snapshot = result;
+            }
+        } catch (ClientMdsException ex) {
+            throw LOGGER.throwing(ex);
+        } finally {
+            synchronized (this.updateLock) {
+                this.isLoading = false;
+                this.addedDuringLoad.clear();
+            }
+        }
+        LOGGER.info("DOI catalogue loaded with {} DOIs", result.getDois().size());
+        return LOGGER.traceExit(result);
+    }
+
+    /**
+     * Returns the project suffix of a DOI name, which is the second segment of
+     * <i>prefix/projectSuffix/...</i>.
+     *
+     * @param doi DOI name
+     * @return the project suffix or null when the DOI name has no project
+     * suffix
+     */
+    public static String parseProjectSuffix(final String doi) {
+        final String result;
+        final int start = doi.indexOf(SEPARATOR);
+        final int end = start == -1 ? -1 : doi.indexOf(SEPARATOR, start + 1);
+        if (end == -1 || end == start + 1) {
+            result = null;
+        } else {
+            result = doi.substring(start + 1, end);
+        }
+        return result;
+    }
+
+    /**
+     * Computes an entity tag from the content of a DOI list. Two lists with the
+     * same DOIs in the same order have the same tag.
+     *
+     * @param dois DOI names
+     * @return the entity tag value
+     */
+    public static String computeTag(final Collection<String> dois) {
+        final MessageDigest digest = createDigest();
+        for (final String doi : dois) {
+            update(digest, doi);
+        }
+        return toTag(digest);
+    }
+
+    /**
+     * Creates the digest of the entity tags.
+     *
+     * @return the digest
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Adds a DOI name to a digest.
+     *
+     * @param digest digest
+     * @param doi DOI name
+     */
+    private static void update(final MessageDigest digest, final String doi) {
+        digest.update(doi.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    /**
+     * Returns the entity tag of the DOI names added to a digest. The digest is
+     * not modified so that other DOI names can be added to it.
+     *
+     * @param digest digest
+     * @return the entity tag value
+     */
+    private static String toTag(final MessageDigest digest) {
+        final byte[] hash = copy(digest).digest();
+        final StringBuilder tag = new StringBuilder();
+        for (int i = 0; i < TAG_LENGTH; i++) {
+            tag.append(String.format("%02x", hash[i]));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Copies a digest with its current state.
+     *
+     * @param digest digest
+     * @return the copy
+     */
+    private static MessageDigest copy(final MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Loads the DOI list.
+     */
+    @FunctionalInterface
+    public interface DoiLoader {
+
+        /**
+         * Loads the DOI list.
+         *
+         * @return the DOI names
+         * @throws ClientMdsException When the DOI list cannot be loaded
+         */
+        List<String> load() throws ClientMdsException;
+    }
+
+    /**
+     * Immutable DOI list with its index by project suffix and its entity tag.
+     *
+     * <p>
+     * The snapshots derived from a loaded snapshot by {@link #with(String)}
+     * share its arrays, its positions and its digest : a DOI is appended after
+     * the last element seen by the previous snapshots, which still see the
+     * same DOIs.
+     */
+    public static final class Snapshot {
+
+        /**
+         * DOI names.
+         */
+        private final DoiList dois;
+
+        /**
+         * DOI names by project suffix.
+         */
+        private final Map<String, DoiList> doisByProject;
+
+        /**
+         * Position of the DOI names in the list, shared with the derived
+         * snapshots, to test the membership.
+         */
+        private final Map<String, Integer> positions;
+
+        /**
+         * Digest of the DOI list, never updated after the creation of the
+         * snapshot.
+         */
+        private final MessageDigest digest;
+
+        /**
+         * Entity tag of the DOI list.
+         */
+        private final String tag;
+
+        /**
+         * Loading date in milliseconds since epoch.
+         */
+        private final long loadTime;
+
+        /**
+         * Creates a snapshot. Blank lines are ignored.
+         *
+         * @param dois DOI names
+         * @param loadTime loading date in milliseconds since epoch
+         */
+        Snapshot(final List<String> dois, final long loadTime) {
+            final List<String> list = new ArrayList<>(dois.size());
+            final Map<String, List<String>> index = new HashMap<>();
+            final Map<String, Integer> doiPositions = new ConcurrentHashMap<>();
+            final MessageDigest listDigest = createDigest();
+            for (final String line : dois) {
+                final String doi = line.trim();
+                if (doi.isEmpty()) {
+                    continue;
+                }
+                doiPositions.putIfAbsent(doi, list.size());
+                list.add(doi);
+                update(listDigest, doi);
+                final String project = parseProjectSuffix(doi);
+                if (project != null) {
+                    index.computeIfAbsent(project, key -> new ArrayList<>()).add(doi);
+                }
+            }
+            final Map<String, DoiList> projects = new HashMap<>();
+            for (final Map.Entry<String, List<String>> entry : index.entrySet()) {
+                projects.put(entry.getKey(), new DoiList(entry.getValue()));
+            }
+            this.dois = new DoiList(list);
+            this.doisByProject = projects;
+            this.positions = doiPositions;
+            this.digest = listDigest;
+            this.tag = toTag(listDigest);
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * Creates a snapshot derived from another one.
+         *
+         * @param dois DOI names
+         * @param doisByProject DOI names by project suffix
+         * @param positions position of the DOI names in the list
+         * @param digest digest of the DOI list
+         * @param loadTime loading date in milliseconds since epoch
+         */
+        private Snapshot(final DoiList dois, final Map<String, DoiList> doisByProject,
+                final Map<String, Integer> positions, final MessageDigest digest,
+                final long loadTime) {
+            this.dois = dois;
+            this.doisByProject = doisByProject;
+            this.positions = positions;
+            this.digest = digest;
+            this.tag = toTag(digest);
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * Returns a snapshot with a DOI appended, keeping the loading date. Must
+         * be called on the last snapshot derived from a loaded snapshot.
+         *
+         * @param doi DOI name
+         * @return the new snapshot
+         */
+        Snapshot with(final String doi) {
+            this.positions.putIfAbsent(doi, this.dois.size());
+            final Map<String, DoiList> projects;
+            final String project = parseProjectSuffix(doi);
+            if (project == null) {
+                projects = this.doisByProject;
+            } else {
+                projects = new HashMap<>(this.doisByProject);
+                final DoiList projectDois = projects.get(project);
+                projects.put(project, projectDois == null
+                        ? new DoiList(Collections.singletonList(doi)) : projectDois.plus(doi));
+            }
+            final MessageDigest listDigest = copy(this.digest);
+            update(listDigest, doi);
+            return new Snapshot(this.dois.plus(doi), projects, this.positions, listDigest,
+                    this.loadTime);
+        }
+
+        /**
+         * Returns all the DOI names.
+         *
+         * @return the DOI names
+         */
+        public List<String> getDois() {
+            return this.dois;
+        }
+
+        /**
+         * Returns the DOI names of a project.
+         *
+         * @param projectSuffix project suffix
+         * @return the DOI names of the project or an empty list
+         */
+        public List<String> getDois(final String projectSuffix) {
+            final List<String> result = this.doisByProject.get(projectSuffix);
+            return result == null ? Collections.<String>emptyList() : result;
+        }
+
+        /**
+         * Tests if the snapshot contains a DOI.
+         *
+         * @param doi DOI name
+         * @return True when the DOI is in the snapshot otherwise False
+         */
+        public boolean contains(final String doi) {
+            final Integer position = this.positions.get(doi);
+            return position != null && position < this.dois.size();
+        }
+
+        /**
+         * Returns the entity tag of the whole DOI list.
+         *
+         * @return the entity tag value
+         */
+        public String getTag() {
+            return this.tag;
+        }
+
+        /**
+         * Returns the loading date.
+         *
+         * @return the loading date in milliseconds since epoch
+         */
+        public long getLoadTime() {
+            return this.loadTime;
+        }
+    }
+
+    /**
+     * Unmodifiable list of DOI names on an array which can be shared with a
+     * longer list : a DOI is appended in the free slots of the array when no
+     * other list has used them, otherwise the array is copied with a doubled
+     * capacity.
+     */
+    private static final class DoiList extends AbstractList<String> implements RandomAccess {
+
+        /**
+         * Minimum capacity of a copied array {@value #MIN_CAPACITY}.
+         */
+        private static final int MIN_CAPACITY = 8;
+
+        /**
+         * DOI names, the slots after the size may be used by longer lists.
+         */
+        private final String[] values;
+
+        /**
+         * Number of DOI names.
+         */
+        private final int size;
+
+        /**
+         * Creates a list.
+         *
+         * @param dois DOI names
+         */
+        DoiList(final List<String> dois) {
+            this(dois.toArray(new String[dois.size()]), dois.size());
+        }
+
+        /**
+         * Creates a list.
+         *
+         * @param values DOI names
+         * @param size number of DOI names
+         */
+        private DoiList(final String[] values, final int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        /**
+         * Returns a list with a DOI appended.
+         *
+         * @param doi DOI name
+         * @return the new list
+         */
+        DoiList plus(final String doi) {
+            String[] target = this.values;
+            if (this.size == this.values.length || this.values[this.size] != null) {
+                target = new String[Math.max(MIN_CAPACITY, 2 * this.size)];
+                System.arraycopy(this.values, 0, target, 0, this.size);
+            }
+            target[this.size] = doi;
+            return new DoiList(target, this.size + 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String get(final int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+            return this.values[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return this.size;
+        }
+    }
+}
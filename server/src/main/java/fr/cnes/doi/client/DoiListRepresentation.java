@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.restlet.data.CharacterSet;
+import org.restlet.data.MediaType;
+import org.restlet.representation.OutputRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
+
+/**
+ * DOI list copied line by line from the response of DataCite to the client,
+ * without loading the whole list in memory. The DOIs can be filtered on the
+ * fly by project suffix.
+ *
+ * <p>
+ * The representation owns the DataCite response : it is released after the
+ * copy or by {@link #release()} when the representation is not written.
+ */
+public class DoiListRepresentation extends OutputRepresentation {
+
+    /**
+     * Response of DataCite.
+     */
+    private final Representation upstream;
+
+    /**
+     * Client resource of the DataCite request.
+     */
+    private final ClientResource client;
+
+    /**
+     * Project suffix of the copied DOIs or null to copy all of them.
+     */
+    private final String projectSuffix;
+
+    /**
+     * True when the DataCite response is released.
+     */
+    private final AtomicBoolean isReleased = new AtomicBoolean();
+
+    /**
+     * Creates the representation.
+     *
+     * @param upstream response of DataCite as text/uri-list
+     * @param client client resource of the DataCite request
+     * @param projectSuffix project suffix of the copied DOIs or null to copy
+     * all of them
+     */
+    public DoiListRepresentation(final Representation upstream, final ClientResource client,
+            final String projectSuffix) {
+        super(MediaType.TEXT_URI_LIST);
+        setCharacterSet(CharacterSet.UTF_8);
+        this.upstream = upstream;
+        this.client = client;
+        this.projectSuffix = projectSuffix;
+    }
+
+    /**
+     * Tests if a DOI is copied.
+     *
+     * @param doi DOI name
+     * @return True when the DOI is not empty and belongs to the project
+     */
+    private boolean isCopied(final String doi) {
+        return !doi.isEmpty() && (this.projectSuffix == null
+                || this.projectSuffix.equals(DoiCatalog.parseProjectSuffix(doi)));
+    }
+
+    /**
+     * Copies the DOIs of the DataCite response, one by line.
+     *
+     * @param outputStream output stream of the client
+     * @throws IOException - if an error happens when reading or writing
+     */
+    @Override
+    public void write(final OutputStream outputStream) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                this.upstream.getStream(), StandardCharsets.UTF_8))) {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream,
+                    StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            while (line != null) {
+                final String doi = line.trim();
+                if (isCopied(doi)) {
+                    writer.write(doi);
+                    writer.write('\n');
+                }
+                line = reader.readLine();
+            }
+            writer.flush();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Releases the DataCite response.
+     */
+    @Override
+    public void release() {
+        if (this.isReleased.compareAndSet(false, true)) {
+            this.upstream.release();
+            this.client.release();
+        }
+        super.release();
+    }
+}
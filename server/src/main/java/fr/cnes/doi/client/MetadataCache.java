@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.exception.ClientMdsException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.restlet.data.Status;
+
+/**
+ * Cache of the DataCite metadata by DOI.
+ *
+ * <p>
+ * The metadata are kept as the raw XML bytes returned by DataCite with an
+ * entity tag computed from their content, so that they are served again
+ * without being parsed or encoded. The cache is a LRU cache, populated when
+ * the metadata are loaded from DataCite and emptied for a DOI by
+ * {@link #invalidate(java.lang.String)} when they are created or deleted
+ * through the server. A metadata older than the
+ * revalidation age is still served but is loaded again in the background; a
+ * metadata older than the maximum age is loaded again before being served. A
+ * maximum age of 0 disables the cache.
+ */
+public final class MetadataCache {
+
+    /**
+     * Default maximum number of metadata in the cache :
+     * {@value #DEFAULT_CACHE_SIZE}.
+     */
+    public static final String DEFAULT_CACHE_SIZE = "1000";
+
+    /**
+     * Default maximum age in minutes of a metadata : {@value #DEFAULT_MAX_AGE}.
+     */
+    public static final String DEFAULT_MAX_AGE = "1440";
+
+    /**
+     * Default age in minutes after which a metadata is loaded again in the
+     * background : {@value #DEFAULT_REVALIDATE_AGE}.
+     */
+    public static final String DEFAULT_REVALIDATE_AGE = "60";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(MetadataCache.class.getName());
+
+    /**
+     * Loads the metadata from DataCite.
+     */
+    private final MetadataLoader loader;
+
+    /**
+     * Executes the background revalidations.
+     */
+    private final Executor executor;
+
+    /**
+     * Maximum number of metadata.
+     */
+    private final int maxEntries;
+
+    /**
+     * Maximum age of a metadata in milliseconds.
+     */
+    private final long maxAge;
+
+    /**
+     * Age of a metadata in milliseconds after which it is loaded again in the
+     * background.
+     */
+    private final long revalidateAge;
+
+    /**
+     * Metadata by DOI in access order, guarded by itself.
+     */
+    private final Map<String, Metadata> metadatas;
+
+    /**
+     * DOIs being revalidated. Guarded by {@link #metadatas}.
+     */
+    private final Set<String> revalidations = new HashSet<>();
+
+    /**
+     * Number of updates, to not cache a metadata loaded before an update or an
+     * invalidation. Guarded by {@link #metadatas}.
+     */
+    private long nbUpdates;
+
+    /**
+     * Creates a cache.
+     *
+     * @param loader loader of the metadata
+     * @param executor executor of the background revalidations
+     * @param maxEntries maximum number of metadata
+     * @param maxAge maximum age of a metadata in milliseconds
+     * @param revalidateAge age of a metadata in milliseconds after which it is
+     * loaded again in the background
+     * @throws IllegalArgumentException if maxEntries is not strictly positive
+     * or an age is negative
+     */
+    public MetadataCache(final MetadataLoader loader, final Executor executor,
+            final int maxEntries, final long maxAge, final long revalidateAge) {
+        if (maxEntries <= 0 || maxAge < 0 || revalidateAge < 0) {
+            throw new IllegalArgumentException(
+                    "maxEntries must be > 0 and the ages must be >= 0");
+        }
+        this.loader = loader;
+        this.executor = executor;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.revalidateAge = revalidateAge;
+        this.metadatas = new LinkedHashMap<String, Metadata>(16, 0.75f, true) {
+            /**
+             * Serial number.
+             */
+            private static final long serialVersionUID = 1L;
+
+            /**
+             * Removes the least recently used metadata when the cache is full.
+             *
+             * @param eldest least recently used metadata
+             * @return True when the cache is full
+             */
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Metadata> eldest) {
+                return size() > MetadataCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the metadata of a DOI, from the cache when it is present and not
+     * too old.
+     *
+     * @param doiName DOI name
+     * @return the metadata
+     * @throws ClientMdsException When the metadata cannot be loaded
+     */
+    public Metadata get(final String doiName) throws ClientMdsException {
+        final String key = normalize(doiName);
+        final long generation;
+        synchronized (this.metadatas) {
+            final Metadata cached = this.metadatas.get(key);
+            if (cached != null) {
+                final long age = System.currentTimeMillis() - cached.getLoadTime();
+                if (age < this.maxAge) {
+                    if (age >= this.revalidateAge && this.revalidations.add(key)) {
+                        try {
+                            this.executor.execute(() -> revalidate(doiName, key));
+                        } catch (RejectedExecutionException ex) {
+                            this.revalidations.remove(key);
+                            LOGGER.catching(Level.WARN, ex);
+                        }
+                    }
+                    return cached;
+                }
+            }
+            generation = this.nbUpdates;
+        }
+        final Metadata metadata = new Metadata(this.loader.load(doiName),
+                System.currentTimeMillis());
+        store(key, metadata, generation);
+        return metadata;
+    }
+
+    /**
+     * Removes the metadata of a DOI.
+     *
+     * @param doiName DOI name
+     */
+    public void invalidate(final String doiName) {
+        synchronized (this.metadatas) {
+            this.nbUpdates++;
+            this.metadatas.remove(normalize(doiName));
+        }
+        LOGGER.debug("Metadata of {} removed from the cache", doiName);
+    }
+
+    /**
+     * Returns the number of metadata in the cache.
+     *
+     * @return the number of metadata
+     */
+    public int getSize() {
+        synchronized (this.metadatas) {
+            return this.metadatas.size();
+        }
+    }
+
+    /**
+     * Loads again the metadata of a DOI. The cached metadata is kept when
+     * DataCite cannot be reached and removed when the DOI is not found.
+     *
+     * @param doiName DOI name
+     * @param key key of the DOI in the cache
+     */
+    private void revalidate(final String doiName, final String key) {
+        final long generation;
+        synchronized (this.metadatas) {
+            generation = this.nbUpdates;
+        }
+        try {
+            store(key, new Metadata(this.loader.load(doiName), System.currentTimeMillis()),
+                    generation);
+        } catch (ClientMdsException ex) {
+            final int code = ex.getStatus() == null ? 0 : ex.getStatus().getCode();
+            if (code == Status.CLIENT_ERROR_NOT_FOUND.getCode()
+                    || code == Status.CLIENT_ERROR_GONE.getCode()) {
+                invalidate(doiName);
+            } else {
+                LOGGER.catching(Level.WARN, ex);
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.catching(Level.WARN, ex);
+        } finally {
+            synchronized (this.metadatas) {
+                this.revalidations.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Stores a loaded metadata unless the DOI has been updated or invalidated
+     * during the loading.
+     *
+     * @param key key of the DOI in the cache
+     * @param metadata loaded metadata
+     * @param generation number of updates before the loading
+     */
+    private void store(final String key, final Metadata metadata, final long generation) {
+        synchronized (this.metadatas) {
+            if (this.maxAge > 0 && generation == this.nbUpdates) {
+                this.metadatas.put(key, metadata);
+            }
+        }
+    }
+
+    /**
+     * Returns the key of a DOI in the cache. The DOI names are case
+     * insensitive.
+     *
+     * @param doiName DOI name
+     * @return the key
+     */
+    private static String normalize(final String doiName) {
+        return doiName.toUpperCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Computes an entity tag from the content of a metadata.
+     *
+     * @param xml XML of the metadata
+     * @return the entity tag value
+     */
+    static String computeTag(final byte[] xml) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        final byte[] hash = digest.digest(xml);
+        final StringBuilder tag = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            tag.append(String.format("%02x", hash[i]));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Loads a metadata from DataCite.
+     */
+    @FunctionalInterface
+    public interface MetadataLoader {
+
+        /**
+         * Loads the metadata of a DOI.
+         *
+         * @param doiName DOI name
+         * @return the XML of the metadata
+         * @throws ClientMdsException When the metadata cannot be loaded
+         */
+        byte[] load(String doiName) throws ClientMdsException;
+    }
+
+    /**
+     * Cached metadata.
+     */
+    public static final class Metadata {
+
+        /**
+         * XML of the metadata.
+         */
+        private final byte[] xml;
+
+        /**
+         * Entity tag of the metadata.
+         */
+        private final String tag;
+
+        /**
+         * Loading date in milliseconds since epoch.
+         */
+        private final long loadTime;
+
+        /**
+         * Creates a metadata.
+         *
+         * @param xml XML of the metadata
+         * @param loadTime loading date in milliseconds since epoch
+         */
+        Metadata(final byte[] xml, final long loadTime) {
+            this.xml = xml;
+            this.tag = computeTag(xml);
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * Returns the XML of the metadata. The array is shared and must not be
+         * modified.
+         *
+         * @return the XML as bytes
+         */
+        public byte[] getXml() {
+            return this.xml;
+        }
+
+        /**
+         * Returns the entity tag of the metadata.
+         *
+         * @return the entity tag value
+         */
+        public String getTag() {
+            return this.tag;
+        }
+
+        /**
+         * Returns the loading date.
+         *
+         * @return the loading date in milliseconds since epoch
+         */
+        public long getLoadTime() {
+            return this.loadTime;
+        }
+    }
+}
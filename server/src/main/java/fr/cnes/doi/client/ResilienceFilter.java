@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Status;
+import org.restlet.ext.httpclient4.HttpDOIClientHelper;
+import org.restlet.representation.Representation;
+import org.restlet.routing.Filter;
+
+/**
+ * Filter between the client resources and the HTTP connector, retrying the
+ * requests according to a {@link RetryPolicy} and failing fast when the
+ * {@link CircuitBreaker} of the remote service is open. When the policy has a
+ * deadline, the timeout of each attempt is limited to the remaining time.
+ */
+public class ResilienceFilter extends Filter {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LogManager.getLogger(ResilienceFilter.class.getName());
+
+    /**
+     * Retry policy.
+     */
+    private final RetryPolicy policy;
+
+    /**
+     * Gives the circuit breaker of a request.
+     */
+    private final Function<Request, CircuitBreaker> breakers;
+
+    /**
+     * Creates a filter using the breaker of the endpoint of each request.
+     *
+     * @param context context
+     * @param next HTTP connector
+     * @param policy retry policy
+     */
+    public ResilienceFilter(final Context context, final Restlet next, final RetryPolicy policy) {
+        this(context, next, policy, request -> CircuitBreaker.getBreaker(
+                request.getResourceRef().getHostIdentifier()));
+    }
+
+    /**
+     * Creates a filter.
+     *
+     * @param context context
+     * @param next HTTP connector
+     * @param policy retry policy
+     * @param breakers gives the circuit breaker of a request
+     */
+    public ResilienceFilter(final Context context, final Restlet next, final RetryPolicy policy,
+            final Function<Request, CircuitBreaker> breakers) {
+        super(context, next);
+        this.policy = policy;
+        this.breakers = breakers;
+    }
+
+    /**
+     * Sends the request, retries it while the response is retriable, the
+     * maximum number of attempts and the deadline are not reached, and fails
+     * fast with 503 when the circuit breaker is open.
+     *
+     * @param request request
+     * @param response response
+     * @return {@link Filter#CONTINUE}
+     */
+    @Override
+    protected int doHandle(final Request request, final Response response) {
+        final CircuitBreaker breaker = this.breakers.apply(request);
+        final long start = System.currentTimeMillis();
+        int attempt = 1;
+        boolean isDone = false;
+        while (!isDone) {
+            if (!breaker.tryAcquire(System.currentTimeMillis())) {
+                response.setStatus(new Status(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                        "Circuit breaker open for " + breaker.getEndpoint()));
+                break;
+            }
+            if (this.policy.getDeadline() > 0) {
+                final long remaining = this.policy.getDeadline()
+                        - (System.currentTimeMillis() - start);
+                request.getAttributes().put(HttpDOIClientHelper.MAX_TIMEOUT_ATTRIBUTE,
+                        (int) Math.max(1, Math.min(Integer.MAX_VALUE, remaining)));
+            }
+            final Status status = send(request, response, breaker);
+            final long delay = this.policy.getDelay(attempt, getRetryAfter(response));
+            isDone = attempt >= this.policy.getMaxAttempts()
+                    || !RetryPolicy.isRetriable(request.getMethod(), status)
+                    || !isReusable(request.getEntity())
+                    || delay < 0
+                    || this.policy.getDeadline() > 0
+                    && System.currentTimeMillis() + delay - start >= this.policy.getDeadline();
+            if (!isDone) {
+                LOG.info("{} {} returns {}, retry {} in {} ms", request.getMethod(),
+                        request.getResourceRef(), status, attempt, delay);
+                isDone = !sleep(delay);
+                if (!isDone) {
+                    breaker.onRetry();
+                    if (response.getEntity() != null) {
+                        response.getEntity().release();
+                    }
+                    response.setEntity(null);
+                    attempt++;
+                }
+            }
+        }
+        return CONTINUE;
+    }
+
+    /**
+     * Sends the request once and records its outcome in the breaker. A request
+     * failing with an exception is recorded as a failure, so that the trial
+     * request of a half-open breaker always ends.
+     *
+     * @param request request
+     * @param response response
+     * @param breaker circuit breaker of the request
+     * @return the status of the response
+     */
+    private Status send(final Request request, final Response response,
+            final CircuitBreaker breaker) {
+        Status status = null;
+        try {
+            super.doHandle(request, response);
+            status = response.getStatus();
+        } finally {
+            if (status == null || CircuitBreaker.isFailure(status)) {
+                breaker.onFailure(System.currentTimeMillis());
+            } else {
+                breaker.onSuccess();
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Returns the delay asked by the service with Retry-After.
+     *
+     * @param response response
+     * @return the delay in ms, 0 when the service asks nothing
+     */
+    private static long getRetryAfter(final Response response) {
+        return response.getRetryAfter() == null ? 0L
+                : Math.max(0L, response.getRetryAfter().getTime() - System.currentTimeMillis());
+    }
+
+    /**
+     * Tests if the entity of a request can be sent again.
+     *
+     * @param entity entity or null
+     * @return True when there is no entity or when it is not transient
+     */
+    private static boolean isReusable(final Representation entity) {
+        return entity == null || !entity.isTransient();
+    }
+
+    /**
+     * Waits before a retry.
+     *
+     * @param delay delay in ms
+     * @return False when the thread is interrupted
+     */
+    private static boolean sleep(final long delay) {
+        boolean isAwake = true;
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            isAwake = false;
+        }
+        return isAwake;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
+import java.util.concurrent.ThreadLocalRandom;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+
+/**
+ * Retry policy of the requests to the remote services.
+ *
+ * <p>
+ * Only the idempotent requests are retried, and only for the statuses that
+ * may disappear by themselves : the connector errors, 408, 429, 502, 503 and
+ * 504. The delay before a retry grows exponentially with a random jitter, so
+ * that the clients do not retry all together, and the retries stop at the
+ * deadline of the request. A delay asked by the service with Retry-After is
+ * respected; the request is not retried when this delay is longer than the
+ * maximum delay.
+ */
+public final class RetryPolicy {
+
+    /**
+     * Default maximum number of attempts of a request :
+     * {@value #DEFAULT_MAX_ATTEMPTS}.
+     */
+    public static final String DEFAULT_MAX_ATTEMPTS = "3";
+
+    /**
+     * Default delay in ms before the first retry : {@value #DEFAULT_BASE_DELAY}.
+     */
+    public static final String DEFAULT_BASE_DELAY = "250";
+
+    /**
+     * Default maximum delay in ms between two attempts :
+     * {@value #DEFAULT_MAX_DELAY}.
+     */
+    public static final String DEFAULT_MAX_DELAY = "2000";
+
+    /**
+     * Default maximum duration in ms of a request with its retries :
+     * {@value #DEFAULT_DEADLINE}.
+     */
+    public static final String DEFAULT_DEADLINE = "5000";
+
+    /**
+     * Status code of a rate-limited request {@value #TOO_MANY_REQUESTS}.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Maximum number of attempts of a request.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay in ms before the first retry.
+     */
+    private final long baseDelay;
+
+    /**
+     * Maximum delay in ms between two attempts.
+     */
+    private final long maxDelay;
+
+    /**
+     * Maximum duration in ms of a request with its retries.
+     */
+    private final long deadline;
+
+    /**
+     * Creates a policy.
+     *
+     * @param maxAttempts maximum number of attempts of a request, 1 to not
+     * retry
+     * @param baseDelay delay in ms before the first retry
+     * @param maxDelay maximum delay in ms between two attempts
+     * @param deadline maximum duration in ms of a request with its retries, 0
+     * for no deadline
+     * @throws IllegalArgumentException if maxAttempts is not strictly positive
+     * or a delay is negative
+     */
+    public RetryPolicy(final int maxAttempts, final long baseDelay, final long maxDelay,
+            final long deadline) {
+        if (maxAttempts <= 0 || baseDelay < 0 || maxDelay < 0 || deadline < 0) {
+            throw new IllegalArgumentException(
+                    "maxAttempts must be > 0 and the delays must be >= 0");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = Math.max(baseDelay, maxDelay);
+        this.deadline = deadline;
+    }
+
+    /**
+     * Creates the policy of the configuration file.
+     *
+     * @return the policy
+     */
+    public static RetryPolicy fromSettings() {
+        final DoiSettings settings = DoiSettings.getInstance();
+        return new RetryPolicy(
+                settings.getInt(Consts.CLIENT_MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS),
+                settings.getLong(Consts.CLIENT_RETRY_BASE_DELAY, DEFAULT_BASE_DELAY),
+                settings.getLong(Consts.CLIENT_RETRY_MAX_DELAY, DEFAULT_MAX_DELAY),
+                settings.getLong(Consts.CLIENT_DEADLINE, DEFAULT_DEADLINE));
+    }
+
+    /**
+     * Tests if a request can be retried after a response.
+     *
+     * @param method method of the request
+     * @param status status of the response
+     * @return True when the method is idempotent and the status is retriable
+     */
+    public static boolean isRetriable(final Method method, final Status status) {
+        final int code = status.getCode();
+        return method.isIdempotent() && (status.isConnectorError()
+                || code == Status.CLIENT_ERROR_REQUEST_TIMEOUT.getCode()
+                || code == TOO_MANY_REQUESTS
+                || code == Status.SERVER_ERROR_BAD_GATEWAY.getCode()
+                || code == Status.SERVER_ERROR_SERVICE_UNAVAILABLE.getCode()
+                || code == Status.SERVER_ERROR_GATEWAY_TIMEOUT.getCode());
+    }
+
+    /**
+     * Returns the delay before a retry : half of the exponential delay plus a
+     * random part up to the other half.
+     *
+     * @param attempt number of the failed attempt, starting at 1
+     * @return the delay in ms
+     */
+    public long getBackoff(final int attempt) {
+        final long exponential = this.baseDelay << Math.min(attempt - 1, 30);
+        final long delay = exponential < 0 ? this.maxDelay : Math.min(this.maxDelay, exponential);
+        final long half = delay / 2;
+        return half + (delay - half == 0 ? 0 : ThreadLocalRandom.current().nextLong(delay - half
+                + 1));
+    }
+
+    /**
+     * Returns the delay before a retry, at least the delay asked by the
+     * service.
+     *
+     * @param attempt number of the failed attempt, starting at 1
+     * @param retryAfter delay in ms asked by the service with Retry-After, 0
+     * when it asks nothing
+     * @return the delay in ms or -1 when the service asks to wait longer than
+     * the maximum delay
+     */
+    public long getDelay(final int attempt, final long retryAfter) {
+        return retryAfter > this.maxDelay ? -1 : Math.max(getBackoff(attempt), retryAfter);
+    }
+
+    /**
+     * Returns the maximum number of attempts of a request.
+     *
+     * @return the maximum number of attempts
+     */
+    public int getMaxAttempts() {
+        return this.maxAttempts;
+    }
+
+    /**
+     * Returns the maximum duration in ms of a request with its retries.
+     *
+     * @return the deadline in ms, 0 for no deadline
+     */
+    public long getDeadline() {
+        return this.deadline;
+    }
+}
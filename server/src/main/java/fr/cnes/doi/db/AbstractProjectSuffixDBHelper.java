@@ -20,8 +20,10 @@ package fr.cnes.doi.db;
 
 import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.db.model.DOIUser;
+import fr.cnes.doi.db.model.LandingPageState;
 import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.utils.spec.Requirement;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -120,4 +122,37 @@ public abstract class AbstractProjectSuffixDBHelper {
     public abstract List<DOIUser> getAllDOIUsersForProject(final int doiSuffix) throws
             DOIDbException;
 
+    /**
+     * Returns the state of the landing pages checked so far. By default, no
+     * state is stored so that each monitoring run checks all the landing
+     * pages.
+     *
+     * @return the landing page states
+     * @throws fr.cnes.doi.exception.DOIDbException When an error occurs.
+     */
+    public List<LandingPageState> getLandingPageStates() throws DOIDbException {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Saves the state of the checked landing pages. By default, the states are
+     * not stored.
+     *
+     * @param states the landing page states
+     * @throws fr.cnes.doi.exception.DOIDbException When an error occurs.
+     */
+    public void saveLandingPageStates(final List<LandingPageState> states) throws
+            DOIDbException {
+    }
+
+    /**
+     * Deletes the state of landing pages whose DOI no longer exists. By
+     * default, the states are not stored.
+     *
+     * @param dois DOIs of the landing pages
+     * @throws fr.cnes.doi.exception.DOIDbException When an error occurs.
+     */
+    public void deleteLandingPageStates(final List<String> dois) throws DOIDbException {
+    }
+
 }
@@ -18,10 +18,15 @@
  */
 package fr.cnes.doi.db;
 
+import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.db.model.DOIUser;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import fr.cnes.doi.exception.DOIDbException;
+import fr.cnes.doi.plugin.PluginFactory;
 import fr.cnes.doi.utils.spec.Requirement;
 
 /**
@@ -76,6 +81,25 @@ public abstract class AbstractUserRoleDBHelper {
      */
     public abstract List<DOIUser> getUsersFromRole(final int roleName) throws DOIDbException;
 
+    /**
+     * Get the users of all the roles at once. By default, the users are
+     * loaded project by project with {@link #getUsersFromRole(int)}; an
+     * implementation should override this method to load them in one query.
+     *
+     * @return the users by role name, the roles without user are not returned
+     * @throws fr.cnes.doi.exception.DOIDbException When an error occurs
+     */
+    public Map<Integer, List<DOIUser>> getUsersByRole() throws DOIDbException {
+        final Map<Integer, List<DOIUser>> usersByRole = new HashMap<>();
+        for (final DOIProject project : PluginFactory.getProjectSuffix().getProjects()) {
+            final List<DOIUser> users = getUsersFromRole(project.getSuffix());
+            if (!users.isEmpty()) {
+                usersByRole.put(project.getSuffix(), users);
+            }
+        }
+        return usersByRole;
+    }
+
     /**
      * Adds an user to a specific role.
      *
@@ -149,4 +173,34 @@ public abstract class AbstractUserRoleDBHelper {
      */
     public abstract boolean removeDOIUser(final String username);
 
+    /**
+     * Removes and adds users in one operation. The users of the realm are
+     * updated accordingly. By default, the users are removed with
+     * {@link #removeDOIUser(java.lang.String)} and added with
+     * {@link #addDOIUser(java.lang.String, java.lang.Boolean, java.lang.String)}
+     * one by one; an implementation should override this method to update
+     * them in one transaction.
+     *
+     * @param usersToAdd users to add
+     * @param usersToRemove names of the users to remove
+     * @throws fr.cnes.doi.exception.DOIDbException When an error occurs
+     */
+    public void updateDOIUsers(final List<DOIUser> usersToAdd,
+            final List<String> usersToRemove) throws DOIDbException {
+        final List<String> failures = new ArrayList<>();
+        for (final String username : usersToRemove) {
+            if (!removeDOIUser(username)) {
+                failures.add(username);
+            }
+        }
+        for (final DOIUser user : usersToAdd) {
+            if (!addDOIUser(user.getUsername(), user.isAdmin(), user.getEmail())) {
+                failures.add(user.getUsername());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new DOIDbException("Unable to update the users " + failures, null);
+        }
+    }
+
 }
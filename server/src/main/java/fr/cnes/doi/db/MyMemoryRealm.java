@@ -18,17 +18,23 @@
  */
 package fr.cnes.doi.db;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.restlet.Application;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.ClientInfo;
-import org.restlet.engine.security.RoleMapping;
 import org.restlet.security.Enroler;
 import org.restlet.security.Group;
 import org.restlet.security.Realm;
@@ -40,24 +46,62 @@ import org.restlet.security.User;
  * Had to change method "unmap" l.520, which threw
  * ArrayIndexOutOfBoundsException
  *
+ * <p>
+ * The users are indexed by identifier and the roles are indexed by mapped
+ * user or group so that the enrolment of a user does not depend on the number
+ * of users and role mappings.
+ *
+ * <p>
+ * The roles resolved by the enroler are cached by user. The cache is
+ * invalidated by the changes of the role mappings, of the users and of the
+ * root groups made through this realm. The members of a group must be changed
+ * with {@link #addMemberUser} and {@link #removeMemberUser}, otherwise
+ * {@link #invalidateEnrolments} must be called after the change.
+ *
  * @author disto
  */
 public final class MyMemoryRealm extends Realm {
 
     /**
-     * The modifiable list of role mappings.
+     * The roles mapped to each user or group.
      */
-    private final List<RoleMapping> roleMappings = new CopyOnWriteArrayList<>();
+    private final Map<Object, Set<Role>> roleMappings = new ConcurrentHashMap<>();
 
     /**
      * The modifiable list of root groups.
      */
-    private final List<Group> rootGroups = new CopyOnWriteArrayList<>();
+    private final List<Group> rootGroups = new RootGroups();
+
+    /**
+     * Version of the realm, incremented by each change invalidating the
+     * enrolments.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Enrolments by user identifier.
+     */
+    private final Map<String, Enrolment> enrolments = new ConcurrentHashMap<>();
+
+    /**
+     * Number of enrolments served from the cache.
+     */
+    private final AtomicLong nbEnrolmentHits = new AtomicLong();
+
+    /**
+     * Number of enrolments computed again.
+     */
+    private final AtomicLong nbEnrolmentRebuilds = new AtomicLong();
 
     /**
-     * The modifiable list of users.
+     * Total time in ns spent computing the enrolments again.
      */
-    private final List<User> users = new CopyOnWriteArrayList<>();
+    private final AtomicLong enrolmentRebuildTime = new AtomicLong();
+
+    /**
+     * The modifiable list of users, indexed by identifier.
+     */
+    private final IndexedUsers users = new IndexedUsers();
 
     /**
      * Constructor.
@@ -145,24 +189,9 @@ public final class MyMemoryRealm extends Realm {
      * @throws IllegalArgumentException If application is null.
      */
     public Set<Role> findRoles(final Application application, final Group userGroup) {
-        if (application == null) {
-            throw new IllegalArgumentException(
-                    "The application argument can't be null");
-        }
-
+        checkApplication(application);
         final Set<Role> result = new HashSet<>();
-        Object source;
-
-        for (final RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if ((userGroup != null) && userGroup.equals(source)) {
-                if (mapping.getTarget().getApplication() == application) {
-                    result.add(mapping.getTarget());
-                }
-            }
-        }
-
+        addRoles(result, application, userGroup);
         return result;
     }
 
@@ -175,24 +204,13 @@ public final class MyMemoryRealm extends Realm {
      * @throws IllegalArgumentException If application is null.
      */
     public Set<Role> findRoles(final Application application, final Set<Group> userGroups) {
-        if (application == null) {
-            throw new IllegalArgumentException(
-                    "The application argument can't be null");
-        }
-
+        checkApplication(application);
         final Set<Role> result = new HashSet<>();
-        Object source;
-
-        for (final RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if (userGroups != null && userGroups.contains(source)) {
-                if (mapping.getTarget().getApplication() == application) {
-                    result.add(mapping.getTarget());
-                }
+        if (userGroups != null) {
+            for (final Group userGroup : userGroups) {
+                addRoles(result, application, userGroup);
             }
         }
-
         return result;
     }
 
@@ -205,24 +223,9 @@ public final class MyMemoryRealm extends Realm {
      * @throws IllegalArgumentException If application is null.
      */
     public Set<Role> findRoles(final Application application, final User user) {
-        if (application == null) {
-            throw new IllegalArgumentException(
-                    "The application argument can't be null");
-        }
-
+        checkApplication(application);
         final Set<Role> result = new HashSet<>();
-        Object source;
-
-        for (final RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if ((user != null) && user.equals(source)) {
-                if (mapping.getTarget().getApplication() == application) {
-                    result.add(mapping.getTarget());
-                }
-            }
-        }
-
+        addRoles(result, application, user);
         return result;
     }
 
@@ -234,16 +237,7 @@ public final class MyMemoryRealm extends Realm {
      */
     public Set<Role> findRoles(final Group userGroup) {
         final Set<Role> result = new HashSet<>();
-        Object source;
-
-        for (final RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if ((userGroup != null) && userGroup.equals(source)) {
-                result.add(mapping.getTarget());
-            }
-        }
-
+        addRoles(result, null, userGroup);
         return result;
     }
 
@@ -255,16 +249,11 @@ public final class MyMemoryRealm extends Realm {
      */
     public Set<Role> findRoles(final Set<Group> userGroups) {
         final Set<Role> result = new HashSet<>();
-        Object source;
-
-        for (final RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
-
-            if (userGroups != null && userGroups.contains(source)) {
-                result.add(mapping.getTarget());
+        if (userGroups != null) {
+            for (final Group userGroup : userGroups) {
+                addRoles(result, null, userGroup);
             }
         }
-
         return result;
     }
 
@@ -276,47 +265,125 @@ public final class MyMemoryRealm extends Realm {
      */
     public Set<Role> findRoles(final User user) {
         final Set<Role> result = new HashSet<>();
-        Object source;
+        addRoles(result, null, user);
+        return result;
+    }
 
-        for (final RoleMapping mapping : getRoleMappings()) {
-            source = mapping.getSource();
+    /**
+     * Checks that the application is set.
+     *
+     * @param application The parent application.
+     * @throws IllegalArgumentException If application is null.
+     */
+    private static void checkApplication(final Application application) {
+        if (application == null) {
+            throw new IllegalArgumentException(
+                    "The application argument can't be null");
+        }
+    }
 
-            if (user != null && user.equals(source)) {
-                result.add(mapping.getTarget());
+    /**
+     * Adds the roles mapped to a user or a group.
+     *
+     * @param result The roles found.
+     * @param application The parent application of the roles or null for all
+     * applications.
+     * @param source The user or the group, can be null.
+     */
+    private void addRoles(final Set<Role> result, final Application application,
+            final Object source) {
+        final Set<Role> roles = source == null ? null : this.roleMappings.get(source);
+        if (roles != null) {
+            for (final Role role : roles) {
+                if (application == null || role.getApplication() == application) {
+                    result.add(role);
+                }
             }
         }
+    }
 
-        return result;
+    /**
+     * Adds a user to the members of a group.
+     *
+     * @param group The group.
+     * @param user The member user.
+     */
+    public void addMemberUser(final Group group, final User user) {
+        if (!group.getMemberUsers().contains(user)) {
+            group.getMemberUsers().add(user);
+            invalidateEnrolments();
+        }
     }
 
     /**
-     * Finds a user in the organization based on its identifier.
+     * Removes a user from the members of a group.
      *
-     * @param userIdentifier The identifier to match.
-     * @return The matched user or null.
+     * @param group The group.
+     * @param user The member user.
      */
-    public User findUser(final String userIdentifier) {
-        User result = null;
-        User user;
+    public void removeMemberUser(final Group group, final User user) {
+        if (group.getMemberUsers().remove(user)) {
+            invalidateEnrolments();
+        }
+    }
 
-        for (int i = 0; (result == null) && (i < getUsers().size()); i++) {
-            user = getUsers().get(i);
+    /**
+     * Invalidates the cached enrolments. It is called by the changes made
+     * through this realm and must be called after a change of a group made
+     * directly.
+     */
+    public void invalidateEnrolments() {
+        this.version.incrementAndGet();
+        this.enrolments.clear();
+    }
 
-            if (user.getIdentifier().equals(userIdentifier)) {
-                result = user;
-            }
-        }
+    /**
+     * Returns the number of enrolments served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getNbEnrolmentHits() {
+        return this.nbEnrolmentHits.get();
+    }
 
-        return result;
+    /**
+     * Returns the number of enrolments computed again because they were not
+     * cached or the realm has changed.
+     *
+     * @return the number of cache misses
+     */
+    public long getNbEnrolmentRebuilds() {
+        return this.nbEnrolmentRebuilds.get();
     }
 
     /**
-     * Returns the modifiable list of role mappings.
+     * Returns the ratio of the enrolments served from the cache.
      *
-     * @return The modifiable list of role mappings.
+     * @return the hit rate between 0 and 1, 0 when no user has been enroled
      */
-    private List<RoleMapping> getRoleMappings() {
-        return roleMappings;
+    public double getEnrolmentHitRate() {
+        final long hits = this.nbEnrolmentHits.get();
+        final long total = hits + this.nbEnrolmentRebuilds.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the total time spent computing the enrolments again.
+     *
+     * @return the time in ns
+     */
+    public long getEnrolmentRebuildTime() {
+        return this.enrolmentRebuildTime.get();
+    }
+
+    /**
+     * Finds a user in the organization based on its identifier.
+     *
+     * @param userIdentifier The identifier to match.
+     * @return The matched user or null.
+     */
+    public User findUser(final String userIdentifier) {
+        return this.users.find(userIdentifier);
     }
 
     /**
@@ -329,7 +396,8 @@ public final class MyMemoryRealm extends Realm {
     }
 
     /**
-     * Returns the modifiable list of users.
+     * Returns the modifiable list of users. The changes of the list update the
+     * index of the users.
      *
      * @return The modifiable list of users.
      */
@@ -344,7 +412,7 @@ public final class MyMemoryRealm extends Realm {
      * @param role The target role.
      */
     public void map(final Group group, final Role role) {
-        getRoleMappings().add(new RoleMapping(group, role));
+        mapSource(group, role);
     }
 
     /**
@@ -366,7 +434,18 @@ public final class MyMemoryRealm extends Realm {
      * @param role The target role.
      */
     public void map(final User user, final Role role) {
-        getRoleMappings().add(new RoleMapping(user, role));
+        mapSource(user, role);
+    }
+
+    /**
+     * Maps a user or a group to a role.
+     *
+     * @param source The source user or group.
+     * @param role The target role.
+     */
+    private void mapSource(final Object source, final Role role) {
+        this.roleMappings.computeIfAbsent(source, key -> ConcurrentHashMap.newKeySet()).add(role);
+        invalidateEnrolments();
     }
 
     /**
@@ -385,6 +464,7 @@ public final class MyMemoryRealm extends Realm {
                 }
             }
         }
+        invalidateEnrolments();
     }
 
     /**
@@ -403,6 +483,7 @@ public final class MyMemoryRealm extends Realm {
                 }
             }
         }
+        invalidateEnrolments();
     }
 
     /**
@@ -437,15 +518,11 @@ public final class MyMemoryRealm extends Realm {
      * @param role The target role.
      */
     private void unmap(final Object source, final Role role) {
-        RoleMapping mapping;
-
-        for (int i = getRoleMappings().size() - 1; i >= 0; i--) {
-            mapping = getRoleMappings().get(i);
-
-            if (mapping.getSource().equals(source) && mapping.getTarget().equals(role)) {
-                getRoleMappings().remove(i);
-            }
-        }
+        this.roleMappings.computeIfPresent(source, (key, roles) -> {
+            roles.remove(role);
+            return roles.isEmpty() ? null : roles;
+        });
+        invalidateEnrolments();
     }
 
     /**
@@ -473,34 +550,343 @@ public final class MyMemoryRealm extends Realm {
     }
 
     /**
-     * Enroler based on the default security model.
+     * List of users indexed by identifier. The list is copied on each change
+     * as the previous list of users so that the iterations see a snapshot,
+     * while the index gives the user of an identifier without iterating.
      */
-    private class DefaultEnroler implements Enroler {
+    private static final class IndexedUsers extends AbstractList<User> {
+
+        /**
+         * Users.
+         */
+        private final List<User> list = new CopyOnWriteArrayList<>();
+
+        /**
+         * First user of each identifier.
+         */
+        private final Map<String, User> byIdentifier = new ConcurrentHashMap<>();
+
+        /**
+         * Finds a user by its identifier.
+         *
+         * @param identifier The identifier to match.
+         * @return The matched user or null.
+         */
+        User find(final String identifier) {
+            return identifier == null ? null : this.byIdentifier.get(identifier);
+        }
 
         /**
          * {@inheritDoc}
          */
         @Override
-        public void enrole(final ClientInfo clientInfo) {
-            final User user = findUser(clientInfo.getUser().getIdentifier());
+        public User get(final int index) {
+            return this.list.get(index);
+        }
 
-            if (user != null) {
-                // Find all the inherited groups of this user
-                final Set<Group> userGroups = findGroups(user);
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return this.list.size();
+        }
 
-                // Add roles specific to this user
-                final Set<Role> userRoles = findRoles(user);
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized void add(final int index, final User user) {
+            this.list.add(index, user);
+            indexAdded(user, index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized boolean addAll(final Collection<? extends User> users) {
+            final int start = this.list.size();
+            final boolean isChanged = this.list.addAll(users);
+            int index = start;
+            for (final User user : users) {
+                indexAdded(user, index++);
+            }
+            return isChanged;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized User set(final int index, final User user) {
+            final User previous = this.list.set(index, user);
+            indexRemoved(previous);
+            indexAdded(user, index);
+            return previous;
+        }
 
-                for (final Role role : userRoles) {
-                    clientInfo.getRoles().add(role);
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized User remove(final int index) {
+            final User previous = this.list.remove(index);
+            indexRemoved(previous);
+            return previous;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized boolean remove(final Object user) {
+            final boolean isRemoved = this.list.remove(user);
+            if (isRemoved) {
+                indexRemoved((User) user);
+            }
+            return isRemoved;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized void clear() {
+            this.list.clear();
+            this.byIdentifier.clear();
+        }
+
+        /**
+         * Returns an iterator on a snapshot of the users. Removing a user by
+         * the iterator removes it from this list.
+         *
+         * @return the iterator
+         */
+        @Override
+        public Iterator<User> iterator() {
+            final Iterator<User> snapshot = this.list.iterator();
+            return new Iterator<User>() {
+                /**
+                 * Last returned user.
+                 */
+                private User last;
+
+                @Override
+                public boolean hasNext() {
+                    return snapshot.hasNext();
+                }
+
+                @Override
+                public User next() {
+                    this.last = snapshot.next();
+                    return this.last;
+                }
+
+                @Override
+                public void remove() {
+                    if (this.last == null) {
+                        throw new IllegalStateException();
+                    }
+                    IndexedUsers.this.remove(this.last);
+                    this.last = null;
+                }
+            };
+        }
+
+        /**
+         * Indexes a user added at a position, unless a previous user has the
+         * same identifier. Must be called with the lock held.
+         *
+         * @param user added user
+         * @param index position of the user
+         */
+        private void indexAdded(final User user, final int index) {
+            final String identifier = user.getIdentifier();
+            if (identifier != null) {
+                final User indexed = this.byIdentifier.get(identifier);
+                if (indexed == null || this.list.indexOf(indexed) > index) {
+                    this.byIdentifier.put(identifier, user);
                 }
+            }
+        }
+
+        /**
+         * Removes a user from the index and indexes the next user having the
+         * same identifier, if any. Must be called with the lock held.
+         *
+         * @param user removed user
+         */
+        private void indexRemoved(final User user) {
+            final String identifier = user.getIdentifier();
+            if (identifier != null && this.byIdentifier.get(identifier) == user) {
+                this.byIdentifier.remove(identifier);
+                for (final User other : this.list) {
+                    if (identifier.equals(other.getIdentifier())) {
+                        this.byIdentifier.put(identifier, other);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * List of root groups invalidating the enrolments on each change. The list
+     * is copied on each change so that the iterations see a snapshot.
+     */
+    private final class RootGroups extends AbstractList<Group> {
+
+        /**
+         * Root groups.
+         */
+        private final List<Group> list = new CopyOnWriteArrayList<>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Group get(final int index) {
+            return this.list.get(index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void add(final int index, final Group group) {
+            this.list.add(index, group);
+            invalidateEnrolments();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Group set(final int index, final Group group) {
+            final Group previous = this.list.set(index, group);
+            invalidateEnrolments();
+            return previous;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Group remove(final int index) {
+            final Group previous = this.list.remove(index);
+            invalidateEnrolments();
+            return previous;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean remove(final Object group) {
+            final boolean isRemoved = this.list.remove(group);
+            if (isRemoved) {
+                invalidateEnrolments();
+            }
+            return isRemoved;
+        }
 
-                // Add roles common to group members
-                final Set<Role> groupRoles = findRoles(userGroups);
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void clear() {
+            this.list.clear();
+            invalidateEnrolments();
+        }
 
-                for (final Role role : groupRoles) {
-                    clientInfo.getRoles().add(role);
+        /**
+         * Returns an iterator on a snapshot of the root groups.
+         *
+         * @return the iterator
+         */
+        @Override
+        public Iterator<Group> iterator() {
+            return this.list.iterator();
+        }
+    }
+
+    /**
+     * Roles resolved for a user at a version of the realm.
+     */
+    private static final class Enrolment {
+
+        /**
+         * Enroled user.
+         */
+        private final User user;
+
+        /**
+         * Version of the realm used to resolve the roles.
+         */
+        private final long version;
+
+        /**
+         * Roles of the user and of its groups.
+         */
+        private final Set<Role> roles;
+
+        /**
+         * Creates an enrolment.
+         *
+         * @param user enroled user
+         * @param version version of the realm used to resolve the roles
+         * @param roles roles of the user and of its groups
+         */
+        Enrolment(final User user, final long version, final Set<Role> roles) {
+            this.user = user;
+            this.version = version;
+            this.roles = Collections.unmodifiableSet(roles);
+        }
+    }
+
+    /**
+     * Enroler based on the default security model.
+     */
+    private class DefaultEnroler implements Enroler {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void enrole(final ClientInfo clientInfo) {
+            final String identifier = clientInfo.getUser().getIdentifier();
+            final User user = findUser(identifier);
+
+            if (user != null) {
+                final long currentVersion = version.get();
+                Enrolment enrolment = enrolments.get(identifier);
+                if (enrolment != null && enrolment.version == currentVersion
+                        && enrolment.user == user) {
+                    nbEnrolmentHits.incrementAndGet();
+                } else {
+                    final long start = System.nanoTime();
+                    // Roles specific to this user
+                    final Set<Role> roles = findRoles(user);
+
+                    // Roles common to the inherited groups of this user
+                    roles.addAll(findRoles(findGroups(user)));
+
+                    // a change during the resolution makes this enrolment stale
+                    enrolment = new Enrolment(user, currentVersion, roles);
+                    enrolments.put(identifier, enrolment);
+                    nbEnrolmentRebuilds.incrementAndGet();
+                    enrolmentRebuildTime.addAndGet(System.nanoTime() - start);
                 }
+                clientInfo.getRoles().addAll(enrolment.roles);
             }
         }
     }
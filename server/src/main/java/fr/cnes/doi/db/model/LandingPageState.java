@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.db.model;
+
+/**
+ * Data model for the last check of a landing page.
+ */
+public class LandingPageState {
+
+    /**
+     * DOI of the landing page.
+     */
+    private String doi;
+
+    /**
+     * HTTP status code of the last check.
+     */
+    private int status;
+
+    /**
+     * Date in ms since epoch when the DOI has been checked for the first time.
+     */
+    private long firstSeen;
+
+    /**
+     * Date in ms since epoch of the last check.
+     */
+    private long lastCheck;
+
+    /**
+     * Number of consecutive failed checks.
+     */
+    private int failures;
+
+    /**
+     * Returns the DOI.
+     *
+     * @return the DOI
+     */
+    public String getDoi() {
+        return doi;
+    }
+
+    /**
+     * Sets the DOI.
+     *
+     * @param doi the DOI
+     */
+    public void setDoi(final String doi) {
+        this.doi = doi;
+    }
+
+    /**
+     * Returns the HTTP status code of the last check.
+     *
+     * @return the HTTP status code
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the HTTP status code of the last check.
+     *
+     * @param status the HTTP status code
+     */
+    public void setStatus(final int status) {
+        this.status = status;
+    }
+
+    /**
+     * Returns the date when the DOI has been checked for the first time.
+     *
+     * @return the date in ms since epoch
+     */
+    public long getFirstSeen() {
+        return firstSeen;
+    }
+
+    /**
+     * Sets the date when the DOI has been checked for the first time.
+     *
+     * @param firstSeen the date in ms since epoch
+     */
+    public void setFirstSeen(final long firstSeen) {
+        this.firstSeen = firstSeen;
+    }
+
+    /**
+     * Returns the date of the last check.
+     *
+     * @return the date in ms since epoch
+     */
+    public long getLastCheck() {
+        return lastCheck;
+    }
+
+    /**
+     * Sets the date of the last check.
+     *
+     * @param lastCheck the date in ms since epoch
+     */
+    public void setLastCheck(final long lastCheck) {
+        this.lastCheck = lastCheck;
+    }
+
+    /**
+     * Returns the number of consecutive failed checks.
+     *
+     * @return the number of consecutive failed checks
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * Sets the number of consecutive failed checks.
+     *
+     * @param failures the number of consecutive failed checks
+     */
+    public void setFailures(final int failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * Returns true when the last check failed otherwise false.
+     *
+     * @return true when the last check failed otherwise false
+     */
+    public boolean isFailing() {
+        return this.failures > 0;
+    }
+
+}
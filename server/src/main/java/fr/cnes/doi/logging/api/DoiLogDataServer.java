@@ -25,8 +25,11 @@ import fr.cnes.doi.resource.mds.MetadataResource;
 import fr.cnes.doi.resource.mds.MetadatasResource;
 import fr.cnes.doi.server.DoiServer;
 import fr.cnes.doi.services.DoiMonitoring;
+import fr.cnes.doi.services.SpeedAlerting;
 import fr.cnes.doi.settings.Consts;
 import fr.cnes.doi.settings.DoiSettings;
+import fr.cnes.doi.settings.EmailSettings;
+import java.util.concurrent.TimeUnit;
 import fr.cnes.doi.utils.spec.Requirement;
 import org.restlet.Context;
 import org.restlet.data.Method;
@@ -41,6 +44,16 @@ import org.restlet.service.LogService;
 @Requirement(reqId = Requirement.DOI_ARCHI_020, reqName = Requirement.DOI_ARCHI_020_NAME)
 public class DoiLogDataServer extends LogService {
 
+    /**
+     * Speed monitoring of the applications.
+     */
+    private final DoiMonitoring monitoring;
+
+    /**
+     * Speed alerting evaluating the monitoring periodically.
+     */
+    private final SpeedAlerting alerting;
+
     /**
      * Constructs a new logger.
      *
@@ -52,6 +65,40 @@ public class DoiLogDataServer extends LogService {
         super(isEnabled);
         this.setLoggerName(logName);
         this.setResponseLogFormat(DoiSettings.getInstance().getString(Consts.LOG_FORMAT));
+        this.monitoring = initMonitoring();
+        this.alerting = initAlerting(this.monitoring);
+    }
+
+    /**
+     * Starts the service and the speed alerting.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Override
+    public synchronized void start() throws Exception {
+        super.start();
+        this.alerting.start(TimeUnit.SECONDS.toMillis(DoiSettings.getInstance().getLong(
+                Consts.MONITORING_ALERT_PERIOD, SpeedAlerting.DEFAULT_PERIOD)));
+    }
+
+    /**
+     * Stops the speed alerting and the service.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        this.alerting.stop();
+        super.stop();
+    }
+
+    /**
+     * Returns the speed monitoring of the applications.
+     *
+     * @return the monitoring object
+     */
+    public DoiMonitoring getMonitoring() {
+        return this.monitoring;
     }
 
     /**
@@ -62,7 +109,28 @@ public class DoiLogDataServer extends LogService {
      */
     @Override
     public Filter createInboundFilter(final Context context) {
-        return new MonitoringLogFilter(context, initMonitoring(), this);
+        return new MonitoringLogFilter(context, this.monitoring, this);
+    }
+
+    /**
+     * Init the speed alerting. The alerts are cleared when the elevation goes
+     * below the clear threshold, by default the half of the raise threshold.
+     *
+     * @param monitoring monitoring to evaluate
+     * @return the speed alerting
+     */
+    private SpeedAlerting initAlerting(final DoiMonitoring monitoring) {
+        final DoiSettings settings = DoiSettings.getInstance();
+        final String raise = settings.getString(Consts.THRESHOLD_SPEED_PERCENT);
+        final double raiseThreshold = Double.parseDouble(raise);
+        final double clearThreshold = Double.parseDouble(settings.getString(
+                Consts.MONITORING_CLEAR_THRESHOLD, String.valueOf(raiseThreshold / 2)));
+        return new SpeedAlerting(monitoring, EmailSettings.getInstance()::sendMessage,
+                raiseThreshold, clearThreshold,
+                TimeUnit.SECONDS.toMillis(settings.getLong(Consts.MONITORING_ALERT_COOLDOWN,
+                        SpeedAlerting.DEFAULT_COOLDOWN)),
+                settings.getLong(Consts.MONITORING_MIN_MEASUREMENTS,
+                        SpeedAlerting.DEFAULT_MIN_MEASUREMENTS));
     }
 
     /**
@@ -19,9 +19,9 @@
 package fr.cnes.doi.logging.api;
 
 import fr.cnes.doi.services.DoiMonitoring;
+import fr.cnes.doi.services.DoiMonitoringRecord;
 import fr.cnes.doi.settings.Consts;
 import fr.cnes.doi.settings.DoiSettings;
-import fr.cnes.doi.settings.EmailSettings;
 import fr.cnes.doi.utils.Utils;
 import fr.cnes.doi.utils.spec.Requirement;
 import org.apache.logging.log4j.LogManager;
@@ -41,12 +41,6 @@ import org.restlet.service.LogService;
 @Requirement(reqId = Requirement.DOI_ARCHI_020, reqName = Requirement.DOI_ARCHI_020_NAME)
 public class MonitoringLogFilter extends LogFilter {
 
-    /**
-     * Threshold from which an alarm is send.
-     */
-    private static final float THRESHOLD_SPEED_PERCENT = Float
-            .valueOf(DoiSettings.getInstance().getString(Consts.THRESHOLD_SPEED_PERCENT));
-
     /**
      * The monitoring object
      */
@@ -68,8 +62,9 @@ public class MonitoringLogFilter extends LogFilter {
     }
 
     /**
-     * Allows filtering after processing by the next Restlet. Does nothing by
-     * default.
+     * Records the duration of the request. The speed alerts are evaluated
+     * periodically by {@link fr.cnes.doi.services.SpeedAlerting}, not in the
+     * request thread.
      *
      * @param request request
      * @param response response
@@ -86,42 +81,16 @@ public class MonitoringLogFilter extends LogFilter {
             final Method method = request.getMethod();
             final long startTime = (Long) request.getAttributes().get("org.restlet.startTime");
             final int duration = (int) (System.currentTimeMillis() - startTime);
-            if (monitoring.isRegistered(method, path)) {
-                monitoring.addMeasurement(method, path, duration);
-                final String description = monitoring.getDescription(method, path);
-                final String methodName = method.getName();
-                final float average = monitoring.getCurrentAverage(method, path);
+            final DoiMonitoringRecord record = monitoring.getRecord(method, path);
+            if (record != null) {
+                record.addMeasurement(duration);
                 LogManager.getLogger(Utils.APP_LOGGER_NAME).info(
                         "{}({} {}) - current speed average : {} ms - "
                         + "current measure: {} ms",
-                        description, methodName, path, average, duration);
-                sendAlertIfNeeded(monitoring.getCurrentAverage(method, path), duration, path,
-                        method);
+                        record.getDescription(), method.getName(), path, record.getAverage(),
+                        duration);
             }
         }
     }
 
-    /**
-     * Send an email alert if the time to answer request it too long
-     *
-     * @param average time average
-     * @param currentDuration current duration
-     * @param path resource name
-     * @param method method name
-     */
-    private void sendAlertIfNeeded(final double average, final double currentDuration,
-            final String path, final Method method) {
-        final double elevation = (currentDuration - average * 1000) * 100.0 / average;
-        if (elevation > THRESHOLD_SPEED_PERCENT) {
-            final EmailSettings email = EmailSettings.getInstance();
-            final String subject = "Speed performance alert for " + path;
-            final String msg = "Dear administrator,\nthe speed performance of the " + "application "
-                    + path + "" + " has been reduced of " + String.format("%.02f", elevation)
-                    + "% using the method " + method.getName() + ".\n\n" + "Details:\n"
-                    + "--------\n" + " * Average : " + average + "\n" + " * current : "
-                    + currentDuration + "\n";
-            email.sendMessage(subject, msg);
-        }
-    }
-
 }
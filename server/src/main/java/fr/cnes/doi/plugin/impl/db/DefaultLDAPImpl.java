@@ -18,7 +18,12 @@
  */
 package fr.cnes.doi.plugin.impl.db;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Hashtable;
 import java.util.List;
 
@@ -38,6 +43,7 @@ import fr.cnes.doi.exception.AuthenticationAccessException;
 import fr.cnes.doi.db.IAuthenticationDBHelper;
 import fr.cnes.doi.db.model.AuthSystemUser;
 import fr.cnes.doi.exception.DoiRuntimeException;
+import fr.cnes.doi.utils.ExpiringCache;
 import fr.cnes.doi.utils.Utils;
 import fr.cnes.doi.plugin.AbstractAuthenticationPluginHelper;
 import fr.cnes.doi.plugin.PluginFactory;
@@ -45,6 +51,7 @@ import fr.cnes.doi.settings.Consts;
 import fr.cnes.doi.settings.DoiSettings;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
 
 /**
  * Implementation of the LDAP.
@@ -103,6 +110,43 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
      */
     public static final String LDAP_ATTR_FULLNAME = "Starter.LDAP.attr.fullname";
 
+    /**
+     * Maximum number of successful authentications kept in memory, 0 to
+     * disable the cache {@value #LDAP_CACHE_MAX_SIZE}.
+     */
+    public static final String LDAP_CACHE_MAX_SIZE = "Starter.LDAP.Cache.MaxSize";
+
+    /**
+     * Time in seconds during which a successful authentication is trusted
+     * without binding again to the LDAP, 0 to disable the cache
+     * {@value #LDAP_CACHE_TTL}. A changed password or a disabled account is
+     * still accepted during this time, which must therefore remain short.
+     */
+    public static final String LDAP_CACHE_TTL = "Starter.LDAP.Cache.TTL";
+
+    /**
+     * Default maximum number of successful authentications kept in memory.
+     */
+    private static final int DEFAULT_LDAP_CACHE_MAX_SIZE = 1000;
+
+    /**
+     * Default time in seconds during which a successful authentication is
+     * trusted.
+     */
+    private static final int DEFAULT_LDAP_CACHE_TTL = 30;
+
+    /**
+     * JNDI environment property enabling the connection pooling.
+     */
+    private static final String JNDI_POOL = "com.sun.jndi.ldap.connect.pool";
+
+    /**
+     * System property of the idle time in ms after which a pooled connection
+     * is closed. The JNDI pool is shared by the whole JVM, so this property is
+     * given as a JVM option.
+     */
+    private static final String JNDI_POOL_TIMEOUT = "com.sun.jndi.ldap.connect.pool.timeout";
+
     /**
      * Logger.
      */
@@ -143,6 +187,48 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
      */
     private boolean configured = false;
 
+    /**
+     * Decrypted password of the LDAP user binding the connection.
+     */
+    private volatile String ldapPassword;
+
+    /**
+     * Random salt of the keys of the authentication cache.
+     */
+    private final byte[] salt = new byte[16];
+
+    /**
+     * Salted hashes of the login/password of the successful authentications,
+     * by login, or null when the cache is disabled.
+     */
+    private volatile ExpiringCache<String, String> authenticationCache;
+
+    /**
+     * Checks a login/password against the LDAP.
+     */
+    private final BiPredicate<String, String> binder;
+
+    /**
+     * Constructor.
+     */
+    public DefaultLDAPImpl() {
+        super();
+        this.binder = this::bindUser;
+        new SecureRandom().nextBytes(this.salt);
+    }
+
+    /**
+     * Constructor checking the login/password with a given function instead
+     * of binding them to the LDAP.
+     *
+     * @param binder function checking a login/password
+     */
+    DefaultLDAPImpl(final BiPredicate<String, String> binder) {
+        super();
+        this.binder = binder;
+        new SecureRandom().nextBytes(this.salt);
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -162,6 +248,23 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
                 LDAP_ATTR_USERNAME));
         LOGGER.info("[CONF] Plugin LDAP search group : {}", this.conf.get(LDAP_SEARCH_GROUP));
         LOGGER.info("[CONF] Plugin LDAP search user : {}", this.conf.get(LDAP_SEARCH_USER));
+        this.ldapPassword = null;
+        final int cacheMaxSize = Integer.parseInt(this.conf.getOrDefault(
+                LDAP_CACHE_MAX_SIZE, String.valueOf(DEFAULT_LDAP_CACHE_MAX_SIZE)));
+        final int cacheTtl = Integer.parseInt(this.conf.getOrDefault(
+                LDAP_CACHE_TTL, String.valueOf(DEFAULT_LDAP_CACHE_TTL)));
+        this.authenticationCache = cacheMaxSize > 0 && cacheTtl > 0
+                ? new ExpiringCache<>(cacheMaxSize, cacheTtl * 1000L) : null;
+        if (this.authenticationCache == null) {
+            LOGGER.info("[CONF] Plugin LDAP authentication cache : disabled");
+        } else {
+            LOGGER.info("[CONF] Plugin LDAP authentication cache : {} users during {} s",
+                    cacheMaxSize, cacheTtl);
+        }
+        if (System.getProperty(JNDI_POOL_TIMEOUT) == null) {
+            LOGGER.warn("[CONF] Plugin LDAP : pooled connections are never closed, sets the "
+                    + "JVM option -D{}=<idle time in ms>", JNDI_POOL_TIMEOUT);
+        }
         this.configured = true;
     }
 
@@ -199,7 +302,10 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
                 throw new AuthenticationAccessException("Configuration problem with the LDAP",
                         new Exception());
             } else {
-                return LOGGER.traceExit(getAllDOIProjectMembers((InitialLdapContext) context));
+                final List<AuthSystemUser> members = getAllDOIProjectMembers(
+                        (InitialLdapContext) context);
+                clearAuthenticationCache();
+                return LOGGER.traceExit(members);
             }
         } finally {
             if (context != null) {
@@ -226,7 +332,9 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
     }
 
     /**
-     * Init LDAP context.
+     * Init LDAP context. The connection of the LDAP user is taken from the
+     * JNDI connection pool and goes back to the pool when the context is
+     * closed.
      *
      * @return the context or null when a LDAP configuration is missing
      * @throws NamingException Unable to connect to Ldap
@@ -237,7 +345,7 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
         if (isLdapConfigured()) {
             final Hashtable<String, String> prop = new Hashtable<>();
             final String ldapUser = conf.get(LDAP_USER);
-            final String ldapPwd = DoiSettings.getInstance().getSecretValue(conf.get(LDAP_PWD));
+            final String ldapPwd = getLdapPassword();
             final String securityPrincipal = ldapUser;
             final String ldapUrl = conf.get(LDAP_URL);
             prop.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
@@ -245,6 +353,7 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
             prop.put(Context.SECURITY_AUTHENTICATION, "simple");
             prop.put(Context.SECURITY_PRINCIPAL, securityPrincipal);
             prop.put(Context.SECURITY_CREDENTIALS, ldapPwd);
+            prop.put(JNDI_POOL, "true");
 
             LOGGER.info("LDAP context:\n  {}={}\n  {}={}\n  {}={}\n  {}={}\n  {}={}",
                     Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory",
@@ -259,11 +368,97 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
         return LOGGER.traceExit(context);
     }
 
+    /**
+     * Returns the decrypted password of the LDAP user. The password is
+     * decrypted once.
+     *
+     * @return the password
+     */
+    private String getLdapPassword() {
+        String pwd = this.ldapPassword;
+        if (pwd == null) {
+            pwd = DoiSettings.getInstance().getSecretValue(conf.get(LDAP_PWD));
+            this.ldapPassword = pwd;
+        }
+        return pwd;
+    }
+
+    /**
+     * Returns the salted hash of a login/password, used as key of the
+     * authentication cache so that no password is kept in memory.
+     *
+     * @param login login
+     * @param password password
+     * @return the salted hash
+     */
+    private String hashCredentials(final String login, final String password) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new DoiRuntimeException(ex);
+        }
+        digest.update(this.salt);
+        digest.update(login.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(password.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
     /**
      * {@inheritDoc}
+     *
+     * <p>
+     * A successful authentication is cached during
+     * {@value #LDAP_CACHE_TTL} seconds so that the next requests of the user
+     * do not bind again to the LDAP. A failed authentication is never cached
+     * and removes the cached authentication of the user. The cache is emptied
+     * each time the members of the project are loaded from the LDAP.
      */
     @Override
     public boolean authenticateUser(final String login, final String password) {
+        if (login == null || password == null) {
+            LOGGER.debug("LDAP authentication without login or password");
+            return false;
+        }
+        final ExpiringCache<String, String> cache = this.authenticationCache;
+        final String hash = cache == null ? null : hashCredentials(login, password);
+        final boolean isAuthenticate;
+        if (cache != null && hash.equals(cache.get(login))) {
+            LOGGER.debug("LDAP authentication of {} from the cache", login);
+            isAuthenticate = true;
+        } else {
+            isAuthenticate = this.binder.test(login, password);
+            if (cache == null) {
+                LOGGER.debug("LDAP authentication cache disabled");
+            } else if (isAuthenticate) {
+                cache.put(login, hash);
+            } else {
+                cache.remove(login);
+            }
+        }
+        return isAuthenticate;
+    }
+
+    /**
+     * Empties the authentication cache so that the next authentication of each
+     * user binds again to the LDAP.
+     */
+    void clearAuthenticationCache() {
+        final ExpiringCache<String, String> cache = this.authenticationCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Checks a login/password by binding it to the LDAP.
+     *
+     * @param login login
+     * @param password password
+     * @return True when the bind succeeds otherwise False
+     */
+    private boolean bindUser(final String login, final String password) {
         final Hashtable<String, String> prop = new Hashtable<>();
         final String securityPrincipal = String.format(
                 "uid=%s,%s",
@@ -527,6 +722,7 @@ public final class DefaultLDAPImpl extends AbstractAuthenticationPluginHelper {
      */
     @Override
     public void release() {
+        clearAuthenticationCache();
         this.configured = false;
     }
 
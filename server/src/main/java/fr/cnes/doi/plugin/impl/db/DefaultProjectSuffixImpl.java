@@ -18,6 +18,8 @@
  */
 package fr.cnes.doi.plugin.impl.db;
 
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChange;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChangeListener;
 import fr.cnes.doi.plugin.impl.db.service.DatabaseSingleton;
 import fr.cnes.doi.plugin.impl.db.service.DOIDbDataAccessService;
 import java.util.List;
@@ -30,6 +32,7 @@ import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.plugin.AbstractProjectSuffixPluginHelper;
 import fr.cnes.doi.db.model.DOIUser;
+import fr.cnes.doi.db.model.LandingPageState;
 import fr.cnes.doi.exception.DoiRuntimeException;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MAX_ACTIVE_CONNECTIONS;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MAX_IDLE_CONNECTIONS;
@@ -39,15 +42,19 @@ import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_URL;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_USER;
 import fr.cnes.doi.utils.Utils;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Default implementation of the project suffix database.
  *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
-public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginHelper {
+public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginHelper
+        implements DOIDbChangeListener {
 
     /**
      * Logger.
@@ -74,6 +81,18 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
      * Plugin license.
      */
     private static final String LICENSE = "LGPLV3";
+    /**
+     * Period in minutes after which the cached projects are loaded again from
+     * the database, 0 to keep them until the next change made by this server
+     * {@value #PROJECT_CACHE_REFRESH_PERIOD}.
+     */
+    public static final String PROJECT_CACHE_REFRESH_PERIOD
+            = "Starter.Database.ProjectCacheRefreshPeriod";
+    /**
+     * Default period in minutes after which the cached projects are loaded
+     * again {@value #DEFAULT_PROJECT_CACHE_REFRESH_PERIOD}.
+     */
+    private static final String DEFAULT_PROJECT_CACHE_REFRESH_PERIOD = "5";
     /**
      * Plugin name.
      */
@@ -98,6 +117,17 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
      */
     private boolean configured = false;
 
+    /**
+     * Period in milliseconds after which the cached projects are loaded again,
+     * 0 to disable.
+     */
+    private long cacheRefreshPeriod;
+
+    /**
+     * Cached projects or null when they must be loaded from the database.
+     */
+    private volatile ProjectIndex index;
+
     /**
      * {@inheritDoc}
      */
@@ -123,6 +153,10 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
         LOG.info("[CONF] Plugin database user : {}", dbUser);
         LOG.info("[CONF] Plugin database password : {}", Utils.transformPasswordToStars(dbPwd));
         LOG.info("[CONF] Plugin options : {}", this.options);
+        this.cacheRefreshPeriod = TimeUnit.MINUTES.toMillis(Long.parseLong(
+                this.conf.getOrDefault(PROJECT_CACHE_REFRESH_PERIOD,
+                        DEFAULT_PROJECT_CACHE_REFRESH_PERIOD).trim()));
+        LOG.info("[CONF] Plugin project cache refresh period : {} ms", this.cacheRefreshPeriod);
 
         this.configured = true;
     }
@@ -132,6 +166,7 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
         DatabaseSingleton.getInstance().init(
                 this.conf.get(DB_URL), this.conf.get(DB_USER), this.conf.get(DB_PWD), this.options);
         this.das = DatabaseSingleton.getInstance().getDatabaseAccess();
+        this.das.addChangeListener(this);
     }
 
     /**
@@ -142,6 +177,7 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
         boolean isAdded = false;
         try {
             das.addDOIProject(projectID, projectName);
+            this.index = null;
             LOG.info("Add projectSuffix in the database {} / {}", projectID, projectName);
             isAdded = true;
         } catch (DOIDbException e) {
@@ -160,6 +196,7 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
         boolean isDeleted = false;
         try {
             das.removeDOIProject(projectID);
+            this.index = null;
             LOG.info("Delete projectSuffix in the database {} ", projectID);
             isDeleted = true;
         } catch (DOIDbException e) {
@@ -175,14 +212,7 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
     public boolean isExistID(final int projectID) {
         boolean isExist;
         try {
-            final List<DOIProject> projects = getProjects();
-            if (projects.isEmpty()) {
-                isExist = false;
-            } else {
-                final Map<String, Integer> map = projects.stream().collect(
-                        Collectors.toMap(DOIProject::getProjectname, DOIProject::getSuffix));
-                isExist = map.containsValue(projectID);
-            }
+            isExist = getIndex().getProjectName(projectID) != null;
         } catch (DOIDbException ex) {
             isExist = false;
             LOG.fatal(ex);
@@ -197,15 +227,7 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
     public boolean isExistProjectName(final String projectName) {
         boolean isExist;
         try {
-            final List<DOIProject> projects = getProjects();
-
-            if (projects.isEmpty()) {
-                isExist = false;
-            } else {
-                final Map<String, Integer> map = projects.stream().collect(
-                        Collectors.toMap(DOIProject::getProjectname, DOIProject::getSuffix));
-                isExist = map.containsKey(projectName);
-            }
+            isExist = getIndex().getSuffix(projectName) != null;
         } catch (DOIDbException ex) {
             isExist = false;
             LOG.fatal(ex);
@@ -218,7 +240,7 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
      */
     @Override
     public String getProjectFrom(final int projectID) throws DOIDbException {
-        return das.getDOIProjectName(projectID);
+        return getIndex().getProjectName(projectID);
     }
 
     /**
@@ -226,13 +248,15 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
      */
     @Override
     public int getIDFrom(final String projectName) throws DOIDbException {
-        final List<DOIProject> projects = getProjects();
+        final ProjectIndex projects = getIndex();
         if (projects.isEmpty()) {
             throw new DoiRuntimeException("The projects list is empty");
         }
-        final Map<String, Integer> map = projects.stream().collect(
-                Collectors.toMap(DOIProject::getProjectname, DOIProject::getSuffix));
-        return map.get(projectName);
+        final Integer suffix = projects.getSuffix(projectName);
+        if (suffix == null) {
+            throw new DoiRuntimeException("The project " + projectName + " does not exist");
+        }
+        return suffix;
     }
 
     /**
@@ -240,7 +264,53 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
      */
     @Override
     public List<DOIProject> getProjects() throws DOIDbException {
-        return das.getAllDOIProjects();
+        return getIndex().getProjects();
+    }
+
+    /**
+     * Returns the cached projects, loading them from the database when they
+     * are not loaded yet, changed by this server or older than the refresh
+     * period.
+     *
+     * @return the cached projects
+     * @throws DOIDbException When the projects cannot be loaded
+     */
+    private ProjectIndex getIndex() throws DOIDbException {
+        ProjectIndex current = this.index;
+        if (current == null || isExpired(current)) {
+            current = loadIndex();
+        }
+        return current;
+    }
+
+    /**
+     * Loads the projects from the database unless another thread has just
+     * loaded them. The lock is shared with the methods changing the projects
+     * so that a change cannot be overwritten by a previous state.
+     *
+     * @return the cached projects
+     * @throws DOIDbException When the projects cannot be loaded
+     */
+    private synchronized ProjectIndex loadIndex() throws DOIDbException {
+        ProjectIndex current = this.index;
+        if (current == null || isExpired(current)) {
+            current = new ProjectIndex(das.getAllDOIProjects(), System.currentTimeMillis());
+            this.index = current;
+            LOG.debug("{} projects loaded in the cache", current.getProjects().size());
+        }
+        return current;
+    }
+
+    /**
+     * Tests if the cached projects are older than the refresh period.
+     *
+     * @param current cached projects
+     * @return True when the cached projects must be loaded again otherwise
+     * False
+     */
+    private boolean isExpired(final ProjectIndex current) {
+        return this.cacheRefreshPeriod > 0
+                && System.currentTimeMillis() - current.getLoadTime() >= this.cacheRefreshPeriod;
     }
 
     /**
@@ -255,10 +325,12 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
      * {@inheritDoc}
      */
     @Override
-    public boolean renameProject(final int projectId, final String newProjectName) {
+    public synchronized boolean renameProject(final int projectId,
+            final String newProjectName) {
         boolean isRenamed = false;
         try {
             das.renameDOIProject(projectId, newProjectName);
+            this.index = null;
             LOG.info("Rename project in the database {} to {}", projectId, newProjectName);
             isRenamed = true;
         } catch (DOIDbException e) {
@@ -330,6 +402,31 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
         return doiUsers;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LandingPageState> getLandingPageStates() throws DOIDbException {
+        return this.das.getLandingPageStates();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveLandingPageStates(final List<LandingPageState> states) throws
+            DOIDbException {
+        this.das.saveLandingPageStates(states);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteLandingPageStates(final List<String> dois) throws DOIDbException {
+        this.das.deleteLandingPageStates(dois);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -348,6 +445,27 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
         return false;
     }
 
+    /**
+     * Drops the cached projects when a project is changed by any server
+     * sharing the database.
+     *
+     * @param change database change
+     */
+    @Override
+    public synchronized void onChange(final DOIDbChange change) {
+        if (change.isOn(DOIDbChange.TABLE_PROJECTS)) {
+            this.index = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onResynchronization() {
+        this.index = null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -355,10 +473,12 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
     public void release() {
         try {
             if (this.das != null) {
+                this.das.removeChangeListener(this);
                 this.das.close();
             }
         } catch (DOIDbException ex) {
         }
+        this.index = null;
         this.configured = false;
     }
 
@@ -367,4 +487,98 @@ public final class DefaultProjectSuffixImpl extends AbstractProjectSuffixPluginH
         return this.configured;
     }
 
+    /**
+     * Immutable projects indexed by suffix and by name. A change of the
+     * projects replaces the whole index.
+     */
+    private static final class ProjectIndex {
+
+        /**
+         * Project names by suffix.
+         */
+        private final Map<Integer, String> namesBySuffix;
+
+        /**
+         * Project suffixes by name.
+         */
+        private final Map<String, Integer> suffixesByName;
+
+        /**
+         * Loading date in milliseconds since epoch.
+         */
+        private final long loadTime;
+
+        /**
+         * Creates the index.
+         *
+         * @param projects projects from the database
+         * @param loadTime loading date in milliseconds since epoch
+         */
+        ProjectIndex(final List<DOIProject> projects, final long loadTime) {
+            final Map<Integer, String> bySuffix = new LinkedHashMap<>();
+            final Map<String, Integer> byName = new HashMap<>();
+            for (final DOIProject project : projects) {
+                bySuffix.put(project.getSuffix(), project.getProjectname());
+                byName.put(project.getProjectname(), project.getSuffix());
+            }
+            this.namesBySuffix = Collections.unmodifiableMap(bySuffix);
+            this.suffixesByName = Collections.unmodifiableMap(byName);
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * Returns the project name of a suffix.
+         *
+         * @param suffix project suffix
+         * @return the project name or null
+         */
+        String getProjectName(final int suffix) {
+            return this.namesBySuffix.get(suffix);
+        }
+
+        /**
+         * Returns the suffix of a project name.
+         *
+         * @param projectName project name
+         * @return the project suffix or null
+         */
+        Integer getSuffix(final String projectName) {
+            return this.suffixesByName.get(projectName);
+        }
+
+        /**
+         * Tests if there is no project.
+         *
+         * @return True when there is no project otherwise False
+         */
+        boolean isEmpty() {
+            return this.namesBySuffix.isEmpty();
+        }
+
+        /**
+         * Returns a copy of the projects.
+         *
+         * @return the projects
+         */
+        List<DOIProject> getProjects() {
+            final List<DOIProject> projects = new ArrayList<>(this.namesBySuffix.size());
+            for (final Map.Entry<Integer, String> entry : this.namesBySuffix.entrySet()) {
+                final DOIProject project = new DOIProject();
+                project.setSuffix(entry.getKey());
+                project.setProjectname(entry.getValue());
+                projects.add(project);
+            }
+            return projects;
+        }
+
+        /**
+         * Returns the loading date.
+         *
+         * @return the loading date in milliseconds since epoch
+         */
+        long getLoadTime() {
+            return this.loadTime;
+        }
+    }
+
 }
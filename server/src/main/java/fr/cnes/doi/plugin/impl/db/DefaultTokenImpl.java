@@ -18,6 +18,8 @@
  */
 package fr.cnes.doi.plugin.impl.db;
 
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChange;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChangeListener;
 import fr.cnes.doi.plugin.impl.db.service.DatabaseSingleton;
 import fr.cnes.doi.plugin.impl.db.service.DOIDbDataAccessService;
 import java.util.ArrayList;
@@ -35,7 +37,11 @@ import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MIN_
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_PWD;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_URL;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_USER;
+import fr.cnes.doi.utils.ExpiringCache;
 import fr.cnes.doi.utils.Utils;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -44,7 +50,8 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
-public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
+public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper
+        implements DOIDbChangeListener {
 
     /**
      * Plugin description.
@@ -66,6 +73,25 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
      * Plugin license.
      */
     private static final String LICENSE = "LGPLV3";
+    /**
+     * Maximum number of tokens kept in memory, 0 to disable the cache
+     * {@value #TOKEN_CACHE_MAX_SIZE}.
+     */
+    public static final String TOKEN_CACHE_MAX_SIZE = "Starter.Token.Cache.MaxSize";
+    /**
+     * Time in seconds during which a token is trusted without checking the
+     * database, 0 to disable the cache {@value #TOKEN_CACHE_TTL}.
+     */
+    public static final String TOKEN_CACHE_TTL = "Starter.Token.Cache.TTL";
+    /**
+     * Default maximum number of tokens kept in memory.
+     */
+    private static final int DEFAULT_TOKEN_CACHE_MAX_SIZE = 10000;
+    /**
+     * Default time in seconds during which a token is trusted without checking
+     * the database.
+     */
+    private static final int DEFAULT_TOKEN_CACHE_TTL = 300;
     /**
      * Logger.
      */
@@ -96,6 +122,13 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
      */
     private final Map<String, Integer> options = new ConcurrentHashMap<>();
 
+    /**
+     * Tokens known to exist in the database, by SHA-256 hash, or null when the
+     * cache is disabled.
+     */
+    private volatile ExpiringCache<String, Boolean> tokenCache = new ExpiringCache<>(
+            DEFAULT_TOKEN_CACHE_MAX_SIZE, DEFAULT_TOKEN_CACHE_TTL * 1000L);
+
     /**
      * {@inheritDoc }
      */
@@ -121,6 +154,17 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
         LOG.info("[CONF] Plugin database user : {}", dbUser);
         LOG.info("[CONF] Plugin database password : {}", Utils.transformPasswordToStars(dbPwd));
         LOG.info("[CONF] Plugin options : {}", this.options);
+        final int cacheMaxSize = Integer.parseInt(this.conf.getOrDefault(
+                TOKEN_CACHE_MAX_SIZE, String.valueOf(DEFAULT_TOKEN_CACHE_MAX_SIZE)));
+        final int cacheTtl = Integer.parseInt(this.conf.getOrDefault(
+                TOKEN_CACHE_TTL, String.valueOf(DEFAULT_TOKEN_CACHE_TTL)));
+        this.tokenCache = cacheMaxSize > 0 && cacheTtl > 0
+                ? new ExpiringCache<>(cacheMaxSize, cacheTtl * 1000L) : null;
+        if (this.tokenCache == null) {
+            LOG.info("[CONF] Plugin token cache : disabled");
+        } else {
+            LOG.info("[CONF] Plugin token cache : {} tokens during {} s", cacheMaxSize, cacheTtl);
+        }
         this.configured = true;
     }
 
@@ -132,6 +176,7 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
         DatabaseSingleton.getInstance().init(
                 this.conf.get(DB_URL), this.conf.get(DB_USER), this.conf.get(DB_PWD), this.options);
         this.das = DatabaseSingleton.getInstance().getDatabaseAccess();
+        this.das.addChangeListener(this);
     }
 
     /**
@@ -143,10 +188,14 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
         boolean isAdded = false;
         try {
             das.addToken(jwt);
-            LOG.info("token added : {}", jwt);
+            final ExpiringCache<String, Boolean> cache = this.tokenCache;
+            if (cache != null) {
+                cache.put(hashToken(jwt), Boolean.TRUE);
+            }
+            LOG.info("token added : {}", hashToken(jwt));
             isAdded = true;
         } catch (DOIDbException e) {
-            LOG.fatal("The token {} cannot be saved in database", jwt, e);
+            LOG.fatal("The token {} cannot be saved in database", hashToken(jwt), e);
         }
         return isAdded;
     }
@@ -157,13 +206,17 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
     @Override
     public boolean deleteToken(final String jwt) {
         boolean isRemoved;
+        final ExpiringCache<String, Boolean> cache = this.tokenCache;
+        if (cache != null) {
+            cache.remove(hashToken(jwt));
+        }
         try {
             das.deleteToken(jwt);
             isRemoved = true;
-            LOG.info("token deleted : {}", jwt);
+            LOG.info("token deleted : {}", hashToken(jwt));
         } catch (DOIDbException e) {
             isRemoved = false;
-            LOG.fatal("The token {} cannot be deleted in database", jwt, e);
+            LOG.fatal("The token {} cannot be deleted in database", hashToken(jwt), e);
         }
         return isRemoved;
     }
@@ -173,18 +226,18 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
      */
     @Override
     public boolean isExist(final String jwt) {
-        boolean isTokenExist = false;
-        try {
-            final List<String> tokenList = das.getTokens();
-            if (!tokenList.isEmpty()) {
-                for (final String token : tokenList) {
-                    if (token.equals(jwt)) {
-                        isTokenExist = true;
-                    }
+        final String hash = hashToken(jwt);
+        final ExpiringCache<String, Boolean> cache = this.tokenCache;
+        boolean isTokenExist = cache != null && cache.get(hash) != null;
+        if (!isTokenExist) {
+            try {
+                isTokenExist = das.isTokenExist(jwt);
+                if (isTokenExist && cache != null) {
+                    cache.put(hash, Boolean.TRUE);
                 }
+            } catch (DOIDbException e) {
+                LOG.fatal("The token {} cannot access to token database", hash, e);
             }
-        } catch (DOIDbException e) {
-            LOG.fatal("The token {} cannot access to token database", jwt, e);
         }
         return isTokenExist;
     }
@@ -265,6 +318,66 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
         return false;
     }
 
+    /**
+     * Forgets a token deleted by any server sharing the database, so that it
+     * is no longer trusted from the cache. The database notifies the SHA-256
+     * hash of the token, never the token itself.
+     *
+     * @param change database change
+     */
+    @Override
+    public void onChange(final DOIDbChange change) {
+        if (change.isOn(DOIDbChange.TABLE_TOKENS)
+                && change.getOperation() == DOIDbChange.Operation.DELETE) {
+            final String hash = change.getValue("token_hash");
+            final ExpiringCache<String, Boolean> cache = this.tokenCache;
+            if (hash != null && cache != null && cache.remove(hash) != null) {
+                LOG.debug("token {} removed from the cache", hash);
+            }
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of a token in lower case hexadecimal, as
+     * notified by the database triggers. The hash identifies the token in the
+     * cache and in the logs.
+     *
+     * @param jwt token
+     * @return the hash
+     */
+    public static String hashToken(final String jwt) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw LOG.throwing(new IllegalStateException(ex));
+        }
+        final byte[] hash = digest.digest(jwt.getBytes(StandardCharsets.UTF_8));
+        final StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (final byte value : hash) {
+            hex.append(String.format("%02x", value));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onResynchronization() {
+        clearTokenCache();
+    }
+
+    /**
+     * Empties the token cache so that the next checks query the database.
+     */
+    private void clearTokenCache() {
+        final ExpiringCache<String, Boolean> cache = this.tokenCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -272,10 +385,12 @@ public final class DefaultTokenImpl extends AbstractTokenDBPluginHelper {
     public void release() {
         try {
             if (this.das != null) {
+                this.das.removeChangeListener(this);
                 this.das.close();
             }
         } catch (DOIDbException ex) {
         }
+        clearTokenCache();
         this.configured = false;
     }
 
@@ -31,6 +31,8 @@ import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_PWD;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_URL;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_USER;
 import fr.cnes.doi.plugin.impl.db.service.DOIDbDataAccessService;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChange;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChangeListener;
 import fr.cnes.doi.plugin.impl.db.service.DatabaseSingleton;
 import fr.cnes.doi.security.RoleAuthorizer;
 import fr.cnes.doi.settings.EmailSettings;
@@ -38,6 +40,8 @@ import fr.cnes.doi.utils.Utils;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +50,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restlet.Application;
+import org.restlet.security.Group;
 import org.restlet.security.Role;
 import org.restlet.security.User;
 
@@ -55,7 +60,8 @@ import org.restlet.security.User;
  *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
-public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper {
+public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper
+        implements DOIDbChangeListener {
 
     /**
      * Plugin description.
@@ -148,6 +154,7 @@ public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper {
         DatabaseSingleton.getInstance().init(
                 this.conf.get(DB_URL), this.conf.get(DB_USER), this.conf.get(DB_PWD), this.options);
         this.das = DatabaseSingleton.getInstance().getDatabaseAccess();
+        this.das.addChangeListener(this);
     }
 
     /**
@@ -170,6 +177,14 @@ public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper {
         return Collections.unmodifiableList(listUser);
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, List<DOIUser>> getUsersByRole() throws DOIDbException {
+        return Collections.unmodifiableMap(das.getAllDOIProjectAssignations());
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -235,9 +250,7 @@ public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper {
         EmailSettings.getInstance().sendMessage("[DOI] Admin group",
                 "The user " + user + " has been added to the administror group.");
         final User userFromRealm = REALM.findUser(user);
-        if (!REALM.getRootGroups().get(0).getMemberUsers().contains(userFromRealm)) {
-            REALM.getRootGroups().get(0).getMemberUsers().add(userFromRealm);
-        }
+        REALM.addMemberUser(REALM.getRootGroups().get(0), userFromRealm);
     }
 
     /**
@@ -272,9 +285,7 @@ public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper {
                     "The user " + user + " has been removed from the administrator group.");
 
             final User userFromRealm = REALM.findUser(user);
-            if (REALM.getRootGroups().get(0).getMemberUsers().contains(userFromRealm)) {
-                REALM.getRootGroups().get(0).getMemberUsers().remove(userFromRealm);
-            }
+            REALM.removeMemberUser(REALM.getRootGroups().get(0), userFromRealm);
 
         } catch (DOIDbException e) {
             LOG.fatal("An error occured while trying to remove user " + user + " to admin group",
@@ -358,6 +369,181 @@ public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper {
         return isRemoved;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void updateDOIUsers(final List<DOIUser> usersToAdd, final List<String> usersToRemove)
+            throws DOIDbException {
+        this.das.updateDOIUsers(usersToAdd, usersToRemove);
+        for (final String username : usersToRemove) {
+            removeUserFromRealm(username);
+        }
+        for (final DOIUser user : usersToAdd) {
+            User userFromRealm = REALM.findUser(user.getUsername());
+            if (userFromRealm == null) {
+                userFromRealm = new User(user.getUsername());
+                REALM.getUsers().add(userFromRealm);
+            }
+            if (Boolean.TRUE.equals(user.isAdmin()) && !REALM.getRootGroups().isEmpty()) {
+                REALM.addMemberUser(REALM.getRootGroups().get(0), userFromRealm);
+            }
+        }
+        LOG.info("{} users added to and {} users removed from database.", usersToAdd.size(),
+                usersToRemove.size());
+    }
+
+    /**
+     * Removes a user, its roles and its group memberships from the realm.
+     *
+     * @param username username
+     */
+    private void removeUserFromRealm(final String username) {
+        final User userFromRealm = REALM.findUser(username);
+        if (userFromRealm != null) {
+            for (final Role role : REALM.findRoles(userFromRealm)) {
+                REALM.unmap(userFromRealm, role);
+            }
+            for (final Group group : REALM.getRootGroups()) {
+                REALM.removeMemberUser(group, userFromRealm);
+            }
+            REALM.getUsers().remove(userFromRealm);
+        }
+    }
+
+    /**
+     * Adds a user to the realm when it is not there and sets its membership of
+     * the admin group.
+     *
+     * @param username username
+     * @param admin True when the user is an administrator
+     * @return the user of the realm
+     */
+    private User addUserToRealm(final String username, final boolean admin) {
+        User userFromRealm = REALM.findUser(username);
+        if (userFromRealm == null) {
+            userFromRealm = new User(username);
+            REALM.getUsers().add(userFromRealm);
+        }
+        if (!REALM.getRootGroups().isEmpty()) {
+            if (admin) {
+                REALM.addMemberUser(REALM.getRootGroups().get(0), userFromRealm);
+            } else {
+                REALM.removeMemberUser(REALM.getRootGroups().get(0), userFromRealm);
+            }
+        }
+        return userFromRealm;
+    }
+
+    /**
+     * Maps a user to the role of a project when it is not already mapped.
+     *
+     * @param user user of the realm
+     * @param app MDS application
+     * @param role project suffix
+     */
+    private void mapUserToRole(final User user, final Application app, final String role) {
+        for (final Role roleFromRealm : REALM.findRoles(app, user)) {
+            if (roleFromRealm.getName().equals(role)) {
+                return;
+            }
+        }
+        REALM.map(user, new Role(app, role, "Role " + role + " for " + app.getName()));
+    }
+
+    /**
+     * Unmaps a user from the role of a project.
+     *
+     * @param user user of the realm
+     * @param role project suffix
+     */
+    private void unmapUserFromRole(final User user, final String role) {
+        for (final Role roleFromRealm : REALM.findRoles(user)) {
+            if (roleFromRealm.getName().equals(role)) {
+                REALM.unmap(user, roleFromRealm);
+            }
+        }
+    }
+
+    /**
+     * Applies to the realm a change of a user or of a project assignation made
+     * by any server sharing the database.
+     *
+     * @param change database change
+     */
+    @Override
+    public void onChange(final DOIDbChange change) {
+        final String username = change.getValue("username");
+        if (username == null) {
+            LOG.debug("No user in the database change {}", change);
+        } else if (change.isOn(DOIDbChange.TABLE_USERS)) {
+            if (change.getOperation() == DOIDbChange.Operation.DELETE) {
+                removeUserFromRealm(username);
+            } else {
+                addUserToRealm(username, Boolean.parseBoolean(change.getValue("admin")));
+            }
+        } else if (change.isOn(DOIDbChange.TABLE_ASSIGNATIONS)) {
+            final User userFromRealm = REALM.findUser(username);
+            final Application app = RoleAuthorizer.getInstance().loadApplicationBy(
+                    DoiMdsApplication.NAME);
+            final String role = change.getValue("suffix");
+            if (userFromRealm == null || app == null || role == null) {
+                LOG.debug("The database change {} does not concern the realm", change);
+            } else if (change.getOperation() == DOIDbChange.Operation.DELETE) {
+                unmapUserFromRole(userFromRealm, role);
+            } else {
+                mapUserToRole(userFromRealm, app, role);
+            }
+        }
+    }
+
+    /**
+     * Reloads the users, the admin group and the project roles of the realm
+     * from the database.
+     */
+    @Override
+    public void onResynchronization() {
+        try {
+            final Set<String> usernames = new HashSet<>();
+            for (final DOIUser user : das.getAllDOIusers()) {
+                usernames.add(user.getUsername());
+                addUserToRealm(user.getUsername(), Boolean.TRUE.equals(user.isAdmin()));
+            }
+            for (final User userFromRealm : REALM.getUsers()) {
+                if (!usernames.contains(userFromRealm.getIdentifier())) {
+                    removeUserFromRealm(userFromRealm.getIdentifier());
+                }
+            }
+            final Application app = RoleAuthorizer.getInstance().loadApplicationBy(
+                    DoiMdsApplication.NAME);
+            if (app != null) {
+                final Map<String, Set<String>> rolesByUser = new HashMap<>();
+                for (final Map.Entry<Integer, List<DOIUser>> assignation : das.
+                        getAllDOIProjectAssignations().entrySet()) {
+                    for (final DOIUser user : assignation.getValue()) {
+                        rolesByUser.computeIfAbsent(user.getUsername(), key -> new HashSet<>())
+                                .add(String.valueOf(assignation.getKey()));
+                    }
+                }
+                for (final User userFromRealm : REALM.getUsers()) {
+                    final Set<String> roles = rolesByUser.getOrDefault(
+                            userFromRealm.getIdentifier(), Collections.emptySet());
+                    for (final Role role : REALM.findRoles(app, userFromRealm)) {
+                        if (!roles.contains(role.getName())) {
+                            REALM.unmap(userFromRealm, role);
+                        }
+                    }
+                    for (final String role : roles) {
+                        mapUserToRole(userFromRealm, app, role);
+                    }
+                }
+            }
+            LOG.info("Realm resynchronized with the database : {} users", usernames.size());
+        } catch (DOIDbException ex) {
+            LOG.error("Cannot resynchronize the realm with the database", ex);
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -446,6 +632,7 @@ public final class DefaultUserRoleImpl extends AbstractUserRolePluginHelper {
         }
         try {
             if (this.das != null) {
+                this.das.removeChangeListener(this);
                 this.das.close();
             }
         } catch (DOIDbException ex) {
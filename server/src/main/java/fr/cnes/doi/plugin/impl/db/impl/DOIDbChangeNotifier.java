@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.plugin.impl.db.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChange;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChangeListener;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Listens to the changes of the DOI database notified by the PostgreSQL
+ * triggers of the database schema (LISTEN/NOTIFY) and forwards them to the
+ * listeners. The notifications are received on a connection dedicated to this
+ * purpose, outside the connection pool. When this connection is lost, it is
+ * opened again and the listeners are resynchronized because the changes made
+ * in the meantime are lost.
+ * <p>
+ * The payload of a notification is a JSON object such as
+ * {@code {"table":"t_doi_tokens","operation":"DELETE","row":{"token_hash":"..."}}}.
+ * The row only holds the keys needed by the listeners : the username, the
+ * admin flag, the project suffix or the SHA-256 hash of a token.
+ */
+public class DOIDbChangeNotifier {
+
+    /**
+     * Notification channel of the database triggers {@value #CHANNEL}.
+     */
+    public static final String CHANNEL = "doi_changes";
+
+    /**
+     * Maximum time in ms to wait for notifications before checking if the
+     * notifier is stopped.
+     */
+    private static final int POLL_TIMEOUT = 1000;
+
+    /**
+     * Delay in ms before the first attempt to open again the connection.
+     */
+    private static final long MIN_RETRY_DELAY = 1000;
+
+    /**
+     * Maximum delay in ms between two attempts to open again the connection.
+     */
+    private static final long MAX_RETRY_DELAY = 60000;
+
+    /**
+     * Maximum time in seconds to wait for the end of the listening thread.
+     */
+    private static final long STOP_TIMEOUT = 10;
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(DOIDbChangeNotifier.class.
+            getName());
+
+    /**
+     * JSON parser of the payloads.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Connector providing the dedicated connection.
+     */
+    private final JDBCConnector connector;
+
+    /**
+     * Listeners of the changes.
+     */
+    private final Collection<DOIDbChangeListener> listeners;
+
+    /**
+     * Listening thread or null when the notifier is not started.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Status of the notifier.
+     */
+    private volatile boolean running;
+
+    /**
+     * Creates a notifier.
+     *
+     * @param connector connector providing the dedicated connection
+     * @param listeners listeners of the changes, which can be modified while
+     * the notifier is running
+     */
+    public DOIDbChangeNotifier(final JDBCConnector connector,
+            final Collection<DOIDbChangeListener> listeners) {
+        this.connector = connector;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Starts the listening thread.
+     */
+    public synchronized void start() {
+        LOGGER.traceEntry();
+        if (this.executor == null) {
+            this.running = true;
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "doi-db-change-notifier");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.execute(this::listen);
+            LOGGER.info("Database change notifier started on channel {}", CHANNEL);
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Stops the listening thread.
+     */
+    public synchronized void stop() {
+        LOGGER.traceEntry();
+        if (this.executor != null) {
+            this.running = false;
+            this.executor.shutdownNow();
+            try {
+                this.executor.awaitTermination(STOP_TIMEOUT, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                LOGGER.catching(Level.DEBUG, ex);
+                Thread.currentThread().interrupt();
+            }
+            this.executor = null;
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Listens to the notifications until the notifier is stopped, opening
+     * again the connection with an increasing delay when it is lost.
+     */
+    private void listen() {
+        long retryDelay = MIN_RETRY_DELAY;
+        boolean isConnectionLost = false;
+        while (this.running) {
+            try (Connection conn = this.connector.getDedicatedConnection();
+                    Statement statement = conn.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                LOGGER.info("Listening to the database changes on channel {}", CHANNEL);
+                if (isConnectionLost) {
+                    resynchronize();
+                }
+                retryDelay = MIN_RETRY_DELAY;
+                final PGConnection pgConn = conn.unwrap(PGConnection.class);
+                while (this.running) {
+                    final PGNotification[] notifications = pgConn.getNotifications(
+                            POLL_TIMEOUT);
+                    if (notifications != null) {
+                        for (final PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (this.running) {
+                    isConnectionLost = true;
+                    LOGGER.error("Database change notifications interrupted, new attempt in {} ms",
+                            retryDelay, ex);
+                    try {
+                        Thread.sleep(retryDelay);
+                    } catch (InterruptedException e) {
+                        LOGGER.catching(Level.DEBUG, e);
+                        Thread.currentThread().interrupt();
+                        this.running = false;
+                    }
+                    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+                }
+            }
+        }
+        LOGGER.info("Database change notifier stopped");
+    }
+
+    /**
+     * Forwards the change of a notification payload to the listeners. A
+     * payload that cannot be parsed resynchronizes the listeners.
+     *
+     * @param payload notification payload
+     */
+    public void dispatch(final String payload) {
+        LOGGER.traceEntry("Parameter : {}", payload);
+        final DOIDbChange change;
+        try {
+            change = parse(payload);
+        } catch (IOException | IllegalArgumentException ex) {
+            LOGGER.error("Unreadable database change {}", payload, ex);
+            resynchronize();
+            LOGGER.traceExit();
+            return;
+        }
+        LOGGER.debug("Database change : {}", change);
+        for (final DOIDbChangeListener listener : this.listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException ex) {
+                LOGGER.error("Cannot apply the database change {}", change, ex);
+            }
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Asks the listeners to reload their state from the database.
+     */
+    public void resynchronize() {
+        LOGGER.traceEntry();
+        for (final DOIDbChangeListener listener : this.listeners) {
+            try {
+                listener.onResynchronization();
+            } catch (RuntimeException ex) {
+                LOGGER.error("Cannot resynchronize {} with the database", listener, ex);
+            }
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Parses the payload of a notification.
+     *
+     * @param payload notification payload
+     * @return the change
+     * @throws IOException When the payload is not a JSON object
+     * @throws IllegalArgumentException When the operation is unknown or the
+     * table is missing
+     */
+    public static DOIDbChange parse(final String payload) throws IOException {
+        final JsonNode node = MAPPER.readTree(payload);
+        if (node == null || !node.hasNonNull("table") || !node.hasNonNull("operation")) {
+            throw new IllegalArgumentException("table and operation are required");
+        }
+        final Map<String, String> row = new HashMap<>();
+        final JsonNode rowNode = node.path("row");
+        final Iterator<Map.Entry<String, JsonNode>> fields = rowNode.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            row.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().
+                    asText());
+        }
+        return new DOIDbChange(node.get("table").asText(),
+                DOIDbChange.Operation.valueOf(node.get("operation").asText()), row);
+    }
+
+}
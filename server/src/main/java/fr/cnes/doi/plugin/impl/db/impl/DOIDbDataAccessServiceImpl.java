@@ -23,8 +23,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -32,7 +36,10 @@ import org.apache.logging.log4j.Logger;
 import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.db.model.DOIUser;
+import fr.cnes.doi.db.model.LandingPageState;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChangeListener;
 import fr.cnes.doi.plugin.impl.db.service.DOIDbDataAccessService;
+import fr.cnes.doi.settings.DoiSettings;
 import java.util.Map;
 import org.apache.logging.log4j.Level;
 
@@ -74,6 +81,12 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
      */
     public static final String DB_MAX_ACTIVE_CONNECTIONS = "Starter.Database.MaxActiveConnections";
 
+    /**
+     * Enables the listening to the database changes made by the other servers
+     * sharing the database {@value #DB_CHANGE_NOTIFICATIONS}.
+     */
+    public static final String DB_CHANGE_NOTIFICATIONS = "Starter.Database.ChangeNotifications";
+
     /**
      * Logger.
      */
@@ -108,6 +121,31 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
      */
     private static final String FIELD_TOKEN = "token";
 
+    /**
+     * SQL field that contains the DOI of a landing page {@value #FIELD_DOI}.
+     */
+    private static final String FIELD_DOI = "doi";
+    /**
+     * SQL field that contains the HTTP status of the last check of a landing
+     * page {@value #FIELD_STATUS}.
+     */
+    private static final String FIELD_STATUS = "status";
+    /**
+     * SQL field that contains the date of the first check of a landing page
+     * {@value #FIELD_FIRST_SEEN}.
+     */
+    private static final String FIELD_FIRST_SEEN = "first_seen";
+    /**
+     * SQL field that contains the date of the last check of a landing page
+     * {@value #FIELD_LAST_CHECK}.
+     */
+    private static final String FIELD_LAST_CHECK = "last_check";
+    /**
+     * SQL field that contains the number of consecutive failed checks of a
+     * landing page {@value #FIELD_FAILURES}.
+     */
+    private static final String FIELD_FAILURES = "failures";
+
     /**
      * Select user information.
      */
@@ -155,6 +193,16 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
             + ")", FIELD_USERNAME, FIELD_ADMIN, FIELD_EMAIL, FIELD_USERNAME,
             FIELD_USERNAME, FIELD_PROJECT_SUFFIX);
 
+    /**
+     * Select the users of all the projects, ordered by DOI suffix.
+     */
+    private static final String SELECT_ASSIGNATIONS_WITH_USERS = String.format(
+            "SELECT a.%s, u.%s, u.%s, u.%s "
+            + "FROM T_DOI_ASSIGNATIONS a "
+            + "JOIN T_DOI_USERS u ON u.%s = a.%s "
+            + "ORDER BY a.%s", FIELD_PROJECT_SUFFIX, FIELD_USERNAME, FIELD_ADMIN, FIELD_EMAIL,
+            FIELD_USERNAME, FIELD_USERNAME, FIELD_PROJECT_SUFFIX);
+
     /**
      * Select user information based on its username.
      */
@@ -178,6 +226,19 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
     private static final String SELECT_TOKEN = String.format(
             "SELECT %s FROM T_DOI_TOKENS", FIELD_TOKEN);
 
+    /**
+     * Checks if the token exists.
+     */
+    private static final String SELECT_EXISTS_TOKEN = String.format(
+            "SELECT 1 FROM T_DOI_TOKENS WHERE %s=?", FIELD_TOKEN);
+
+    /**
+     * Select the state of the landing pages.
+     */
+    private static final String SELECT_LANDING_PAGES = String.format(
+            "SELECT %s, %s, %s, %s, %s FROM T_DOI_LANDING_PAGES",
+            FIELD_DOI, FIELD_STATUS, FIELD_FIRST_SEEN, FIELD_LAST_CHECK, FIELD_FAILURES);
+
     /**
      * Delete part of the project.
      */
@@ -218,12 +279,30 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
     private static final String DELETE_ASSIGN_USER_AND_SUFFIX = String.format(
             DELETE_ASSIGN_USERNAME + " AND %s=?", FIELD_PROJECT_SUFFIX);
 
+    /**
+     * Delete a user and its assignations in one statement.
+     */
+    private static final String DELETE_DOI_USERS_WITH_ASSIGN = String.format(
+            "WITH assignations AS (%s) %s", DELETE_ASSIGN_USERNAME, DELETE_DOI_USERS);
+
+    /**
+     * Delete a project and its assignations in one statement.
+     */
+    private static final String DELETE_PROJECT_WITH_ASSIGN = String.format(
+            "WITH assignations AS (%s) %s", DELETE_ASSIGN_SUFFIX, DELETE_PROJECT_WITH_SUFFIX);
+
     /**
      * Delete token.
      */
     private static final String DELETE_TOKEN = String.format(
             "DELETE FROM T_DOI_TOKENS WHERE %s=?", FIELD_TOKEN);
 
+    /**
+     * Delete the state of a landing page.
+     */
+    private static final String DELETE_LANDING_PAGE = String.format(
+            "DELETE FROM T_DOI_LANDING_PAGES WHERE %s=?", FIELD_DOI);
+
     /**
      * Insert user information.
      */
@@ -245,11 +324,12 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
             FIELD_PROJECT_SUFFIX, FIELD_PROJECTNAME);
 
     /**
-     * Insert assignation information.
+     * Insert assignation information when both the user and the project exist.
      */
     private static final String INSERT_DOI_ASSIGN = String.format(
-            "INSERT INTO T_DOI_ASSIGNATIONS (%s, %s) VALUES(?,?)",
-            FIELD_USERNAME, FIELD_PROJECT_SUFFIX);
+            "INSERT INTO T_DOI_ASSIGNATIONS (%s, %s) SELECT ?, ? "
+            + "WHERE EXISTS (%s) AND EXISTS (%s)",
+            FIELD_USERNAME, FIELD_PROJECT_SUFFIX, SELECT_EXISTS_USERNAME, SELECT_EXISTS_SUFFIX);
 
     /**
      * Insert token.
@@ -257,6 +337,16 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
     private static final String INSERT_TOKEN = String.format(
             "INSERT INTO T_DOI_TOKENS (%s) VALUES (?)", FIELD_TOKEN);
 
+    /**
+     * Insert or update the state of a landing page.
+     */
+    private static final String UPSERT_LANDING_PAGE = String.format(
+            "INSERT INTO T_DOI_LANDING_PAGES (%s, %s, %s, %s, %s) VALUES (?,?,?,?,?) "
+            + "ON CONFLICT (%s) DO UPDATE SET %s=EXCLUDED.%s, %s=EXCLUDED.%s, %s=EXCLUDED.%s",
+            FIELD_DOI, FIELD_STATUS, FIELD_FIRST_SEEN, FIELD_LAST_CHECK, FIELD_FAILURES,
+            FIELD_DOI, FIELD_STATUS, FIELD_STATUS, FIELD_LAST_CHECK, FIELD_LAST_CHECK,
+            FIELD_FAILURES, FIELD_FAILURES);
+
     /**
      * Sets a user as admin.
      */
@@ -281,6 +371,17 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
      */
     private JDBCConnector dbConnector;
 
+    /**
+     * Listeners of the database changes.
+     */
+    private final Set<DOIDbChangeListener> changeListeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * Notifier of the database changes or null when the notifications are
+     * disabled.
+     */
+    private DOIDbChangeNotifier changeNotifier;
+
     /**
      * Constructor.
      */
@@ -320,10 +421,33 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
                 options);
         if (dbConnector == null) {
             dbConnector = new JDBCConnector(dbUrl, dbUser, dbPwd, options);
+            final boolean isNotified = Boolean.parseBoolean(DoiSettings.getInstance().getString(
+                    DB_CHANGE_NOTIFICATIONS, "false"));
+            LOGGER.info("[CONF] Database change notifications : {}", isNotified);
+            if (isNotified) {
+                changeNotifier = new DOIDbChangeNotifier(dbConnector, changeListeners);
+                changeNotifier.start();
+            }
         }
         LOGGER.traceExit();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addChangeListener(final DOIDbChangeListener listener) {
+        this.changeListeners.add(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeChangeListener(final DOIDbChangeListener listener) {
+        this.changeListeners.remove(listener);
+    }
+
     /**
      * Returns the list of DOI projects
      *
@@ -371,6 +495,35 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         return LOGGER.traceExit(users);
     }
 
+    /**
+     * Returns the users by DOI suffix.
+     *
+     * @param statement Query to T_DOI_ASSIGNATIONS joined with T_DOI_USERS
+     * @return the users related to the query by DOI suffix
+     * @throws SQLException When an SQL execption occurs
+     */
+    private Map<Integer, List<DOIUser>> getDOIUsersBySuffix(final PreparedStatement statement)
+            throws SQLException {
+        LOGGER.traceEntry("Parameter\n\t statement: {}", statement.toString());
+        LOGGER.debug(statement.toString());
+        final Map<Integer, List<DOIUser>> assignations = new LinkedHashMap<>();
+        int nbAssignations = 0;
+        try (final ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                final DOIUser doiuser = new DOIUser();
+                doiuser.setUsername(rs.getString(FIELD_USERNAME));
+                doiuser.setAdmin(rs.getBoolean(FIELD_ADMIN));
+                doiuser.setEmail(rs.getString(FIELD_EMAIL));
+                assignations.computeIfAbsent(rs.getInt(FIELD_PROJECT_SUFFIX),
+                        suffix -> new ArrayList<>()).add(doiuser);
+                nbAssignations++;
+            }
+        }
+        LOGGER.debug("{} assignations found for {} projects", nbAssignations,
+                assignations.size());
+        return LOGGER.traceExit(assignations);
+    }
+
     /**
      * Returns the list of tokens.
      *
@@ -391,6 +544,33 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         return LOGGER.traceExit(tokens);
     }
 
+    /**
+     * Returns the list of landing page states.
+     *
+     * @param statement Query to T_DOI_LANDING_PAGES
+     * @return the landing page states related to the query
+     * @throws SQLException When an SQL execption occurs
+     */
+    private List<LandingPageState> getLandingPageStates(final PreparedStatement statement)
+            throws SQLException {
+        LOGGER.traceEntry("Parameter\n\t statement: {}", statement.toString());
+        LOGGER.debug(statement.toString());
+        final List<LandingPageState> states = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                final LandingPageState state = new LandingPageState();
+                state.setDoi(rs.getString(FIELD_DOI));
+                state.setStatus(rs.getInt(FIELD_STATUS));
+                state.setFirstSeen(rs.getTimestamp(FIELD_FIRST_SEEN).getTime());
+                state.setLastCheck(rs.getTimestamp(FIELD_LAST_CHECK).getTime());
+                state.setFailures(rs.getInt(FIELD_FAILURES));
+                states.add(state);
+            }
+        }
+        LOGGER.debug("{} landing page states found", states.size());
+        return LOGGER.traceExit(states);
+    }
+
     /**
      * Updates queries.
      *
@@ -404,6 +584,95 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         }
     }
 
+    /**
+     * Updates a query and returns the number of changed rows.
+     *
+     * @param statement statement
+     * @return the number of changed rows
+     * @throws SQLException - if a problem occurs
+     */
+    private int updateQuery(final PreparedStatement statement) throws SQLException {
+        LOGGER.debug(statement.toString());
+        return statement.executeUpdate();
+    }
+
+    /**
+     * Executes a query for each value with JDBC batching. The connection is
+     * not released.
+     *
+     * @param <T> type of the values
+     * @param conn connection
+     * @param query query
+     * @param values values
+     * @param binder sets the parameters of the query from a value
+     * @return the number of changed rows for each value
+     * @throws SQLException - if a problem occurs
+     */
+    private <T> int[] executeBatch(final Connection conn, final String query,
+            final List<T> values, final StatementBinder<T> binder) throws SQLException {
+        LOGGER.traceEntry("Parameters:\n\tquery:{}\n\tvalues:{}", query, values.size());
+        final int[] counts;
+        try (PreparedStatement statement = conn.prepareStatement(query)) {
+            for (final T value : values) {
+                binder.bind(statement, value);
+                statement.addBatch();
+            }
+            counts = statement.executeBatch();
+        }
+        return LOGGER.traceExit(counts);
+    }
+
+    /**
+     * Executes statements in one transaction. The transaction is rolled back
+     * when an exception occurs.
+     *
+     * @param caller name of the calling method, for the error message
+     * @param transaction statements to execute
+     * @throws DOIDbException When an Database exception happens
+     */
+    @SuppressFBWarnings(value = "OBL_UNSATISFIED_OBLIGATION",
+            justification = "Cleans up with closeAndRelease method")
+    private void executeInTransaction(final String caller, final Transaction transaction)
+            throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tcaller:{}", caller);
+        Connection conn = null;
+        try {
+            conn = dbConnector.getConnection();
+            conn.setAutoCommit(false);
+            transaction.execute(conn);
+            conn.commit();
+        } catch (DOIDbException e) {
+            rollback(conn);
+            throw e;
+        } catch (SQLException e) {
+            rollback(conn);
+            throw LOGGER.throwing(
+                    Level.ERROR,
+                    new DOIDbException("An exception occured when calling " + caller, e)
+            );
+        } finally {
+            restoreAutoCommit(conn);
+            closeAndRelease(conn);
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Sets the parameters of the conditional insertion of an assignation.
+     *
+     * @param statement statement of {@link #INSERT_DOI_ASSIGN}
+     * @param username user name
+     * @param suffix suffix related to a project
+     * @throws SQLException - if a problem occurs
+     */
+    private void bindAssignation(final PreparedStatement statement, final String username,
+            final int suffix) throws SQLException {
+        statement.setString(1, username);
+        statement.setInt(2, suffix);
+        statement.setString(3, username);
+        statement.setInt(4, suffix);
+    }
+
     /**
      * Returns the list of projectName.
      *
@@ -441,6 +710,37 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         return LOGGER.traceExit(isExist);
     }
 
+    /**
+     * Rollbacks the current transaction.
+     *
+     * @param conn connection or null
+     */
+    private void rollback(final Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                LOGGER.error("Unable to rollback the transaction", e);
+            }
+        }
+    }
+
+    /**
+     * Restores the auto-commit mode before the connection goes back to the
+     * pool.
+     *
+     * @param conn connection or null
+     */
+    private void restoreAutoCommit(final Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                LOGGER.error("Unable to restore the auto-commit mode", e);
+            }
+        }
+    }
+
     /**
      * Close the statements and free the connection.
      *
@@ -575,6 +875,32 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         return LOGGER.traceExit(users);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings(value = "OBL_UNSATISFIED_OBLIGATION",
+            justification = "Cleans up with closeAndRelease method")
+    public Map<Integer, List<DOIUser>> getAllDOIProjectAssignations() throws DOIDbException {
+        LOGGER.traceEntry();
+        final Map<Integer, List<DOIUser>> assignations;
+        Connection conn = null;
+        PreparedStatement statement = null;
+        try {
+            conn = dbConnector.getConnection();
+            statement = conn.prepareStatement(SELECT_ASSIGNATIONS_WITH_USERS);
+            assignations = getDOIUsersBySuffix(statement);
+        } catch (SQLException e) {
+            throw LOGGER.throwing(
+                    Level.FATAL,
+                    new DOIDbException(
+                            "An exception occured when calling getAllDOIProjectAssignations", e));
+        } finally {
+            closeAndRelease(conn, statement);
+        }
+        return LOGGER.traceExit(assignations);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -639,39 +965,28 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
     public void addDOIProjectToUser(final String username, final int suffix) throws DOIDbException {
         LOGGER.traceEntry("Parameters:\n\tusername:{}\n\tsuffix:{}", username, suffix);
         Connection conn = null;
-        PreparedStatement userStatement = null;
-        PreparedStatement projectStatement = null;
         PreparedStatement assignationStatement = null;
+        final int nbRows;
         try {
             conn = dbConnector.getConnection();
-
-            userStatement = conn.prepareStatement(SELECT_EXISTS_USERNAME);
-            userStatement.setString(1, username);
-            final boolean isUserExist = isQueryExist(userStatement);
-
-            projectStatement = conn.prepareStatement(SELECT_EXISTS_SUFFIX);
-            projectStatement.setInt(1, suffix);
-            final boolean isProjectExist = isQueryExist(projectStatement);
-
-            if (!isUserExist || !isProjectExist) {
-                throw LOGGER.throwing(
-                        Level.FATAL,
-                        new DOIDbException(
-                                "An exception occured when calling addDOIProjectToUser: user " + username
-                                + " or project " + suffix + " don't exist in doi database", null)
-                );
-            }
             assignationStatement = conn.prepareStatement(INSERT_DOI_ASSIGN);
-            assignationStatement.setString(1, username);
-            assignationStatement.setInt(2, suffix);
-            this.updateQueries(assignationStatement);
+            bindAssignation(assignationStatement, username, suffix);
+            nbRows = this.updateQuery(assignationStatement);
         } catch (SQLException e) {
             throw LOGGER.throwing(
                     Level.ERROR,
                     new DOIDbException("An exception occured when calling addDOIProjectToUser", e)
             );
         } finally {
-            closeAndRelease(conn, userStatement, projectStatement, assignationStatement);
+            closeAndRelease(conn, assignationStatement);
+        }
+        if (nbRows == 0) {
+            throw LOGGER.throwing(
+                    Level.FATAL,
+                    new DOIDbException(
+                            "An exception occured when calling addDOIProjectToUser: user " + username
+                            + " or project " + suffix + " don't exist in doi database", null)
+            );
         }
         LOGGER.traceExit();
     }
@@ -714,31 +1029,27 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
     public void setAdmin(final String username) throws DOIDbException {
         LOGGER.traceEntry("Parameters:\n\tusername:{}", username);
         Connection conn = null;
-        PreparedStatement userStatement = null;
         PreparedStatement updateStatement = null;
+        final int nbRows;
         try {
             conn = dbConnector.getConnection();
-            userStatement = conn.prepareStatement(SELECT_EXISTS_USERNAME);
-            userStatement.setString(1, username);
-            final boolean isUserExist = isQueryExist(userStatement);
-            if (isUserExist) {
-                updateStatement = conn.prepareStatement(UPDATE_ADMIN_TRUE);
-                updateStatement.setString(1, username);
-                this.updateQueries(updateStatement);
-            } else {
-                throw LOGGER.throwing(
-                        Level.ERROR,
-                        new DOIDbException(
-                                "An exception occured when calling setAdmin:" + "user " + username
-                                + " don't exist in doi database", null)
-                );
-            }
+            updateStatement = conn.prepareStatement(UPDATE_ADMIN_TRUE);
+            updateStatement.setString(1, username);
+            nbRows = this.updateQuery(updateStatement);
         } catch (SQLException e) {
             throw LOGGER.throwing(
                     Level.ERROR,
                     new DOIDbException("An exception occured when calling setAdmin", e));
         } finally {
-            closeAndRelease(conn, userStatement, updateStatement);
+            closeAndRelease(conn, updateStatement);
+        }
+        if (nbRows == 0) {
+            throw LOGGER.throwing(
+                    Level.ERROR,
+                    new DOIDbException(
+                            "An exception occured when calling setAdmin:" + "user " + username
+                            + " don't exist in doi database", null)
+            );
         }
         LOGGER.traceExit();
     }
@@ -902,6 +1213,33 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         return LOGGER.traceExit(tokens);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings(value = "OBL_UNSATISFIED_OBLIGATION",
+            justification = "Cleans up with closeAndRelease method")
+    public boolean isTokenExist(final String token) throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\ttoken:{}", token);
+        final boolean isExist;
+        Connection conn = null;
+        PreparedStatement statement = null;
+        try {
+            conn = dbConnector.getConnection();
+            statement = conn.prepareStatement(SELECT_EXISTS_TOKEN);
+            statement.setString(1, token);
+            isExist = isQueryExist(statement);
+        } catch (SQLException e) {
+            throw LOGGER.throwing(
+                    Level.ERROR,
+                    new DOIDbException("An exception occured when calling isTokenExist", e)
+            );
+        } finally {
+            closeAndRelease(conn, statement);
+        }
+        return LOGGER.traceExit(isExist);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -912,24 +1250,19 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         LOGGER.traceEntry("Parameters:\n\tusername:{}", username);
         Connection conn = null;
         PreparedStatement usersStatement = null;
-        PreparedStatement assignationsStatement = null;
-
         try {
             conn = dbConnector.getConnection();
-            usersStatement = conn.prepareStatement(DELETE_DOI_USERS);
+            usersStatement = conn.prepareStatement(DELETE_DOI_USERS_WITH_ASSIGN);
             usersStatement.setString(1, username);
-
-            assignationsStatement = conn.prepareStatement(DELETE_ASSIGN_USERNAME);
-            assignationsStatement.setString(1, username);
-
-            this.updateQueries(usersStatement, assignationsStatement);
+            usersStatement.setString(2, username);
+            this.updateQueries(usersStatement);
         } catch (SQLException e) {
             throw LOGGER.throwing(
                     Level.ERROR,
                     new DOIDbException("An exception occured when calling removeDOIUser", e)
             );
         } finally {
-            closeAndRelease(conn, usersStatement, assignationsStatement);
+            closeAndRelease(conn, usersStatement);
         }
         LOGGER.traceExit();
     }
@@ -974,16 +1307,12 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         LOGGER.traceEntry("Parameters:\n\tsuffix:{}", suffix);
         Connection conn = null;
         PreparedStatement projectStatement = null;
-        PreparedStatement assignationsStatement = null;
         try {
             conn = dbConnector.getConnection();
-            projectStatement = conn.prepareStatement(DELETE_PROJECT_WITH_SUFFIX);
+            projectStatement = conn.prepareStatement(DELETE_PROJECT_WITH_ASSIGN);
             projectStatement.setInt(1, suffix);
-
-            assignationsStatement = conn.prepareStatement(DELETE_ASSIGN_SUFFIX);
-            assignationsStatement.setInt(1, suffix);
-
-            this.updateQueries(projectStatement, assignationsStatement);
+            projectStatement.setInt(2, suffix);
+            this.updateQueries(projectStatement);
         } catch (SQLException e) {
             LOGGER.error("An exception occured when calling removeDOIProject", e);
             throw LOGGER.throwing(
@@ -991,7 +1320,7 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
                     new DOIDbException("An exception occured when calling removeDOIProject", e)
             );
         } finally {
-            closeAndRelease(conn, projectStatement, assignationsStatement);
+            closeAndRelease(conn, projectStatement);
         }
         LOGGER.traceExit();
     }
@@ -1049,12 +1378,259 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         return LOGGER.traceExit(getDoiUserFromDb(username) != null);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings(value = "OBL_UNSATISFIED_OBLIGATION",
+            justification = "Cleans up with closeAndRelease method")
+    public List<LandingPageState> getLandingPageStates() throws DOIDbException {
+        LOGGER.traceEntry();
+        final List<LandingPageState> states = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement statement = null;
+        try {
+            conn = dbConnector.getConnection();
+            statement = conn.prepareStatement(SELECT_LANDING_PAGES);
+            states.addAll(getLandingPageStates(statement));
+        } catch (SQLException e) {
+            throw LOGGER.throwing(
+                    Level.ERROR,
+                    new DOIDbException("An exception occured when calling getLandingPageStates",
+                            e)
+            );
+        } finally {
+            closeAndRelease(conn, statement);
+        }
+        return LOGGER.traceExit(states);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings(value = "OBL_UNSATISFIED_OBLIGATION",
+            justification = "Cleans up with closeAndRelease method")
+    public void saveLandingPageStates(final List<LandingPageState> states) throws
+            DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tstates:{}", states.size());
+        Connection conn = null;
+        PreparedStatement statement = null;
+        try {
+            conn = dbConnector.getConnection();
+            conn.setAutoCommit(false);
+            statement = conn.prepareStatement(UPSERT_LANDING_PAGE);
+            for (final LandingPageState state : states) {
+                statement.setString(1, state.getDoi());
+                statement.setInt(2, state.getStatus());
+                statement.setTimestamp(3, new Timestamp(state.getFirstSeen()));
+                statement.setTimestamp(4, new Timestamp(state.getLastCheck()));
+                statement.setInt(5, state.getFailures());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw LOGGER.throwing(
+                    Level.ERROR,
+                    new DOIDbException("An exception occured when calling saveLandingPageStates",
+                            e)
+            );
+        } finally {
+            restoreAutoCommit(conn);
+            closeAndRelease(conn, statement);
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings(value = "OBL_UNSATISFIED_OBLIGATION",
+            justification = "Cleans up with closeAndRelease method")
+    public void deleteLandingPageStates(final List<String> dois) throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tdois:{}", dois.size());
+        Connection conn = null;
+        PreparedStatement statement = null;
+        try {
+            conn = dbConnector.getConnection();
+            conn.setAutoCommit(false);
+            statement = conn.prepareStatement(DELETE_LANDING_PAGE);
+            for (final String doi : dois) {
+                statement.setString(1, doi);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw LOGGER.throwing(
+                    Level.ERROR,
+                    new DOIDbException(
+                            "An exception occured when calling deleteLandingPageStates", e)
+            );
+        } finally {
+            restoreAutoCommit(conn);
+            closeAndRelease(conn, statement);
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addDOIUsers(final List<DOIUser> users) throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tusers:{}", users);
+        if (!users.isEmpty()) {
+            executeInTransaction("addDOIUsers", conn -> addDOIUsers(conn, users));
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeDOIUsers(final List<String> usernames) throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tusernames:{}", usernames);
+        if (!usernames.isEmpty()) {
+            executeInTransaction("removeDOIUsers", conn -> removeDOIUsers(conn, usernames));
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateDOIUsers(final List<DOIUser> usersToAdd, final List<String> usersToRemove)
+            throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tusersToAdd:{}\n\tusersToRemove:{}", usersToAdd,
+                usersToRemove);
+        if (!usersToAdd.isEmpty() || !usersToRemove.isEmpty()) {
+            executeInTransaction("updateDOIUsers", conn -> {
+                removeDOIUsers(conn, usersToRemove);
+                addDOIUsers(conn, usersToAdd);
+            });
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Adds DOI users with JDBC batching. The connection is not released.
+     *
+     * @param conn connection
+     * @param users users to add
+     * @throws SQLException - if a problem occurs
+     */
+    private void addDOIUsers(final Connection conn, final List<DOIUser> users) throws
+            SQLException {
+        executeBatch(conn, INSERT_FULL_DOI_UERS, users, (statement, user) -> {
+            statement.setString(1, user.getUsername());
+            statement.setBoolean(2, user.isAdmin());
+            statement.setString(3, user.getEmail());
+        });
+    }
+
+    /**
+     * Removes DOI users and their assignations with JDBC batching. The
+     * connection is not released.
+     *
+     * @param conn connection
+     * @param usernames user names
+     * @throws SQLException - if a problem occurs
+     */
+    private void removeDOIUsers(final Connection conn, final List<String> usernames) throws
+            SQLException {
+        executeBatch(conn, DELETE_DOI_USERS_WITH_ASSIGN, usernames, (statement, username) -> {
+            statement.setString(1, username);
+            statement.setString(2, username);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addDOIProjectToUsers(final List<String> usernames, final int suffix) throws
+            DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tusernames:{}\n\tsuffix:{}", usernames, suffix);
+        if (!usernames.isEmpty()) {
+            executeInTransaction("addDOIProjectToUsers", conn -> {
+                final int[] counts = executeBatch(conn, INSERT_DOI_ASSIGN, usernames,
+                        (statement, username) -> bindAssignation(statement, username, suffix));
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        throw LOGGER.throwing(
+                                Level.ERROR,
+                                new DOIDbException(
+                                        "An exception occured when calling addDOIProjectToUsers: "
+                                        + "user " + usernames.get(i) + " or project " + suffix
+                                        + " don't exist in doi database", null)
+                        );
+                    }
+                }
+            });
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeDOIProjectFromUsers(final List<String> usernames, final int suffix) throws
+            DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\tusernames:{}\n\tsuffix:{}", usernames, suffix);
+        if (!usernames.isEmpty()) {
+            executeInTransaction("removeDOIProjectFromUsers", conn -> executeBatch(conn,
+                    DELETE_ASSIGN_USER_AND_SUFFIX, usernames, (statement, username) -> {
+                        statement.setString(1, username);
+                        statement.setInt(2, suffix);
+                    }));
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addTokens(final List<String> tokens) throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\ttokens:{}", tokens.size());
+        if (!tokens.isEmpty()) {
+            executeInTransaction("addTokens", conn -> executeBatch(conn, INSERT_TOKEN, tokens,
+                    (statement, token) -> statement.setString(1, token)));
+        }
+        LOGGER.traceExit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteTokens(final List<String> tokens) throws DOIDbException {
+        LOGGER.traceEntry("Parameters:\n\ttokens:{}", tokens.size());
+        if (!tokens.isEmpty()) {
+            executeInTransaction("deleteTokens", conn -> executeBatch(conn, DELETE_TOKEN, tokens,
+                    (statement, token) -> statement.setString(1, token)));
+        }
+        LOGGER.traceExit();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void close() throws DOIDbException {
         LOGGER.traceEntry();
+        if (this.changeNotifier != null) {
+            this.changeNotifier.stop();
+            this.changeNotifier = null;
+        }
         if (this.dbConnector != null) {
             this.dbConnector.close();
             this.dbConnector = null;
@@ -1062,4 +1638,38 @@ public final class DOIDbDataAccessServiceImpl implements DOIDbDataAccessService
         LOGGER.traceExit();
     }
 
+    /**
+     * Sets the parameters of a query from a value.
+     *
+     * @param <T> type of the value
+     */
+    @FunctionalInterface
+    private interface StatementBinder<T> {
+
+        /**
+         * Sets the parameters of the statement from the value.
+         *
+         * @param statement statement
+         * @param value value
+         * @throws SQLException - if a problem occurs
+         */
+        void bind(PreparedStatement statement, T value) throws SQLException;
+    }
+
+    /**
+     * Statements executed in one transaction.
+     */
+    @FunctionalInterface
+    private interface Transaction {
+
+        /**
+         * Executes the statements on the connection.
+         *
+         * @param conn connection, in manual commit mode
+         * @throws SQLException - if a problem occurs
+         * @throws DOIDbException When the transaction must be rolled back
+         */
+        void execute(Connection conn) throws SQLException, DOIDbException;
+    }
+
 }
@@ -23,6 +23,7 @@ import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MAX_
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MAX_IDLE_CONNECTIONS;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MIN_IDLE_CONNECTIONS;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
 
 import org.apache.commons.dbcp.BasicDataSource;
@@ -165,6 +166,20 @@ public class JDBCConnector {
         return LOGGER.traceExit(dataSource.getConnection());
     }
 
+    /**
+     * Opens a connection to the database outside the connection pool, for a
+     * long-lived use such as listening to notifications. The caller closes
+     * it.
+     *
+     * @return a database connection
+     * @throws SQLException if a database access error occurs
+     */
+    public Connection getDedicatedConnection() throws SQLException {
+        LOGGER.traceEntry();
+        return LOGGER.traceExit(DriverManager.getConnection(dataSource.getUrl(),
+                dataSource.getUsername(), dataSource.getPassword()));
+    }
+
     /**
      * Closes and releases all idle connections that are currently stored in the
      * connection pool associated with this data source.
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.plugin.impl.db.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Change of a row of the DOI database, notified by the database to all the
+ * DOI servers sharing it.
+ */
+public final class DOIDbChange {
+
+    /**
+     * Users table {@value #TABLE_USERS}.
+     */
+    public static final String TABLE_USERS = "t_doi_users";
+
+    /**
+     * Projects table {@value #TABLE_PROJECTS}.
+     */
+    public static final String TABLE_PROJECTS = "t_doi_project";
+
+    /**
+     * Assignations of the users to the projects table
+     * {@value #TABLE_ASSIGNATIONS}.
+     */
+    public static final String TABLE_ASSIGNATIONS = "t_doi_assignations";
+
+    /**
+     * Tokens table {@value #TABLE_TOKENS}.
+     */
+    public static final String TABLE_TOKENS = "t_doi_tokens";
+
+    /**
+     * Operation on the row.
+     */
+    public enum Operation {
+        /**
+         * The row has been inserted.
+         */
+        INSERT,
+        /**
+         * The row has been updated.
+         */
+        UPDATE,
+        /**
+         * The row has been deleted.
+         */
+        DELETE
+    }
+
+    /**
+     * Table name in lower case.
+     */
+    private final String table;
+
+    /**
+     * Operation on the row.
+     */
+    private final Operation operation;
+
+    /**
+     * Values of the row by column name, the new values for an insert or an
+     * update and the old ones for a delete.
+     */
+    private final Map<String, String> row;
+
+    /**
+     * Creates a change.
+     *
+     * @param table table name
+     * @param operation operation on the row
+     * @param row values of the row by column name
+     */
+    public DOIDbChange(final String table, final Operation operation,
+            final Map<String, String> row) {
+        this.table = table.toLowerCase();
+        this.operation = operation;
+        this.row = Collections.unmodifiableMap(new HashMap<>(row));
+    }
+
+    /**
+     * Returns the table name in lower case.
+     *
+     * @return the table name
+     */
+    public String getTable() {
+        return this.table;
+    }
+
+    /**
+     * Returns the operation on the row.
+     *
+     * @return the operation
+     */
+    public Operation getOperation() {
+        return this.operation;
+    }
+
+    /**
+     * Returns the value of a column of the row.
+     *
+     * @param column column name in lower case
+     * @return the value or null
+     */
+    public String getValue(final String column) {
+        return this.row.get(column);
+    }
+
+    /**
+     * Tests if the change is on a table.
+     *
+     * @param tableName table name in lower case
+     * @return True when the change is on this table otherwise False
+     */
+    public boolean isOn(final String tableName) {
+        return this.table.equals(tableName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return this.operation + " " + this.table + " " + this.row;
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.plugin.impl.db.service;
+
+/**
+ * Listener of the changes made in the DOI database by any DOI server sharing
+ * it. The listeners keep their in-memory state coherent with the database.
+ */
+public interface DOIDbChangeListener {
+
+    /**
+     * Applies a change of a row of the database.
+     *
+     * @param change change of the row
+     */
+    public void onChange(DOIDbChange change);
+
+    /**
+     * Reloads the whole state from the database because some changes may have
+     * been missed, for instance after the loss of the database connection.
+     */
+    public void onResynchronization();
+
+}
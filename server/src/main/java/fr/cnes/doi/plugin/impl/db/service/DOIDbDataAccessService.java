@@ -19,10 +19,12 @@
 package fr.cnes.doi.plugin.impl.db.service;
 
 import java.util.List;
+import java.util.Map;
 
 import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.db.model.DOIUser;
+import fr.cnes.doi.db.model.LandingPageState;
 
 /**
  * Interface between server and database
@@ -63,6 +65,15 @@ public interface DOIDbDataAccessService {
      */
     public List<DOIUser> getAllDOIUsersForProject(int suffix) throws DOIDbException;
 
+    /**
+     * Get the users of all the projects in one query.
+     *
+     * @return the users by DOI suffix, the projects without user are not
+     * returned
+     * @throws DOIDbException When an Database exception happens
+     */
+    public Map<Integer, List<DOIUser>> getAllDOIProjectAssignations() throws DOIDbException;
+
     /**
      * Add a DOI user
      *
@@ -205,6 +216,125 @@ public interface DOIDbDataAccessService {
      */
     public List<String> getTokens() throws DOIDbException;
 
+    /**
+     * Checks if a token exists in the database.
+     *
+     * @param token token to check
+     * @return True when the token exists otherwise False
+     * @throws fr.cnes.doi.exception.DOIDbException When an Database exception
+     * happens
+     */
+    public boolean isTokenExist(String token) throws DOIDbException;
+
+    /**
+     * Returns the state of the landing pages checked so far.
+     *
+     * @return List of landing page states
+     * @throws fr.cnes.doi.exception.DOIDbException When an Database exception
+     * happens
+     */
+    public List<LandingPageState> getLandingPageStates() throws DOIDbException;
+
+    /**
+     * Creates or updates the state of landing pages in one transaction.
+     *
+     * @param states states to save
+     * @throws fr.cnes.doi.exception.DOIDbException When an Database exception
+     * happens
+     */
+    public void saveLandingPageStates(List<LandingPageState> states) throws DOIDbException;
+
+    /**
+     * Deletes the state of landing pages in one transaction.
+     *
+     * @param dois DOIs of the landing pages
+     * @throws fr.cnes.doi.exception.DOIDbException When an Database exception
+     * happens
+     */
+    public void deleteLandingPageStates(List<String> dois) throws DOIDbException;
+
+    /**
+     * Adds DOI users in one transaction. No user is added when one of them
+     * cannot be added.
+     *
+     * @param users users to add
+     * @throws DOIDbException When an Database exception happens
+     */
+    public void addDOIUsers(List<DOIUser> users) throws DOIDbException;
+
+    /**
+     * Removes DOI users and their assignations in one transaction.
+     *
+     * @param usernames user names
+     * @throws DOIDbException When an Database exception happens
+     */
+    public void removeDOIUsers(List<String> usernames) throws DOIDbException;
+
+    /**
+     * Removes and adds DOI users in one transaction. Nothing is changed when
+     * one of the users cannot be removed or added.
+     *
+     * @param usersToAdd users to add
+     * @param usersToRemove user names of the users to remove
+     * @throws DOIDbException When an Database exception happens
+     */
+    public void updateDOIUsers(List<DOIUser> usersToAdd, List<String> usersToRemove) throws
+            DOIDbException;
+
+    /**
+     * Assigns a DOI project to users in one transaction. No user is assigned
+     * when the project or one of the users does not exist.
+     *
+     * @param usernames user names
+     * @param suffix suffix related to a project
+     * @throws DOIDbException When an Database exception happens
+     */
+    public void addDOIProjectToUsers(List<String> usernames, int suffix) throws DOIDbException;
+
+    /**
+     * Removes a DOI project from users in one transaction.
+     *
+     * @param usernames user names
+     * @param suffix suffix related to a project
+     * @throws DOIDbException When an Database exception happens
+     */
+    public void removeDOIProjectFromUsers(List<String> usernames, int suffix) throws
+            DOIDbException;
+
+    /**
+     * Adds tokens in one transaction.
+     *
+     * @param tokens tokens to add
+     * @throws fr.cnes.doi.exception.DOIDbException When an Database exception
+     * happens
+     */
+    public void addTokens(List<String> tokens) throws DOIDbException;
+
+    /**
+     * Deletes tokens in one transaction.
+     *
+     * @param tokens tokens to delete
+     * @throws fr.cnes.doi.exception.DOIDbException When an Database exception
+     * happens
+     */
+    public void deleteTokens(List<String> tokens) throws DOIDbException;
+
+    /**
+     * Registers a listener of the changes made in the database by any server
+     * sharing it. The listener is notified only when the change
+     * notifications are enabled.
+     *
+     * @param listener listener of the changes
+     */
+    public void addChangeListener(DOIDbChangeListener listener);
+
+    /**
+     * Unregisters a listener of the database changes.
+     *
+     * @param listener listener of the changes
+     */
+    public void removeChangeListener(DOIDbChangeListener listener);
+
     /**
      * Close and release all the Data access connections.
      *
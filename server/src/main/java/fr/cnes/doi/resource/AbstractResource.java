@@ -25,6 +25,7 @@ import org.apache.logging.log4j.Logger;
 import org.restlet.data.Form;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.DocumentationInfo;
 import org.restlet.ext.wadl.MethodInfo;
 import org.restlet.ext.wadl.ParameterInfo;
@@ -33,6 +34,8 @@ import org.restlet.ext.wadl.RepresentationInfo;
 import org.restlet.ext.wadl.RequestInfo;
 import org.restlet.ext.wadl.ResponseInfo;
 import org.restlet.ext.wadl.WadlServerResource;
+import org.restlet.representation.EmptyRepresentation;
+import org.restlet.representation.Representation;
 import org.restlet.resource.ResourceException;
 
 /**
@@ -52,6 +55,11 @@ public abstract class AbstractResource extends WadlServerResource {
      */
 	private volatile Logger LOG;
 
+    /**
+     * Entity tag of the returned representation or null.
+     */
+    private volatile Tag entityTag;
+
     /**
      * Init
      *
@@ -119,6 +127,55 @@ public abstract class AbstractResource extends WadlServerResource {
         return LOG.traceExit(!isObjectExist(obj));
     }
 
+    /**
+     * Sets the entity tag of the returned representation and evaluates the
+     * If-None-Match condition of the request against it. When the client
+     * already has the current representation, the status is set to 304 Not
+     * Modified and no entity must be returned.
+     *
+     * @param tag entity tag of the current state of the resource
+     * @return True when the representation of the client is still current
+     * otherwise False
+     */
+    protected boolean isNotModified(final Tag tag) {
+        LOG.traceEntry("Parameter : {}", tag);
+        this.entityTag = tag;
+        boolean isNotModified = false;
+        for (final Tag noneMatch : getRequest().getConditions().getNoneMatch()) {
+            if (Tag.ALL.equals(noneMatch) || tag.equals(noneMatch, false)) {
+                isNotModified = true;
+                break;
+            }
+        }
+        if (isNotModified) {
+            setStatus(Status.REDIRECTION_NOT_MODIFIED);
+        }
+        return LOG.traceExit(isNotModified);
+    }
+
+    /**
+     * Handles the call and adds the entity tag set by
+     * {@link #isNotModified(org.restlet.data.Tag)} to the returned
+     * representation. A 304 Not Modified response has no body but carries the
+     * entity tag in an empty representation.
+     *
+     * @return the returned representation
+     */
+    @Override
+    public Representation handle() {
+        Representation result = super.handle();
+        if (this.entityTag != null) {
+            if (result == null && Status.REDIRECTION_NOT_MODIFIED.equals(getStatus())) {
+                result = new EmptyRepresentation();
+                getResponse().setEntity(result);
+            }
+            if (result != null) {
+                result.setTag(this.entityTag);
+            }
+        }
+        return result;
+    }
+
     /**
      * Adds Wadl description of the request to a method.
      *
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.resource.admin;
+
+import org.apache.logging.log4j.Logger;
+import org.restlet.data.Status;
+import org.restlet.resource.Get;
+import org.restlet.resource.ResourceException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.cnes.doi.application.AdminApplication;
+import fr.cnes.doi.client.CircuitBreaker;
+import fr.cnes.doi.resource.AbstractResource;
+
+/**
+ * Provides the circuit breakers of the remote services : their state and the
+ * number of requests, failures, retries and rejected requests.
+ */
+public class ClientMonitoringResource extends AbstractResource {
+
+    /**
+     * Logger.
+     */
+    private volatile Logger LOG;
+
+    /**
+     * Set-up method that can be overridden in order to initialize the state of
+     * the resource.
+     *
+     * @throws ResourceException - if a problem happens
+     */
+    @Override
+    protected void doInit() throws ResourceException {
+        super.doInit();
+        final AdminApplication app = (AdminApplication) getApplication();
+        LOG = app.getLog();
+        LOG.traceEntry();
+        setDescription("This resource provides the circuit breakers of the remote services");
+        LOG.traceExit();
+    }
+
+    /**
+     * Returns the circuit breakers of the remote services as Json.
+     *
+     * @return the circuit breakers as Json
+     */
+    @Get("json")
+    public String getClientsAsJson() {
+        LOG.traceEntry();
+        try {
+            final ObjectMapper mapper = new ObjectMapper();
+            return LOG.traceExit(mapper.writeValueAsString(CircuitBreaker.getBreakers()));
+        } catch (JsonProcessingException ex) {
+            throw LOG.throwing(new ResourceException(Status.SERVER_ERROR_INTERNAL, ex));
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.logging.log4j.Logger;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.DocumentationInfo;
 import org.restlet.ext.wadl.MethodInfo;
 import org.restlet.ext.wadl.RepresentationInfo;
@@ -32,6 +33,7 @@ import org.restlet.resource.Get;
 import org.restlet.resource.ResourceException;
 
 import fr.cnes.doi.application.AdminApplication;
+import fr.cnes.doi.client.DoiCatalog;
 import fr.cnes.doi.resource.AbstractResource;
 import fr.cnes.doi.utils.spec.Requirement;
 
@@ -79,9 +81,11 @@ public class SuffixProjectsDoisResource extends AbstractResource {
 
     //TODO requirement
     /**
-     * Returns the list of dois from the project suffix sent in url.
+     * Returns the list of dois from the project suffix sent in url. The list
+     * is tagged so that a client sending If-None-Match with the current tag
+     * gets 304 Not Modified.
      *
-     * @return the list of dois
+     * @return the list of dois or null when the list is not modified
      */
     @Requirement(reqId = Requirement.DOI_SRV_140, reqName = Requirement.DOI_SRV_140_NAME)
     @Get
@@ -93,6 +97,9 @@ public class SuffixProjectsDoisResource extends AbstractResource {
 
         try {
             response = (((AdminApplication)getApplication()).getDois(suffixProject));
+            if (isNotModified(new Tag(DoiCatalog.computeTag(response), false))) {
+                response = null;
+            }
         } catch (Exception ex) {
             LOG.error("Error in SuffixProjectsDoisResource while searching for dois in project {}",
                     this.suffixProject, ex);
@@ -132,6 +139,9 @@ public class SuffixProjectsDoisResource extends AbstractResource {
                 "Operation successful",
                 projectsRepresentation()
         ));
+        addResponseDocToMethod(info, createResponseDoc(
+                Status.REDIRECTION_NOT_MODIFIED,
+                "The DOI list matches the tag sent in If-None-Match"));
     }
 
 }
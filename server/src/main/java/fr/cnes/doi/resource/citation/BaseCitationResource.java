@@ -21,6 +21,7 @@ package fr.cnes.doi.resource.citation;
 import fr.cnes.doi.application.DoiCrossCiteApplication;
 import fr.cnes.doi.resource.AbstractResource;
 import org.apache.logging.log4j.Logger;
+import org.restlet.data.CacheDirective;
 import org.restlet.data.MediaType;
 import org.restlet.ext.wadl.DocumentationInfo;
 import org.restlet.ext.wadl.RepresentationInfo;
@@ -91,6 +92,25 @@ public class BaseCitationResource extends AbstractResource {
         return repInfo;
     }
 
+    /**
+     * Allows the clients and the shared caches to keep the response during a
+     * maximum age.
+     *
+     * @param maxAge maximum age in seconds
+     */
+    protected void setCacheMaxAge(final int maxAge) {
+        getResponse().getCacheDirectives().add(CacheDirective.publicInfo());
+        getResponse().getCacheDirectives().add(CacheDirective.maxAge(maxAge));
+    }
+
+    /**
+     * Allows the clients and the shared caches to keep the response provided
+     * that they revalidate it with its tag before each use.
+     */
+    protected void setCacheRevalidate() {
+        getResponse().getCacheDirectives().add(CacheDirective.noCache());
+    }
+
     /**
      * Returns CrossCiteApplication.
      *
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.resource.citation;
+
+import fr.cnes.doi.client.CitationRenderer;
+import fr.cnes.doi.utils.spec.Requirement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.logging.log4j.Level;
+import org.restlet.data.Form;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.ext.wadl.MethodInfo;
+import org.restlet.ext.wadl.ParameterStyle;
+import org.restlet.resource.Post;
+import org.restlet.resource.ResourceException;
+
+/**
+ * Formats the citations of several DOIs in several styles. The citations are
+ * formatted concurrently with a bounded parallelism and a timeout for the
+ * whole bibliography. A citation that cannot be formatted is returned with its
+ * error.
+ */
+public class BibliographyCitationResource extends BaseCitationResource {
+
+    /**
+     * Init.
+     *
+     * @throws ResourceException - if a problem happens
+     */
+    @Override
+    protected void doInit() throws ResourceException {
+        super.doInit();
+        LOG.traceEntry();
+        setDescription("Formats the citations of several DOIs in several styles, "
+                + "for instance to generate a bibliography.");
+        LOG.traceExit();
+    }
+
+    /**
+     * Returns the citations of each DOI in each style. The form contains one
+     * or several {@link #DOI_PARAMETER}, one or several
+     * {@link #STYLE_PARAMETER} and the {@link #LANG_PARAMETER}.
+     *
+     * @param form submitted form
+     * @return the citations in the order of the DOIs then of the styles
+     * @throws ResourceException - if the parameters are not set, if there are
+     * too many citations, if too many citations are waiting to be formatted or
+     * if the request is interrupted
+     */
+    @Requirement(reqId = Requirement.DOI_SRV_120, reqName = Requirement.DOI_SRV_120_NAME)
+    @Requirement(reqId = Requirement.DOI_MONIT_020, reqName = Requirement.DOI_MONIT_020_NAME)
+    @Post("form:json")
+    public List<CitationRenderer.Entry> getBibliography(final Form form)
+            throws ResourceException {
+        LOG.traceEntry("Parameter : {}", form);
+        checkInputs(form);
+        final CitationRenderer renderer = this.getApp().getCitationRenderer();
+        final List<String> dois = Arrays.asList(form.getValuesArray(DOI_PARAMETER));
+        final List<String> styles = Arrays.asList(form.getValuesArray(STYLE_PARAMETER));
+        if ((long) dois.size() * styles.size() > renderer.getMaxCitations()) {
+            throw LOG.throwing(Level.ERROR, new ResourceException(
+                    Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE,
+                    "A bibliography cannot have more than " + renderer.getMaxCitations()
+                    + " citations"));
+        }
+        try {
+            return LOG.traceExit(renderer.render(dois, styles,
+                    form.getFirstValue(LANG_PARAMETER)));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw LOG.throwing(Level.ERROR, new ResourceException(
+                    Status.SERVER_ERROR_SERVICE_UNAVAILABLE, ex));
+        } catch (RejectedExecutionException ex) {
+            throw LOG.throwing(Level.ERROR, new ResourceException(
+                    Status.SERVER_ERROR_SERVICE_UNAVAILABLE, ex.getMessage(), ex));
+        }
+    }
+
+    /**
+     * Checks input parameters
+     *
+     * @param form submitted form
+     * @throws ResourceException - if {@link #DOI_PARAMETER} and
+     * {@link #LANG_PARAMETER} and {@link #STYLE_PARAMETER} are not set
+     */
+    private void checkInputs(final Form form) throws ResourceException {
+        LOG.traceEntry("Parameter : {}", form);
+        final StringBuilder errorMsg = new StringBuilder();
+        if (isValueNotExist(form, DOI_PARAMETER)) {
+            errorMsg.append(DOI_PARAMETER).append(" value is not set.");
+        }
+        if (isValueNotExist(form, LANG_PARAMETER)) {
+            errorMsg.append(LANG_PARAMETER).append(" value is not set.");
+        }
+        if (isValueNotExist(form, STYLE_PARAMETER)) {
+            errorMsg.append(STYLE_PARAMETER).append(" value is not set.");
+        }
+        if (errorMsg.length() == 0) {
+            LOG.debug("The parameters are valid");
+        } else {
+            throw LOG.throwing(Level.ERROR, new ResourceException(
+                    Status.CLIENT_ERROR_BAD_REQUEST, errorMsg.toString()));
+        }
+        LOG.traceExit();
+    }
+
+    /**
+     * Describes the Post Method.
+     *
+     * @param info Wadl description
+     */
+    @Requirement(reqId = Requirement.DOI_DOC_010, reqName = Requirement.DOI_DOC_010_NAME)
+    @Override
+    protected final void describePost(final MethodInfo info) {
+        info.setName(Method.POST);
+        info.setDocumentation("Formats the citations of several DOIs in several styles");
+        addRequestDocToMethod(info, Arrays.asList(
+                createQueryParamDoc(DOI_PARAMETER, ParameterStyle.PLAIN,
+                        "doi to format, repeated for each DOI", true, "xs:string"),
+                createQueryParamDoc(LANG_PARAMETER, ParameterStyle.PLAIN,
+                        "language for the citation formating", true, "xs:string"),
+                createQueryParamDoc(STYLE_PARAMETER, ParameterStyle.PLAIN,
+                        "style for the citation formating, repeated for each style", true,
+                        "xs:string")
+        ));
+        addResponseDocToMethod(info, createResponseDoc(
+                Status.SUCCESS_OK,
+                "Operation successful",
+                listRepresentation("Bibliography representation",
+                        MediaType.APPLICATION_JSON,
+                        "A JSON array of the citations with doi, style, citation and error"))
+        );
+        addResponseDocToMethod(info, createResponseDoc(
+                Status.CLIENT_ERROR_BAD_REQUEST,
+                "Wrong input parameters",
+                listRepresentation("Error representation",
+                        MediaType.TEXT_HTML, "Error"))
+        );
+        addResponseDocToMethod(info, createResponseDoc(
+                Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE,
+                "Too many citations",
+                listRepresentation("Error representation",
+                        MediaType.TEXT_HTML, "Error"))
+        );
+        addResponseDocToMethod(info, createResponseDoc(
+                Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                "Too many citations waiting to be formatted, retry later",
+                listRepresentation("Error representation",
+                        MediaType.TEXT_HTML, "Error"))
+        );
+    }
+}
@@ -19,6 +19,7 @@
 package fr.cnes.doi.resource.citation;
 
 import fr.cnes.doi.application.AbstractApplication;
+import fr.cnes.doi.client.CitationCache;
 import fr.cnes.doi.exception.ClientCrossCiteException;
 import fr.cnes.doi.utils.spec.Requirement;
 import java.util.Arrays;
@@ -26,6 +27,7 @@ import org.apache.logging.log4j.Level;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.MethodInfo;
 import org.restlet.ext.wadl.ParameterStyle;
 import org.restlet.resource.Get;
@@ -91,9 +93,12 @@ public class FormatCitationResource extends BaseCitationResource {
     }
 
 	/**
-	 * Returns the formatted citation.
+	 * Returns the formatted citation. The citation is cached and tagged so
+	 * that a client sending If-None-Match with the current tag gets 304 Not
+	 * Modified. The clients must revalidate the citation before each use
+	 * because it changes with the metadata of the DOI.
 	 *
-	 * @return the formatted citation
+	 * @return the formatted citation or null when it is not modified
 	 * @throws ResourceException
 	 *             - if a problem happens when requesting Cross Cite or if
 	 *             {@link #DOI_PARAMETER} and {@link #LANG_PARAMETER} and
@@ -106,8 +111,11 @@ public class FormatCitationResource extends BaseCitationResource {
 		LOG.traceEntry();
 		try {
 			checkInputs();
-			return LOG.traceExit(this.getApp().getClient()
-					.getFormat(this.doiName, this.style, this.language));
+			final CitationCache.Citation citation = this.getApp().getCitationCache()
+					.getFormat(this.doiName, this.style, this.language);
+			setCacheRevalidate();
+			return LOG.traceExit(isNotModified(new Tag(citation.getTag(), false)) ? null
+					: citation.getText());
 		} catch (ClientCrossCiteException ex) {
 			((AbstractApplication) getApplication())
 					.sendAlertWhenDataCiteFailed(ex);
@@ -19,6 +19,7 @@
 package fr.cnes.doi.resource.citation;
 
 import fr.cnes.doi.application.AbstractApplication;
+import fr.cnes.doi.client.CitationCache;
 import fr.cnes.doi.exception.ClientCrossCiteException;
 import fr.cnes.doi.utils.spec.Requirement;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.apache.logging.log4j.Level;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.MethodInfo;
 import org.restlet.resource.Get;
 import org.restlet.resource.ResourceException;
@@ -56,7 +58,10 @@ public class LanguageCitationResource extends BaseCitationResource {
     /**
      * Returns the languages as JSON to format the citation.
      *
-     * @return the languages
+     * The list is cached and tagged so that a client sending If-None-Match
+     * with the current tag gets 304 Not Modified.
+     *
+     * @return the languages or null when it is not modified
      * @throws ResourceException - Will thrown an Exception when a problem
      * happens during the request to Cross Cite
      */
@@ -67,7 +72,11 @@ public class LanguageCitationResource extends BaseCitationResource {
         LOG.traceEntry();
         final List<String> result;
         try {
-            result = this.getApp().getClient().getLanguages();
+            final CitationCache.ListSnapshot snapshot = this.getApp().getCitationCache()
+                    .getLanguages();
+            setCacheMaxAge(this.getApp().getListMaxAge());
+            result = isNotModified(new Tag(snapshot.getTag(), false)) ? null
+                    : snapshot.getValues();
         } catch (ClientCrossCiteException ex) {
             ((AbstractApplication) getApplication()).sendAlertWhenDataCiteFailed(ex);
             throw LOG.throwing(Level.ERROR, new ResourceException(ex.getStatus(), ex.
@@ -19,6 +19,7 @@
 package fr.cnes.doi.resource.citation;
 
 import fr.cnes.doi.application.AbstractApplication;
+import fr.cnes.doi.client.CitationCache;
 import fr.cnes.doi.exception.ClientCrossCiteException;
 import fr.cnes.doi.utils.spec.Requirement;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.apache.logging.log4j.Level;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.MethodInfo;
 import org.restlet.resource.Get;
 import org.restlet.resource.ResourceException;
@@ -59,7 +61,10 @@ public class StyleCitationResource extends BaseCitationResource {
     /**
      * Returns the styles as JSON array for a citation.
      *
-     * @return the possibles styles for a citation
+     * The list is cached and tagged so that a client sending If-None-Match
+     * with the current tag gets 304 Not Modified.
+     *
+     * @return the possibles styles for a citation or null when it is not modified
      * @throws ResourceException - Will thrown an Exception when a problem
      * happens during the request to Cross Cite
      */
@@ -70,7 +75,11 @@ public class StyleCitationResource extends BaseCitationResource {
         LOG.traceEntry();
         final List<String> result;
         try {
-            result = this.getApp().getClient().getStyles();
+            final CitationCache.ListSnapshot snapshot = this.getApp().getCitationCache()
+                    .getStyles();
+            setCacheMaxAge(this.getApp().getListMaxAge());
+            result = isNotModified(new Tag(snapshot.getTag(), false)) ? null
+                    : snapshot.getValues();
         } catch (ClientCrossCiteException ex) {
             ((AbstractApplication) getApplication()).sendAlertWhenDataCiteFailed(ex);
             throw LOG.throwing(Level.ERROR, new ResourceException(ex.getStatus(), ex.
@@ -21,6 +21,7 @@ package fr.cnes.doi.resource.mds;
 import fr.cnes.doi.application.DoiMdsApplication.API_MDS;
 import fr.cnes.doi.client.ClientMDS;
 import fr.cnes.doi.client.ClientMDS.DATACITE_API_RESPONSE;
+import fr.cnes.doi.client.DoiCatalog;
 import static fr.cnes.doi.client.ClientMDS.POST_DOI;
 import static fr.cnes.doi.client.ClientMDS.POST_URL;
 import fr.cnes.doi.exception.ClientMdsException;
@@ -34,10 +35,12 @@ import org.restlet.data.Form;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.DocumentationInfo;
 import org.restlet.ext.wadl.MethodInfo;
 import org.restlet.ext.wadl.ParameterStyle;
 import org.restlet.ext.wadl.RepresentationInfo;
+import org.restlet.representation.Representation;
 import org.restlet.resource.Get;
 import org.restlet.resource.Post;
 
@@ -58,6 +61,19 @@ public class DoisResource extends BaseMdsResource {
      */
     public static final String CREATE_DOI = "Create a DOI";
 
+    /**
+     * Query parameter {@value #STREAM_PARAMETER} : when true, the DOI list is
+     * copied from DataCite to the client as it arrives instead of being read
+     * from the DOI catalogue.
+     */
+    public static final String STREAM_PARAMETER = "stream";
+
+    /**
+     * Query parameter {@value #PROJECT_PARAMETER} : project suffix of the
+     * returned DOIs.
+     */
+    public static final String PROJECT_PARAMETER = "project";
+
     /**
      * Init.
      *
@@ -73,10 +89,19 @@ public class DoisResource extends BaseMdsResource {
 
     /**
      * Returns the collection of DOI. This request returns a list of all DOIs
-     * for the requesting datacentre. Status 200 is returned when operation is
-     * successful.
+     * for the requesting datacentre, or only the DOIs of the project given by
+     * {@value #PROJECT_PARAMETER}. Status 200 is returned when operation is
+     * successful. The list comes from the DOI catalogue cached by the client
+     * and is tagged so that a client sending If-None-Match with the current
+     * tag gets 304 Not Modified.
+     *
+     * <p>
+     * With {@value #STREAM_PARAMETER}=true, the list is requested to DataCite
+     * and copied to the client as it arrives, with a memory independent of the
+     * number of DOIs. This list is not tagged.
      *
-     * @return the list of DOI
+     * @return the list of DOI or null when the list is not modified or
+     * streamed
      * @throws DoiServerException 204 No Content - no DOIs founds
      */
     @Get
@@ -84,13 +109,27 @@ public class DoisResource extends BaseMdsResource {
         try {
             LOG.traceEntry();
             setStatus(Status.SUCCESS_OK);
-            final List<String> dois = this.getDoiApp().getClient().getDois();
-            if (dois == null || dois.isEmpty()) {
+            final String project = getQueryValue(PROJECT_PARAMETER);
+            if (Boolean.parseBoolean(getQueryValue(STREAM_PARAMETER))) {
+                streamDois(project);
+                return LOG.traceExit((List<String>) null);
+            }
+            final DoiCatalog.Snapshot snapshot = this.getDoiApp().getClient().getDoiSnapshot();
+            final List<String> dois = project == null
+                    ? snapshot.getDois() : snapshot.getDois(project);
+            final String tag = project == null
+                    ? snapshot.getTag() : DoiCatalog.computeTag(dois);
+            final List<String> result;
+            if (isNotModified(new Tag(tag, false))) {
+                result = null;
+            } else if (dois.isEmpty()) {
+                result = dois;
                 setStatus(Status.SUCCESS_NO_CONTENT);
             } else {
+                result = dois;
                 setStatus(Status.SUCCESS_OK);
             }
-            return LOG.traceExit(dois);
+            return LOG.traceExit(result);
         } catch (ClientMdsException ex) {
                 throw LOG.throwing(
                         Level.ERROR,
@@ -99,6 +138,23 @@ public class DoisResource extends BaseMdsResource {
         }
     }
 
+    /**
+     * Sets the DOI list streamed from DataCite as entity of the response.
+     *
+     * @param project project suffix of the returned DOIs or null
+     * @throws ClientMdsException - if DataCite returns an error
+     */
+    private void streamDois(final String project) throws ClientMdsException {
+        LOG.traceEntry("Parameter : {}", project);
+        final Representation dois = this.getDoiApp().getClient().getDoisAsStream(project);
+        if (dois == null) {
+            setStatus(Status.SUCCESS_NO_CONTENT);
+        } else {
+            getResponse().setEntity(dois);
+        }
+        LOG.traceExit();
+    }
+
     /**
      * Creates a new DOI based on the doi and url parameters
      *
@@ -277,6 +333,11 @@ public class DoisResource extends BaseMdsResource {
     protected final void describeGet(final MethodInfo info) {
         info.setName(Method.GET);
         info.setDocumentation("Retrieves the DOI collection");
+        addRequestDocToMethod(info, Arrays.asList(
+                createQueryParamDoc(PROJECT_PARAMETER, ParameterStyle.QUERY,
+                        "Project suffix of the DOIs", false, "xs:string"),
+                createQueryParamDoc(STREAM_PARAMETER, ParameterStyle.QUERY,
+                        "Streams the DOI list from DataCite when true", false, "xs:boolean")));
         addResponseDocToMethod(info, createResponseDoc(
                 DATACITE_API_RESPONSE.SUCCESS.getStatus(),
                 DATACITE_API_RESPONSE.SUCCESS.getShortMessage(),
@@ -285,6 +346,9 @@ public class DoisResource extends BaseMdsResource {
                 DATACITE_API_RESPONSE.SUCCESS_NO_CONTENT.getStatus(),
                 DATACITE_API_RESPONSE.SUCCESS_NO_CONTENT.getShortMessage(),
                 noContentRepresentation()));
+        addResponseDocToMethod(info, createResponseDoc(
+                Status.REDIRECTION_NOT_MODIFIED,
+                "The DOI list matches the tag sent in If-None-Match"));
         addResponseDocToMethod(info, createResponseDoc(
                 API_MDS.DATACITE_PROBLEM.getStatus(),
                 API_MDS.DATACITE_PROBLEM.getShortMessage()));
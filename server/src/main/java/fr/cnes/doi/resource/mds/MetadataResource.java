@@ -21,10 +21,14 @@ package fr.cnes.doi.resource.mds;
 import java.util.Arrays;
 
 import org.apache.logging.log4j.Level;
+import org.restlet.data.CharacterSet;
+import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.ext.wadl.MethodInfo;
 import org.restlet.ext.wadl.ParameterStyle;
+import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.resource.Delete;
 import org.restlet.resource.Get;
@@ -33,6 +37,7 @@ import fr.cnes.doi.application.DoiMdsApplication;
 import fr.cnes.doi.application.DoiMdsApplication.API_MDS;
 import fr.cnes.doi.client.ClientMDS;
 import fr.cnes.doi.client.ClientMDS.DATACITE_API_RESPONSE;
+import fr.cnes.doi.client.MetadataCache;
 import fr.cnes.doi.exception.ClientMdsException;
 import fr.cnes.doi.exception.DoiServerException;
 import fr.cnes.doi.utils.spec.Requirement;
@@ -108,9 +113,12 @@ public class MetadataResource extends BaseMdsResource {
 
     /**
      * Retuns the metadata for a given DOI. 200 status is returned when the
-     * operation is successful.
+     * operation is successful. The metadata comes from the metadata cache of
+     * the client, without being parsed, and is tagged so that a client sending
+     * If-None-Match with the current tag gets 304 Not Modified.
      *
-     * @return the metadata for a given DOI as Json or XML
+     * @return the metadata for a given DOI as XML or null when the metadata is
+     * not modified
      * @throws DoiServerException - if the response is not a success
      * <ul>
      * <li>{@link DATACITE_API_RESPONSE#BAD_REQUEST}</li>
@@ -124,10 +132,18 @@ public class MetadataResource extends BaseMdsResource {
     public Representation getMetadata() throws DoiServerException {
         LOG.traceEntry();
         checkInputs(doiName);
-        final Representation resource;
+        Representation resource;
         try {
             setStatus(Status.SUCCESS_OK);
-            resource = this.getDoiApp().getClient().getMetadata(this.doiName);
+            final MetadataCache.Metadata metadata = this.getDoiApp().getClient()
+                    .getCachedMetadata(this.doiName);
+            if (isNotModified(new Tag(metadata.getTag(), false))) {
+                resource = null;
+            } else {
+                resource = new ByteArrayRepresentation(metadata.getXml(),
+                        MediaType.APPLICATION_XML);
+                resource.setCharacterSet(CharacterSet.UTF_8);
+            }
         } catch (ClientMdsException ex) {
             if (ex.getStatus().getCode() == Status.CLIENT_ERROR_NOT_FOUND.getCode()) {
                 throw LOG.throwing(
@@ -226,6 +242,9 @@ public class MetadataResource extends BaseMdsResource {
                 DATACITE_API_RESPONSE.SUCCESS.getShortMessage(),
                 "metadataRepresentation")
         );
+        addResponseDocToMethod(info, createResponseDoc(
+                Status.REDIRECTION_NOT_MODIFIED,
+                "The metadata matches the tag sent in If-None-Match"));
         addResponseDocToMethod(info, createResponseDoc(
                 DATACITE_API_RESPONSE.DOI_NOT_FOUND.getStatus(),
                 DATACITE_API_RESPONSE.DOI_NOT_FOUND.getShortMessage(),
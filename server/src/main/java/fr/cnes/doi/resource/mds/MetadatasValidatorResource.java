@@ -20,19 +20,12 @@ package fr.cnes.doi.resource.mds;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
-import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 
 import org.apache.logging.log4j.Level;
-import org.datacite.schema.kernel_4.Resource;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
@@ -41,10 +34,11 @@ import org.restlet.ext.wadl.ParameterStyle;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.Post;
-import org.xml.sax.SAXException;
 
 import fr.cnes.doi.application.DoiMdsApplication.API_MDS;
+import fr.cnes.doi.exception.DoiRuntimeException;
 import fr.cnes.doi.exception.DoiServerException;
+import fr.cnes.doi.utils.MetadataCodec;
 import fr.cnes.doi.utils.spec.Requirement;
 
 /**
@@ -62,7 +56,7 @@ public class MetadatasValidatorResource extends BaseMdsResource {
 	/**
 	 * Xsd schema {@value #XSD_SCHEMA}.
 	 */
-	public static final String XSD_SCHEMA = "/xsd/metadata.xsd";
+	public static final String XSD_SCHEMA = MetadataCodec.XSD_SCHEMA;
 
 	/**
 	 * Init.
@@ -145,36 +139,16 @@ public class MetadatasValidatorResource extends BaseMdsResource {
 		LOG.traceEntry("Parameter : " + entity);
 		setStatus(Status.SUCCESS_OK);
 
-		JAXBContext jaxbContext = null;
 		try {
-			// Get JAXBContext
-			jaxbContext = JAXBContext.newInstance(Resource.class);
+			InputStream xmlStream = new ByteArrayInputStream(
+					entity.getBytes(StandardCharsets.UTF_8));
 
-			// Create Unmarshaller
-			Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-
-			// Setup schema validator
-			SchemaFactory sf = SchemaFactory
-					.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-
-			// Convert it to Source
-			Source schemaSource = new StreamSource(
-					this.getClass().getResource(XSD_SCHEMA).toString());
-
-			// Create the schema
-			Schema resourceSchema = sf.newSchema(schemaSource);
-
-			// Set the schema to the unmarshaller
-			jaxbUnmarshaller.setSchema(resourceSchema);
-
-			InputStream xmlStream = new ByteArrayInputStream(entity.getBytes());
-
-			// Unmarshal xml file
-			jaxbUnmarshaller.unmarshal(xmlStream);
+			// Unmarshal xml file with the shared compiled schema
+			MetadataCodec.getInstance().unmarshalAndValidate(xmlStream);
 
 			// If no exception raise the file is valid
 			return "true";
-		} catch (SAXException ex) {
+		} catch (DoiRuntimeException ex) {
             throw LOG.throwing(Level.ERROR,
             	new DoiServerException(getApplication(), API_MDS.METADATA_VALIDATION,
                     "Error on schema instanciation : " + ex.getMessage(), ex));
@@ -61,7 +61,9 @@
  * clients supports the proxy by the use of
  * {@link org.restlet.ext.httpclient4.HttpDOIClientHelper} plugin. This plugin
  * is registered by default when the method
- * {@link fr.cnes.doi.client.BaseClient#getClient} is used. The proxy parameters
+ * {@link fr.cnes.doi.client.BaseClient#createClientResource} is used. Each
+ * request uses its own client resource on a shared pool of connections, so
+ * that concurrent requests to DataCite do not wait for each other. The proxy parameters
  * are automatically set from the config.properties by the use of
  * {@link fr.cnes.doi.settings.ProxySettings}
  *
@@ -19,8 +19,10 @@
 package fr.cnes.doi.security;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
@@ -34,13 +36,11 @@ import fr.cnes.doi.application.AdminApplication;
 import fr.cnes.doi.application.DoiMdsApplication;
 import fr.cnes.doi.db.AbstractUserRoleDBHelper;
 import fr.cnes.doi.db.MyMemoryRealm;
-import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.exception.DoiRuntimeException;
 import fr.cnes.doi.logging.business.JsonMessage;
 import fr.cnes.doi.db.model.DOIUser;
 import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.plugin.PluginFactory;
-import fr.cnes.doi.utils.UniqueProjectName;
 import fr.cnes.doi.utils.spec.Requirement;
 
 /**
@@ -144,41 +144,28 @@ public final class RoleAuthorizer {
     private void initForMds(final Application app) {
         LOG.traceEntry(new JsonMessage(app));
         
-        // we load projects from database
-        List<DOIProject> projects;
+        // we load the users of all the projects from database in one query
+        Map<Integer, List<DOIUser>> assignations;
         try {
-            projects = UniqueProjectName.getInstance().getProjects();
+            assignations = PluginFactory.getUserManagement().getUsersByRole();
         } catch (DOIDbException ex) {
-            projects = new ArrayList<>();
+            assignations = new HashMap<>();
         }
-        final AbstractUserRoleDBHelper manageUsers = PluginFactory.getUserManagement();
-        LOG.debug("{} projects have already been registered", projects.size());
-        for (final DOIProject project : projects) {
+        LOG.debug("{} projects have users", assignations.size());
+        for (final Map.Entry<Integer, List<DOIUser>> assignation : assignations.entrySet()) {
             // for each project, create a role as the project name
-            final Integer projectID = project.getSuffix();
+            final Integer projectID = assignation.getKey();
             final Role role = new Role(app, String.valueOf(projectID), "Role " + String.valueOf(
                     projectID) + " for " + app.getName());
 
-            // get the users for a role.
-            List<DOIUser> doiUsers;
-            try {
-                doiUsers = manageUsers.getUsersFromRole(projectID);
-            } catch (DOIDbException ex) {
-                doiUsers = new ArrayList<>();
-            }
-            final List<User> usersFromProject = new ArrayList<>();
-            for (final DOIUser doiUser : doiUsers) {
+            // create a role authorizer for each user related to a project
+            for (final DOIUser doiUser : assignation.getValue()) {
                 final User user = REALM.findUser(doiUser.getUsername());
                 if (user != null) {
-                    usersFromProject.add(user);
+                    LOG.debug("Add user {} to role {} for {}", user, projectID, app.getName());
+                    RoleAuthorizer.REALM.map(user, role);
                 }
             }
-
-            // create a role authorizer for each user related to a project
-            for (final User user : usersFromProject) {
-                LOG.debug("Add user {} to role {} for {}", user, projectID, app.getName());
-                RoleAuthorizer.REALM.map(user, role);
-            }
         }
         
         // Add the group admin in REALM of MDS
@@ -23,8 +23,6 @@ import fr.cnes.doi.db.AbstractUserRoleDBHelper;
 import fr.cnes.doi.logging.business.JsonMessage;
 import fr.cnes.doi.plugin.PluginFactory;
 import fr.cnes.doi.utils.spec.Requirement;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restlet.Request;
@@ -97,15 +95,17 @@ public class TokenBasedVerifier implements Verifier {
         final int result;
         final String token = challResponse.getRawValue();
         LOG.debug("Token from challenge response : {}", token);
+        final VerifiedToken verifiedToken = (token == null)
+                ? null : TokenSecurity.getInstance().verify(token);
         if (token == null) {
             LOG.warn("Token is missing !");
             result = Verifier.RESULT_MISSING;
-        } else if (TokenSecurity.getInstance().isExpired(token)) {
+        } else if (verifiedToken == null) {
             LOG.debug("Token is expired !");
             result = Verifier.RESULT_STALE;
         } else if (this.tokenDB.isExist(token)) {
             LOG.debug("Token exists in the database.");
-            result = processToken(request, token);
+            result = processToken(request, token, verifiedToken);
         } else {
             LOG.error("Token is invalid !");
             result = Verifier.RESULT_INVALID;
@@ -118,17 +118,17 @@ public class TokenBasedVerifier implements Verifier {
      *
      * @param request request
      * @param token token
+     * @param tokenInfo claims of the token, already verified
      * @return the status given by {@link Verifier}
      */
-    private int processToken(final Request request, final String token) {
+    private int processToken(final Request request, final String token,
+            final VerifiedToken tokenInfo) {
         LOG.traceEntry(new JsonMessage(request));
         LOG.traceEntry(token);
         final AbstractUserRoleDBHelper manageUsers = PluginFactory.getUserManagement();
         final int result = Verifier.RESULT_VALID;
-        final Jws<Claims> tokenInfo = TokenSecurity.getInstance().getTokenInformation(token);
-        final Claims body = tokenInfo.getBody();
-        final String userID = body.getSubject();
-        final Integer projectID = (Integer) body.get(TokenSecurity.PROJECT_ID);
+        final String userID = tokenInfo.getUserID();
+        final Integer projectID = tokenInfo.getProjectID();
         LOG.info("token {} is valid, {} for {} are authenticated", token, userID, projectID);
         request.getClientInfo().setUser(manageUsers.getRealm().findUser(userID));
 
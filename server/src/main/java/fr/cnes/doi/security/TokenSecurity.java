@@ -19,18 +19,18 @@
 package fr.cnes.doi.security;
 
 import fr.cnes.doi.db.AbstractTokenDBHelper;
-import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.exception.DoiRuntimeException;
 import fr.cnes.doi.exception.TokenSecurityException;
 import fr.cnes.doi.plugin.PluginFactory;
 import fr.cnes.doi.settings.Consts;
 import fr.cnes.doi.settings.DoiSettings;
-import fr.cnes.doi.utils.UniqueProjectName;
+import fr.cnes.doi.utils.ExpiringCache;
 import fr.cnes.doi.utils.spec.Requirement;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -38,14 +38,15 @@ import io.jsonwebtoken.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.impl.TextCodec;
 import io.jsonwebtoken.impl.crypto.MacProvider;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import javax.crypto.spec.SecretKeySpec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restlet.data.Status;
@@ -63,6 +64,16 @@ public final class TokenSecurity {
      */
     private String tokenKey;
 
+    /**
+     * Decoded token key.
+     */
+    private volatile Key signingKey;
+
+    /**
+     * Parser checking the issuer and the signature of the tokens.
+     */
+    private volatile JwtParser parser;
+
     /**
      * Project ID name in token.
      */
@@ -83,6 +94,17 @@ public final class TokenSecurity {
      */
     public static final String DATE_FORMAT = "EEE MMM dd HH:mm:ss z yyyy";
 
+    /**
+     * Maximum number of verified tokens kept in memory.
+     */
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 1000;
+
+    /**
+     * Maximum time in milliseconds during which a verified token is kept in
+     * memory.
+     */
+    private static final long VERIFIED_TOKEN_CACHE_TTL = 600_000L;
+
     /**
      * Plugin for token database.
      */
@@ -93,6 +115,12 @@ public final class TokenSecurity {
      */
     private static final Logger LOG = LogManager.getLogger(TokenSecurity.class.getName());
 
+    /**
+     * Recently verified tokens, indexed by the hash of the token.
+     */
+    private final ExpiringCache<String, VerifiedToken> verifiedTokens = new ExpiringCache<>(
+            VERIFIED_TOKEN_CACHE_SIZE, VERIFIED_TOKEN_CACHE_TTL);
+
     /**
      * Access to unique INSTANCE of Settings
      *
@@ -130,10 +158,25 @@ public final class TokenSecurity {
     private void init() {
         LOG.traceEntry();
         final String token = DoiSettings.getInstance().getString(Consts.TOKEN_KEY);
-        this.tokenKey = (token == null) ? DEFAULT_TOKEN_KEY : token;
+        configureKey((token == null) ? DEFAULT_TOKEN_KEY : token);
         LOG.traceExit();
     }
 
+    /**
+     * Decodes the token key and builds the parser once for all the tokens.
+     *
+     * @param key token key encoded in base64
+     */
+    private void configureKey(final String key) {
+        this.tokenKey = key;
+        this.signingKey = new SecretKeySpec(TextCodec.BASE64.decode(key),
+                SignatureAlgorithm.HS256.getJcaName());
+        this.parser = Jwts.parser()
+                .requireIssuer(DoiSettings.getInstance().getString(Consts.APP_NAME))
+                .setSigningKey(this.signingKey);
+        this.verifiedTokens.clear();
+    }
+
     /**
      * Creates a token.
      *
@@ -150,16 +193,13 @@ public final class TokenSecurity {
             final TokenSecurity.TimeUnit timeUnit,
             final int amount) throws TokenSecurityException {
         LOG.traceEntry("Parameters : {}, {}, {} and {}", userID, projectID, timeUnit, amount);
-        List<DOIProject> projects;
+        String projectName;
         try {
-            projects = UniqueProjectName.getInstance().getProjects();
+            projectName = PluginFactory.getProjectSuffix().getProjectFrom(projectID);
         } catch (DOIDbException ex) {
-            projects = new ArrayList<>();
+            projectName = null;
         }
-        final Map<Integer, String> result = projects.stream().collect(
-                Collectors.toMap(DOIProject::getSuffix, DOIProject::getProjectname));
-        final String projectName = result.get(projectID);
-        if (projectName.isEmpty()) {
+        if (projectName == null || projectName.isEmpty()) {
             throw LOG.throwing(new TokenSecurityException(
                     Status.CLIENT_ERROR_BAD_REQUEST,
                     "No register " + PROJECT_ID + ", please create one")
@@ -175,10 +215,7 @@ public final class TokenSecurity {
                 .claim(PROJECT_ID, projectID)
                 .claim(PROJECT_NAME, projectName)
                 .setExpiration(expirationTime)
-                .signWith(
-                        SignatureAlgorithm.HS256,
-                        TextCodec.BASE64.decode(getTokenKey())
-                )
+                .signWith(SignatureAlgorithm.HS256, this.signingKey)
                 .compact();
         LOG.debug(String.format("token generated : %s", token));
         return LOG.traceExit(token);
@@ -205,10 +242,7 @@ public final class TokenSecurity {
                 .setIssuedAt(Date.from(Instant.now()))
                 .setSubject(userID)
                 .setExpiration(expirationTime)
-                .signWith(
-                        SignatureAlgorithm.HS256,
-                        TextCodec.BASE64.decode(getTokenKey())
-                )
+                .signWith(SignatureAlgorithm.HS256, this.signingKey)
                 .compact();
         LOG.debug(String.format("token generated : %s", token));
         return LOG.traceExit(token);
@@ -231,7 +265,7 @@ public final class TokenSecurity {
      */
     public void setTokenKey(final String tokenKey) {
         LOG.traceEntry("Parameter : {}", tokenKey);
-        this.tokenKey = tokenKey;
+        configureKey(tokenKey);
         LOG.debug(String.format("Set tokenKey to %s", tokenKey));
         LOG.traceExit();
     }
@@ -244,8 +278,58 @@ public final class TokenSecurity {
      */
     public boolean isExpired(final String token) {
         LOG.traceEntry("Parameter\n\ttoken: {}", token);
-        final Jws<Claims> jws = this.getTokenInformation(token);
-        return LOG.traceExit(jws == null);
+        return LOG.traceExit(this.verify(token) == null);
+    }
+
+    /**
+     * Verifies the token and returns its claims. The token is parsed and its
+     * signature checked only once, the result is then kept in memory until the
+     * token expires.
+     *
+     * @param jwtToken token JWT
+     * @return the verified claims or null when the token is expired.
+     * @throws DoiRuntimeException - if the token is not valid
+     */
+    public VerifiedToken verify(final String jwtToken) throws DoiRuntimeException {
+        LOG.traceEntry("Parameter : {}", jwtToken);
+        final String hash = hash(jwtToken);
+        VerifiedToken verifiedToken = this.verifiedTokens.get(hash);
+        if (verifiedToken == null || verifiedToken.isExpired()) {
+            final Jws<Claims> jws = this.getTokenInformation(jwtToken);
+            if (jws == null) {
+                this.verifiedTokens.remove(hash);
+                verifiedToken = null;
+            } else {
+                verifiedToken = new VerifiedToken(jws.getBody());
+                this.verifiedTokens.put(hash, verifiedToken, verifiedToken.getExpirationTime());
+            }
+        }
+        return LOG.traceExit(verifiedToken);
+    }
+
+    /**
+     * Computes the SHA-256 hash of the token so that the token itself is not
+     * kept in memory.
+     *
+     * @param jwtToken token
+     * @return the hash encoded in base64
+     * @throws DoiRuntimeException - if the token is null or SHA-256 is not
+     * available
+     */
+    private String hash(final String jwtToken) throws DoiRuntimeException {
+        if (jwtToken == null) {
+            throw LOG.throwing(new DoiRuntimeException("Unable to get the token information",
+                    new IllegalArgumentException("token is null")));
+        }
+        final String result;
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            result = Base64.getEncoder().encodeToString(
+                    digest.digest(jwtToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw LOG.throwing(new DoiRuntimeException("Unable to hash the token", ex));
+        }
+        return result;
     }
 
     /**
@@ -260,10 +344,7 @@ public final class TokenSecurity {
         LOG.traceEntry("Parameter : {}", jwtToken);
         Jws<Claims> token;
         try {
-            token = Jwts.parser()
-                    .requireIssuer(DoiSettings.getInstance().getString(Consts.APP_NAME))
-                    .setSigningKey(TextCodec.BASE64.decode(getTokenKey()))
-                    .parseClaimsJws(jwtToken);
+            token = this.parser.parseClaimsJws(jwtToken);
         } catch (UnsupportedJwtException | MalformedJwtException | SignatureException | IllegalArgumentException ex) {
             throw LOG.throwing(new DoiRuntimeException("Unable to get the token information", ex));
         } catch (ExpiredJwtException e) {
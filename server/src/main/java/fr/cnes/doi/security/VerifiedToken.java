@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.security;
+
+import io.jsonwebtoken.Claims;
+import java.util.Date;
+
+/**
+ * Immutable view of the claims of a JWT token whose signature, issuer and
+ * expiration date have been checked by {@link TokenSecurity#verify(String)}.
+ */
+public final class VerifiedToken {
+
+    /**
+     * User that created the token.
+     */
+    private final String userID;
+
+    /**
+     * Project ID or null when the token is not related to a project.
+     */
+    private final Integer projectID;
+
+    /**
+     * Project name or null when the token is not related to a project.
+     */
+    private final String projectName;
+
+    /**
+     * Issue date in milliseconds since epoch.
+     */
+    private final long issuedAt;
+
+    /**
+     * Expiration date in milliseconds since epoch.
+     */
+    private final long expiration;
+
+    /**
+     * Creates the verified token from the claims of a parsed token.
+     *
+     * @param claims claims of a parsed token
+     */
+    VerifiedToken(final Claims claims) {
+        this.userID = claims.getSubject();
+        this.projectID = (Integer) claims.get(TokenSecurity.PROJECT_ID);
+        this.projectName = (String) claims.get(TokenSecurity.PROJECT_NAME);
+        this.issuedAt = claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime();
+        this.expiration = claims.getExpiration() == null
+                ? Long.MAX_VALUE : claims.getExpiration().getTime();
+    }
+
+    /**
+     * Returns the user that created the token.
+     *
+     * @return the user ID
+     */
+    public String getUserID() {
+        return this.userID;
+    }
+
+    /**
+     * Returns the project ID.
+     *
+     * @return the project ID or null when the token is not related to a project
+     */
+    public Integer getProjectID() {
+        return this.projectID;
+    }
+
+    /**
+     * Returns the project name.
+     *
+     * @return the project name or null when the token is not related to a
+     * project
+     */
+    public String getProjectName() {
+        return this.projectName;
+    }
+
+    /**
+     * Returns the issue date.
+     *
+     * @return the issue date
+     */
+    public Date getIssuedAt() {
+        return new Date(this.issuedAt);
+    }
+
+    /**
+     * Returns the expiration date.
+     *
+     * @return the expiration date
+     */
+    public Date getExpiration() {
+        return new Date(this.expiration);
+    }
+
+    /**
+     * Returns the expiration date in milliseconds since epoch.
+     *
+     * @return the expiration date
+     */
+    public long getExpirationTime() {
+        return this.expiration;
+    }
+
+    /**
+     * Checks if the token is expired.
+     *
+     * @return True when the token is expired otherwise False
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= this.expiration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "VerifiedToken{" + "userID=" + userID + ", projectID=" + projectID
+                + ", projectName=" + projectName + ", expiration=" + getExpiration() + '}';
+    }
+
+}
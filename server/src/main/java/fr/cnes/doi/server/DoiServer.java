@@ -179,6 +179,11 @@ public class DoiServer extends Component {
      */
     private final DoiSettings settings;
 
+    /**
+     * Log service monitoring the speed of the applications.
+     */
+    private DoiLogDataServer logServiceApplication;
+
     /**
      * Creates an instance of the server with settings coming from the
      * config.properties
@@ -199,8 +204,8 @@ public class DoiServer extends Component {
     private void initLogServices() {
         LOG.traceEntry();
 
-        final LogService logServiceApplication = new DoiLogDataServer(Utils.HTTP_LOGGER_NAME, true);
-        this.getServices().add(logServiceApplication);
+        this.logServiceApplication = new DoiLogDataServer(Utils.HTTP_LOGGER_NAME, true);
+        this.getServices().add(this.logServiceApplication);
 
         final Service logServiceSecurity = new LogService(true) {
             /**
@@ -314,9 +319,12 @@ public class DoiServer extends Component {
                 doiConfig.getSecret(Consts.INIST_LOGIN),
                 doiConfig.getSecret(Consts.INIST_PWD));          
         final Application appDoiProject = new DoiMdsApplication(client);
-        final Application appAdmin = new AdminApplication(client);
+        final Application appAdmin = new AdminApplication(client,
+                this.logServiceApplication.getMonitoring());
         this.getDefaultHost().attach(MDS_URI, appDoiProject);
-        this.getDefaultHost().attach(CITATION_URI, new DoiCrossCiteApplication());
+        final DoiCrossCiteApplication appCitation = new DoiCrossCiteApplication();
+        client.addMetadataListener(appCitation.getCitationCache()::invalidate);
+        this.getDefaultHost().attach(CITATION_URI, appCitation);
         this.getDefaultHost().attachDefault(appAdmin);
         // Set authentication 
         RoleAuthorizer.getInstance().createRealmFor(appDoiProject);
@@ -530,6 +538,8 @@ public class DoiServer extends Component {
         PluginFactory.getUserManagement().release();
         EmailSettings.getInstance().sendMessage("[DOI] Stopping Server",
                 "The server has been interrupted");
+        LOG.info("Sending the queued emails");
+        EmailSettings.getInstance().shutdown();
         LOG.info("Server stopped");
     }
 
@@ -19,8 +19,19 @@
 package fr.cnes.doi.services;
 
 import fr.cnes.doi.db.AbstractUserRoleDBHelper;
-import fr.cnes.doi.db.IAuthenticationDBHelper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import fr.cnes.doi.exception.AuthenticationAccessException;
 import fr.cnes.doi.db.model.AuthSystemUser;
@@ -33,6 +44,15 @@ import fr.cnes.doi.plugin.PluginFactory;
 /**
  * Updates the database from the authentication system.
  *
+ * <p>
+ * The members of the authentication system and the users of the database are
+ * compared by username to produce a change set, which is applied in one
+ * transaction. The synchronization is skipped when the members of the
+ * authentication system have not changed since the last successful
+ * synchronization, unless this synchronization is older than the full
+ * synchronization period : the database may have been modified by another
+ * way in the meantime.
+ *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
 public class DOIUsersUpdate implements Runnable {
@@ -43,10 +63,76 @@ public class DOIUsersUpdate implements Runnable {
     private static final Logger LOG = LogManager.getLogger(DOIUsersUpdate.class.getName());
 
     /**
-     * Access to the authentication system.
+     * Default period in minutes after which the database is synchronized even
+     * if the members of the authentication system have not changed.
+     */
+    public static final String DEFAULT_FULL_SYNC_PERIOD = "1440";
+
+    /**
+     * Period in ms after which the database is synchronized even if the
+     * members of the authentication system have not changed.
+     */
+    private final long fullSyncPeriod;
+
+    /**
+     * Time of the last successful synchronization in ms.
      */
-    private static final IAuthenticationDBHelper AUTHENTICATION_SERVICE = PluginFactory.
-            getAuthenticationSystem();
+    private long lastSynchronization;
+
+    /**
+     * Fingerprint of the members of the authentication system at the last
+     * successful synchronization.
+     */
+    private String lastFingerprint;
+
+    /**
+     * Number of synchronizations.
+     */
+    private long nbSynchronizations;
+
+    /**
+     * Number of synchronizations skipped because the members of the
+     * authentication system have not changed.
+     */
+    private long nbSkippedSynchronizations;
+
+    /**
+     * Duration of the last synchronization in ms.
+     */
+    private long lastDuration;
+
+    /**
+     * Cumulated duration of the synchronizations in ms.
+     */
+    private long totalDuration;
+
+    /**
+     * Number of users added at the last synchronization.
+     */
+    private int lastNbAddedUsers;
+
+    /**
+     * Number of users removed at the last synchronization.
+     */
+    private int lastNbRemovedUsers;
+
+    /**
+     * Creates the task with the default full synchronization period.
+     */
+    public DOIUsersUpdate() {
+        this(Integer.parseInt(DEFAULT_FULL_SYNC_PERIOD));
+    }
+
+    /**
+     * Creates the task.
+     *
+     * @param fullSyncPeriod period in minutes after which the database is
+     * synchronized even if the members of the authentication system have not
+     * changed (0 synchronizes at each execution)
+     */
+    public DOIUsersUpdate(final int fullSyncPeriod) {
+        this.fullSyncPeriod = TimeUnit.MINUTES.toMillis(fullSyncPeriod);
+    }
 
     /**
      * Fills the DOI users database from the members of the authentication
@@ -59,70 +145,190 @@ public class DOIUsersUpdate implements Runnable {
     private void updateDoiServerDataBaseFromAuthSystem() throws AuthenticationAccessException,
             DOIDbException {
         LOG.traceEntry();
-        final AbstractUserRoleDBHelper manageUsers = PluginFactory.getUserManagement();
-        final List<AuthSystemUser> authMembers = AUTHENTICATION_SERVICE.getDOIProjectMembers();
+        final long start = System.currentTimeMillis();
+        final List<AuthSystemUser> authMembers = PluginFactory.getAuthenticationSystem().
+                getDOIProjectMembers();
         LOG.debug("Authentication system members: {}", authMembers);
-        final List<DOIUser> dbusers = manageUsers.getUsers();
-        LOG.debug("Users from database: {}", dbusers);
-        LOG.debug("remove from database, users that are no longer members of doi_server project");
-        for (final DOIUser dbuser : dbusers) {
-            if (!isContained(dbuser, authMembers)) {
-                LOG.debug("User {} is removed from database", dbuser.getUsername());
-                manageUsers.removeDOIUser(dbuser.getUsername());
+        final String fingerprint = computeFingerprint(authMembers);
+        if (!isSynchronizationNeeded(fingerprint, start)) {
+            LOG.debug("Authentication system members unchanged, database not updated");
+            synchronized (this) {
+                this.nbSkippedSynchronizations++;
             }
-        }
-        LOG.debug("add to database users that are new members of doi_server project");
-        for (final AuthSystemUser authMember : authMembers) {
-            if (!isContained(authMember, dbusers)) {
-                // add authMember to doi database
-                LOG.debug("authSystemUser {} is added to database as simple user", authMember.
-                        getUsername());
-                manageUsers.addDOIUser(authMember.getUsername(), false, authMember.getEmail());
+        } else {
+            final AbstractUserRoleDBHelper manageUsers = PluginFactory.getUserManagement();
+            final List<DOIUser> dbusers = manageUsers.getUsers();
+            LOG.debug("Users from database: {}", dbusers);
+            final ChangeSet changeSet = computeChangeSet(authMembers, dbusers);
+            LOG.debug("remove from database {} and add to database as simple users {}",
+                    changeSet.getUsersToRemove(), changeSet.getUsersToAdd());
+            if (!changeSet.isEmpty()) {
+                manageUsers.updateDOIUsers(changeSet.getUsersToAdd(),
+                        changeSet.getUsersToRemove());
             }
+            markSynchronized(fingerprint, start);
+            final long duration = System.currentTimeMillis() - start;
+            synchronized (this) {
+                this.nbSynchronizations++;
+                this.lastDuration = duration;
+                this.totalDuration += duration;
+                this.lastNbAddedUsers = changeSet.getUsersToAdd().size();
+                this.lastNbRemovedUsers = changeSet.getUsersToRemove().size();
+            }
+            LOG.info("Users synchronized in {} ms : {} added, {} removed", duration,
+                    changeSet.getUsersToAdd().size(), changeSet.getUsersToRemove().size());
         }
         LOG.traceExit();
     }
 
     /**
-     * Tests if the authMember of the authentication mechanism is contained in
-     * the users from the database.
+     * Tests if the database must be synchronized : the members of the
+     * authentication system have changed since the last successful
+     * synchronization or this synchronization is older than the full
+     * synchronization period.
      *
-     * @param authMember authMember of the authentication mechanism
-     * @param dbusers users database
-     * @return True when the authMember is contained in the users from database
-     * otherwise false
-     */
-    private boolean isContained(final AuthSystemUser authMember, final List<DOIUser> dbusers) {
-        LOG.traceEntry("Parameters {},", authMember, dbusers);
-        boolean isContained = false;
+     * @param fingerprint fingerprint of the members of the authentication
+     * system
+     * @param now current time in ms
+     * @return True when the database must be synchronized otherwise False
+     */
+    boolean isSynchronizationNeeded(final String fingerprint, final long now) {
+        return !fingerprint.equals(this.lastFingerprint)
+                || now - this.lastSynchronization >= this.fullSyncPeriod;
+    }
+
+    /**
+     * Records a successful synchronization.
+     *
+     * @param fingerprint fingerprint of the synchronized members of the
+     * authentication system
+     * @param time time of the synchronization in ms
+     */
+    void markSynchronized(final String fingerprint, final long time) {
+        this.lastFingerprint = fingerprint;
+        this.lastSynchronization = time;
+    }
+
+    /**
+     * Computes the changes to apply to the users of the database so that they
+     * match the members of the authentication system. The new members are
+     * added as simple users.
+     *
+     * @param authMembers members of the authentication system
+     * @param dbusers users from the database
+     * @return the change set
+     */
+    static ChangeSet computeChangeSet(final List<AuthSystemUser> authMembers,
+            final List<DOIUser> dbusers) {
+        LOG.traceEntry("Parameters {}, {}", authMembers, dbusers);
+        final Map<String, AuthSystemUser> members = new LinkedHashMap<>();
+        for (final AuthSystemUser authMember : authMembers) {
+            members.putIfAbsent(authMember.getUsername(), authMember);
+        }
+        final Set<String> usernames = new HashSet<>();
+        final List<String> usersToRemove = new ArrayList<>();
         for (final DOIUser dbuser : dbusers) {
-            if (dbuser.getUsername().equals(authMember.getUsername())) {
-                isContained = true;
-                break;
+            usernames.add(dbuser.getUsername());
+            if (!members.containsKey(dbuser.getUsername())) {
+                usersToRemove.add(dbuser.getUsername());
+            }
+        }
+        final List<DOIUser> usersToAdd = new ArrayList<>();
+        for (final AuthSystemUser authMember : members.values()) {
+            if (!usernames.contains(authMember.getUsername())) {
+                final DOIUser user = new DOIUser();
+                user.setUsername(authMember.getUsername());
+                user.setAdmin(false);
+                user.setEmail(authMember.getEmail());
+                usersToAdd.add(user);
             }
         }
-        return LOG.traceExit(isContained);
+        return LOG.traceExit(new ChangeSet(usersToAdd, usersToRemove));
     }
 
     /**
-     * Tests if a user from the database is contained in the members from the
-     * authentication system.
+     * Computes a fingerprint of the members of the authentication system. The
+     * fingerprint does not depend on the order of the members.
      *
-     * @param dbuser the user from the database
-     * @param authMembers the users from the authentication system
-     * @return True when the user from the database is contained from the users
-     * from the authentication system
-     */
-    private boolean isContained(final DOIUser dbuser, final List<AuthSystemUser> authMembers) {
-        LOG.traceEntry("Parameters {},", dbuser, authMembers);
-        boolean isContained = false;
-        for (final AuthSystemUser authenticationUser : authMembers) {
-            if (authenticationUser.getUsername().equals(dbuser.getUsername())) {
-                isContained = true;
-                break;
+     * @param authMembers members of the authentication system
+     * @return the fingerprint
+     */
+    static String computeFingerprint(final List<AuthSystemUser> authMembers) {
+        final Map<String, String> sortedMembers = new TreeMap<>();
+        for (final AuthSystemUser authMember : authMembers) {
+            sortedMembers.put(authMember.getUsername(), authMember.getEmail());
+        }
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw LOG.throwing(new IllegalStateException(ex));
+        }
+        for (final Map.Entry<String, String> member : sortedMembers.entrySet()) {
+            digest.update(member.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (member.getValue() != null) {
+                digest.update(member.getValue().getBytes(StandardCharsets.UTF_8));
             }
+            digest.update((byte) '\n');
         }
-        return LOG.traceExit(isContained);
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    /**
+     * Returns the number of synchronizations that updated the database.
+     *
+     * @return the number of synchronizations
+     */
+    public synchronized long getNbSynchronizations() {
+        return this.nbSynchronizations;
+    }
+
+    /**
+     * Returns the number of synchronizations skipped because the members of
+     * the authentication system have not changed.
+     *
+     * @return the number of skipped synchronizations
+     */
+    public synchronized long getNbSkippedSynchronizations() {
+        return this.nbSkippedSynchronizations;
+    }
+
+    /**
+     * Returns the duration of the last synchronization.
+     *
+     * @return the duration in ms
+     */
+    public synchronized long getLastDuration() {
+        return this.lastDuration;
+    }
+
+    /**
+     * Returns the average duration of the synchronizations.
+     *
+     * @return the average duration in ms
+     */
+    public synchronized float getAverageDuration() {
+        return this.nbSynchronizations == 0 ? 0.0f
+                : (float) this.totalDuration / this.nbSynchronizations;
+    }
+
+    /**
+     * Returns the number of users added at the last synchronization.
+     *
+     * @return the number of added users
+     */
+    public synchronized int getLastNbAddedUsers() {
+        return this.lastNbAddedUsers;
+    }
+
+    /**
+     * Returns the number of users removed at the last synchronization.
+     *
+     * @return the number of removed users
+     */
+    public synchronized int getLastNbRemovedUsers() {
+        return this.lastNbRemovedUsers;
     }
 
     /**
@@ -138,4 +344,66 @@ public class DOIUsersUpdate implements Runnable {
         }
     }
 
+    /**
+     * Users to add to and to remove from the database.
+     */
+    static final class ChangeSet {
+
+        /**
+         * Users to add.
+         */
+        private final List<DOIUser> usersToAdd;
+
+        /**
+         * Names of the users to remove.
+         */
+        private final List<String> usersToRemove;
+
+        /**
+         * Creates a change set.
+         *
+         * @param usersToAdd users to add
+         * @param usersToRemove names of the users to remove
+         */
+        ChangeSet(final List<DOIUser> usersToAdd, final List<String> usersToRemove) {
+            this.usersToAdd = Collections.unmodifiableList(usersToAdd);
+            this.usersToRemove = Collections.unmodifiableList(usersToRemove);
+        }
+
+        /**
+         * Returns the users to add.
+         *
+         * @return the users to add
+         */
+        List<DOIUser> getUsersToAdd() {
+            return this.usersToAdd;
+        }
+
+        /**
+         * Returns the names of the users to remove.
+         *
+         * @return the names of the users to remove
+         */
+        List<String> getUsersToRemove() {
+            return this.usersToRemove;
+        }
+
+        /**
+         * Tests if there is nothing to change.
+         *
+         * @return True when there is nothing to change otherwise False
+         */
+        boolean isEmpty() {
+            return this.usersToAdd.isEmpty() && this.usersToRemove.isEmpty();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "ChangeSet{" + "usersToAdd=" + usersToAdd + ", usersToRemove=" + usersToRemove
+                    + '}';
+        }
+    }
 }
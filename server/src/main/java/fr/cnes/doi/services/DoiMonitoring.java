@@ -18,66 +18,181 @@
  */
 package fr.cnes.doi.services;
 
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
 import fr.cnes.doi.utils.Utils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restlet.data.Method;
 
 /**
- * Speed monitoring (average time to answer requests).
+ * Speed monitoring (latency percentiles of the requests).
+ *
+ * <p>
+ * The features are registered with their route template, such as
+ * /mds/dois/{doiName}. A measurement made on a request path is recorded for the
+ * registered route template matching the longest part of the path. The route
+ * template found for a request path is memorised, so that the next requests on
+ * the same path do not scan the registered route templates.
  *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
 public class DoiMonitoring {
 
+    /**
+     * Default duration of the sliding window in seconds : {@value #DEFAULT_WINDOW}.
+     */
+    public static final String DEFAULT_WINDOW = "300";
+
+    /**
+     * Number of slots of the sliding window.
+     */
+    private static final int NB_SLOTS = 10;
+
+    /**
+     * Maximum number of memorised request paths, the memorised paths are
+     * forgotten beyond.
+     */
+    private static final int MAX_MATCHED_PATHS = 1000;
+
     /**
      * Logger.
      */
     private static final Logger LOG = LogManager.getLogger(Utils.APP_LOGGER_NAME);
 
     /**
-     * Hash map of records to compute average time to answer requests.
+     * Hash map of records to compute the latency statistics.
      */
     private final Map<String, DoiMonitoringRecord> applications = new ConcurrentHashMap<>();
 
+    /**
+     * Records of the request paths already matched, empty when no route
+     * template matches the path.
+     */
+    private final Map<String, Optional<DoiMonitoringRecord>> matchedPaths
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Duration of the sliding window in ms.
+     */
+    private final long windowDuration;
+
+    /**
+     * Creates a monitoring with the sliding window duration of the
+     * configuration file.
+     */
+    public DoiMonitoring() {
+        this(TimeUnit.SECONDS.toMillis(DoiSettings.getInstance().getInt(
+                Consts.MONITORING_WINDOW, DEFAULT_WINDOW)));
+    }
+
+    /**
+     * Creates a monitoring.
+     *
+     * @param windowDuration duration of the sliding window in ms
+     */
+    public DoiMonitoring(final long windowDuration) {
+        this.windowDuration = windowDuration;
+    }
+
     /**
      * Registers the features to monitor.
      *
      * @param name Method
-     * @param path path URI
+     * @param path route template
      * @param description Feature's description
      */
     public void register(final Method name, final String path, final String description) {
         LOG.traceEntry("Parameters : {}, {}, {}", name, path, description);
-        this.applications.put(name.getName() + path, new DoiMonitoringRecord(description, 0.0f, 0));
+        this.applications.put(name.getName() + path,
+                new DoiMonitoringRecord(description, name, path, this.windowDuration, NB_SLOTS));
+        this.matchedPaths.clear();
         LOG.traceExit();
     }
 
+    /**
+     * Returns the record of the route template matching a request path.
+     *
+     * @param name method
+     * @param path request path or route template
+     * @return the record or null when no registered route template matches the
+     * path
+     */
+    public DoiMonitoringRecord getRecord(final Method name, final String path) {
+        final String key = name.getName() + path;
+        DoiMonitoringRecord record = this.applications.get(key);
+        if (record == null) {
+            Optional<DoiMonitoringRecord> matched = this.matchedPaths.get(key);
+            if (matched == null) {
+                matched = Optional.ofNullable(findRecord(name, path));
+                if (this.matchedPaths.size() >= MAX_MATCHED_PATHS) {
+                    this.matchedPaths.clear();
+                }
+                this.matchedPaths.put(key, matched);
+            }
+            record = matched.orElse(null);
+        }
+        return record;
+    }
+
+    /**
+     * Finds the record of the route template matching the longest part of a
+     * request path.
+     *
+     * @param name method
+     * @param path request path
+     * @return the record or null when no registered route template matches the
+     * path
+     */
+    private DoiMonitoringRecord findRecord(final Method name, final String path) {
+        DoiMonitoringRecord record = null;
+        int bestMatch = -1;
+        for (final DoiMonitoringRecord candidate : this.applications.values()) {
+            if (candidate.getMethod().equals(name.getName())) {
+                final int match = candidate.match(path);
+                if (match > bestMatch) {
+                    bestMatch = match;
+                    record = candidate;
+                }
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Returns the records of all the registered features.
+     *
+     * @return the records
+     */
+    public List<DoiMonitoringRecord> getRecords() {
+        return Collections.unmodifiableList(new ArrayList<>(this.applications.values()));
+    }
+
     /**
      * Add Measurement.
      *
      * @param name method
-     * @param path path URI
+     * @param path request path or route template
      * @param duration duration in ms
      */
     public void addMeasurement(final Method name,
             final String path,
             final float duration) {
         LOG.traceEntry("Parameters : {} {} {}", name.getName(), path, duration);
-        final String identifier = name.getName() + path;
-        if (this.applications.containsKey(identifier)) {
-            final DoiMonitoringRecord record = this.applications.get(name.getName() + path);
-            final float previousSpeedAverage = (float) record.getAverage();
-            final int previousNbAccess = (int) record.getNbAccess();
-            final float newSpeedAverage = (previousSpeedAverage * previousNbAccess + duration) / (previousNbAccess + 1);
-            LOG.info("{} | speed average = {} ms | duration = {} ms", identifier, newSpeedAverage,
-                    duration);
-            record.setAverage(newSpeedAverage);
-            record.setNbAccess(previousNbAccess + 1);
-        } else {
+        final DoiMonitoringRecord record = getRecord(name, path);
+        if (record == null) {
             LOG.info("Unable to add the measurement : Unknown feature");
+        } else {
+            record.addMeasurement(duration);
+            LOG.debug("{} {} | speed average = {} ms | duration = {} ms", name.getName(),
+                    record.getPath(), record.getAverage(), duration);
         }
         LOG.traceExit();
     }
@@ -86,14 +201,13 @@ public class DoiMonitoring {
      * Checks if the features is registered.
      *
      * @param name method
-     * @param path Path URI
+     * @param path request path or route template
      * @return True when the feature is registered
      */
     public boolean isRegistered(final Method name,
             final String path) {
         LOG.traceEntry("Parameters : {} and {}", name.getName(), path);
-        final String identifier = name.getName() + path;
-        final boolean isRegistered = this.applications.containsKey(identifier);
+        final boolean isRegistered = getRecord(name, path) != null;
         LOG.debug("{} {}  is registered : {}", name, path, isRegistered);
         return LOG.traceExit(isRegistered);
     }
@@ -102,34 +216,31 @@ public class DoiMonitoring {
      * Returns the average speed of the measurement.
      *
      * @param name method name
-     * @param path path URI
+     * @param path request path or route template
      * @return the average speed
      */
     public float getCurrentAverage(final Method name,
             final String path) {
         LOG.traceEntry("Parameters : {} and {}", name.getName(), path);
-        final float average;
-        final String identifier = name.getName() + path;
-        if (isRegistered(name, path)) {
-            average = this.applications.get(identifier).getAverage();
-        } else {
-            throw LOG.throwing(new IllegalArgumentException(identifier + " is not registered"));
+        final DoiMonitoringRecord record = getRecord(name, path);
+        if (record == null) {
+            throw LOG.throwing(new IllegalArgumentException(name.getName() + path
+                    + " is not registered"));
         }
-        return LOG.traceExit(average);
+        return LOG.traceExit(record.getAverage());
     }
 
     /**
      * Returns the description.
      *
      * @param name method name
-     * @param path path URI
+     * @param path request path or route template
      * @return the description
      */
     public String getDescription(final Method name,
             final String path) {
         LOG.traceEntry("Parameters : {} and {}", name.getName(), path);
-        final String identifier = name.getName() + path;
-        final String description = this.applications.get(identifier).getDescription();
+        final String description = getRecord(name, path).getDescription();
         return LOG.traceExit(description);
     }
 
@@ -18,14 +18,24 @@
  */
 package fr.cnes.doi.services;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.restlet.data.Method;
+import org.restlet.routing.Template;
+import org.restlet.routing.Variable;
+
 /**
  * Monitoring record containing:
  * <ul>
  * <li>Description of the record</li>
- * <li>Average</li>
- * <li>Nb total of recorded values (to compute the average)</li>
+ * <li>Method and route template of the monitored feature</li>
+ * <li>Histogram of all the recorded durations</li>
+ * <li>Histogram of the durations recorded in the sliding time window</li>
  * </ul>
  *
+ * <p>
+ * The sliding window is a ring of slots. Each slot holds the durations of a
+ * fraction of the window and is emptied when it is reused.
+ *
  * @author Claire
  *
  */
@@ -34,34 +44,110 @@ public class DoiMonitoringRecord {
     /**
      * Description (name) of the service to record *
      */
-    private String description;
+    private final String description;
+
+    /**
+     * Method of the service.
+     */
+    private final Method method;
+
+    /**
+     * Route template of the service.
+     */
+    private final String path;
+
+    /**
+     * Template to match the request paths with the route template.
+     */
+    private final Template template;
 
     /**
-     * Current average time to access this service *
+     * Histogram of all the durations.
      */
-    private float average = 0.0f;
+    private final LatencyHistogram total = new LatencyHistogram();
 
     /**
-     * Nb of values to compute the average *
+     * Histograms of the slots of the sliding window.
      */
-    private int nbAccess = 0;
+    private final LatencyHistogram[] slots;
+
+    /**
+     * Time index of each slot, which is the time divided by the slot duration.
+     */
+    private final AtomicLongArray slotIndexes;
+
+    /**
+     * Duration of a slot in ms.
+     */
+    private final long slotDuration;
 
     /**
      * Constructor.
      *
-     * @param description Service description
-     * @param average Average speed of the request
-     * @param nbAccess Number of access
+     * @param description description
+     * @param method method of the service
+     * @param path route template of the service
+     * @param windowDuration duration of the sliding window in ms
+     * @param nbSlots number of slots in the sliding window
      */
-    public DoiMonitoringRecord(final String description, final float average, final int nbAccess) {
-        super();
+    public DoiMonitoringRecord(final String description, final Method method, final String path,
+            final long windowDuration, final int nbSlots) {
         this.description = description;
-        this.average = average;
-        this.nbAccess = nbAccess;
+        this.method = method;
+        this.path = path;
+        final int matchingMode = path.contains("{") ? Template.MODE_STARTS_WITH
+                : Template.MODE_EQUALS;
+        this.template = new Template(path, matchingMode, Variable.TYPE_URI_SEGMENT, "", true,
+                false);
+        this.slots = new LatencyHistogram[nbSlots];
+        this.slotIndexes = new AtomicLongArray(nbSlots);
+        for (int i = 0; i < nbSlots; i++) {
+            this.slots[i] = new LatencyHistogram();
+            this.slotIndexes.set(i, Long.MIN_VALUE);
+        }
+        this.slotDuration = Math.max(1, windowDuration / nbSlots);
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param duration duration in ms
+     */
+    public void addMeasurement(final double duration) {
+        addMeasurement(duration, System.currentTimeMillis());
     }
 
     /**
-     * Returns the service description.
+     * Records a duration at a given time.
+     *
+     * @param duration duration in ms
+     * @param time time of the measurement in ms since epoch
+     */
+    void addMeasurement(final double duration, final long time) {
+        this.total.record(duration);
+        final long timeIndex = time / this.slotDuration;
+        final int slot = (int) (timeIndex % this.slots.length);
+        final long slotIndex = this.slotIndexes.get(slot);
+        if (slotIndex < timeIndex && this.slotIndexes.compareAndSet(slot, slotIndex, timeIndex)) {
+            this.slots[slot].reset();
+        }
+        this.slots[slot].record(duration);
+    }
+
+    /**
+     * Returns the number of characters of a request path matched by the route
+     * template.
+     *
+     * @param requestPath request path
+     * @return the number of matched characters or -1 when the path does not
+     * match
+     */
+    int match(final String requestPath) {
+        return this.template.match(requestPath);
+    }
+
+    /**
+     * Returns the description.
      *
      * @return the description
      */
@@ -70,48 +156,76 @@ public class DoiMonitoringRecord {
     }
 
     /**
-     * Sets the service description.
+     * Returns the method name.
      *
-     * @param description the description to set
+     * @return the method name
      */
-    public void setDescription(final String description) {
-        this.description = description;
+    public String getMethod() {
+        return method.getName();
     }
 
     /**
-     * Returns the average speed of the request.
+     * Returns the route template.
      *
-     * @return the average
+     * @return the route template
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the average of all the durations.
+     *
+     * @return the average in ms
      */
     public float getAverage() {
-        return average;
+        return (float) this.total.getMean();
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of recorded durations
+     */
+    public long getNbAccess() {
+        return this.total.getCount();
     }
 
     /**
-     * Sets the average speed of the request.
+     * Returns the statistics of all the durations.
      *
-     * @param average the average to set
+     * @return the statistics
      */
-    public void setAverage(final float average) {
-        this.average = average;
+    public LatencyHistogram.Snapshot getTotal() {
+        return this.total.snapshot();
     }
 
     /**
-     * Returns the number of access.
+     * Returns the statistics of the durations in the sliding window.
      *
-     * @return the nbAccess
+     * @return the statistics
      */
-    public int getNbAccess() {
-        return nbAccess;
+    public LatencyHistogram.Snapshot getWindow() {
+        return getWindow(System.currentTimeMillis());
     }
 
     /**
-     * Sets the number of access.
+     * Returns the statistics of the durations in the sliding window ending at
+     * a given time.
      *
-     * @param nbAccess the nbAccess to set
+     * @param time end of the window in ms since epoch
+     * @return the statistics
      */
-    public void setNbAccess(final int nbAccess) {
-        this.nbAccess = nbAccess;
+    LatencyHistogram.Snapshot getWindow(final long time) {
+        final long timeIndex = time / this.slotDuration;
+        final LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot();
+        for (int i = 0; i < this.slots.length; i++) {
+            final long slotIndex = this.slotIndexes.get(i);
+            if (slotIndex > timeIndex - this.slots.length && slotIndex <= timeIndex) {
+                snapshot.add(this.slots[i]);
+            }
+        }
+        return snapshot;
     }
 
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.services;
+
+import fr.cnes.doi.db.model.LandingPageState;
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selects the landing pages to check at each run of the monitoring.
+ *
+ * <p>
+ * A landing page is checked when:
+ * <ul>
+ * <li>it has never been checked</li>
+ * <li>it is offline and has not been checked since the failing interval</li>
+ * <li>its DOI is recent and it has not been checked since the recent
+ * interval</li>
+ * <li>it is online and among the oldest checked ones. Enough of them are
+ * selected at each run to check all of them within the healthy interval.</li>
+ * </ul>
+ */
+public final class LandingPageCheckPlanner {
+
+    /**
+     * Default period in minutes between two runs {@value #DEFAULT_PERIOD}.
+     */
+    public static final String DEFAULT_PERIOD = "60";
+
+    /**
+     * Default failing interval in minutes {@value #DEFAULT_FAILING_INTERVAL}.
+     */
+    public static final String DEFAULT_FAILING_INTERVAL = "60";
+
+    /**
+     * Default age in minutes of a recent DOI {@value #DEFAULT_RECENT_AGE}.
+     */
+    public static final String DEFAULT_RECENT_AGE = "10080";
+
+    /**
+     * Default recent interval in minutes {@value #DEFAULT_RECENT_INTERVAL}.
+     */
+    public static final String DEFAULT_RECENT_INTERVAL = "360";
+
+    /**
+     * Default healthy interval in minutes {@value #DEFAULT_HEALTHY_INTERVAL}.
+     */
+    public static final String DEFAULT_HEALTHY_INTERVAL = "10080";
+
+    /**
+     * Period in ms between two runs.
+     */
+    private final long period;
+
+    /**
+     * Delay in ms before checking again an offline landing page.
+     */
+    private final long failingInterval;
+
+    /**
+     * Age in ms below which a DOI is recent.
+     */
+    private final long recentAge;
+
+    /**
+     * Delay in ms before checking again the landing page of a recent DOI.
+     */
+    private final long recentInterval;
+
+    /**
+     * Delay in ms in which all the online landing pages are checked again.
+     */
+    private final long healthyInterval;
+
+    /**
+     * Constructor.
+     *
+     * @param period period in ms between two runs
+     * @param failingInterval delay in ms before checking again an offline
+     * landing page
+     * @param recentAge age in ms below which a DOI is recent
+     * @param recentInterval delay in ms before checking again the landing page
+     * of a recent DOI
+     * @param healthyInterval delay in ms in which all the online landing pages
+     * are checked again
+     * @throws IllegalArgumentException if period or healthyInterval is not
+     * strictly positive
+     */
+    public LandingPageCheckPlanner(final long period, final long failingInterval,
+            final long recentAge, final long recentInterval, final long healthyInterval) {
+        if (period <= 0 || healthyInterval <= 0) {
+            throw new IllegalArgumentException("period and healthyInterval must be > 0");
+        }
+        this.period = period;
+        this.failingInterval = failingInterval;
+        this.recentAge = recentAge;
+        this.recentInterval = recentInterval;
+        this.healthyInterval = healthyInterval;
+    }
+
+    /**
+     * Creates the planner from the configuration file.
+     *
+     * @return the planner
+     */
+    public static LandingPageCheckPlanner fromSettings() {
+        final DoiSettings settings = DoiSettings.getInstance();
+        return new LandingPageCheckPlanner(
+                toMillis(settings.getInt(Consts.LANDING_PAGE_PERIOD, DEFAULT_PERIOD)),
+                toMillis(settings.getInt(Consts.LANDING_PAGE_FAILING_INTERVAL,
+                        DEFAULT_FAILING_INTERVAL)),
+                toMillis(settings.getInt(Consts.LANDING_PAGE_RECENT_AGE, DEFAULT_RECENT_AGE)),
+                toMillis(settings.getInt(Consts.LANDING_PAGE_RECENT_INTERVAL,
+                        DEFAULT_RECENT_INTERVAL)),
+                toMillis(settings.getInt(Consts.LANDING_PAGE_HEALTHY_INTERVAL,
+                        DEFAULT_HEALTHY_INTERVAL)));
+    }
+
+    /**
+     * Converts minutes in ms.
+     *
+     * @param minutes minutes
+     * @return ms
+     */
+    private static long toMillis(final int minutes) {
+        return TimeUnit.MINUTES.toMillis(minutes);
+    }
+
+    /**
+     * Selects the DOIs whose landing page must be checked now.
+     *
+     * @param dois all the DOIs
+     * @param states states of the landing pages already checked, by DOI
+     * @param now current date in ms since epoch
+     * @return the DOIs to check
+     */
+    public List<String> selectDois(final Collection<String> dois,
+            final Map<String, LandingPageState> states, final long now) {
+        final List<String> selected = new ArrayList<>();
+        final List<LandingPageState> healthy = new ArrayList<>();
+        for (final String doi : dois) {
+            final LandingPageState state = states.get(doi);
+            if (state == null) {
+                selected.add(doi);
+            } else if (state.isFailing()) {
+                addIfElapsed(selected, state, this.failingInterval, now);
+            } else if (now - state.getFirstSeen() < this.recentAge) {
+                addIfElapsed(selected, state, this.recentInterval, now);
+            } else {
+                healthy.add(state);
+            }
+        }
+        final int quota = (int) Math.min(healthy.size(),
+                Math.ceil(healthy.size() * (double) this.period / this.healthyInterval));
+        healthy.sort(Comparator.comparingLong(LandingPageState::getLastCheck));
+        for (final LandingPageState state : healthy.subList(0, quota)) {
+            selected.add(state.getDoi());
+        }
+        return selected;
+    }
+
+    /**
+     * Adds the DOI of the state when the delay since its last check is
+     * elapsed.
+     *
+     * @param selected selected DOIs
+     * @param state landing page state
+     * @param interval delay in ms
+     * @param now current date in ms since epoch
+     */
+    private void addIfElapsed(final List<String> selected, final LandingPageState state,
+            final long interval, final long now) {
+        if (now - state.getLastCheck() >= interval) {
+            selected.add(state.getDoi());
+        }
+    }
+
+    /**
+     * Computes the new state of a landing page after a check.
+     *
+     * @param doi DOI
+     * @param previous previous state or null when the landing page has never
+     * been checked
+     * @param status HTTP status code of the check
+     * @param isError true when the landing page is offline
+     * @param now current date in ms since epoch
+     * @param firstSeen date in ms since epoch to record as first check when
+     * previous is null
+     * @return the new state
+     */
+    public LandingPageState update(final String doi, final LandingPageState previous,
+            final int status, final boolean isError, final long now, final long firstSeen) {
+        final LandingPageState state = new LandingPageState();
+        state.setDoi(doi);
+        state.setStatus(status);
+        state.setLastCheck(now);
+        if (previous == null) {
+            state.setFirstSeen(firstSeen);
+            state.setFailures(isError ? 1 : 0);
+        } else {
+            state.setFirstSeen(previous.getFirstSeen());
+            state.setFailures(isError ? previous.getFailures() + 1 : 0);
+        }
+        return state;
+    }
+}
@@ -22,18 +22,23 @@ import fr.cnes.doi.client.ClientLandingPage;
 import fr.cnes.doi.client.ClientMDS;
 import fr.cnes.doi.db.AbstractProjectSuffixDBHelper;
 import fr.cnes.doi.db.model.DOIUser;
+import fr.cnes.doi.db.model.LandingPageState;
 import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.plugin.PluginFactory;
 import fr.cnes.doi.settings.EmailSettings;
 import fr.cnes.doi.utils.spec.Requirement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -42,6 +47,13 @@ import org.restlet.data.Status;
 /**
  * Provides a check on the availability of each published landing page publisher
  *
+ * <p>
+ * The state of each checked landing page is stored so that each run only
+ * checks the landing pages selected by the {@link LandingPageCheckPlanner}.
+ * The members of a project are warned when a landing page goes off-line. The
+ * states of the deleted DOIs are forgotten. When the table of the states is
+ * missing, the states are only kept in memory.
+ *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
 @Requirement(reqId = Requirement.DOI_DISPO_020, reqName = Requirement.DOI_DISPO_020_NAME)
@@ -51,14 +63,56 @@ public class LandingPageMonitoring implements Runnable {
      * Logger.
      */
     private static final Logger LOG = LogManager.getLogger(LandingPageMonitoring.class.getName());
+
+    /**
+     * Pattern of a DOI : prefix/projectID/suffix.
+     */
+    private static final Pattern DOI_PATTERN = Pattern.compile("^(.+)\\/(.+)\\/(.+)$");
+
+    /**
+     * SQL state of PostgreSQL for a missing table {@value #UNDEFINED_TABLE}.
+     */
+    private static final String UNDEFINED_TABLE = "42P01";
     
     /**
      * Client MDS to get all DOIs.
      */
     private final ClientMDS client;
 
+    /**
+     * Selects the landing pages to check at each run.
+     */
+    private final LandingPageCheckPlanner planner;
+
+    /**
+     * State of the checked landing pages by DOI, loaded from the database at
+     * the first run.
+     */
+    private final Map<String, LandingPageState> states = new HashMap<>();
+
+    /**
+     * Indicates if the states have been loaded from the database.
+     */
+    private boolean isLoaded = false;
+
+    /**
+     * Constructor.
+     *
+     * @param client Client MDS
+     */
     public LandingPageMonitoring(final ClientMDS client) {
+        this(client, LandingPageCheckPlanner.fromSettings());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param client Client MDS
+     * @param planner selects the landing pages to check at each run
+     */
+    public LandingPageMonitoring(final ClientMDS client, final LandingPageCheckPlanner planner) {
         this.client = client;
+        this.planner = planner;
     }
     
     /**
@@ -68,55 +122,171 @@ public class LandingPageMonitoring implements Runnable {
     public void run() {
         LOG.traceEntry();
         final EmailSettings email = EmailSettings.getInstance();
-        final StringBuffer msg = new StringBuffer();
         try {
-            final String subject;
-            final Map<String, Map<String, Status>> doiErrors = new ConcurrentHashMap<>();           
+            final AbstractProjectSuffixDBHelper manageProjects = PluginFactory.getProjectSuffix();
+            loadStates(manageProjects);
+            final long now = System.currentTimeMillis();
+            // the DOIs found at the first run are not considered as recent
+            final long firstSeen = this.states.isEmpty() ? 0L : now;
             final List<String> response = client.getDois();
-            final ClientLandingPage clientLandingPage = new ClientLandingPage(response);
-
-            if (clientLandingPage.isSuccess()) {
-                subject = "Landing pages checked with success";
-                msg.append("All landing pages (").append(response.size()).append(") are on-line");
-            } else {
-                subject = "Landing pages checked with errors";
-
-                final StringBuffer header = new StringBuffer();
-                header.append("List of off-line landing pages:\n");
-                header.append("-------------------------------\n");
-
-                final Map<String, Status> errors = clientLandingPage.getErrors();
-                msg.append(errors.size()).append(" are off-line !!!\n");
-                msg.append(header);
-
-                // build error index by projectID and a global message
-                for (final Entry<String, Status> entry : errors.entrySet()) {
-                    msg.append(buildDetailMessage(entry));
-
-                    final String projectID = this.extractProjIdFrom(entry.getKey());
-                    if (doiErrors.containsKey(projectID)) {
-                        doiErrors.get(projectID).put(entry.getKey(), entry.getValue());
-                    } else {
-                        doiErrors.put(projectID, new HashMap<>());
-                        doiErrors.get(projectID).put(entry.getKey(), entry.getValue());
-                    }
-                }
-                // build message by project
-                for (final Entry<String, Map<String, Status>> project : doiErrors.entrySet()) {
-                    final StringBuffer body = new StringBuffer();
-                    body.append(header);
-                    final Map<String, Status> errorsDoi = project.getValue();
-                    for (final Entry<String, Status> errorDoi : errorsDoi.entrySet()) {
-                        body.append(buildDetailMessage(errorDoi));
-                    }
-                    sendMessageToMembers(project.getKey(), subject, body.toString(), email);
+            forgetDeletedDois(manageProjects, response);
+            final List<String> dois = this.planner.selectDois(response, this.states, now);
+            LOG.info("{} landing pages to check among {}", dois.size(), response.size());
+
+            final Map<String, LandingPageState> checked = new ConcurrentHashMap<>();
+            final Map<String, Status> newErrors = new ConcurrentHashMap<>();
+            final Map<String, Status> recovered = new ConcurrentHashMap<>();
+            final Map<String, Map<String, Status>> doiErrors = new ConcurrentHashMap<>();
+            final ClientLandingPage clientLandingPage = new ClientLandingPage();
+            // build error index by projectID while the landing pages are checked
+            clientLandingPage.checkDoi(dois, (doi, status) -> {
+                final LandingPageState previous = this.states.get(doi);
+                checked.put(doi, this.planner.update(doi, previous, status.getCode(),
+                        status.isError(), now, firstSeen));
+                final boolean wasFailing = previous != null && previous.isFailing();
+                if (status.isError() && !wasFailing) {
+                    newErrors.put(doi, status);
+                    doiErrors.computeIfAbsent(this.extractProjIdFrom(doi),
+                            projectID -> new ConcurrentHashMap<>()).put(doi, status);
+                } else if (!status.isError() && wasFailing) {
+                    recovered.put(doi, status);
                 }
-            }
-            email.sendMessage(subject, msg.toString());
+            });
+            this.states.putAll(checked);
+            saveStates(manageProjects, new ArrayList<>(checked.values()));
+            notify(newErrors, recovered, doiErrors, email);
         } catch (Exception ex) {
             email.sendMessage("Unrecoverable errors when checking landing pages", ex.toString(),
                     null);
         }
+        LOG.traceExit();
+    }
+
+    /**
+     * Loads the state of the landing pages from the database at the first
+     * run.
+     *
+     * @param manageProjects database
+     * @throws DOIDbException When the states cannot be loaded
+     */
+    private void loadStates(final AbstractProjectSuffixDBHelper manageProjects) throws
+            DOIDbException {
+        if (!this.isLoaded) {
+            try {
+                for (final LandingPageState state : manageProjects.getLandingPageStates()) {
+                    this.states.put(state.getDoi(), state);
+                }
+                LOG.info("{} landing page states loaded", this.states.size());
+            } catch (DOIDbException ex) {
+                warnIfMissingTable(ex);
+            }
+            this.isLoaded = true;
+        }
+    }
+
+    /**
+     * Saves the state of the checked landing pages.
+     *
+     * @param manageProjects database
+     * @param checked states of the checked landing pages
+     * @throws DOIDbException When the states cannot be saved
+     */
+    private void saveStates(final AbstractProjectSuffixDBHelper manageProjects,
+            final List<LandingPageState> checked) throws DOIDbException {
+        try {
+            manageProjects.saveLandingPageStates(checked);
+        } catch (DOIDbException ex) {
+            warnIfMissingTable(ex);
+        }
+    }
+
+    /**
+     * Forgets the state of the landing pages whose DOI is no longer in the
+     * catalogue. Nothing is forgotten when the catalogue is empty.
+     *
+     * @param manageProjects database
+     * @param catalogue DOIs of the catalogue
+     * @throws DOIDbException When the states cannot be deleted
+     */
+    private void forgetDeletedDois(final AbstractProjectSuffixDBHelper manageProjects,
+            final List<String> catalogue) throws DOIDbException {
+        final Set<String> existing = new HashSet<>(catalogue);
+        final List<String> deleted = existing.isEmpty() ? new ArrayList<>()
+                : this.states.keySet().stream()
+                        .filter(doi -> !existing.contains(doi))
+                        .collect(Collectors.toList());
+        if (!deleted.isEmpty()) {
+            this.states.keySet().removeAll(deleted);
+            LOG.info("{} landing page states of deleted DOIs forgotten", deleted.size());
+            try {
+                manageProjects.deleteLandingPageStates(deleted);
+            } catch (DOIDbException ex) {
+                warnIfMissingTable(ex);
+            }
+        }
+    }
+
+    /**
+     * Logs a warning when the table of the states is missing, in a database
+     * not upgraded with db/dbUpgrade_landingPages.sql.
+     *
+     * @param ex database error
+     * @throws DOIDbException the database error when it is not caused by the
+     * missing table
+     */
+    private void warnIfMissingTable(final DOIDbException ex) throws DOIDbException {
+        final boolean isMissingTable = ex.getCause() instanceof SQLException
+                && UNDEFINED_TABLE.equals(((SQLException) ex.getCause()).getSQLState());
+        if (!isMissingTable) {
+            throw ex;
+        }
+        LOG.warn("The landing page states are only kept in memory : the table "
+                + "T_DOI_LANDING_PAGES is missing, run db/dbUpgrade_landingPages.sql");
+    }
+
+    /**
+     * Sends the landing pages that went off-line or came back on-line during
+     * the run.
+     *
+     * @param newErrors landing pages that went off-line
+     * @param recovered landing pages that came back on-line
+     * @param doiErrors landing pages that went off-line by projectID
+     * @param email email settings
+     */
+    private void notify(final Map<String, Status> newErrors, final Map<String, Status> recovered,
+            final Map<String, Map<String, Status>> doiErrors, final EmailSettings email) {
+        if (!newErrors.isEmpty() || !recovered.isEmpty()) {
+            final long nbOffline = this.states.values().stream()
+                    .filter(LandingPageState::isFailing).count();
+            final String subject = newErrors.isEmpty() ? "Landing pages back on-line"
+                    : "Landing pages checked with errors";
+            final StringBuffer header = new StringBuffer();
+            header.append("List of new off-line landing pages:\n");
+            header.append("-----------------------------------\n");
+
+            final StringBuffer msg = new StringBuffer();
+            msg.append(nbOffline).append(" are off-line !!!\n");
+            msg.append(header);
+            for (final Entry<String, Status> entry : newErrors.entrySet()) {
+                msg.append(buildDetailMessage(entry));
+            }
+            msg.append("\nList of landing pages back on-line:\n");
+            msg.append("-----------------------------------\n");
+            for (final Entry<String, Status> entry : recovered.entrySet()) {
+                msg.append(buildDetailMessage(entry));
+            }
+            // build message by project
+            for (final Entry<String, Map<String, Status>> project : doiErrors.entrySet()) {
+                final StringBuffer body = new StringBuffer();
+                body.append(header);
+                final Map<String, Status> errorsDoi = project.getValue();
+                for (final Entry<String, Status> errorDoi : errorsDoi.entrySet()) {
+                    body.append(buildDetailMessage(errorDoi));
+                }
+                sendMessageToMembers(project.getKey(), subject, body.toString(), email);
+            }
+            email.sendMessage(subject, msg.toString());
+        }
     }
 
     /**
@@ -142,9 +312,7 @@ public class LandingPageMonitoring implements Runnable {
      */
     private String extractProjIdFrom(final String doi) {
         // parse project suffix from doi
-        final String doiRegex = "^(.+)\\/(.+)\\/(.+)$";
-        final Pattern doiPattern = Pattern.compile(doiRegex);
-        final Matcher doiMatcher = doiPattern.matcher(doi);
+        final Matcher doiMatcher = DOI_PATTERN.matcher(doi);
         doiMatcher.matches();
         return doiMatcher.group(2);
     }
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in ms.
+ *
+ * <p>
+ * The buckets follow the HDR histogram layout : the values lower than
+ * {@value #LINEAR_LIMIT} have their own bucket, then each power of two is split
+ * in {@value #SUB_BUCKETS} buckets, so that the relative error of a percentile
+ * is lower than 1/{@value #SUB_BUCKETS}.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of bits of the sub buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of buckets for each power of two : {@value #SUB_BUCKETS}.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values below {@value #LINEAR_LIMIT} have their own bucket.
+     */
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+    /**
+     * Number of buckets to store the values up to Integer.MAX_VALUE.
+     */
+    private static final int NB_BUCKETS = bucketIndex(Integer.MAX_VALUE) + 1;
+
+    /**
+     * Number of values for each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(NB_BUCKETS);
+
+    /**
+     * Number of values.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Sum of the values.
+     */
+    private final DoubleAdder sum = new DoubleAdder();
+
+    /**
+     * Maximum value.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value.
+     *
+     * @param value duration in ms
+     */
+    public void record(final double value) {
+        final long rounded = Math.min(Integer.MAX_VALUE, Math.max(0, Math.round(value)));
+        this.counts.incrementAndGet(bucketIndex(rounded));
+        this.count.increment();
+        this.sum.add(value);
+        this.max.accumulate(rounded);
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void reset() {
+        for (int i = 0; i < NB_BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.reset();
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the average of the values.
+     *
+     * @return the average in ms or 0 when there is no value
+     */
+    public double getMean() {
+        final long nb = this.count.sum();
+        return nb == 0 ? 0 : this.sum.sum() / nb;
+    }
+
+    /**
+     * Returns a copy of the histogram.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        return new Snapshot().add(this);
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value value
+     * @return the bucket index
+     */
+    static int bucketIndex(final long value) {
+        final int index;
+        if (value < LINEAR_LIMIT) {
+            index = (int) value;
+        } else {
+            final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            index = shift * SUB_BUCKETS + (int) (value >> shift);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the highest value of a bucket.
+     *
+     * @param index bucket index
+     * @return the highest value
+     */
+    static long bucketUpperBound(final int index) {
+        final long upper;
+        if (index < LINEAR_LIMIT) {
+            upper = index;
+        } else {
+            final int shift = index / SUB_BUCKETS - 1;
+            final long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+            upper = ((subBucket + 1) << shift) - 1;
+        }
+        return upper;
+    }
+
+    /**
+     * Immutable statistics computed from one or several histograms.
+     */
+    public static final class Snapshot {
+
+        /**
+         * Number of values for each bucket.
+         */
+        private final long[] counts = new long[NB_BUCKETS];
+
+        /**
+         * Number of values.
+         */
+        private long count;
+
+        /**
+         * Sum of the values.
+         */
+        private double sum;
+
+        /**
+         * Maximum value.
+         */
+        private long max;
+
+        /**
+         * Creates an empty snapshot.
+         */
+        Snapshot() {
+        }
+
+        /**
+         * Adds the values of a histogram.
+         *
+         * @param histogram histogram
+         * @return this snapshot
+         */
+        Snapshot add(final LatencyHistogram histogram) {
+            for (int i = 0; i < NB_BUCKETS; i++) {
+                final long nb = histogram.counts.get(i);
+                this.counts[i] += nb;
+                this.count += nb;
+            }
+            this.sum += histogram.sum.sum();
+            this.max = Math.max(this.max, histogram.max.get());
+            return this;
+        }
+
+        /**
+         * Returns the number of values.
+         *
+         * @return the number of values
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Returns the average of the values.
+         *
+         * @return the average in ms or 0 when there is no value
+         */
+        public double getMean() {
+            return this.count == 0 ? 0 : this.sum / this.count;
+        }
+
+        /**
+         * Returns the maximum value.
+         *
+         * @return the maximum in ms
+         */
+        public long getMax() {
+            return this.max;
+        }
+
+        /**
+         * Returns the median.
+         *
+         * @return the median in ms
+         */
+        public long getP50() {
+            return getPercentile(50);
+        }
+
+        /**
+         * Returns the 95th percentile.
+         *
+         * @return the 95th percentile in ms
+         */
+        public long getP95() {
+            return getPercentile(95);
+        }
+
+        /**
+         * Returns the 99th percentile.
+         *
+         * @return the 99th percentile in ms
+         */
+        public long getP99() {
+            return getPercentile(99);
+        }
+
+        /**
+         * Returns a percentile. The value is the highest value of the bucket
+         * containing the percentile, bounded by the maximum.
+         *
+         * @param percentile percentile between 0 and 100
+         * @return the percentile in ms or 0 when there is no value
+         */
+        public long getPercentile(final double percentile) {
+            long result = 0;
+            if (this.count > 0) {
+                final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * this.count));
+                long cumulated = 0;
+                int index = 0;
+                while (index < NB_BUCKETS && cumulated + this.counts[index] < rank) {
+                    cumulated += this.counts[index];
+                    index++;
+                }
+                result = Math.min(bucketUpperBound(Math.min(index, NB_BUCKETS - 1)), this.max);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.services;
+
+import fr.cnes.doi.utils.Utils;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Speed alerting of the monitored features.
+ *
+ * <p>
+ * The monitoring records are evaluated periodically out of the request
+ * threads. For each route, the 95th percentile of the sliding window is
+ * compared with a baseline, which is a moving average of the 95th percentile
+ * of the previous windows in which the route was healthy. The alert is raised
+ * when the elevation exceeds the raise threshold and cleared when it goes back
+ * below the clear threshold (hysteresis). A route in alert is only reminded
+ * after a cooldown. All the alerts of an evaluation are sent in a single
+ * digest.
+ */
+public class SpeedAlerting {
+
+    /**
+     * Default period in seconds between two evaluations : {@value #DEFAULT_PERIOD}.
+     */
+    public static final String DEFAULT_PERIOD = "60";
+
+    /**
+     * Default cooldown in seconds between two alerts of a same route :
+     * {@value #DEFAULT_COOLDOWN}.
+     */
+    public static final String DEFAULT_COOLDOWN = "900";
+
+    /**
+     * Default minimum number of measurements in the sliding window to evaluate
+     * a route : {@value #DEFAULT_MIN_MEASUREMENTS}.
+     */
+    public static final String DEFAULT_MIN_MEASUREMENTS = "20";
+
+    /**
+     * Weight of the last window in the baseline.
+     */
+    private static final double BASELINE_WEIGHT = 0.2;
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LogManager.getLogger(Utils.APP_LOGGER_NAME);
+
+    /**
+     * Monitoring records to evaluate.
+     */
+    private final DoiMonitoring monitoring;
+
+    /**
+     * Sender of the digest.
+     */
+    private final AlertSender sender;
+
+    /**
+     * Elevation in percent from which an alert is raised.
+     */
+    private final double raiseThreshold;
+
+    /**
+     * Elevation in percent below which an alert is cleared.
+     */
+    private final double clearThreshold;
+
+    /**
+     * Cooldown in ms between two alerts of a same route.
+     */
+    private final long cooldown;
+
+    /**
+     * Minimum number of measurements in the sliding window.
+     */
+    private final long minMeasurements;
+
+    /**
+     * Alert state by route. Only accessed by the evaluation.
+     */
+    private final Map<DoiMonitoringRecord, RouteState> states = new HashMap<>();
+
+    /**
+     * Evaluation thread or null when the alerting is not started.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates the speed alerting.
+     *
+     * @param monitoring monitoring records to evaluate
+     * @param sender sender of the digest
+     * @param raiseThreshold elevation in percent from which an alert is raised
+     * @param clearThreshold elevation in percent below which an alert is
+     * cleared
+     * @param cooldown cooldown in ms between two alerts of a same route
+     * @param minMeasurements minimum number of measurements in the sliding
+     * window
+     * @throws IllegalArgumentException if clearThreshold is greater than
+     * raiseThreshold
+     */
+    public SpeedAlerting(final DoiMonitoring monitoring, final AlertSender sender,
+            final double raiseThreshold, final double clearThreshold, final long cooldown,
+            final long minMeasurements) {
+        if (clearThreshold > raiseThreshold) {
+            throw LOG.throwing(new IllegalArgumentException(
+                    "the clear threshold must be <= the raise threshold"));
+        }
+        this.monitoring = monitoring;
+        this.sender = sender;
+        this.raiseThreshold = raiseThreshold;
+        this.clearThreshold = clearThreshold;
+        this.cooldown = Math.max(0, cooldown);
+        this.minMeasurements = Math.max(1, minMeasurements);
+    }
+
+    /**
+     * Starts the periodic evaluation.
+     *
+     * @param period period in ms between two evaluations
+     */
+    public synchronized void start(final long period) {
+        LOG.traceEntry("Parameter : {}", period);
+        if (this.executor == null) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "doi-speed-alerting");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.scheduleAtFixedRate(this::run, period, period, TimeUnit.MILLISECONDS);
+            LOG.info("Speed alerting started : period={} ms, raise={}%, clear={}%, "
+                    + "cooldown={} ms", period, this.raiseThreshold, this.clearThreshold,
+                    this.cooldown);
+        }
+        LOG.traceExit();
+    }
+
+    /**
+     * Stops the periodic evaluation.
+     */
+    public synchronized void stop() {
+        LOG.traceEntry();
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+        LOG.traceExit();
+    }
+
+    /**
+     * Evaluates the routes and sends the digest. An error must not cancel the
+     * next evaluations.
+     */
+    private void run() {
+        try {
+            evaluate(System.currentTimeMillis());
+        } catch (RuntimeException ex) {
+            LOG.catching(Level.ERROR, ex);
+        }
+    }
+
+    /**
+     * Evaluates all the routes at a given time and sends a single digest when
+     * at least one route is raised, reminded or cleared.
+     *
+     * @param time evaluation time in ms since epoch
+     * @return the digest or null when nothing is sent
+     */
+    synchronized String evaluate(final long time) {
+        final StringBuilder digest = new StringBuilder();
+        int nbAlerts = 0;
+        for (final DoiMonitoringRecord record : this.monitoring.getRecords()) {
+            final RouteState state = this.states.computeIfAbsent(record, key -> new RouteState());
+            final String event = evaluate(record, state, time);
+            if (event != null) {
+                digest.append(event);
+                nbAlerts++;
+            }
+        }
+        final String result;
+        if (nbAlerts == 0) {
+            result = null;
+        } else {
+            result = "Dear administrator,\nthe speed performance of the following "
+                    + "applications has changed.\n\n" + digest;
+            this.sender.send("Speed performance alert (" + nbAlerts + " route(s))", result);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates a route and updates its state.
+     *
+     * @param record monitoring record of the route
+     * @param state alert state of the route
+     * @param time evaluation time in ms since epoch
+     * @return the digest entry or null when nothing must be notified
+     */
+    private String evaluate(final DoiMonitoringRecord record, final RouteState state,
+            final long time) {
+        final LatencyHistogram.Snapshot window = record.getWindow(time);
+        String event = null;
+        if (window.getCount() >= this.minMeasurements) {
+            final long p95 = window.getP95();
+            if (state.baseline == 0) {
+                state.baseline = Math.max(1, record.getTotal().getP95());
+            }
+            final double elevation = (p95 - state.baseline) * 100.0 / state.baseline;
+            if (state.isRaised) {
+                if (elevation < this.clearThreshold) {
+                    state.isRaised = false;
+                    event = describe("CLEARED", record, window, state.baseline, elevation);
+                } else if (time - state.lastAlert >= this.cooldown) {
+                    state.lastAlert = time;
+                    event = describe("STILL RAISED", record, window, state.baseline, elevation);
+                }
+            } else if (elevation > this.raiseThreshold) {
+                state.isRaised = true;
+                state.lastAlert = time;
+                event = describe("RAISED", record, window, state.baseline, elevation);
+            }
+            if (!state.isRaised) {
+                state.baseline = Math.max(1,
+                        state.baseline + BASELINE_WEIGHT * (p95 - state.baseline));
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Describes the state of a route in the digest.
+     *
+     * @param status alert status
+     * @param record monitoring record of the route
+     * @param window statistics of the sliding window
+     * @param baseline baseline of the 95th percentile in ms
+     * @param elevation elevation of the 95th percentile in percent
+     * @return the digest entry
+     */
+    private static String describe(final String status, final DoiMonitoringRecord record,
+            final LatencyHistogram.Snapshot window, final double baseline,
+            final double elevation) {
+        return "[" + status + "] " + record.getDescription() + " (" + record.getMethod() + " "
+                + record.getPath() + ")\n"
+                + " * p95 elevation : " + String.format("%.02f", elevation) + "%\n"
+                + " * p95 baseline : " + String.format("%.0f", baseline) + " ms\n"
+                + " * p50/p95/p99/max in the window : " + window.getP50() + "/"
+                + window.getP95() + "/" + window.getP99() + "/" + window.getMax() + " ms ("
+                + window.getCount() + " requests)\n\n";
+    }
+
+    /**
+     * Sends the digest of the alerts.
+     */
+    @FunctionalInterface
+    public interface AlertSender {
+
+        /**
+         * Sends a digest.
+         *
+         * @param subject subject
+         * @param message message
+         */
+        void send(String subject, String message);
+    }
+
+    /**
+     * Alert state of a route.
+     */
+    private static final class RouteState {
+
+        /**
+         * Baseline of the 95th percentile in ms, 0 when not initialized.
+         */
+        private double baseline;
+
+        /**
+         * True when the alert is raised.
+         */
+        private boolean isRaised;
+
+        /**
+         * Time of the last alert in ms since epoch.
+         */
+        private long lastAlert;
+    }
+}
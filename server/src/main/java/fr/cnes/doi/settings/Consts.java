@@ -193,6 +193,29 @@ public final class Consts {
      */
     public static final String SMTP_AUTH_PWD = "Starter.mail.send.secret";
 
+    /**
+     * Maximum number of messages in the queue of the outgoing emails.
+     */
+    public static final String EMAIL_QUEUE_CAPACITY = "Starter.mail.queue.capacity";
+
+    /**
+     * Window in ms during which the messages to a same receiver are coalesced
+     * into one email.
+     */
+    public static final String EMAIL_QUEUE_WINDOW = "Starter.mail.queue.window";
+
+    /**
+     * Behaviour when the queue of the outgoing emails is full : DROP_NEWEST,
+     * DROP_OLDEST or BLOCK.
+     */
+    public static final String EMAIL_QUEUE_POLICY = "Starter.mail.queue.overflowPolicy";
+
+    /**
+     * Maximum time in ms a caller waits for a free place in the queue with
+     * the BLOCK policy.
+     */
+    public static final String EMAIL_QUEUE_OFFER_TIMEOUT = "Starter.mail.queue.offerTimeout";
+
     // Jetty contants
     /**
      * Jetty : Thread pool minimum threads.
@@ -341,6 +364,34 @@ public final class Consts {
      */
     public static final String THRESHOLD_SPEED_PERCENT = "Starter.Monitoring.Threshold_speed";
 
+    /**
+     * Duration in seconds of the sliding window of the speed monitoring.
+     */
+    public static final String MONITORING_WINDOW = "Starter.Monitoring.Window";
+
+    /**
+     * Level below which a speed alert is cleared.
+     */
+    public static final String MONITORING_CLEAR_THRESHOLD
+            = "Starter.Monitoring.Clear_threshold_speed";
+
+    /**
+     * Period in seconds between two evaluations of the speed alerts.
+     */
+    public static final String MONITORING_ALERT_PERIOD = "Starter.Monitoring.Alert_period";
+
+    /**
+     * Cooldown in seconds between two speed alerts of a same route.
+     */
+    public static final String MONITORING_ALERT_COOLDOWN = "Starter.Monitoring.Alert_cooldown";
+
+    /**
+     * Minimum number of requests in the sliding window to evaluate the speed
+     * of a route.
+     */
+    public static final String MONITORING_MIN_MEASUREMENTS
+            = "Starter.Monitoring.Min_measurements";
+
     /**
      * Tunning connection for Restlet.
      */
@@ -351,6 +402,172 @@ public final class Consts {
      */
     public static final String RESTLET_MAX_CONNECTIONS_PER_HOST = "Starter.maxConnectionsPerHost";
 
+    /**
+     * Maximum number of connections of the pool used to request DataCite,
+     * CrossCite and the landing pages.
+     */
+    public static final String CLIENT_MAX_TOTAL_CONNECTIONS = "Starter.Client.maxTotalConnections";
+
+    /**
+     * Maximum number of connections of the pool for a same remote host.
+     */
+    public static final String CLIENT_MAX_CONNECTIONS_PER_HOST
+            = "Starter.Client.maxConnectionsPerHost";
+
+    /**
+     * Maximum number of asynchronous requests to DataCite and CrossCite
+     * waiting for a thread.
+     */
+    public static final String CLIENT_ASYNC_QUEUE_SIZE = "Starter.Client.asyncQueueSize";
+
+    /**
+     * Timeout in ms to get a connection, to connect and to wait for data from
+     * DataCite and CrossCite.
+     */
+    public static final String CLIENT_TIMEOUT = "Starter.Client.timeout";
+
+    /**
+     * Maximum number of attempts of a request to DataCite and CrossCite.
+     */
+    public static final String CLIENT_MAX_ATTEMPTS = "Starter.Client.maxAttempts";
+
+    /**
+     * Delay in ms before the first retry of a request.
+     */
+    public static final String CLIENT_RETRY_BASE_DELAY = "Starter.Client.retryBaseDelay";
+
+    /**
+     * Maximum delay in ms between two attempts of a request.
+     */
+    public static final String CLIENT_RETRY_MAX_DELAY = "Starter.Client.retryMaxDelay";
+
+    /**
+     * Maximum duration in ms of a request with its retries.
+     */
+    public static final String CLIENT_DEADLINE = "Starter.Client.deadline";
+
+    /**
+     * Number of consecutive failures opening the circuit breaker of a remote
+     * service.
+     */
+    public static final String CLIENT_BREAKER_THRESHOLD = "Starter.Client.breakerThreshold";
+
+    /**
+     * Duration in ms during which an open circuit breaker fails fast.
+     */
+    public static final String CLIENT_BREAKER_OPEN_DURATION
+            = "Starter.Client.breakerOpenDuration";
+
+    /**
+     * Number of landing pages checked in parallel.
+     */
+    public static final String LANDING_PAGE_PARALLELISM = "Starter.LandingPage.parallelism";
+
+    /**
+     * Maximum number of connections to a same host when checking the landing
+     * pages.
+     */
+    public static final String LANDING_PAGE_MAX_CONNECTIONS_PER_HOST
+            = "Starter.LandingPage.maxConnectionsPerHost";
+
+    /**
+     * Timeout in ms of each request checking a landing page.
+     */
+    public static final String LANDING_PAGE_TIMEOUT = "Starter.LandingPage.timeout";
+
+    /**
+     * Period in minutes between two runs of the landing pages monitoring.
+     */
+    public static final String LANDING_PAGE_PERIOD = "Starter.LandingPage.period";
+
+    /**
+     * Minimum delay in minutes before checking again an offline landing page.
+     */
+    public static final String LANDING_PAGE_FAILING_INTERVAL
+            = "Starter.LandingPage.failingInterval";
+
+    /**
+     * Age in minutes below which a DOI is considered as recently created.
+     */
+    public static final String LANDING_PAGE_RECENT_AGE = "Starter.LandingPage.recentAge";
+
+    /**
+     * Minimum delay in minutes before checking again the landing page of a
+     * recently created DOI.
+     */
+    public static final String LANDING_PAGE_RECENT_INTERVAL
+            = "Starter.LandingPage.recentInterval";
+
+    /**
+     * Delay in minutes in which all the online landing pages are checked again.
+     */
+    public static final String LANDING_PAGE_HEALTHY_INTERVAL
+            = "Starter.LandingPage.healthyInterval";
+
+    /**
+     * Period in minutes between two refreshes of the DOI catalogue cache.
+     */
+    public static final String DOI_CATALOG_REFRESH_PERIOD = "Starter.DoiCatalog.refreshPeriod";
+
+    /**
+     * Maximum number of metadata in the metadata cache.
+     */
+    public static final String METADATA_CACHE_SIZE = "Starter.MetadataCache.size";
+
+    /**
+     * Maximum age in minutes of a metadata in the cache, 0 to disable the
+     * metadata cache.
+     */
+    public static final String METADATA_CACHE_MAX_AGE = "Starter.MetadataCache.maxAge";
+
+    /**
+     * Age in minutes after which a cached metadata is loaded again in the
+     * background.
+     */
+    public static final String METADATA_CACHE_REVALIDATE_AGE
+            = "Starter.MetadataCache.revalidateAge";
+
+    /**
+     * Period in minutes between two refreshes of the CrossCite style and
+     * locale lists, 0 to disable the cache of the lists.
+     */
+    public static final String CROSSCITE_LIST_REFRESH_PERIOD
+            = "Starter.CrossCite.listRefreshPeriod";
+
+    /**
+     * Maximum number of formatted citations in the cache.
+     */
+    public static final String CROSSCITE_CITATION_CACHE_SIZE
+            = "Starter.CrossCite.citationCacheSize";
+
+    /**
+     * Maximum age in minutes of a formatted citation in the cache, 0 to
+     * disable the cache of the citations.
+     */
+    public static final String CROSSCITE_CITATION_MAX_AGE = "Starter.CrossCite.citationMaxAge";
+
+    /**
+     * Number of citations of a bibliography formatted in parallel.
+     */
+    public static final String CROSSCITE_BATCH_PARALLELISM = "Starter.CrossCite.batchParallelism";
+
+    /**
+     * Timeout in ms to format all the citations of a bibliography.
+     */
+    public static final String CROSSCITE_BATCH_TIMEOUT = "Starter.CrossCite.batchTimeout";
+
+    /**
+     * Maximum number of citations in a bibliography.
+     */
+    public static final String CROSSCITE_BATCH_MAX_CITATIONS
+            = "Starter.CrossCite.batchMaxCitations";
+
+    /**
+     * Maximum number of citations waiting to be formatted, for all the
+     * bibliographies.
+     */
+    public static final String CROSSCITE_BATCH_QUEUE_SIZE = "Starter.CrossCite.batchQueueSize";
+
     /**
      * DataCite schema.
      */
@@ -361,6 +578,13 @@ public final class Consts {
      */
     public static final String DB_UPDATE_JOB_PERIOD = "Starter.updateDatabaseJob.period";
 
+    /**
+     * Period in minutes after which the database is updated even if the
+     * members of the authentication system have not changed.
+     */
+    public static final String DB_UPDATE_JOB_FULL_SYNC_PERIOD
+            = "Starter.updateDatabaseJob.fullSyncPeriod";
+
     /**
      * Attributes name in LDAP for fullname.
      */
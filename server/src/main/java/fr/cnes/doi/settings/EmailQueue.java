@@ -0,0 +1,587 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.settings;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Bounded queue of outgoing emails, sent by a background thread.
+ *
+ * <p>
+ * The messages to a same receiver, queued within the coalescing window, are
+ * sent as one email. When the queue is full, the overflow policy either drops
+ * the new message, drops the oldest queued message or blocks the caller for a
+ * limited time.
+ */
+public final class EmailQueue {
+
+    /**
+     * Default maximum number of queued messages : {@value #DEFAULT_CAPACITY}.
+     */
+    public static final String DEFAULT_CAPACITY = "1000";
+
+    /**
+     * Default coalescing window in ms : {@value #DEFAULT_WINDOW}.
+     */
+    public static final String DEFAULT_WINDOW = "5000";
+
+    /**
+     * Default overflow policy : {@value #DEFAULT_POLICY}.
+     */
+    public static final String DEFAULT_POLICY = "DROP_NEWEST";
+
+    /**
+     * Default maximum time in ms a caller waits with the BLOCK policy :
+     * {@value #DEFAULT_OFFER_TIMEOUT}.
+     */
+    public static final String DEFAULT_OFFER_TIMEOUT = "1000";
+
+    /**
+     * Minimum period in ms between two checks of the queue.
+     */
+    private static final long MIN_PERIOD = 100;
+
+    /**
+     * Maximum period in ms between two checks of the queue.
+     */
+    private static final long MAX_PERIOD = 1000;
+
+    /**
+     * Maximum time in seconds to wait for the sender thread when stopping.
+     */
+    private static final long STOP_TIMEOUT = 10;
+
+    /**
+     * Separator between coalesced messages.
+     */
+    private static final String MESSAGE_SEPARATOR = "\n\n----------\n\n";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LogManager.getLogger(EmailQueue.class.getName());
+
+    /**
+     * Behaviour when a message is queued in a full queue.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The new message is dropped.
+         */
+        DROP_NEWEST,
+        /**
+         * The oldest queued message is dropped.
+         */
+        DROP_OLDEST,
+        /**
+         * The caller waits for a free place, up to the offer timeout, then the
+         * new message is dropped.
+         */
+        BLOCK
+    }
+
+    /**
+     * Sends an email.
+     */
+    @FunctionalInterface
+    public interface MailSender {
+
+        /**
+         * Sends an email.
+         *
+         * @param subject Email's subject
+         * @param message Email's message
+         * @param receiver receiver
+         * @return True when the message is sent
+         * @throws Exception - if an error happens
+         */
+        boolean send(String subject, String message, String receiver) throws Exception;
+    }
+
+    /**
+     * Sender of the emails.
+     */
+    private final MailSender sender;
+
+    /**
+     * Maximum number of queued messages.
+     */
+    private final int capacity;
+
+    /**
+     * Coalescing window in ms.
+     */
+    private final long window;
+
+    /**
+     * Overflow policy.
+     */
+    private final OverflowPolicy policy;
+
+    /**
+     * Maximum time in ms a caller waits with the BLOCK policy.
+     */
+    private final long offerTimeout;
+
+    /**
+     * Lock on the queued emails.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signaled when messages leave the queue.
+     */
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Queued emails by receiver, the oldest first.
+     */
+    private final Map<String, PendingEmail> pending = new LinkedHashMap<>();
+
+    /**
+     * Number of queued messages.
+     */
+    private int size;
+
+    /**
+     * Number of queued messages since the creation.
+     */
+    private final AtomicLong nbQueued = new AtomicLong();
+
+    /**
+     * Number of messages coalesced into an email already queued.
+     */
+    private final AtomicLong nbCoalesced = new AtomicLong();
+
+    /**
+     * Number of dropped messages.
+     */
+    private final AtomicLong nbDropped = new AtomicLong();
+
+    /**
+     * Number of sent emails.
+     */
+    private final AtomicLong nbSent = new AtomicLong();
+
+    /**
+     * Number of emails that cannot be sent.
+     */
+    private final AtomicLong nbFailed = new AtomicLong();
+
+    /**
+     * Sender thread or null when the queue is not started.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a queue.
+     *
+     * @param sender sender of the emails
+     * @param capacity maximum number of queued messages
+     * @param window coalescing window in ms
+     * @param policy overflow policy
+     * @param offerTimeout maximum time in ms a caller waits with the BLOCK
+     * policy
+     * @throws IllegalArgumentException if capacity is not strictly positive
+     */
+    public EmailQueue(final MailSender sender, final int capacity, final long window,
+            final OverflowPolicy policy, final long offerTimeout) {
+        if (capacity <= 0) {
+            throw LOG.throwing(new IllegalArgumentException("capacity must be > 0"));
+        }
+        this.sender = sender;
+        this.capacity = capacity;
+        this.window = Math.max(0, window);
+        this.policy = policy;
+        this.offerTimeout = Math.max(0, offerTimeout);
+    }
+
+    /**
+     * Starts the sender thread.
+     */
+    public synchronized void start() {
+        LOG.traceEntry();
+        if (this.executor == null) {
+            final long period = Math.max(MIN_PERIOD, Math.min(this.window, MAX_PERIOD));
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "doi-email-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.scheduleWithFixedDelay(() -> flush(false), period, period,
+                    TimeUnit.MILLISECONDS);
+            LOG.info("Email queue started : capacity={}, window={} ms, policy={}",
+                    this.capacity, this.window, this.policy);
+        }
+        LOG.traceExit();
+    }
+
+    /**
+     * Stops the sender thread and sends the queued emails.
+     */
+    public synchronized void stop() {
+        LOG.traceEntry();
+        if (this.executor != null) {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(STOP_TIMEOUT, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                LOG.catching(Level.DEBUG, ex);
+                Thread.currentThread().interrupt();
+            }
+            this.executor = null;
+        }
+        flush(true);
+        LOG.traceExit();
+    }
+
+    /**
+     * Queues a message.
+     *
+     * @param subject Email's subject
+     * @param message Email's message
+     * @param receiver receiver
+     * @return True when the message is queued, False when it is dropped
+     */
+    public boolean offer(final String subject, final String message, final String receiver) {
+        LOG.traceEntry("Parameters : {}, {} and {}", subject, message, receiver);
+        final boolean isQueued;
+        this.lock.lock();
+        try {
+            if (this.size < this.capacity || makeRoom()) {
+                final PendingEmail email = this.pending.get(receiver);
+                if (email == null) {
+                    this.pending.put(receiver, new PendingEmail(subject, message));
+                } else {
+                    email.add(subject, message);
+                    this.nbCoalesced.incrementAndGet();
+                }
+                this.size++;
+                this.nbQueued.incrementAndGet();
+                isQueued = true;
+            } else {
+                this.nbDropped.incrementAndGet();
+                LOG.warn("Email queue full, the message {} to {} is dropped", subject, receiver);
+                isQueued = false;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        return LOG.traceExit(isQueued);
+    }
+
+    /**
+     * Makes room in the full queue according to the overflow policy. Must be
+     * called with the lock held.
+     *
+     * @return True when there is room for a new message
+     */
+    private boolean makeRoom() {
+        boolean hasRoom = false;
+        switch (this.policy) {
+            case DROP_OLDEST:
+                final Iterator<Map.Entry<String, PendingEmail>> iter = this.pending.entrySet().
+                        iterator();
+                final Map.Entry<String, PendingEmail> oldest = iter.next();
+                final String subject = oldest.getValue().removeOldest();
+                if (oldest.getValue().isEmpty()) {
+                    iter.remove();
+                }
+                this.size--;
+                this.nbDropped.incrementAndGet();
+                LOG.warn("Email queue full, the message {} to {} is dropped", subject,
+                        oldest.getKey());
+                hasRoom = true;
+                break;
+            case BLOCK:
+                long nanos = TimeUnit.MILLISECONDS.toNanos(this.offerTimeout);
+                try {
+                    while (this.size >= this.capacity && nanos > 0) {
+                        nanos = this.notFull.awaitNanos(nanos);
+                    }
+                } catch (InterruptedException ex) {
+                    LOG.catching(Level.DEBUG, ex);
+                    Thread.currentThread().interrupt();
+                }
+                hasRoom = this.size < this.capacity;
+                break;
+            default:
+                break;
+        }
+        return hasRoom;
+    }
+
+    /**
+     * Sends the emails whose coalescing window is over.
+     *
+     * @param all True to send all the queued emails
+     */
+    void flush(final boolean all) {
+        final Map<String, PendingEmail> due = new LinkedHashMap<>();
+        this.lock.lock();
+        try {
+            final long now = System.currentTimeMillis();
+            final Iterator<Map.Entry<String, PendingEmail>> iter = this.pending.entrySet().
+                    iterator();
+            boolean isDue = true;
+            while (isDue && iter.hasNext()) {
+                final Map.Entry<String, PendingEmail> entry = iter.next();
+                isDue = all || now - entry.getValue().getFirstTime() >= this.window;
+                if (isDue) {
+                    due.put(entry.getKey(), entry.getValue());
+                    this.size -= entry.getValue().size();
+                    iter.remove();
+                }
+            }
+            if (!due.isEmpty()) {
+                this.notFull.signalAll();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        for (final Map.Entry<String, PendingEmail> entry : due.entrySet()) {
+            send(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Sends an email.
+     *
+     * @param receiver receiver
+     * @param email email
+     */
+    private void send(final String receiver, final PendingEmail email) {
+        boolean isSent;
+        try {
+            isSent = this.sender.send(email.getSubject(), email.getMessage(), receiver);
+        } catch (Exception ex) {
+            LOG.catching(Level.DEBUG, ex);
+            isSent = false;
+        }
+        if (isSent) {
+            this.nbSent.incrementAndGet();
+        } else {
+            this.nbFailed.incrementAndGet();
+            LOG.error("Cannot send the message with the subject {} to {}", email.getSubject(),
+                    receiver);
+        }
+    }
+
+    /**
+     * Returns the number of queued messages.
+     *
+     * @return the number of queued messages
+     */
+    public int getSize() {
+        this.lock.lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of queued messages.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of messages queued since the creation.
+     *
+     * @return the number of queued messages
+     */
+    public long getNbQueued() {
+        return this.nbQueued.get();
+    }
+
+    /**
+     * Returns the number of messages coalesced into an email already queued.
+     *
+     * @return the number of coalesced messages
+     */
+    public long getNbCoalesced() {
+        return this.nbCoalesced.get();
+    }
+
+    /**
+     * Returns the number of dropped messages.
+     *
+     * @return the number of dropped messages
+     */
+    public long getNbDropped() {
+        return this.nbDropped.get();
+    }
+
+    /**
+     * Returns the number of sent emails.
+     *
+     * @return the number of sent emails
+     */
+    public long getNbSent() {
+        return this.nbSent.get();
+    }
+
+    /**
+     * Returns the number of emails that cannot be sent.
+     *
+     * @return the number of failed emails
+     */
+    public long getNbFailed() {
+        return this.nbFailed.get();
+    }
+
+    /**
+     * Messages queued for a same receiver.
+     */
+    private static final class PendingEmail {
+
+        /**
+         * Date of the first message in ms since epoch.
+         */
+        private final long firstTime;
+
+        /**
+         * Subjects of the messages.
+         */
+        private final List<String> subjects = new ArrayList<>();
+
+        /**
+         * Messages.
+         */
+        private final List<String> messages = new ArrayList<>();
+
+        /**
+         * Creates an email with a first message.
+         *
+         * @param subject Email's subject
+         * @param message Email's message
+         */
+        PendingEmail(final String subject, final String message) {
+            this.firstTime = System.currentTimeMillis();
+            add(subject, message);
+        }
+
+        /**
+         * Adds a message.
+         *
+         * @param subject Email's subject
+         * @param message Email's message
+         */
+        void add(final String subject, final String message) {
+            this.subjects.add(subject);
+            this.messages.add(message);
+        }
+
+        /**
+         * Removes the oldest message.
+         *
+         * @return the subject of the removed message
+         */
+        String removeOldest() {
+            this.messages.remove(0);
+            return this.subjects.remove(0);
+        }
+
+        /**
+         * Returns the date of the first message.
+         *
+         * @return the date in ms since epoch
+         */
+        long getFirstTime() {
+            return this.firstTime;
+        }
+
+        /**
+         * Returns the number of messages.
+         *
+         * @return the number of messages
+         */
+        int size() {
+            return this.messages.size();
+        }
+
+        /**
+         * Tests if there is no message.
+         *
+         * @return True when there is no message otherwise False
+         */
+        boolean isEmpty() {
+            return this.messages.isEmpty();
+        }
+
+        /**
+         * Returns the subject of the email.
+         *
+         * @return the subject of the first message, with the number of other
+         * messages
+         */
+        String getSubject() {
+            final String subject;
+            if (this.subjects.size() == 1) {
+                subject = this.subjects.get(0);
+            } else {
+                subject = this.subjects.get(0) + " (+" + (this.subjects.size() - 1)
+                        + " other messages)";
+            }
+            return subject;
+        }
+
+        /**
+         * Returns the message of the email.
+         *
+         * @return the message, or the subjects and messages of all the
+         * messages
+         */
+        String getMessage() {
+            final String message;
+            if (this.messages.size() == 1) {
+                message = this.messages.get(0);
+            } else {
+                final StringBuilder builder = new StringBuilder();
+                for (int i = 0; i < this.messages.size(); i++) {
+                    if (i > 0) {
+                        builder.append(MESSAGE_SEPARATOR);
+                    }
+                    builder.append(this.subjects.get(i)).append("\n\n")
+                            .append(this.messages.get(i));
+                }
+                message = builder.toString();
+            }
+            return message;
+        }
+    }
+}
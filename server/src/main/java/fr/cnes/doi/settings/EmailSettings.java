@@ -19,6 +19,10 @@
 package fr.cnes.doi.settings;
 
 import fr.cnes.doi.utils.spec.Requirement;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import java.io.IOException;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,7 +35,6 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.ChallengeResponse;
 import org.restlet.data.ChallengeScheme;
-import org.restlet.data.LocalReference;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Parameter;
@@ -40,12 +43,17 @@ import org.restlet.data.Status;
 import org.restlet.ext.freemarker.TemplateRepresentation;
 import org.restlet.ext.javamail.JavaMailClientHelper;
 import org.restlet.representation.Representation;
-import org.restlet.resource.ClientResource;
 import org.restlet.util.Series;
 
 /**
  * Singleton to load and use Email settings.
  *
+ * <p>
+ * The messages are queued in an {@link EmailQueue} and sent by a background
+ * thread, which reuses the compiled email template. The Restlet SMTP client
+ * helper is created once, but it opens a new JavaMail session and SMTP
+ * connection for each email.
+ *
  * @author Jean-Christophe Malapert
  */
 @Requirement(reqId = Requirement.DOI_CONFIG_010, reqName = Requirement.DOI_CONFIG_010_NAME)
@@ -56,6 +64,16 @@ public final class EmailSettings {
      */
     private static final boolean DEFAULT_DEBUG = false;
 
+    /**
+     * Email template in the classpath : {@value #MAIL_TEMPLATE}.
+     */
+    private static final String MAIL_TEMPLATE = "email.ftl";
+
+    /**
+     * Encoding of the email template : {@value #MAIL_TEMPLATE_ENCODING}.
+     */
+    private static final String MAIL_TEMPLATE_ENCODING = "ISO-8859-1";
+
     /**
      * Logger.
      */
@@ -96,6 +114,22 @@ public final class EmailSettings {
      */
     private boolean debug = DEFAULT_DEBUG;
 
+    /**
+     * Queue of the outgoing emails or null when it is not created yet.
+     */
+    private EmailQueue queue;
+
+    /**
+     * Compiled email template or null when it is not loaded yet.
+     */
+    private volatile Template mailTemplate;
+
+    /**
+     * SMTP client helper shared by all the emails or null when it is not
+     * created yet. Each email is still sent on its own SMTP connection.
+     */
+    private JavaMailClientHelper smtpClient;
+
     /**
      * Constructor
      */
@@ -139,6 +173,18 @@ public final class EmailSettings {
         this.contactAdmin = settings.getString(Consts.SERVER_CONTACT_ADMIN, "L-doi-support@cnes.fr");
         LOG.info(String.format("Contact admin : %s", this.contactAdmin));
 
+        final EmailQueue previousQueue;
+        synchronized (this) {
+            previousQueue = this.queue;
+            this.queue = null;
+            this.smtpClient = null;
+        }
+        // the queued messages are sent outside the lock, which the sender
+        // thread needs to get the SMTP client
+        if (previousQueue != null) {
+            previousQueue.stop();
+        }
+
         LOG.info("Email settings have been loaded");
         LOG.info("---------------------------");
 
@@ -169,7 +215,7 @@ public final class EmailSettings {
      *
      * @param subject Email's subject
      * @param msg Email's message
-     * @return True when the message is sent
+     * @return True when the message is queued to be sent
      */
     public boolean sendMessage(final String subject, final String msg) {
         final String email = EmailSettings.getInstance().getContactAdmin();
@@ -177,24 +223,81 @@ public final class EmailSettings {
     }
 
     /**
-     * Sends a message by email to receiver.
+     * Sends a message by email to receiver. The message is queued and sent by
+     * a background thread, so that a slow SMTP server does not delay the
+     * caller.
      *
      * @param subject Email's subject
      * @param msg Email's message
      * @param receiverEmail receiver
-     * @return True when the message is sent
+     * @return True when the message is queued to be sent
      */
     public boolean sendMessage(final String subject, final String msg, final String receiverEmail) {
         LOG.traceEntry("Parameters : {}, {} and {}", subject, msg, receiverEmail);
+        final boolean result;
+        if (isConfigureForSendingEmail()) {
+            LOG.info("Queue this message {} to {}", msg, receiverEmail);
+            result = getQueue().offer(subject, msg, receiverEmail);
+        } else {
+            LOG.warn("Cannot send the email, please fill the configuration file");
+            result = false;
+        }
+        return LOG.traceExit(result);
+    }
+
+    /**
+     * Returns the queue of the outgoing emails, created and started at the
+     * first call.
+     *
+     * @return the queue
+     */
+    public synchronized EmailQueue getQueue() {
+        if (this.queue == null) {
+            final DoiSettings settings = DoiSettings.getInstance();
+            this.queue = new EmailQueue(this::sendQueuedMessage,
+                    settings.getInt(Consts.EMAIL_QUEUE_CAPACITY, EmailQueue.DEFAULT_CAPACITY),
+                    settings.getLong(Consts.EMAIL_QUEUE_WINDOW, EmailQueue.DEFAULT_WINDOW),
+                    EmailQueue.OverflowPolicy.valueOf(settings.getString(
+                            Consts.EMAIL_QUEUE_POLICY, EmailQueue.DEFAULT_POLICY)),
+                    settings.getLong(Consts.EMAIL_QUEUE_OFFER_TIMEOUT,
+                            EmailQueue.DEFAULT_OFFER_TIMEOUT));
+            this.queue.start();
+        }
+        return this.queue;
+    }
+
+    /**
+     * Stops the queue of the outgoing emails after sending the queued
+     * messages.
+     */
+    public void shutdown() {
+        LOG.traceEntry();
+        final EmailQueue previousQueue;
+        synchronized (this) {
+            previousQueue = this.queue;
+            this.queue = null;
+        }
+        if (previousQueue != null) {
+            previousQueue.stop();
+        }
+        LOG.traceExit();
+    }
+
+    /**
+     * Sends a queued message. Called by the sender thread of the queue.
+     *
+     * @param subject Email's subject
+     * @param msg Email's message
+     * @param receiverEmail receiver
+     * @return True when the message is sent
+     */
+    private boolean sendQueuedMessage(final String subject, final String msg,
+            final String receiverEmail) {
+        LOG.traceEntry("Parameters : {}, {} and {}", subject, msg, receiverEmail);
         boolean result;
         try {
-            if (isConfigureForSendingEmail()) {
-                LOG.info("Try to send this message {} to {}", msg, receiverEmail);
-                result = processMessage(subject, msg, receiverEmail);
-            } else {
-                LOG.warn("Cannot send the email, please fill the configuration file");
-                result = false;
-            }
+            LOG.info("Try to send this message {} to {}", msg, receiverEmail);
+            result = processMessage(subject, msg, receiverEmail);
         } catch (RuntimeException ex) {
             LOG.catching(Level.DEBUG, ex);
             LOG.error("Cannot send the message with the subject {} : {}", subject, msg);
@@ -267,17 +370,56 @@ public final class EmailSettings {
      * @param msg Email's message
      * @param to receiver
      * @return the email representation
+     * @throws IOException - if the email template cannot be loaded
      */
     private Representation createMailRepresentation(final String subject, final String msg,
-            final String to) {
+            final String to) throws IOException {
         final Map<String, String> dataModel = new ConcurrentHashMap<>();
         dataModel.put("subject", subject);
         dataModel.put("message", msg);
         dataModel.put("from", this.getContactAdmin());
         dataModel.put("to", to);
-        final Representation mailFtl = new ClientResource(LocalReference.createClapReference(
-                "class/email.ftl")).get();
-        return new TemplateRepresentation(mailFtl, dataModel, MediaType.TEXT_XML);
+        return new TemplateRepresentation(getMailTemplate(), dataModel, MediaType.TEXT_XML);
+    }
+
+    /**
+     * Returns the email template, loaded from the classpath and compiled at
+     * the first call.
+     *
+     * @return the compiled email template
+     * @throws IOException - if the email template cannot be loaded
+     */
+    private Template getMailTemplate() throws IOException {
+        Template template = this.mailTemplate;
+        if (template == null) {
+            final Configuration configuration = new Configuration(Configuration.VERSION_2_3_23);
+            configuration.setTemplateLoader(new ClassTemplateLoader(EmailSettings.class, "/"));
+            configuration.setDefaultEncoding(MAIL_TEMPLATE_ENCODING);
+            template = configuration.getTemplate(MAIL_TEMPLATE);
+            this.mailTemplate = template;
+        }
+        return template;
+    }
+
+    /**
+     * Returns the SMTP client helper, created at the first call and then
+     * shared by all the emails. The helper connects to the SMTP server for
+     * each email.
+     *
+     * @param protocol Protocol (SMTP or SMTPS)
+     * @param startTls startTls
+     * @return the SMTP client helper
+     */
+    private synchronized JavaMailClientHelper getSmtpClient(final Protocol protocol,
+            final boolean startTls) {
+        if (this.smtpClient == null) {
+            final Client client = new Client(new Context(), protocol);
+            final Series<Parameter> parameters = client.getContext().getParameters();
+            parameters.add("debug", String.valueOf(isDebug()));
+            parameters.add("startTls", Boolean.toString(startTls).toLowerCase(Locale.ENGLISH));
+            this.smtpClient = new JavaMailClientHelper(client);
+        }
+        return this.smtpClient;
     }
 
     /**
@@ -307,13 +449,8 @@ public final class EmailSettings {
         request.setEntity(mail);
         final boolean result;
         if ("PROD".equals(contextMode)) {
-            final Client client = new Client(new Context(), protocol);
-            final Series<Parameter> parameters = client.getContext().getParameters();
-            parameters.add("debug", String.valueOf(isDebug()));
-            parameters.add("startTls", Boolean.toString(startTls).toLowerCase(Locale.ENGLISH));
-            final JavaMailClientHelper smtpClient = new JavaMailClientHelper(client);
             final Response response = new Response(request);
-            smtpClient.handle(request, response);
+            getSmtpClient(protocol, startTls).handle(request, response);
             final Status status = response.getStatus();
             if (status.isSuccess()) {
                 result = true;
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache with a time to live for each entry.
+ *
+ * <p>
+ * When the cache is full, the least recently used entry is evicted. An entry
+ * older than its time to live is never returned and is removed on access.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+public final class ExpiringCache<K, V> {
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int maxSize;
+
+    /**
+     * Default time to live of an entry in milliseconds.
+     */
+    private final long ttlMillis;
+
+    /**
+     * Entries sorted by access order.
+     */
+    private final Map<K, CacheEntry<V>> entries;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize maximum number of entries
+     * @param ttlMillis time to live of an entry in milliseconds
+     * @throws IllegalArgumentException if maxSize or ttlMillis is not strictly
+     * positive
+     */
+    public ExpiringCache(final int maxSize, final long ttlMillis) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxSize and ttlMillis must be > 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, CacheEntry<V>> eldest) {
+                return size() > ExpiringCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value related to the key.
+     *
+     * @param key key
+     * @return the value or null when the key is not cached or expired
+     */
+    public synchronized V get(final K key) {
+        final CacheEntry<V> entry = this.entries.get(key);
+        final V value;
+        if (entry == null) {
+            value = null;
+        } else if (entry.isExpired(System.currentTimeMillis())) {
+            this.entries.remove(key);
+            value = null;
+        } else {
+            value = entry.getValue();
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value with the default time to live.
+     *
+     * @param key key
+     * @param value value
+     */
+    public void put(final K key, final V value) {
+        put(key, value, System.currentTimeMillis() + this.ttlMillis);
+    }
+
+    /**
+     * Caches a value until a given date.
+     *
+     * @param key key
+     * @param value value
+     * @param expirationTime expiration date in milliseconds since epoch, bounded
+     * by the default time to live
+     */
+    public synchronized void put(final K key, final V value, final long expirationTime) {
+        final long maxExpiration = System.currentTimeMillis() + this.ttlMillis;
+        this.entries.put(key, new CacheEntry<>(value, Math.min(expirationTime, maxExpiration)));
+    }
+
+    /**
+     * Removes a key from the cache.
+     *
+     * @param key key
+     * @return the removed value or null
+     */
+    public synchronized V remove(final K key) {
+        final CacheEntry<V> entry = this.entries.remove(key);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the number of cached entries, including the expired ones not yet
+     * removed.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Cached value with its expiration date.
+     *
+     * @param <V> the type of the value
+     */
+    private static final class CacheEntry<V> {
+
+        /**
+         * Value.
+         */
+        private final V value;
+
+        /**
+         * Expiration date in milliseconds since epoch.
+         */
+        private final long expirationTime;
+
+        /**
+         * Constructor.
+         *
+         * @param value value
+         * @param expirationTime expiration date in milliseconds since epoch
+         */
+        CacheEntry(final V value, final long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+
+        /**
+         * Returns the value.
+         *
+         * @return the value
+         */
+        V getValue() {
+            return this.value;
+        }
+
+        /**
+         * Checks if the entry is expired.
+         *
+         * @param now current date in milliseconds since epoch
+         * @return True when the entry is expired otherwise False
+         */
+        boolean isExpired(final long now) {
+            return now >= this.expirationTime;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.utils;
+
+import fr.cnes.doi.exception.DoiRuntimeException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.datacite.schema.kernel_4.Resource;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Shared codec to read, validate and write the DataCite metadata.
+ *
+ * <p>
+ * The JAXB context and the compiled DataCite schema are created once and
+ * shared. As {@link Unmarshaller} and {@link Marshaller} are not thread-safe,
+ * each thread gets its own instances.
+ *
+ * <p>
+ * The metadata sent by the clients are read by a parser refusing the DOCTYPE
+ * declarations and the external entities (XXE).
+ */
+public final class MetadataCodec {
+
+    /**
+     * DataCite schema in the classpath {@value #XSD_SCHEMA}.
+     */
+    public static final String XSD_SCHEMA = "/xsd/metadata.xsd";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(MetadataCodec.class.getName());
+
+    /**
+     * JAXB context for the DataCite resource.
+     */
+    private final JAXBContext jaxbContext;
+
+    /**
+     * Compiled DataCite schema.
+     */
+    private final Schema schema;
+
+    /**
+     * Unmarshaller without schema validation for each thread.
+     */
+    private final ThreadLocal<Unmarshaller> unmarshallers;
+
+    /**
+     * Unmarshaller validating against the DataCite schema for each thread.
+     */
+    private final ThreadLocal<Unmarshaller> validatingUnmarshallers;
+
+    /**
+     * Marshaller for each thread.
+     */
+    private final ThreadLocal<Marshaller> marshallers;
+
+    /**
+     * Secure SAX parser factory for each thread.
+     */
+    private final ThreadLocal<SAXParserFactory> parserFactories = ThreadLocal.withInitial(
+            MetadataCodec::createParserFactory);
+
+    /**
+     * Creates the JAXB context and compiles the DataCite schema.
+     *
+     * @throws DoiRuntimeException When the JAXB context or the schema cannot be
+     * created
+     */
+    private MetadataCodec() {
+        LOGGER.traceEntry();
+        try {
+            this.jaxbContext = JAXBContext.newInstance(Resource.class);
+            final URL xsd = MetadataCodec.class.getResource(XSD_SCHEMA);
+            if (xsd == null) {
+                throw new DoiRuntimeException("Cannot find the DataCite schema " + XSD_SCHEMA);
+            }
+            final SchemaFactory schemaFactory = SchemaFactory.newInstance(
+                    XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            this.schema = schemaFactory.newSchema(new StreamSource(xsd.toString()));
+        } catch (JAXBException | SAXException ex) {
+            throw LOGGER.throwing(new DoiRuntimeException(
+                    "Cannot initialize the DataCite metadata codec", ex));
+        }
+        this.unmarshallers = ThreadLocal.withInitial(() -> createUnmarshaller(null));
+        this.validatingUnmarshallers = ThreadLocal.withInitial(() -> createUnmarshaller(
+                this.schema));
+        this.marshallers = ThreadLocal.withInitial(this::createMarshaller);
+        LOGGER.traceExit();
+    }
+
+    /**
+     * Access to unique INSTANCE of the codec
+     *
+     * @return the codec instance.
+     */
+    public static MetadataCodec getInstance() {
+        return MetadataCodecHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the compiled DataCite schema.
+     *
+     * @return the schema
+     */
+    public Schema getSchema() {
+        return this.schema;
+    }
+
+    /**
+     * Parses the metadata without checking it against the schema.
+     *
+     * @param entity metadata
+     * @param handler handler receiving the parsing events
+     * @return the Resource object from DataCite
+     * @throws JAXBException When the metadata cannot be read
+     */
+    public Resource unmarshal(final InputStream entity, final ValidationEventHandler handler)
+            throws JAXBException {
+        final Unmarshaller unmarshaller = this.unmarshallers.get();
+        unmarshaller.setEventHandler(handler);
+        try {
+            return (Resource) unmarshaller.unmarshal(createSource(entity));
+        } finally {
+            unmarshaller.setEventHandler(null);
+        }
+    }
+
+    /**
+     * Parses the metadata and checks it against the DataCite schema. The
+     * parsing stops at the first error.
+     *
+     * @param entity metadata
+     * @return the Resource object from DataCite
+     * @throws JAXBException When the metadata cannot be read or is not valid
+     * against the schema
+     */
+    public Resource unmarshalAndValidate(final InputStream entity) throws JAXBException {
+        return (Resource) this.validatingUnmarshallers.get().unmarshal(createSource(entity));
+    }
+
+    /**
+     * Writes the metadata as an XML string encoded in UTF-8.
+     *
+     * @param resource Resource object from DataCite
+     * @return the XML
+     * @throws JAXBException When the metadata cannot be written
+     */
+    public String marshal(final Resource resource) throws JAXBException {
+        final StringWriter writer = new StringWriter();
+        this.marshallers.get().marshal(resource, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Creates the source of the metadata, read by a secure parser.
+     *
+     * @param entity metadata
+     * @return the source
+     * @throws JAXBException When the parser cannot be created
+     */
+    private SAXSource createSource(final InputStream entity) throws JAXBException {
+        try {
+            return new SAXSource(this.parserFactories.get().newSAXParser().getXMLReader(),
+                    new InputSource(entity));
+        } catch (ParserConfigurationException | SAXException ex) {
+            throw LOGGER.throwing(new JAXBException("Cannot create the XML parser", ex));
+        }
+    }
+
+    /**
+     * Creates a namespace aware SAX parser factory with the secure processing,
+     * without DOCTYPE declaration and without external entity.
+     *
+     * @return the parser factory
+     * @throws DoiRuntimeException When a security feature is not supported
+     */
+    private static SAXParserFactory createParserFactory() {
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd",
+                    false);
+        } catch (ParserConfigurationException | SAXException ex) {
+            throw LOGGER.throwing(new DoiRuntimeException(
+                    "Cannot configure a secure XML parser", ex));
+        }
+        return factory;
+    }
+
+    /**
+     * Creates an unmarshaller.
+     *
+     * @param xsd schema to check or null
+     * @return the unmarshaller
+     * @throws DoiRuntimeException When the unmarshaller cannot be created
+     */
+    private Unmarshaller createUnmarshaller(final Schema xsd) {
+        try {
+            final Unmarshaller unmarshaller = this.jaxbContext.createUnmarshaller();
+            unmarshaller.setSchema(xsd);
+            return unmarshaller;
+        } catch (JAXBException ex) {
+            throw LOGGER.throwing(new DoiRuntimeException("Cannot create the unmarshaller", ex));
+        }
+    }
+
+    /**
+     * Creates a marshaller writing UTF-8.
+     *
+     * @return the marshaller
+     * @throws DoiRuntimeException When the marshaller cannot be created
+     */
+    private Marshaller createMarshaller() {
+        try {
+            final Marshaller marshaller = this.jaxbContext.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+            return marshaller;
+        } catch (JAXBException ex) {
+            throw LOGGER.throwing(new DoiRuntimeException("Cannot create the marshaller", ex));
+        }
+    }
+
+    /**
+     * Class to handle the instance
+     *
+     */
+    private static class MetadataCodecHolder {
+
+        /**
+         * Unique Instance unique
+         */
+        private static final MetadataCodec INSTANCE = new MetadataCodec();
+    }
+}
@@ -43,6 +43,20 @@ import org.restlet.util.Series;
  */
 public class HttpDOIClientHelper extends org.restlet.engine.connector.HttpClientHelper {
 
+    /**
+     * Connector parameter: timeout in ms to get a connection, to connect and to
+     * wait for data {@value #SOCKET_TIMEOUT}. When it is not strictly
+     * positive, the default timeouts of the HTTP client are used.
+     */
+    public static final String SOCKET_TIMEOUT = "socketTimeout";
+
+    /**
+     * Request attribute: maximum timeout in ms of this request, as an Integer
+     * {@value #MAX_TIMEOUT_ATTRIBUTE}. The timeouts of the request are the
+     * lowest of this value and of {@link #SOCKET_TIMEOUT}.
+     */
+    public static final String MAX_TIMEOUT_ATTRIBUTE = "fr.cnes.doi.client.maxTimeout";
+
     /**
      * Logger.
      */
@@ -181,6 +195,36 @@ public class HttpDOIClientHelper extends org.restlet.engine.connector.HttpClient
                 parseInt(getHelpedParameters().getFirstValue(HttpClient.MAX_REDIRECTION, "5"));
     }
 
+    /**
+     * Returns the timeout of each request in ms.
+     *
+     * @return the timeout or 0 when the default timeouts of the HTTP client are
+     * used
+     */
+    public int getSocketTimeout() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(SOCKET_TIMEOUT, "0"));
+    }
+
+    /**
+     * Returns the timeout of a request in ms : the lowest of the socket
+     * timeout and of the {@link #MAX_TIMEOUT_ATTRIBUTE} of the request.
+     *
+     * @param request request
+     * @return the timeout or 0 when the default timeouts of the HTTP client are
+     * used
+     */
+    private int getTimeout(final Request request) {
+        final int timeout = getSocketTimeout();
+        final Object maxTimeout = request.getAttributes().get(MAX_TIMEOUT_ATTRIBUTE);
+        final int result;
+        if (maxTimeout instanceof Integer && (Integer) maxTimeout > 0) {
+            result = timeout > 0 ? Math.min(timeout, (Integer) maxTimeout) : (Integer) maxTimeout;
+        } else {
+            result = timeout;
+        }
+        return result;
+    }
+
     /**
      * Returns true if the SSL is disabled otherwise false.
      *
@@ -201,7 +245,7 @@ public class HttpDOIClientHelper extends org.restlet.engine.connector.HttpClient
         try {
             result = new HttpMethodCall(this, request.getMethod().toString(),
                     ReferenceUtils.update(request.getResourceRef(), request)
-                    .toString(), request.isEntityAvailable());
+                    .toString(), request.isEntityAvailable(), getTimeout(request));
         } catch (IOException ioe) {
             getLogger().log(Level.WARNING,
                     "Unable to create the HTTP client call", ioe);
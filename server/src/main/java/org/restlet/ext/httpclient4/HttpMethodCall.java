@@ -29,6 +29,8 @@ import java.nio.channels.WritableByteChannel;
 import java.util.logging.Level;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.Configurable;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
@@ -36,6 +38,7 @@ import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpOptions;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpTrace;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.AbstractHttpEntity;
@@ -91,6 +94,23 @@ public class HttpMethodCall extends ClientCall {
      */
     public HttpMethodCall(final HttpDOIClientHelper helper, final String method,
             final String requestUri, boolean hasEntity) throws IOException {
+        this(helper, method, requestUri, hasEntity, helper.getSocketTimeout());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param helper The parent HTTP client helper.
+     * @param method The method name.
+     * @param requestUri The request URI.
+     * @param hasEntity Indicates if the call will have an entity to send to the
+     * server.
+     * @param timeout The timeout in ms to get a connection, to connect and to
+     * wait for data, or 0 to use the default timeouts of the HTTP client.
+     * @throws IOException when an error happens
+     */
+    public HttpMethodCall(final HttpDOIClientHelper helper, final String method,
+            final String requestUri, boolean hasEntity, final int timeout) throws IOException {
         super(helper, method, requestUri);
         this.clientHelper = helper;
 
@@ -147,6 +167,17 @@ public class HttpMethodCall extends ClientCall {
             }
 
             this.responseHeadersAdded = false;
+            if (timeout > 0 && this.httpRequest instanceof HttpRequestBase) {
+                // the request configuration replaces the default one of the
+                // client : only the timeouts of the default one are overridden
+                final HttpRequestBase request = (HttpRequestBase) this.httpRequest;
+                request.setConfig(RequestConfig.copy(getDefaultConfig(helper, request))
+                        .setConnectionRequestTimeout(timeout)
+                        .setConnectTimeout(timeout)
+                        .setSocketTimeout(timeout)
+                        .build());
+            }
+
             setConfidential(this.httpRequest.getURI().getScheme()
                     .equalsIgnoreCase(Protocol.HTTPS.getSchemeName()));
         } else {
@@ -155,6 +186,32 @@ public class HttpMethodCall extends ClientCall {
         }
     }
 
+    /**
+     * Returns the configuration of a request before its timeouts are set : the
+     * configuration of the request, else the default configuration of the
+     * client, else the default configuration of Apache HTTP Client with the
+     * maximum number of redirections of the helper.
+     *
+     * @param helper The parent HTTP client helper.
+     * @param request The HTTP request.
+     * @return the configuration
+     */
+    private static RequestConfig getDefaultConfig(final HttpDOIClientHelper helper,
+            final HttpRequestBase request) {
+        final RequestConfig config;
+        if (request.getConfig() != null) {
+            config = request.getConfig();
+        } else if (helper.getHttpClient() instanceof Configurable
+                && ((Configurable) helper.getHttpClient()).getConfig() != null) {
+            config = ((Configurable) helper.getHttpClient()).getConfig();
+        } else {
+            config = RequestConfig.copy(RequestConfig.DEFAULT)
+                    .setMaxRedirects(helper.getMaxRedirects())
+                    .build();
+        }
+        return config;
+    }
+
     /**
      * Returns the HTTP request.
      *
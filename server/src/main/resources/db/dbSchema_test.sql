@@ -25,5 +25,52 @@ CREATE TABLE doi_schema_test.T_DOI_TOKENS (
  token varchar(255) NOT NULL,
  PRIMARY KEY (token)
 );
+
+CREATE TABLE doi_schema_test.T_DOI_LANDING_PAGES (
+ doi varchar(1024) NOT NULL,
+ status int NOT NULL,
+ first_seen timestamp NOT NULL,
+ last_check timestamp NOT NULL,
+ failures int NOT NULL,
+ PRIMARY KEY (doi)
+);
+
+-- Notifies the changes of the cached tables to the DOI servers sharing the
+-- database (see Starter.Database.ChangeNotifications). Only the keys needed to
+-- update the caches are sent: the tokens are identified by their SHA-256 hash
+-- and the emails are never sent. sha256() requires PostgreSQL 11 or later.
+CREATE FUNCTION doi_schema_test.notify_doi_change() RETURNS trigger AS '
+DECLARE
+ item record;
+ keys json;
+BEGIN
+ IF TG_OP = ''DELETE'' THEN
+  item := OLD;
+ ELSE
+  item := NEW;
+ END IF;
+ IF TG_TABLE_NAME = ''t_doi_tokens'' THEN
+  keys := json_build_object(''token_hash'', encode(sha256(convert_to(item.token, ''UTF8'')), ''hex''));
+ ELSIF TG_TABLE_NAME = ''t_doi_users'' THEN
+  keys := json_build_object(''username'', item.username, ''admin'', item.admin);
+ ELSIF TG_TABLE_NAME = ''t_doi_assignations'' THEN
+  keys := json_build_object(''username'', item.username, ''suffix'', item.suffix);
+ ELSE
+  keys := json_build_object(''suffix'', item.suffix);
+ END IF;
+ PERFORM pg_notify(''doi_changes'', json_build_object(''table'', lower(TG_TABLE_NAME),
+  ''operation'', TG_OP, ''row'', keys)::text);
+ RETURN NULL;
+END;
+' LANGUAGE plpgsql;
+
+CREATE TRIGGER notify_doi_users AFTER INSERT OR UPDATE OR DELETE ON doi_schema_test.T_DOI_USERS
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema_test.notify_doi_change();
+CREATE TRIGGER notify_doi_project AFTER INSERT OR UPDATE OR DELETE ON doi_schema_test.T_DOI_PROJECT
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema_test.notify_doi_change();
+CREATE TRIGGER notify_doi_assignations AFTER INSERT OR UPDATE OR DELETE ON doi_schema_test.T_DOI_ASSIGNATIONS
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema_test.notify_doi_change();
+CREATE TRIGGER notify_doi_tokens AFTER INSERT OR UPDATE OR DELETE ON doi_schema_test.T_DOI_TOKENS
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema_test.notify_doi_change();
 GRANT ALL PRIVILEGES ON SCHEMA doi_schema_test TO doiserver_test;
 GRANT INSERT,DELETE,SELECT,UPDATE ON ALL TABLES IN SCHEMA doi_schema_test TO doiserver_test;
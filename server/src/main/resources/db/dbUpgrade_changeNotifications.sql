@@ -0,0 +1,46 @@
+-- Upgrade of an existing production database for the change notifications
+-- between the DOI servers sharing it (Starter.Database.ChangeNotifications).
+-- The script can be run several times :
+-- psql -d doidb -f dbUpgrade_changeNotifications.sql
+
+-- Notifies the changes of the cached tables to the DOI servers sharing the
+-- database (see Starter.Database.ChangeNotifications). Only the keys needed to
+-- update the caches are sent: the tokens are identified by their SHA-256 hash
+-- and the emails are never sent. sha256() requires PostgreSQL 11 or later.
+CREATE OR REPLACE FUNCTION doi_schema.notify_doi_change() RETURNS trigger AS '
+DECLARE
+ item record;
+ keys json;
+BEGIN
+ IF TG_OP = ''DELETE'' THEN
+  item := OLD;
+ ELSE
+  item := NEW;
+ END IF;
+ IF TG_TABLE_NAME = ''t_doi_tokens'' THEN
+  keys := json_build_object(''token_hash'', encode(sha256(convert_to(item.token, ''UTF8'')), ''hex''));
+ ELSIF TG_TABLE_NAME = ''t_doi_users'' THEN
+  keys := json_build_object(''username'', item.username, ''admin'', item.admin);
+ ELSIF TG_TABLE_NAME = ''t_doi_assignations'' THEN
+  keys := json_build_object(''username'', item.username, ''suffix'', item.suffix);
+ ELSE
+  keys := json_build_object(''suffix'', item.suffix);
+ END IF;
+ PERFORM pg_notify(''doi_changes'', json_build_object(''table'', lower(TG_TABLE_NAME),
+  ''operation'', TG_OP, ''row'', keys)::text);
+ RETURN NULL;
+END;
+' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS notify_doi_users ON doi_schema.T_DOI_USERS;
+CREATE TRIGGER notify_doi_users AFTER INSERT OR UPDATE OR DELETE ON doi_schema.T_DOI_USERS
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema.notify_doi_change();
+DROP TRIGGER IF EXISTS notify_doi_project ON doi_schema.T_DOI_PROJECT;
+CREATE TRIGGER notify_doi_project AFTER INSERT OR UPDATE OR DELETE ON doi_schema.T_DOI_PROJECT
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema.notify_doi_change();
+DROP TRIGGER IF EXISTS notify_doi_assignations ON doi_schema.T_DOI_ASSIGNATIONS;
+CREATE TRIGGER notify_doi_assignations AFTER INSERT OR UPDATE OR DELETE ON doi_schema.T_DOI_ASSIGNATIONS
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema.notify_doi_change();
+DROP TRIGGER IF EXISTS notify_doi_tokens ON doi_schema.T_DOI_TOKENS;
+CREATE TRIGGER notify_doi_tokens AFTER INSERT OR UPDATE OR DELETE ON doi_schema.T_DOI_TOKENS
+ FOR EACH ROW EXECUTE PROCEDURE doi_schema.notify_doi_change();
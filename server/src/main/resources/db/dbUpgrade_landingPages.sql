@@ -0,0 +1,15 @@
+-- Upgrade of an existing production database for the state of the checked
+-- landing pages (see Starter.LandingPage.period). Without this table, the
+-- states are only kept in memory and all the landing pages are checked again
+-- after each restart.
+-- The script can be run several times :
+-- psql -d doidb -f dbUpgrade_landingPages.sql
+
+CREATE TABLE IF NOT EXISTS doi_schema.T_DOI_LANDING_PAGES (
+ doi varchar(1024) NOT NULL,
+ status int NOT NULL,
+ first_seen timestamp NOT NULL,
+ last_check timestamp NOT NULL,
+ failures int NOT NULL,
+ PRIMARY KEY (doi)
+);
@@ -21,12 +21,15 @@ package fr.cnes.doi;
 import java.io.IOException;
 import static java.lang.Thread.sleep;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.mockserver.integration.ClientAndProxy;
 import static org.mockserver.integration.ClientAndProxy.startClientAndDirectProxy;
 import org.mockserver.integration.ClientAndServer;
 import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.Delay;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
 import org.mockserver.verify.VerificationTimes;
@@ -88,6 +91,25 @@ public abstract class AbstractSpec {
 		    response().withBody(body, StandardCharsets.UTF_8).withStatusCode(statusCode));
 	}
 
+	/**
+	 * Creates a specification answering after a delay.
+	 *
+	 * @param verb HTTP verb
+	 * @param path path
+	 * @param statusCode status of the response
+	 * @param body body of the response
+	 * @param delay delay of the response in ms
+	 * @param times number of requests matching the specification, the
+	 * specification never expires when times is 0
+	 */
+	public void createSpec(String verb, String path, int statusCode, String body, long delay,
+		int times) {
+	    mockServer.when(request().withPath(path).withMethod(verb),
+		    times > 0 ? Times.exactly(times) : Times.unlimited()).respond(
+		    response().withBody(body, StandardCharsets.UTF_8).withStatusCode(statusCode)
+			    .withDelay(new Delay(TimeUnit.MILLISECONDS, delay)));
+	}
+
 	public void verifySpec(String verb, String path) {
 	    if (hasProxy) {
 		mockProxy.verify(request().withMethod(verb).withPath(path),
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi;
+
+import org.eclipse.jetty.http.HttpMethod;
+
+/**
+ * Specifications of the landing pages behind a DOI name resolver.
+ */
+public class LandingPageSpec extends AbstractSpec {
+
+    public enum Spec {
+        HEAD_200("Landing page answering to HEAD", HttpMethod.HEAD, "/10.80163/HEAD/OK", 200),
+        HEAD_405("Landing page not implementing HEAD", HttpMethod.HEAD, "/10.80163/GET/OK", 405),
+        GET_206("Landing page answering to a ranged GET", HttpMethod.GET, "/10.80163/GET/OK", 206),
+        HEAD_404("Landing page not found with HEAD", HttpMethod.HEAD, "/10.80163/KO", 404),
+        GET_404("Landing page not found with GET", HttpMethod.GET, "/10.80163/KO", 404),
+        HEAD_SLOW("Landing page too slow with HEAD", HttpMethod.HEAD, "/10.80163/SLOW", 200),
+        GET_SLOW("Landing page too slow with GET", HttpMethod.GET, "/10.80163/SLOW", 206);
+
+        private final String description;
+        private final HttpMethod httVerb;
+        private final String path;
+        private final int status;
+
+        Spec(final String description, final HttpMethod httpVerb, final String path,
+                final int status) {
+            this.description = description;
+            this.httVerb = httpVerb;
+            this.path = path;
+            this.status = status;
+        }
+
+        public String getDescription() {
+            return this.description;
+        }
+
+        public String getHttpVerb() {
+            return this.httVerb.name();
+        }
+
+        public String getPath() {
+            return this.path;
+        }
+
+        public int getStatus() {
+            return this.status;
+        }
+
+        /**
+         * Returns the DOI name of the landing page.
+         *
+         * @return the DOI name
+         */
+        public String getDoi() {
+            return this.path.substring(1);
+        }
+    }
+
+    private final MockupServer mockServer;
+
+    public LandingPageSpec(int port) {
+        this.mockServer = new MockupServer(port);
+    }
+
+    public void createSpec(final Spec specification) {
+        this.mockServer.createSpec(
+                specification.getHttpVerb(), specification.getPath(),
+                specification.getStatus(), ""
+        );
+    }
+
+    /**
+     * Creates a specification answering after a delay.
+     *
+     * @param specification specification
+     * @param delay delay of the response in ms
+     */
+    public void createSpec(final Spec specification, final long delay) {
+        this.mockServer.createSpec(
+                specification.getHttpVerb(), specification.getPath(),
+                specification.getStatus(), "", delay, 0
+        );
+    }
+
+    public void verifySpec(final Spec specification, int exactly) {
+        this.mockServer.verifySpec(specification.getHttpVerb(), specification.getPath(),
+                exactly);
+    }
+
+    public void reset() {
+        this.mockServer.reset();
+    }
+
+    public void finish() {
+        this.mockServer.close();
+    }
+
+}
@@ -203,6 +203,48 @@ public class MdsSpec extends AbstractSpec {
         );
     }
 
+    /**
+     * Creates a DataCite specification answering after a delay.
+     *
+     * @param specification specification
+     * @param status status of the response, replacing the status of the
+     * specification
+     * @param delay delay of the response in ms
+     * @param times number of requests matching the specification, the
+     * specification never expires when times is 0
+     */
+    public void createSpec(final Spec specification, final int status, final long delay,
+            final int times) {
+        final String path = specification.getTemplatePath().isEmpty()
+                ? specification.getPath()
+                : specification.getPath() + "/" + specification.getTemplatePath();
+        this.mockServer.createSpec(
+                specification.getHttpVerb(), path,
+                status, status == specification.getStatus() ? specification.getBody() : "",
+                delay, times
+        );
+    }
+
+    /**
+     * Creates a CrossCite specification answering after a delay. The CrossCite
+     * requests are sent to the same mock server as the DataCite requests.
+     *
+     * @param specification specification
+     * @param status status of the response, replacing the status of the
+     * specification
+     * @param delay delay of the response in ms
+     * @param times number of requests matching the specification, the
+     * specification never expires when times is 0
+     */
+    public void createSpec(final CrossCiteSpec.Spec specification, final int status,
+            final long delay, final int times) {
+        this.mockServer.createSpec(
+                specification.getHttpVerb(), specification.getPath(),
+                status, status == specification.getStatus() ? specification.getBody() : "",
+                delay, times
+        );
+    }
+
     public void verifySpec(final Spec specification) {
         final String path = specification.getTemplatePath().isEmpty()
                 ? specification.getPath()
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.exception.ClientCrossCiteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.data.Status;
+
+/**
+ * Test class for {@link fr.cnes.doi.client.CitationCache}
+ */
+@Category(UnitTest.class)
+public class CitationCacheTest {
+
+    /**
+     * Number of requests to the styles.
+     */
+    private final AtomicInteger nbStyles = new AtomicInteger();
+
+    /**
+     * Number of requests to the formatted citations.
+     */
+    private final AtomicInteger nbFormats = new AtomicInteger();
+
+    /**
+     * Styles returned by the loader.
+     */
+    private final List<String> styles = new ArrayList<>(Arrays.asList("apa", "harvard3"));
+
+    /**
+     * True when the loaders fail.
+     */
+    private volatile boolean isFailing;
+
+    public CitationCacheTest() {
+    }
+
+    /**
+     * Test of getStyles and refreshLists methods, of class CitationCache.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testLists() throws Exception {
+        final CitationCache cache = createCache(60000, 10, 60000);
+        final CitationCache.ListSnapshot snapshot = cache.getStyles();
+        assertEquals(styles, snapshot.getValues());
+        cache.getStyles();
+        assertEquals(1, nbStyles.get());
+        assertEquals(Arrays.asList("fr-FR"), cache.getLanguages().getValues());
+
+        styles.add("ieee");
+        cache.refreshLists();
+        assertEquals(2, nbStyles.get());
+        assertEquals(3, cache.getStyles().getValues().size());
+        assertNotEquals(snapshot.getTag(), cache.getStyles().getTag());
+
+        // a failed refresh keeps the previous list
+        isFailing = true;
+        cache.refreshLists();
+        assertEquals(3, cache.getStyles().getValues().size());
+    }
+
+    /**
+     * Test of getFormat and invalidate methods, of class CitationCache.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testFormatAndInvalidate() throws Exception {
+        final CitationCache cache = createCache(60000, 10, 60000);
+        final CitationCache.Citation citation = cache.getFormat("10.24400/12/a", "apa", "fr-FR");
+        assertEquals("10.24400/12/a apa fr-FR 1", citation.getText());
+        assertSame(citation, cache.getFormat("10.24400/12/A", "apa", "fr-FR"));
+        cache.getFormat("10.24400/12/a", "harvard3", "fr-FR");
+        cache.getFormat("10.24400/12/b", "apa", "fr-FR");
+        assertEquals(3, nbFormats.get());
+
+        cache.invalidate("10.24400/12/a");
+        assertEquals(1, cache.getSize());
+        final CitationCache.Citation updated = cache.getFormat("10.24400/12/a", "apa", "fr-FR");
+        assertEquals(4, nbFormats.get());
+        assertNotEquals(citation.getTag(), updated.getTag());
+    }
+
+    /**
+     * Test of the LRU eviction, of class CitationCache.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testEviction() throws Exception {
+        final CitationCache cache = createCache(60000, 2, 60000);
+        cache.getFormat("10.24400/12/a", "apa", "fr-FR");
+        cache.getFormat("10.24400/12/b", "apa", "fr-FR");
+        cache.getFormat("10.24400/12/a", "apa", "fr-FR");
+        cache.getFormat("10.24400/12/c", "apa", "fr-FR");
+        assertEquals(2, cache.getSize());
+        assertEquals(3, nbFormats.get());
+        cache.getFormat("10.24400/12/a", "apa", "fr-FR");
+        assertEquals(3, nbFormats.get());
+        cache.getFormat("10.24400/12/b", "apa", "fr-FR");
+        assertEquals(4, nbFormats.get());
+    }
+
+    /**
+     * Test of a cache disabled with a maximum age of 0, of class
+     * CitationCache.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testDisabled() throws Exception {
+        final CitationCache cache = createCache(0, 10, 0);
+        cache.getStyles();
+        cache.getStyles();
+        cache.getFormat("10.24400/12/a", "apa", "fr-FR");
+        cache.getFormat("10.24400/12/a", "apa", "fr-FR");
+        assertEquals(2, nbStyles.get());
+        assertEquals(2, nbFormats.get());
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Creates a cache with loaders counting the requests.
+     *
+     * @param listMaxAge maximum age of the lists in ms
+     * @param maxEntries maximum number of citations
+     * @param maxAge maximum age of a citation in ms
+     * @return the cache
+     */
+    private CitationCache createCache(final long listMaxAge, final int maxEntries,
+            final long maxAge) {
+        return new CitationCache(() -> {
+            checkFailure();
+            nbStyles.incrementAndGet();
+            return new ArrayList<>(styles);
+        }, () -> {
+            checkFailure();
+            return Arrays.asList("fr-FR");
+        }, (doi, style, lang) -> {
+            checkFailure();
+            return doi + " " + style + " " + lang + " " + nbFormats.incrementAndGet();
+        }, listMaxAge, maxEntries, maxAge);
+    }
+
+    /**
+     * Throws an exception when the loaders must fail.
+     *
+     * @throws ClientCrossCiteException - if the loaders must fail
+     */
+    private void checkFailure() throws ClientCrossCiteException {
+        if (isFailing) {
+            throw new ClientCrossCiteException(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                    "unavailable");
+        }
+    }
+}
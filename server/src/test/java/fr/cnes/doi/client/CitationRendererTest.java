@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.exception.ClientCrossCiteException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.data.Status;
+
+/**
+ * Test class for {@link fr.cnes.doi.client.CitationRenderer}
+ */
+@Category(UnitTest.class)
+public class CitationRendererTest {
+
+    public CitationRendererTest() {
+    }
+
+    /**
+     * Test of render method, of class CitationRenderer. The citations are in
+     * the order of the DOIs then of the styles and the parallelism is bounded.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testRender() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CitationRenderer renderer = new CitationRenderer((doi, style, lang) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                waitFor(new CountDownLatch(1), 20);
+            } finally {
+                running.decrementAndGet();
+            }
+            return doi + " " + style + " " + lang;
+        }, 3, 5000, 100);
+        try {
+            final List<CitationRenderer.Entry> entries = renderer.render(
+                    Arrays.asList("10.24400/12/a", "10.24400/12/b", "10.24400/12/c",
+                            "10.24400/12/d"), Arrays.asList("apa", "harvard3"), "fr-FR");
+            assertEquals(8, entries.size());
+            assertEquals("10.24400/12/a", entries.get(0).getDoi());
+            assertEquals("harvard3", entries.get(1).getStyle());
+            assertEquals("10.24400/12/d apa fr-FR", entries.get(6).getCitation());
+            assertNull(entries.get(6).getError());
+            assertTrue(maxRunning.get() <= 3);
+        } finally {
+            renderer.shutdown();
+        }
+    }
+
+    /**
+     * Test of the errors and the timeout, of class CitationRenderer.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testErrorsAndTimeout() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CitationRenderer renderer = new CitationRenderer((doi, style, lang) -> {
+            if (doi.endsWith("error")) {
+                throw new ClientCrossCiteException(Status.CLIENT_ERROR_NOT_FOUND,
+                        "DOI not found");
+            } else if (doi.endsWith("slow")) {
+                waitFor(release, 5000);
+            }
+            return doi;
+        }, 2, 100, 100);
+        try {
+            final List<CitationRenderer.Entry> entries = renderer.render(
+                    Arrays.asList("10.24400/12/error", "10.24400/12/slow", "10.24400/12/ok"),
+                    Arrays.asList("apa"), "fr-FR");
+            assertNull(entries.get(0).getCitation());
+            assertNotNull(entries.get(0).getError());
+            assertNull(entries.get(1).getCitation());
+            assertTrue(entries.get(1).getError().contains("100 ms"));
+            assertEquals("10.24400/12/ok", entries.get(2).getCitation());
+        } finally {
+            release.countDown();
+            renderer.shutdown();
+        }
+    }
+
+    /**
+     * Test of the deadline, of class CitationRenderer. The timeout applies to
+     * the whole batch and the citations not formatted are cancelled.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testBatchDeadline() throws Exception {
+        final AtomicInteger started = new AtomicInteger();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CitationRenderer renderer = new CitationRenderer((doi, style, lang) -> {
+            started.incrementAndGet();
+            try {
+                waitFor(new CountDownLatch(1), 5000);
+            } catch (ClientCrossCiteException ex) {
+                interrupted.countDown();
+                throw ex;
+            }
+            return doi;
+        }, 1, 100, 100);
+        try {
+            final long start = System.currentTimeMillis();
+            final List<CitationRenderer.Entry> entries = renderer.render(
+                    Arrays.asList("10.24400/12/a", "10.24400/12/b", "10.24400/12/c",
+                            "10.24400/12/d"), Arrays.asList("apa"), "fr-FR");
+            assertTrue(System.currentTimeMillis() - start < 2000);
+            for (final CitationRenderer.Entry entry : entries) {
+                assertNull(entry.getCitation());
+                assertTrue(entry.getError().contains("100 ms"));
+            }
+            assertTrue(interrupted.await(1000, TimeUnit.MILLISECONDS));
+            assertEquals(1, started.get());
+        } finally {
+            renderer.shutdown();
+        }
+    }
+
+    /**
+     * Test of the bounded queue, of class CitationRenderer. A batch exceeding
+     * the queue is rejected and does not hold the queue.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testQueueFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CitationRenderer renderer = new CitationRenderer((doi, style, lang) -> {
+            waitFor(release, 5000);
+            return doi;
+        }, 1, 5000, 10, 1);
+        try {
+            try {
+                renderer.render(Arrays.asList("10.24400/12/a", "10.24400/12/b",
+                        "10.24400/12/c"), Arrays.asList("apa"), "fr-FR");
+                fail("The batch should be rejected");
+            } catch (RejectedExecutionException ex) {
+                assertNotNull(ex.getMessage());
+            }
+            release.countDown();
+            final List<CitationRenderer.Entry> entries = renderer.render(
+                    Arrays.asList("10.24400/12/d"), Arrays.asList("apa"), "fr-FR");
+            assertEquals("10.24400/12/d", entries.get(0).getCitation());
+        } finally {
+            release.countDown();
+            renderer.shutdown();
+        }
+    }
+
+    /**
+     * Waits for a latch as a long request to CrossCite.
+     *
+     * @param latch latch
+     * @param timeout maximum time to wait in ms
+     * @throws ClientCrossCiteException - if the thread is interrupted
+     */
+    private static void waitFor(final CountDownLatch latch, final long timeout)
+            throws ClientCrossCiteException {
+        try {
+            latch.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ClientCrossCiteException(Status.SERVER_ERROR_INTERNAL, "interrupted");
+        }
+    }
+
+    /**
+     * Test of the maximum number of citations, of class CitationRenderer.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyCitations() throws Exception {
+        final CitationRenderer renderer = new CitationRenderer((doi, style, lang) -> doi,
+                2, 100, 3);
+        try {
+            renderer.render(Arrays.asList("a", "b"), Arrays.asList("apa", "harvard3"), "fr-FR");
+        } finally {
+            renderer.shutdown();
+        }
+    }
+}
@@ -23,6 +23,9 @@ import fr.cnes.doi.InitSettingsForTest;
 import fr.cnes.doi.UnitTest;
 import static fr.cnes.doi.client.BaseClient.DATACITE_MOCKSERVER_PORT;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -136,4 +139,44 @@ public class ClientCrossCiteCitationTest {
         crossCiteServerStub.verifySpec(CrossCiteSpec.Spec.GET_FORMAT_200);
     }  
 
+    /**
+     * Test of getFormatAsync method, of class ClientCrossCiteCitation.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testGetFormatAsync() throws Exception {
+        crossCiteServerStub.createSpec(CrossCiteSpec.Spec.GET_FORMAT_200);
+
+        ClientCrossCiteCitation instance = new ClientCrossCiteCitation(ClientCrossCiteCitation.Context.DEV);
+        CompletableFuture<String> result = instance.getFormatAsync("10.1145/2783446.2783605",
+                "academy-of-management-review", "af-ZA");
+        assertEquals("Test retrieving format asynchronously",
+                CrossCiteSpec.Spec.GET_FORMAT_200.getBody(), result.get(10, TimeUnit.SECONDS));
+
+        crossCiteServerStub.verifySpec(CrossCiteSpec.Spec.GET_FORMAT_200);
+    }
+
+    /**
+     * Test of getFormatAsync method, of class ClientCrossCiteCitation, when
+     * CrossCite returns an error : the future is completed by the exception of
+     * the request.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testGetFormatAsyncError() throws Exception {
+        crossCiteServerStub.createSpec(CrossCiteSpec.Spec.GET_FORMAT_404);
+
+        ClientCrossCiteCitation instance = new ClientCrossCiteCitation(ClientCrossCiteCitation.Context.DEV);
+        CompletableFuture<String> result = instance.getFormatAsync("10.1145/2783446.2783605",
+                "academy-of-management-review", "af-ZA");
+        try {
+            result.get(10, TimeUnit.SECONDS);
+            fail("The request must fail");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof ClientCrossCiteException);
+        }
+
+        crossCiteServerStub.verifySpec(CrossCiteSpec.Spec.GET_FORMAT_404);
+    }
+
 }
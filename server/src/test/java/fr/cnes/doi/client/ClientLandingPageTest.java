@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.InitSettingsForTest;
+import fr.cnes.doi.LandingPageSpec;
+import fr.cnes.doi.UnitTest;
+import static fr.cnes.doi.client.BaseClient.DATACITE_MOCKSERVER_PORT;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.data.Status;
+
+/**
+ * Test class for {@link fr.cnes.doi.client.ClientLandingPage}
+ */
+@Category(UnitTest.class)
+public class ClientLandingPageTest {
+
+    /**
+     * URI of the DOI name resolver on the mock server.
+     */
+    private static final String RESOLVER = "http://localhost:" + DATACITE_MOCKSERVER_PORT;
+
+    /**
+     * Stub of the landing pages.
+     */
+    private static LandingPageSpec landingPageServerStub;
+
+    public ClientLandingPageTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        InitSettingsForTest.init(InitSettingsForTest.CONFIG_TEST_PROPERTIES);
+        landingPageServerStub = new LandingPageSpec(DATACITE_MOCKSERVER_PORT);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        landingPageServerStub.finish();
+    }
+
+    @Before
+    public void setUp() {
+        landingPageServerStub.reset();
+    }
+
+    /**
+     * Test of checkDoi method, of class ClientLandingPage. A landing page
+     * answering to HEAD is not requested with GET.
+     */
+    @Test
+    public void testCheckDoiWithHead() {
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.HEAD_200);
+        final Map<String, Status> statuses = new ConcurrentHashMap<>();
+        final ClientLandingPage instance = new ClientLandingPage(RESOLVER);
+        instance.checkDoi(Arrays.asList(LandingPageSpec.Spec.HEAD_200.getDoi()), statuses::put);
+        assertTrue(instance.isSuccess());
+        assertEquals(Status.SUCCESS_OK, statuses.get(LandingPageSpec.Spec.HEAD_200.getDoi()));
+        landingPageServerStub.verifySpec(LandingPageSpec.Spec.HEAD_200, 1);
+    }
+
+    /**
+     * Test of checkDoi method, of class ClientLandingPage. A landing page not
+     * implementing HEAD is requested with a ranged GET.
+     */
+    @Test
+    public void testCheckDoiWithGet() {
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.HEAD_405);
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.GET_206);
+        final ClientLandingPage instance = new ClientLandingPage(RESOLVER);
+        instance.checkDoi(Arrays.asList(LandingPageSpec.Spec.GET_206.getDoi()), null);
+        assertTrue(instance.isSuccess());
+        landingPageServerStub.verifySpec(LandingPageSpec.Spec.HEAD_405, 1);
+        landingPageServerStub.verifySpec(LandingPageSpec.Spec.GET_206, 1);
+    }
+
+    /**
+     * Test of checkDoi method, of class ClientLandingPage. A landing page in
+     * error with HEAD and GET is in the errors.
+     */
+    @Test
+    public void testCheckDoiNotFound() {
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.HEAD_200);
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.HEAD_404);
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.GET_404);
+        final ClientLandingPage instance = new ClientLandingPage(RESOLVER);
+        instance.checkDoi(Arrays.asList(LandingPageSpec.Spec.HEAD_200.getDoi(),
+                LandingPageSpec.Spec.GET_404.getDoi()), null);
+        assertTrue(instance.isError());
+        assertEquals(Status.CLIENT_ERROR_NOT_FOUND,
+                instance.getErrors().get(LandingPageSpec.Spec.GET_404.getDoi()));
+        assertEquals(1, instance.getErrors().size());
+        landingPageServerStub.verifySpec(LandingPageSpec.Spec.GET_404, 1);
+    }
+
+    /**
+     * Test of checkDoi method, of class ClientLandingPage. A landing page
+     * slower than the timeout (Starter.LandingPage.timeout = 500 ms in the test
+     * configuration) is in the errors without waiting for the response.
+     */
+    @Test
+    public void testCheckDoiTimeout() {
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.HEAD_SLOW, 5000);
+        landingPageServerStub.createSpec(LandingPageSpec.Spec.GET_SLOW, 5000);
+        final ClientLandingPage instance = new ClientLandingPage(RESOLVER);
+        final long start = System.currentTimeMillis();
+        instance.checkDoi(Arrays.asList(LandingPageSpec.Spec.HEAD_SLOW.getDoi()), null);
+        assertTrue(System.currentTimeMillis() - start < 4000);
+        assertTrue(instance.isError());
+        assertTrue(instance.getErrors().get(LandingPageSpec.Spec.HEAD_SLOW.getDoi()).isError());
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.UnitTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.client.DoiCatalog}
+ */
+@Category(UnitTest.class)
+public class DoiCatalogTest {
+
+    public DoiCatalogTest() {
+    }
+
+    /**
+     * Test of parseProjectSuffix method, of class DoiCatalog.
+     */
+    @Test
+    public void testParseProjectSuffix() {
+        assertEquals("12", DoiCatalog.parseProjectSuffix("10.24400/12/abc"));
+        assertEquals("123", DoiCatalog.parseProjectSuffix("10.24400/123/abc/def"));
+        assertNull(DoiCatalog.parseProjectSuffix("10.24400/abc"));
+        assertNull(DoiCatalog.parseProjectSuffix("10.24400//abc"));
+        assertNull(DoiCatalog.parseProjectSuffix("abc"));
+    }
+
+    /**
+     * Test of getDois by project, of class DoiCatalog. A project suffix must
+     * not match the DOIs of another project containing it.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testGetDoisByProject() throws Exception {
+        final DoiCatalog catalog = new DoiCatalog(() -> Arrays.asList(
+                "10.24400/12/a", "10.24400/123/b", "", "10.24400/12/c"), Runnable::run, 60000);
+        final DoiCatalog.Snapshot snapshot = catalog.getSnapshot();
+        assertEquals(3, snapshot.getDois().size());
+        assertEquals(Arrays.asList("10.24400/12/a", "10.24400/12/c"), snapshot.getDois("12"));
+        assertEquals(Arrays.asList("10.24400/123/b"), snapshot.getDois("123"));
+        assertTrue(snapshot.getDois("1").isEmpty());
+    }
+
+    /**
+     * Test of the cache and the entity tag, of class DoiCatalog.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testCacheAndTag() throws Exception {
+        final AtomicInteger nbLoads = new AtomicInteger();
+        final List<String> remote = new ArrayList<>(Arrays.asList("10.24400/12/a"));
+        final DoiCatalog catalog = new DoiCatalog(() -> {
+            nbLoads.incrementAndGet();
+            return new ArrayList<>(remote);
+        }, Runnable::run, 60000);
+        final DoiCatalog.Snapshot loaded = catalog.getSnapshot();
+        final String tag = loaded.getTag();
+        catalog.getSnapshot();
+        assertEquals(1, nbLoads.get());
+
+        catalog.refreshInBackground();
+        assertEquals(tag, catalog.getSnapshot().getTag());
+        assertEquals(2, nbLoads.get());
+
+        catalog.add("10.24400/12/b");
+        catalog.add("10.24400/99/c");
+        final DoiCatalog.Snapshot snapshot = catalog.getSnapshot();
+        assertEquals(2, nbLoads.get());
+        assertTrue(snapshot.contains("10.24400/12/b"));
+        assertEquals(2, snapshot.getDois("12").size());
+        assertEquals(Arrays.asList("10.24400/99/c"), snapshot.getDois("99"));
+        assertNotEquals(tag, snapshot.getTag());
+        assertEquals(DoiCatalog.computeTag(snapshot.getDois()), snapshot.getTag());
+        // the previous snapshots are not modified
+        assertFalse(loaded.contains("10.24400/12/b"));
+        assertEquals(1, loaded.getDois().size());
+        assertEquals(1, loaded.getDois("12").size());
+
+        remote.add("10.24400/12/b");
+        remote.add("10.24400/99/c");
+        assertEquals(snapshot.getTag(), catalog.refresh().getTag());
+    }
+
+    /**
+     * Test of refreshInBackground method, of class DoiCatalog. The current
+     * snapshot is served until the new one is loaded and a DOI added during
+     * the loading is kept.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testRefreshInBackground() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<String> remote = new ArrayList<>(Arrays.asList("10.24400/12/a"));
+        final DoiCatalog[] catalog = new DoiCatalog[1];
+        catalog[0] = new DoiCatalog(() -> {
+            final List<String> dois = new ArrayList<>(remote);
+            // a DOI created while the list is sent by DataCite
+            catalog[0].add("10.24400/12/c");
+            return dois;
+        }, tasks::add, 60000);
+        catalog[0].getSnapshot();
+        remote.add("10.24400/12/b");
+
+        catalog[0].refreshInBackground();
+        catalog[0].refreshInBackground();
+        assertEquals(1, tasks.size());
+        assertFalse(catalog[0].getSnapshot().contains("10.24400/12/b"));
+
+        tasks.get(0).run();
+        final DoiCatalog.Snapshot snapshot = catalog[0].getSnapshot();
+        assertEquals(Arrays.asList("10.24400/12/a", "10.24400/12/b", "10.24400/12/c"),
+                snapshot.getDois());
+        catalog[0].refreshInBackground();
+        assertEquals(2, tasks.size());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.UnitTest;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.data.MediaType;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.resource.ClientResource;
+
+/**
+ * Test class for {@link fr.cnes.doi.client.DoiListRepresentation}
+ */
+@Category(UnitTest.class)
+public class DoiListRepresentationTest {
+
+    /**
+     * DOI list returned by DataCite.
+     */
+    private static final String DOIS = "10.24400/989788/1026504\n"
+            + "10.24400/12/abc\r\n"
+            + "\n"
+            + "10.24400/989788/1026505\n"
+            + "10.24400/nosuffix";
+
+    public DoiListRepresentationTest() {
+    }
+
+    /**
+     * Test of write method without project filter, of class
+     * DoiListRepresentation.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testWriteAll() throws Exception {
+        assertEquals("10.24400/989788/1026504\n10.24400/12/abc\n10.24400/989788/1026505\n"
+                + "10.24400/nosuffix\n", write(null));
+    }
+
+    /**
+     * Test of write method with a project filter, of class
+     * DoiListRepresentation.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testWriteProject() throws Exception {
+        assertEquals("10.24400/989788/1026504\n10.24400/989788/1026505\n", write("989788"));
+        assertEquals("", write("unknown"));
+    }
+
+    /**
+     * Test of release method, of class DoiListRepresentation.
+     */
+    @Test
+    public void testRelease() {
+        final StringRepresentation upstream = new StringRepresentation(DOIS);
+        final DoiListRepresentation rep = new DoiListRepresentation(upstream,
+                new ClientResource("http://localhost"), null);
+        assertEquals(MediaType.TEXT_URI_LIST, rep.getMediaType());
+        rep.release();
+        rep.release();
+        assertFalse(upstream.isAvailable());
+    }
+
+    /**
+     * Writes the DOI list.
+     *
+     * @param project project suffix or null
+     * @return the written DOIs
+     * @throws Exception - if an error happens
+     */
+    private static String write(final String project) throws Exception {
+        final DoiListRepresentation rep = new DoiListRepresentation(
+                new StringRepresentation(DOIS), new ClientResource("http://localhost"), project);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        rep.write(output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
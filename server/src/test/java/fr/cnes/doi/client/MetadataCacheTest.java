@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.exception.ClientMdsException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.data.Status;
+
+/**
+ * Test class for {@link fr.cnes.doi.client.MetadataCache}
+ */
+@Category(UnitTest.class)
+public class MetadataCacheTest {
+
+    /**
+     * DOI name.
+     */
+    private static final String DOI = "10.24400/989788/1026504";
+
+    /**
+     * Number of requests to DataCite.
+     */
+    private final AtomicInteger nbLoads = new AtomicInteger();
+
+    /**
+     * Background revalidations, executed by the test.
+     */
+    private final List<Runnable> revalidations = new ArrayList<>();
+
+    /**
+     * Metadata returned by the loader.
+     */
+    private volatile String xml = "<resource>v1</resource>";
+
+    /**
+     * Status of the error returned by the loader or null.
+     */
+    private volatile Status error;
+
+    /**
+     * True when the executor rejects the revalidations.
+     */
+    private volatile boolean rejected;
+
+    public MetadataCacheTest() {
+    }
+
+    /**
+     * Test of get method, of class MetadataCache.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testGet() throws Exception {
+        final MetadataCache cache = createCache(10, 60000, 60000);
+        final MetadataCache.Metadata metadata = cache.get(DOI);
+        assertEquals("<resource>v1</resource>",
+                new String(metadata.getXml(), StandardCharsets.UTF_8));
+        assertSame(metadata, cache.get(DOI.toLowerCase()));
+        assertEquals(1, nbLoads.get());
+
+        xml = "<resource>v2</resource>";
+        cache.invalidate(DOI);
+        assertNotEquals(metadata.getTag(), cache.get(DOI).getTag());
+        assertEquals(2, nbLoads.get());
+    }
+
+    /**
+     * Test of the background revalidation, of class MetadataCache.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testRevalidate() throws Exception {
+        final MetadataCache cache = createCache(10, 60000, 0);
+        final MetadataCache.Metadata metadata = cache.get(DOI);
+        xml = "<resource>v2</resource>";
+        assertSame(metadata, cache.get(DOI));
+        assertSame(metadata, cache.get(DOI));
+        assertEquals(1, revalidations.size());
+        revalidations.remove(0).run();
+        assertEquals(2, nbLoads.get());
+        assertEquals("<resource>v2</resource>",
+                new String(cache.get(DOI).getXml(), StandardCharsets.UTF_8));
+
+        error = Status.SERVER_ERROR_SERVICE_UNAVAILABLE;
+        revalidations.remove(0).run();
+        assertEquals(1, cache.getSize());
+        error = Status.CLIENT_ERROR_NOT_FOUND;
+        cache.get(DOI);
+        revalidations.remove(0).run();
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Test of the revalidation rejected by the executor, of class
+     * MetadataCache : the cached metadata is returned and the DOI is
+     * revalidated at a next request.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testRevalidateRejected() throws Exception {
+        final MetadataCache cache = createCache(10, 60000, 0);
+        final MetadataCache.Metadata metadata = cache.get(DOI);
+        rejected = true;
+        assertSame(metadata, cache.get(DOI));
+        assertTrue(revalidations.isEmpty());
+
+        rejected = false;
+        assertSame(metadata, cache.get(DOI));
+        assertEquals(1, revalidations.size());
+        assertEquals(1, nbLoads.get());
+    }
+
+    /**
+     * Test of the LRU eviction and of a disabled cache, of class
+     * MetadataCache.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testSize() throws Exception {
+        final MetadataCache cache = createCache(2, 60000, 60000);
+        cache.get(DOI + "1");
+        cache.get(DOI + "2");
+        cache.get(DOI + "1");
+        cache.get(DOI + "3");
+        assertEquals(2, cache.getSize());
+        cache.get(DOI + "1");
+        assertEquals(3, nbLoads.get());
+
+        final MetadataCache disabled = createCache(2, 0, 0);
+        disabled.get(DOI);
+        disabled.invalidate(DOI);
+        disabled.get(DOI);
+        assertEquals(0, disabled.getSize());
+        assertEquals(5, nbLoads.get());
+    }
+
+    /**
+     * Test of the error of the loader, of class MetadataCache.
+     */
+    @Test
+    public void testError() {
+        final MetadataCache cache = createCache(10, 60000, 60000);
+        error = Status.CLIENT_ERROR_NOT_FOUND;
+        try {
+            cache.get(DOI);
+            fail("The error of DataCite must be thrown");
+        } catch (ClientMdsException ex) {
+            assertEquals(Status.CLIENT_ERROR_NOT_FOUND, ex.getStatus());
+        }
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries maximum number of metadata
+     * @param maxAge maximum age in ms
+     * @param revalidateAge revalidation age in ms
+     * @return the cache
+     */
+    private MetadataCache createCache(final int maxEntries, final long maxAge,
+            final long revalidateAge) {
+        return new MetadataCache(doiName -> {
+            nbLoads.incrementAndGet();
+            if (error != null) {
+                throw new ClientMdsException(error, "error");
+            }
+            return xml.getBytes(StandardCharsets.UTF_8);
+        }, task -> {
+            if (rejected) {
+                throw new RejectedExecutionException("queue full");
+            }
+            revalidations.add(task);
+        }, maxEntries, maxAge, revalidateAge);
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.client;
+
+import fr.cnes.doi.UnitTest;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Uniform;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.ext.httpclient4.HttpDOIClientHelper;
+
+/**
+ * Test class for {@link fr.cnes.doi.client.ResilienceFilter},
+ * {@link fr.cnes.doi.client.RetryPolicy} and
+ * {@link fr.cnes.doi.client.CircuitBreaker}
+ */
+@Category(UnitTest.class)
+public class ResilienceFilterTest {
+
+    /**
+     * URI of the remote service.
+     */
+    private static final String URI = "http://localhost:1/test";
+
+    /**
+     * Statuses returned by the remote service.
+     */
+    private final Deque<Status> statuses = new ArrayDeque<>();
+
+    /**
+     * Number of requests received by the remote service.
+     */
+    private final AtomicInteger nbCalls = new AtomicInteger();
+
+    public ResilienceFilterTest() {
+    }
+
+    /**
+     * Test of the retries of an idempotent request, of class ResilienceFilter.
+     */
+    @Test
+    public void testRetryIdempotent() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 5, 60000);
+        final ResilienceFilter filter = createFilter(new RetryPolicy(3, 1, 1, 0), breaker);
+        statuses.addAll(Arrays.asList(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                Status.CONNECTOR_ERROR_CONNECTION, Status.SUCCESS_OK));
+        assertEquals(Status.SUCCESS_OK, handle(filter, Method.GET));
+        assertEquals(3, nbCalls.get());
+        assertEquals(2, breaker.getNbRetries());
+        assertEquals(2, breaker.getNbFailures());
+        assertEquals(0, breaker.getConsecutiveFailures());
+    }
+
+    /**
+     * Test of the requests which are not retried, of class ResilienceFilter.
+     */
+    @Test
+    public void testNoRetry() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 5, 60000);
+        final ResilienceFilter filter = createFilter(new RetryPolicy(3, 1, 1, 0), breaker);
+        statuses.add(Status.SERVER_ERROR_SERVICE_UNAVAILABLE);
+        assertEquals(Status.SERVER_ERROR_SERVICE_UNAVAILABLE, handle(filter, Method.POST));
+        statuses.add(Status.SERVER_ERROR_INTERNAL);
+        assertEquals(Status.SERVER_ERROR_INTERNAL, handle(filter, Method.GET));
+        statuses.add(Status.CLIENT_ERROR_NOT_FOUND);
+        assertEquals(Status.CLIENT_ERROR_NOT_FOUND, handle(filter, Method.PUT));
+        assertEquals(3, nbCalls.get());
+        assertEquals(0, breaker.getNbRetries());
+        assertEquals(1, breaker.getNbFailures());
+    }
+
+    /**
+     * Test of the maximum number of attempts, of class ResilienceFilter.
+     */
+    @Test
+    public void testMaxAttempts() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 0, 0);
+        final ResilienceFilter filter = createFilter(new RetryPolicy(2, 1, 1, 0), breaker);
+        statuses.addAll(Arrays.asList(Status.SERVER_ERROR_GATEWAY_TIMEOUT,
+                Status.SERVER_ERROR_GATEWAY_TIMEOUT, Status.SUCCESS_OK));
+        assertEquals(Status.SERVER_ERROR_GATEWAY_TIMEOUT, handle(filter, Method.DELETE));
+        assertEquals(2, nbCalls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Test of the deadline, of class ResilienceFilter.
+     */
+    @Test
+    public void testDeadline() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 0, 0);
+        final ResilienceFilter filter = createFilter(new RetryPolicy(10, 200, 200, 150),
+                breaker);
+        for (int i = 0; i < 10; i++) {
+            statuses.add(Status.SERVER_ERROR_SERVICE_UNAVAILABLE);
+        }
+        final long start = System.currentTimeMillis();
+        assertEquals(Status.SERVER_ERROR_SERVICE_UNAVAILABLE, handle(filter, Method.GET));
+        assertTrue(nbCalls.get() <= 2);
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    /**
+     * Test of the timeout of each attempt, of class ResilienceFilter. The
+     * timeout is limited to the time remaining before the deadline.
+     */
+    @Test
+    public void testAttemptTimeout() {
+        final List<Object> timeouts = new CopyOnWriteArrayList<>();
+        final ResilienceFilter filter = createFilter(new RetryPolicy(2, 100, 100, 1000),
+                new CircuitBreaker("test", 0, 0), (request, response) -> {
+                    timeouts.add(request.getAttributes().get(
+                            HttpDOIClientHelper.MAX_TIMEOUT_ATTRIBUTE));
+                    response.setStatus(statuses.poll());
+                });
+        statuses.addAll(Arrays.asList(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                Status.SUCCESS_OK));
+        assertEquals(Status.SUCCESS_OK, handle(filter, Method.GET));
+        assertEquals(2, timeouts.size());
+        assertTrue((Integer) timeouts.get(0) <= 1000);
+        assertTrue((Integer) timeouts.get(1) <= 950);
+        assertTrue((Integer) timeouts.get(1) > 0);
+    }
+
+    /**
+     * Test of Retry-After, of class ResilienceFilter. The delay asked by the
+     * service is respected and a too long delay stops the retries.
+     */
+    @Test
+    public void testRetryAfter() {
+        final long[] retryAfter = {300};
+        final ResilienceFilter filter = createFilter(new RetryPolicy(3, 1, 1000, 0),
+                new CircuitBreaker("test", 0, 0), (request, response) -> {
+                    nbCalls.incrementAndGet();
+                    response.setStatus(statuses.poll());
+                    if (response.getStatus().getCode() == 429) {
+                        response.setRetryAfter(
+                                new Date(System.currentTimeMillis() + retryAfter[0]));
+                    }
+                });
+        statuses.addAll(Arrays.asList(Status.valueOf(429), Status.SUCCESS_OK));
+        final long start = System.currentTimeMillis();
+        assertEquals(Status.SUCCESS_OK, handle(filter, Method.GET));
+        assertTrue(System.currentTimeMillis() - start >= 250);
+        assertEquals(2, nbCalls.get());
+
+        retryAfter[0] = 60000;
+        statuses.addAll(Arrays.asList(Status.valueOf(429), Status.SUCCESS_OK));
+        assertEquals(429, handle(filter, Method.GET).getCode());
+        assertEquals(3, nbCalls.get());
+        statuses.clear();
+    }
+
+    /**
+     * Test of the trial request of a half-open breaker failing with an
+     * exception, of class ResilienceFilter. The trial ends so that another
+     * trial is sent.
+     */
+    @Test
+    public void testTrialException() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 1, 0);
+        final ResilienceFilter filter = createFilter(new RetryPolicy(1, 1, 1, 0), breaker,
+                (request, response) -> {
+                    nbCalls.incrementAndGet();
+                    final Status status = statuses.poll();
+                    if (status == null) {
+                        throw new IllegalStateException("connector failure");
+                    }
+                    response.setStatus(status);
+                });
+        assertTrue(breaker.tryAcquire(0));
+        breaker.onFailure(0);
+        try {
+            handle(filter, Method.GET);
+            fail("The exception of the connector should be thrown");
+        } catch (IllegalStateException ex) {
+            assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        }
+        statuses.add(Status.SUCCESS_OK);
+        assertEquals(Status.SUCCESS_OK, handle(filter, Method.GET));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(2, nbCalls.get());
+    }
+
+    /**
+     * Test of the fail fast of an open breaker, of class ResilienceFilter.
+     */
+    @Test
+    public void testFailFast() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 2, 60000);
+        final ResilienceFilter filter = createFilter(new RetryPolicy(1, 1, 1, 0), breaker);
+        statuses.addAll(Arrays.asList(Status.SERVER_ERROR_BAD_GATEWAY,
+                Status.SERVER_ERROR_BAD_GATEWAY, Status.SUCCESS_OK));
+        handle(filter, Method.GET);
+        handle(filter, Method.GET);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(Status.SERVER_ERROR_SERVICE_UNAVAILABLE.getCode(),
+                handle(filter, Method.GET).getCode());
+        assertEquals(2, nbCalls.get());
+        assertEquals(1, breaker.getNbRejected());
+        assertEquals(1, breaker.getNbOpened());
+    }
+
+    /**
+     * Test of the half-open state, of class CircuitBreaker.
+     */
+    @Test
+    public void testHalfOpen() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", 1, 1000);
+        assertTrue(breaker.tryAcquire(0));
+        breaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(999));
+
+        assertTrue(breaker.tryAcquire(1000));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(1000));
+        breaker.onFailure(1000);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(1500));
+
+        assertTrue(breaker.tryAcquire(2000));
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire(2000));
+        assertTrue(breaker.tryAcquire(2000));
+        assertEquals(2, breaker.getNbOpened());
+        assertEquals(3, breaker.getNbRejected());
+    }
+
+    /**
+     * Test of getBackoff method, of class RetryPolicy.
+     */
+    @Test
+    public void testBackoff() {
+        final RetryPolicy policy = new RetryPolicy(10, 100, 1000, 0);
+        for (int i = 0; i < 100; i++) {
+            final long first = policy.getBackoff(1);
+            assertTrue(first >= 50 && first <= 100);
+            final long third = policy.getBackoff(3);
+            assertTrue(third >= 200 && third <= 400);
+            final long last = policy.getBackoff(40);
+            assertTrue(last >= 500 && last <= 1000);
+        }
+    }
+
+    /**
+     * Test of isRetriable method, of class RetryPolicy.
+     */
+    @Test
+    public void testIsRetriable() {
+        assertTrue(RetryPolicy.isRetriable(Method.GET, Status.valueOf(429)));
+        assertTrue(RetryPolicy.isRetriable(Method.HEAD, Status.CLIENT_ERROR_REQUEST_TIMEOUT));
+        assertFalse(RetryPolicy.isRetriable(Method.POST, Status.SERVER_ERROR_BAD_GATEWAY));
+        assertFalse(RetryPolicy.isRetriable(Method.GET, Status.SERVER_ERROR_INTERNAL));
+        assertFalse(RetryPolicy.isRetriable(Method.GET, Status.SUCCESS_OK));
+    }
+
+    /**
+     * Creates a filter in front of a remote service returning the queued
+     * statuses.
+     *
+     * @param policy retry policy
+     * @param breaker circuit breaker
+     * @return the filter
+     */
+    private ResilienceFilter createFilter(final RetryPolicy policy,
+            final CircuitBreaker breaker) {
+        final Restlet service = new Restlet() {
+            @Override
+            public void handle(final Request request, final Response response) {
+                nbCalls.incrementAndGet();
+                response.setStatus(statuses.poll());
+            }
+        };
+        return new ResilienceFilter(null, service, policy, request -> breaker);
+    }
+
+    /**
+     * Creates a filter in front of a remote service.
+     *
+     * @param policy retry policy
+     * @param breaker circuit breaker
+     * @param service handles the requests of the remote service
+     * @return the filter
+     */
+    private static ResilienceFilter createFilter(final RetryPolicy policy,
+            final CircuitBreaker breaker, final Uniform service) {
+        return new ResilienceFilter(null, new Restlet() {
+            @Override
+            public void handle(final Request request, final Response response) {
+                service.handle(request, response);
+            }
+        }, policy, request -> breaker);
+    }
+
+    /**
+     * Sends a request through the filter.
+     *
+     * @param filter filter
+     * @param method method of the request
+     * @return the status of the response
+     */
+    private static Status handle(final ResilienceFilter filter, final Method method) {
+        final Request request = new Request(method, URI);
+        final Response response = new Response(request);
+        filter.handle(request, response);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.db;
+
+import fr.cnes.doi.UnitTest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.Application;
+import org.restlet.data.ClientInfo;
+import org.restlet.security.Group;
+import org.restlet.security.Role;
+import org.restlet.security.User;
+
+/**
+ * Test class for {@link fr.cnes.doi.db.MyMemoryRealm}
+ */
+@Category(UnitTest.class)
+public class MyMemoryRealmTest {
+
+    public MyMemoryRealmTest() {
+    }
+
+    /**
+     * Test of findUser method when the list of users is changed, of class
+     * MyMemoryRealm.
+     */
+    @Test
+    public void testFindUser() {
+        MyMemoryRealm realm = new MyMemoryRealm();
+        User jc = new User("jc");
+        List<User> users = new ArrayList<>();
+        users.add(jc);
+        users.add(new User("claire"));
+        realm.setUsers(users);
+        assertSame(jc, realm.findUser("jc"));
+
+        realm.getUsers().remove(jc);
+        assertNull(realm.findUser("jc"));
+        assertNotNull(realm.findUser("claire"));
+
+        User other = new User("jc");
+        realm.getUsers().add(other);
+        assertSame(other, realm.findUser("jc"));
+
+        Iterator<User> iter = realm.getUsers().iterator();
+        while (iter.hasNext()) {
+            if ("claire".equals(iter.next().getIdentifier())) {
+                iter.remove();
+            }
+        }
+        assertNull(realm.findUser("claire"));
+        assertEquals(1, realm.getUsers().size());
+    }
+
+    /**
+     * Test of map, unmap and findRoles methods, of class MyMemoryRealm.
+     */
+    @Test
+    public void testMapAndFindRoles() {
+        MyMemoryRealm realm = new MyMemoryRealm();
+        Application app = new Application();
+        Application otherApp = new Application();
+        User user = new User("jc");
+        Group group = new Group("admin", "Administrators");
+        Role project = new Role(app, "100", "project");
+        Role admin = new Role(app, "admin", "admin");
+        Role other = new Role(otherApp, "200", "project");
+        realm.map(user, project);
+        realm.map(user, other);
+        realm.map(group, admin);
+
+        assertEquals(2, realm.findRoles(user).size());
+        assertEquals(1, realm.findRoles(app, user).size());
+        assertTrue(realm.findRoles(app, group).contains(admin));
+        assertTrue(realm.findRoles(otherApp, group).isEmpty());
+
+        realm.unmap(user, project);
+        assertFalse(realm.findRoles(user).contains(project));
+        assertTrue(realm.findRoles(user).contains(other));
+        realm.unmap(user, other);
+        assertTrue(realm.findRoles(user).isEmpty());
+    }
+
+    /**
+     * Test of the enroler, of class MyMemoryRealm.
+     */
+    @Test
+    public void testEnrole() {
+        Application app = new Application();
+        MyMemoryRealm realm = createRealm(app, 10);
+        ClientInfo clientInfo = new ClientInfo();
+        clientInfo.setUser(new User("user9"));
+        realm.getEnroler().enrole(clientInfo);
+        assertEquals(2, clientInfo.getRoles().size());
+    }
+
+    /**
+     * Test of the enrolment cache invalidation, of class MyMemoryRealm.
+     */
+    @Test
+    public void testEnrolmentCache() {
+        Application app = new Application();
+        MyMemoryRealm realm = createRealm(app, 10);
+        assertEquals(2, enrole(realm, 10, 1));
+        assertEquals(2, enrole(realm, 10, 1));
+        assertEquals(1, realm.getNbEnrolmentRebuilds());
+        assertEquals(1, realm.getNbEnrolmentHits());
+        assertEquals(0.5, realm.getEnrolmentHitRate(), 0.0001);
+
+        // a new role mapping
+        Role project = new Role(app, "200", "project 200");
+        realm.map(realm.findUser("user9"), project);
+        assertEquals(3, enrole(realm, 10, 1));
+
+        // a role mapping removed
+        realm.unmap(realm.findUser("user9"), project);
+        assertEquals(2, enrole(realm, 10, 1));
+
+        // the user leaves the administrators group
+        Group admin = realm.getRootGroups().get(0);
+        realm.removeMemberUser(admin, realm.findUser("user9"));
+        assertEquals(1, enrole(realm, 10, 1));
+
+        // the user joins the administrators group
+        realm.addMemberUser(admin, realm.findUser("user9"));
+        assertEquals(2, enrole(realm, 10, 1));
+
+        // the administrators group is removed
+        realm.getRootGroups().remove(admin);
+        assertEquals(1, enrole(realm, 10, 1));
+
+        // the user is replaced by a new user having the same identifier
+        realm.getUsers().remove(realm.findUser("user9"));
+        realm.getUsers().add(new User("user9"));
+        assertEquals(0, enrole(realm, 10, 1));
+
+        assertEquals(1, realm.getNbEnrolmentHits());
+        assertEquals(7, realm.getNbEnrolmentRebuilds());
+        assertTrue(realm.getEnrolmentRebuildTime() > 0);
+    }
+
+    /**
+     * Test of the enrolment as the realm grows. The cost of the enrolment is
+     * measured by RealmBenchmark in the benchmarks module.
+     */
+    @Test
+    public void testEnrolmentAsRealmGrows() {
+        Application app = new Application();
+        for (int nbUsers : new int[]{100, 1000, 10000}) {
+            MyMemoryRealm realm = createRealm(app, nbUsers);
+            assertEquals(4, enrole(realm, nbUsers, 2));
+            assertEquals(1, realm.getNbEnrolmentHits());
+            assertEquals(1, realm.getNbEnrolmentRebuilds());
+        }
+    }
+
+    /**
+     * Creates a realm with a number of users, each user mapped to its own
+     * project, and an administrators group containing the last user.
+     *
+     * @param app application of the roles
+     * @param nbUsers number of users
+     * @return the realm
+     */
+    private MyMemoryRealm createRealm(final Application app, final int nbUsers) {
+        MyMemoryRealm realm = new MyMemoryRealm();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < nbUsers; i++) {
+            users.add(new User("user" + i));
+        }
+        realm.setUsers(users);
+        for (int i = 0; i < nbUsers; i++) {
+            realm.map(users.get(i), new Role(app, String.valueOf(i), "project " + i));
+        }
+        Group admin = new Group("admin", "Administrators");
+        admin.getMemberUsers().add(users.get(nbUsers - 1));
+        realm.getRootGroups().add(admin);
+        realm.map(admin, Role.get(app, "admin"));
+        return realm;
+    }
+
+    /**
+     * Enroles the administrator, which is the last user of the realm, a
+     * number of times.
+     *
+     * @param realm realm
+     * @param nbUsers number of users in the realm
+     * @param nbEnrolments number of enrolments
+     * @return the total number of roles given to the user
+     */
+    private int enrole(final MyMemoryRealm realm, final int nbUsers, final int nbEnrolments) {
+        int nbRoles = 0;
+        for (int i = 0; i < nbEnrolments; i++) {
+            ClientInfo clientInfo = new ClientInfo();
+            clientInfo.setUser(new User("user" + (nbUsers - 1)));
+            realm.getEnroler().enrole(clientInfo);
+            nbRoles += clientInfo.getRoles().size();
+        }
+        return nbRoles;
+    }
+}
@@ -20,6 +20,7 @@ package fr.cnes.doi.persistence;
 
 import fr.cnes.doi.InitSettingsForTest;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.fail;
 
 import java.util.List;
@@ -33,6 +34,7 @@ import fr.cnes.doi.exception.DOIDbException;
 import fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl;
 import fr.cnes.doi.db.model.DOIProject;
 import fr.cnes.doi.db.model.DOIUser;
+import fr.cnes.doi.db.model.LandingPageState;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MAX_ACTIVE_CONNECTIONS;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MAX_IDLE_CONNECTIONS;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_MIN_IDLE_CONNECTIONS;
@@ -41,6 +43,7 @@ import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_URL;
 import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_USER;
 import fr.cnes.doi.plugin.impl.db.service.DOIDbDataAccessService;
 import fr.cnes.doi.settings.DoiSettings;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.BeforeClass;
@@ -157,6 +160,133 @@ public class DOIDBTest {
 	}
     }
 
+    @Test
+    public void testDoiProjectAssignations() {
+	try {
+	    das.addDOIProject(testProject.getSuffix(), testProject.getProjectname());
+	    das.addDOIUser(testuser.getUsername(), testuser.isAdmin(), testuser.getEmail());
+	    das.addDOIProjectToUser(testuser.getUsername(), testProject.getSuffix());
+	    Map<Integer, List<DOIUser>> assignations = das.getAllDOIProjectAssignations();
+	    assertEquals(1, assignations.get(testProject.getSuffix()).size());
+	    assertEquals(true, assignations.get(testProject.getSuffix()).get(0).isEqualTo(testuser));
+	    das.removeDOIProjectFromUser(testuser.getUsername(), testProject.getSuffix());
+	    assertEquals(false, das.getAllDOIProjectAssignations().containsKey(
+		    testProject.getSuffix()));
+	} catch (DOIDbException e) {
+	    logger.error("testDoiProjectAssignations failed: unexpected exception: ", e);
+	    fail();
+	}
+    }
+
+    @Test
+    public void testTokens() {
+	final String token = "doidbtesttoken";
+	try {
+	    das.deleteToken(token);
+	    assertEquals(das.isTokenExist(token), false);
+	    das.addToken(token);
+	    assertEquals(das.isTokenExist(token), true);
+	    das.deleteToken(token);
+	    assertEquals(das.isTokenExist(token), false);
+	} catch (DOIDbException e) {
+	    logger.error("testTokens failed: unexpected exception: ", e);
+	    fail();
+	}
+    }
+
+    @Test
+    public void testLandingPageStates() {
+	final LandingPageState state = new LandingPageState();
+	state.setDoi("10.5072/828606/landingpagetest");
+	state.setStatus(404);
+	state.setFirstSeen(1000L);
+	state.setLastCheck(2000L);
+	state.setFailures(1);
+	try {
+	    das.saveLandingPageStates(Arrays.asList(state));
+	    state.setStatus(200);
+	    state.setLastCheck(3000L);
+	    state.setFailures(0);
+	    das.saveLandingPageStates(Arrays.asList(state));
+	    LandingPageState saved = null;
+	    for (final LandingPageState current : das.getLandingPageStates()) {
+		if (state.getDoi().equals(current.getDoi())) {
+		    saved = current;
+		}
+	    }
+	    assertEquals(200, saved.getStatus());
+	    assertEquals(1000L, saved.getFirstSeen());
+	    assertEquals(3000L, saved.getLastCheck());
+	    assertEquals(0, saved.getFailures());
+	    das.deleteLandingPageStates(Arrays.asList(state.getDoi()));
+	    for (final LandingPageState current : das.getLandingPageStates()) {
+		assertNotEquals(state.getDoi(), current.getDoi());
+	    }
+	} catch (DOIDbException e) {
+	    logger.error("testLandingPageStates failed: unexpected exception: ", e);
+	    fail();
+	}
+    }
+
+    @Test
+    public void testBatchUsersAndAssignations() {
+	final DOIUser otherUser = new DOIUser();
+	otherUser.setUsername("otheruser");
+	otherUser.setAdmin(true);
+	otherUser.setEmail("otheruser@mail.com");
+	final List<String> usernames = Arrays.asList(testuser.getUsername(), otherUser.getUsername());
+	try {
+	    das.removeDOIUsers(usernames);
+	    das.addDOIProject(testProject.getSuffix(), testProject.getProjectname());
+	    das.addDOIUsers(Arrays.asList(testuser, otherUser));
+	    assertEquals(2, das.getAllDOIusers().size());
+	    das.addDOIProjectToUsers(usernames, testProject.getSuffix());
+	    assertEquals(2, das.getAllDOIUsersForProject(testProject.getSuffix()).size());
+	    das.removeDOIProjectFromUsers(Arrays.asList(otherUser.getUsername()), testProject.getSuffix());
+	    assertEquals(1, das.getAllDOIUsersForProject(testProject.getSuffix()).size());
+	    das.removeDOIUsers(usernames);
+	    assertEquals(0, das.getAllDOIusers().size());
+	    assertEquals(0, das.getAllDOIUsersForProject(testProject.getSuffix()).size());
+	} catch (DOIDbException e) {
+	    logger.error("testBatchUsersAndAssignations failed: unexpected exception: ", e);
+	    fail();
+	}
+    }
+
+    @Test
+    public void testBatchAssignationsRollbackCase() {
+	try {
+	    das.addDOIProject(testProject.getSuffix(), testProject.getProjectname());
+	    das.addDOIUser(testuser.getUsername(), testuser.isAdmin(), testuser.getEmail());
+	    das.addDOIProjectToUsers(Arrays.asList(testuser.getUsername(), "unknownuser"),
+		    testProject.getSuffix());
+	    fail();
+	} catch (DOIDbException e) {
+	    try {
+		assertEquals(0, das.getAllDOIProjectsForUser(testuser.getUsername()).size());
+	    } catch (DOIDbException ex) {
+		fail();
+	    }
+	}
+    }
+
+    @Test
+    public void testBatchTokens() {
+	final List<String> tokens = Arrays.asList("doidbtesttoken1", "doidbtesttoken2");
+	try {
+	    das.deleteTokens(tokens);
+	    das.addTokens(tokens);
+	    assertEquals(das.isTokenExist(tokens.get(0)), true);
+	    assertEquals(das.isTokenExist(tokens.get(1)), true);
+	    das.deleteTokens(tokens);
+	    assertEquals(das.isTokenExist(tokens.get(0)), false);
+	    assertEquals(das.isTokenExist(tokens.get(1)), false);
+	} catch (DOIDbException e) {
+	    logger.error("testBatchTokens failed: unexpected exception: ", e);
+	    fail();
+	}
+    }
+
     @Test
     public void testDoiProjectsUsersAssignationsExceptionRaisedCase() {
 	try {
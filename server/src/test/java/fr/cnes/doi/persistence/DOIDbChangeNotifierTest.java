@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.persistence;
+
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.plugin.impl.db.DefaultTokenImpl;
+import fr.cnes.doi.plugin.impl.db.impl.DOIDbChangeNotifier;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChange;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChangeListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.plugin.impl.db.impl.DOIDbChangeNotifier}
+ */
+@Category(UnitTest.class)
+public class DOIDbChangeNotifierTest {
+
+    /**
+     * Test of parse method, of class DOIDbChangeNotifier.
+     *
+     * @throws IOException When the payload cannot be parsed
+     */
+    @Test
+    public void testParse() throws IOException {
+        DOIDbChange change = DOIDbChangeNotifier.parse("{\"table\":\"t_doi_users\","
+                + "\"operation\":\"UPDATE\",\"row\":{\"username\":\"malapert\","
+                + "\"admin\":true}}");
+        assertTrue(change.isOn(DOIDbChange.TABLE_USERS));
+        assertEquals(DOIDbChange.Operation.UPDATE, change.getOperation());
+        assertEquals("malapert", change.getValue("username"));
+        assertEquals("true", change.getValue("admin"));
+        assertNull(change.getValue("suffix"));
+
+        change = DOIDbChangeNotifier.parse("{\"table\":\"t_doi_assignations\","
+                + "\"operation\":\"DELETE\",\"row\":{\"username\":\"malapert\",\"suffix\":1234}}");
+        assertTrue(change.isOn(DOIDbChange.TABLE_ASSIGNATIONS));
+        assertEquals("1234", change.getValue("suffix"));
+    }
+
+    /**
+     * Test of parse method with an unknown operation, of class
+     * DOIDbChangeNotifier.
+     *
+     * @throws IOException When the payload cannot be parsed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseUnknownOperation() throws IOException {
+        DOIDbChangeNotifier.parse("{\"table\":\"t_doi_tokens\",\"operation\":\"TRUNCATE\"}");
+    }
+
+    /**
+     * Test of the token hash, which must match the hash notified by the
+     * database trigger : encode(sha256(convert_to(token, 'UTF8')), 'hex').
+     */
+    @Test
+    public void testTokenHash() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                DefaultTokenImpl.hashToken("abc"));
+    }
+
+    /**
+     * Test of dispatch method, of class DOIDbChangeNotifier.
+     */
+    @Test
+    public void testDispatch() {
+        final List<DOIDbChange> changes = new ArrayList<>();
+        final int[] nbResynchronizations = {0};
+        final DOIDbChangeListener listener = new DOIDbChangeListener() {
+            @Override
+            public void onChange(final DOIDbChange change) {
+                changes.add(change);
+            }
+
+            @Override
+            public void onResynchronization() {
+                nbResynchronizations[0]++;
+            }
+        };
+        final DOIDbChangeNotifier notifier = new DOIDbChangeNotifier(null, Arrays.asList(
+                listener));
+        notifier.dispatch("{\"table\":\"t_doi_tokens\",\"operation\":\"DELETE\","
+                + "\"row\":{\"token_hash\":\"abc\"}}");
+        assertEquals(1, changes.size());
+        assertEquals("abc", changes.get(0).getValue("token_hash"));
+        assertEquals(0, nbResynchronizations[0]);
+
+        // an unreadable change cannot be applied so everything is reloaded
+        notifier.dispatch("not a json payload");
+        assertEquals(1, changes.size());
+        assertEquals(1, nbResynchronizations[0]);
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.plugin.impl.db;
+
+import fr.cnes.doi.UnitTest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.plugin.impl.db.DefaultLDAPImpl}
+ */
+@Category(UnitTest.class)
+public class DefaultLDAPImplTest {
+
+    /**
+     * Password accepted by the LDAP.
+     */
+    private static final String PASSWORD = "secret";
+
+    /**
+     * Number of binds.
+     */
+    private final AtomicInteger nbBinds = new AtomicInteger();
+
+    /**
+     * True when the LDAP accepts the password.
+     */
+    private final AtomicBoolean accepted = new AtomicBoolean(true);
+
+    /**
+     * LDAP plugin accepting a single password without binding to a LDAP.
+     */
+    private DefaultLDAPImpl ldap;
+
+    public DefaultLDAPImplTest() {
+    }
+
+    @Before
+    public void setUp() {
+        ldap = new DefaultLDAPImpl((login, password) -> {
+            nbBinds.incrementAndGet();
+            return accepted.get() && PASSWORD.equals(password);
+        });
+        ldap.setConfiguration(createConfiguration("60"));
+    }
+
+    /**
+     * Test of authenticateUser method, of class DefaultLDAPImpl : a successful
+     * authentication is served from the cache.
+     */
+    @Test
+    public void testAuthenticateUserCached() {
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        assertEquals(1, nbBinds.get());
+
+        assertFalse(ldap.authenticateUser("malapert", "wrong"));
+        assertEquals(2, nbBinds.get());
+    }
+
+    /**
+     * Test of authenticateUser method, of class DefaultLDAPImpl : a failed
+     * authentication removes the cached authentication of the user.
+     */
+    @Test
+    public void testAuthenticateUserFailure() {
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        accepted.set(false);
+        assertFalse(ldap.authenticateUser("malapert", "wrong"));
+        assertFalse(ldap.authenticateUser("malapert", PASSWORD));
+        assertEquals(3, nbBinds.get());
+    }
+
+    /**
+     * Test of authenticateUser method, of class DefaultLDAPImpl, without login
+     * or password.
+     */
+    @Test
+    public void testAuthenticateUserNull() {
+        assertFalse(ldap.authenticateUser(null, PASSWORD));
+        assertFalse(ldap.authenticateUser("malapert", null));
+        assertEquals(0, nbBinds.get());
+    }
+
+    /**
+     * Test of clearAuthenticationCache method, of class DefaultLDAPImpl.
+     */
+    @Test
+    public void testClearAuthenticationCache() {
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        ldap.clearAuthenticationCache();
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        assertEquals(2, nbBinds.get());
+
+        ldap.release();
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        assertEquals(3, nbBinds.get());
+    }
+
+    /**
+     * Test of authenticateUser method, of class DefaultLDAPImpl, when the cache
+     * is disabled.
+     */
+    @Test
+    public void testAuthenticateUserWithoutCache() {
+        ldap.setConfiguration(createConfiguration("0"));
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        assertTrue(ldap.authenticateUser("malapert", PASSWORD));
+        assertEquals(2, nbBinds.get());
+    }
+
+    /**
+     * Creates the configuration of the plugin.
+     *
+     * @param cacheTtl time to live of the authentication cache in seconds
+     * @return the configuration
+     */
+    private Map<String, String> createConfiguration(final String cacheTtl) {
+        final Map<String, String> conf = new HashMap<>();
+        conf.put(DefaultLDAPImpl.LDAP_URL, "ldap://localhost:389");
+        conf.put(DefaultLDAPImpl.LDAP_USER, "admin");
+        conf.put(DefaultLDAPImpl.LDAP_PWD, "password");
+        conf.put(DefaultLDAPImpl.LDAP_CACHE_TTL, cacheTtl);
+        return conf;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.plugin.impl.db;
+
+import fr.cnes.doi.InitSettingsForTest;
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.db.model.DOIProject;
+import fr.cnes.doi.exception.DOIDbException;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbChange;
+import fr.cnes.doi.plugin.impl.db.service.DOIDbDataAccessService;
+import fr.cnes.doi.plugin.impl.db.service.DatabaseSingleton;
+import fr.cnes.doi.settings.DoiSettings;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_PWD;
+import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_URL;
+import static fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl.DB_USER;
+
+/**
+ * Test class for the project cache of
+ * {@link fr.cnes.doi.plugin.impl.db.DefaultProjectSuffixImpl}
+ */
+@Category(UnitTest.class)
+public class DefaultProjectSuffixImplTest {
+
+    /**
+     * Suffix of the test project.
+     */
+    private static final int SUFFIX = 1011;
+
+    /**
+     * Name of the test project.
+     */
+    private static final String PROJECT_NAME = "doiprojectcachetest";
+
+    private static boolean isDatabaseConfigured;
+
+    /**
+     * Plugin under test.
+     */
+    private DefaultProjectSuffixImpl projects;
+
+    /**
+     * Database access changing the projects behind the plugin.
+     */
+    private DOIDbDataAccessService das;
+
+    public DefaultProjectSuffixImplTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        try {
+            isDatabaseConfigured = true;
+            InitSettingsForTest.init(InitSettingsForTest.CONFIG_TEST_PROPERTIES);
+        } catch (Error ex) {
+            isDatabaseConfigured = false;
+        }
+    }
+
+    @Before
+    public void setUp() throws DOIDbException {
+        Assume.assumeTrue("Database is not configured, please configure it and rerun the tests",
+                isDatabaseConfigured);
+        final Map<String, String> conf = new HashMap<>();
+        conf.put(DB_URL, DoiSettings.getInstance().getString(DB_URL));
+        conf.put(DB_USER, DoiSettings.getInstance().getString(DB_USER));
+        conf.put(DB_PWD, DoiSettings.getInstance().getString(DB_PWD));
+        conf.put(DefaultProjectSuffixImpl.PROJECT_CACHE_REFRESH_PERIOD, "0");
+        projects = new DefaultProjectSuffixImpl();
+        projects.setConfiguration(conf);
+        projects.initConnection();
+        das = DatabaseSingleton.getInstance().getDatabaseAccess();
+        das.removeDOIProject(SUFFIX);
+    }
+
+    @After
+    public void tearDown() throws DOIDbException {
+        if (das != null) {
+            das.removeDOIProject(SUFFIX);
+        }
+    }
+
+    /**
+     * Test of the project cache, of class DefaultProjectSuffixImpl : the
+     * changes made through the plugin are seen at once.
+     *
+     * @throws DOIDbException - if a database error happens
+     */
+    @Test
+    public void testCacheFollowsChanges() throws DOIDbException {
+        assertFalse(projects.isExistID(SUFFIX));
+        assertTrue(projects.addProjectSuffix(SUFFIX, PROJECT_NAME));
+        assertTrue(projects.isExistID(SUFFIX));
+        assertTrue(projects.isExistProjectName(PROJECT_NAME));
+        assertEquals(PROJECT_NAME, projects.getProjectFrom(SUFFIX));
+        assertEquals(SUFFIX, projects.getIDFrom(PROJECT_NAME));
+
+        assertTrue(projects.renameProject(SUFFIX, PROJECT_NAME + "renamed"));
+        assertEquals(PROJECT_NAME + "renamed", projects.getProjectFrom(SUFFIX));
+        assertFalse(projects.isExistProjectName(PROJECT_NAME));
+
+        assertTrue(projects.deleteProject(SUFFIX));
+        assertFalse(projects.isExistID(SUFFIX));
+        assertNull(projects.getProjectFrom(SUFFIX));
+    }
+
+    /**
+     * Test of getProjects method, of class DefaultProjectSuffixImpl : the
+     * returned list is a copy, which does not change the cache.
+     *
+     * @throws DOIDbException - if a database error happens
+     */
+    @Test
+    public void testGetProjectsReturnsCopy() throws DOIDbException {
+        assertTrue(projects.addProjectSuffix(SUFFIX, PROJECT_NAME));
+        final List<DOIProject> result = projects.getProjects();
+        assertTrue(result.removeIf(project -> project.getSuffix() == SUFFIX));
+        assertTrue(projects.isExistID(SUFFIX));
+        assertEquals(result.size() + 1, projects.getProjects().size());
+    }
+
+    /**
+     * Test of onChange and onResynchronization methods, of class
+     * DefaultProjectSuffixImpl : a change made by another server is seen once
+     * it is notified.
+     *
+     * @throws DOIDbException - if a database error happens
+     */
+    @Test
+    public void testCacheDroppedOnNotification() throws DOIDbException {
+        projects.getProjects();
+        das.addDOIProject(SUFFIX, PROJECT_NAME);
+        projects.onChange(new DOIDbChange(DOIDbChange.TABLE_PROJECTS,
+                DOIDbChange.Operation.INSERT, Collections.emptyMap()));
+        assertEquals(PROJECT_NAME, projects.getProjectFrom(SUFFIX));
+
+        das.renameDOIProject(SUFFIX, PROJECT_NAME + "renamed");
+        projects.onResynchronization();
+        assertEquals(PROJECT_NAME + "renamed", projects.getProjectFrom(SUFFIX));
+    }
+}
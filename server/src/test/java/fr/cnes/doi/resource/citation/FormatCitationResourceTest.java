@@ -30,6 +30,8 @@ import static fr.cnes.doi.server.DoiServer.JKS_FILE;
 import static fr.cnes.doi.server.DoiServer.RESTLET_MAX_CONNECTIONS_PER_HOST;
 import static fr.cnes.doi.server.DoiServer.RESTLET_MAX_TOTAL_CONNECTIONS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 
@@ -40,9 +42,11 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.restlet.Client;
 import org.restlet.Context;
+import org.restlet.data.CacheDirective;
 import org.restlet.data.Parameter;
 import org.restlet.data.Protocol;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.representation.Representation;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
@@ -199,13 +203,41 @@ public class FormatCitationResourceTest {
 	    result = rep.getText();
 	} catch (IOException ex) {
 	}
+	final boolean isRevalidated = client.getResponse().getCacheDirectives()
+		.contains(CacheDirective.noCache());
 	client.release();
 	assertEquals("Test the citation format through a HTTP server", expResult, result);
+	assertTrue("Test the citation is revalidated by the clients", isRevalidated);
 
 	spec.verifySpec(CrossCiteSpec.Spec.GET_FORMAT_200);
 
     }
 
+    /**
+     * Test of getFormat method with the tag of the current citation, of class
+     * FormatCitationResource. The 304 response carries the tag.
+     */
+    @Test
+    public void testGetFormatNotModified() {
+	spec.createSpec(CrossCiteSpec.Spec.GET_FORMAT_200);
+
+	String port = DoiSettings.getInstance().getString(Consts.SERVER_HTTP_PORT);
+	ClientResource client = new ClientResource("http://localhost:" + port + "/citation/format");
+	client.addQueryParameter("doi", "10.1145/2783446.2783605");
+	client.addQueryParameter("lang", "af-ZA");
+	client.addQueryParameter("style", "academy-of-management-review");
+	client.setNext(cl);
+	final Tag tag = client.get().getTag();
+	assertNotNull("Test the citation is tagged", tag);
+	client.getConditions().getNoneMatch().add(tag);
+	final Representation rep = client.get();
+	final Status status = client.getStatus();
+	client.release();
+	assertEquals("Test the citation is not modified", Status.REDIRECTION_NOT_MODIFIED, status);
+	assertNotNull("Test the 304 response carries the tag", rep);
+	assertEquals("Test the 304 response carries the tag", tag, rep.getTag());
+    }
+
     /**
      * Test of getFormat method with a wrong DOI, of class FormatCitationResource. A
      * Status.CLIENT_ERROR_NOT_FOUND is expected because the DOI does not exist.
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.resource.mds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import org.restlet.data.Status;
+
+/**
+ * Throughput, latency percentiles and errors by endpoint of a load test.
+ */
+public class LoadStatistics {
+
+    /**
+     * Statistics by endpoint, sorted by name.
+     */
+    private final Map<String, EndpointStatistics> endpoints = new ConcurrentSkipListMap<>();
+
+    /**
+     * Records a request.
+     *
+     * @param endpoint endpoint name
+     * @param status status of the response
+     * @param duration duration of the request in ns
+     */
+    public void record(final String endpoint, final Status status, final long duration) {
+        this.endpoints.computeIfAbsent(endpoint, name -> new EndpointStatistics())
+                .record(status, duration);
+    }
+
+    /**
+     * Returns the number of requests of all the endpoints.
+     *
+     * @return the number of requests
+     */
+    public int getNbRequests() {
+        int nbRequests = 0;
+        for (final EndpointStatistics statistics : this.endpoints.values()) {
+            nbRequests += statistics.getNbRequests();
+        }
+        return nbRequests;
+    }
+
+    /**
+     * Returns the number of failed requests of all the endpoints.
+     *
+     * @return the number of errors
+     */
+    public int getNbErrors() {
+        int nbErrors = 0;
+        for (final EndpointStatistics statistics : this.endpoints.values()) {
+            nbErrors += statistics.getNbErrors();
+        }
+        return nbErrors;
+    }
+
+    /**
+     * Writes the statistics as a JSON file.
+     *
+     * @param file JSON file
+     * @param configuration configuration of the load test
+     * @param elapsedTime duration of the load test in ms
+     * @throws IOException When the file cannot be written
+     */
+    public void write(final File file, final Map<String, Object> configuration,
+            final long elapsedTime) throws IOException {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("configuration", configuration);
+        report.put("duration", elapsedTime);
+        final Map<String, Object> endpointReports = new LinkedHashMap<>();
+        for (final Map.Entry<String, EndpointStatistics> entry : this.endpoints.entrySet()) {
+            endpointReports.put(entry.getKey(), entry.getValue().toMap(elapsedTime));
+        }
+        report.put("endpoints", endpointReports);
+        report.put("requests", getNbRequests());
+        report.put("errors", getNbErrors());
+        report.put("throughput", throughput(getNbRequests(), elapsedTime));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    /**
+     * Returns the number of requests by second.
+     *
+     * @param nbRequests number of requests
+     * @param elapsedTime duration in ms
+     * @return the throughput
+     */
+    private static double throughput(final int nbRequests, final long elapsedTime) {
+        return elapsedTime == 0 ? 0 : nbRequests * 1000.0 / elapsedTime;
+    }
+
+    /**
+     * Statistics of an endpoint.
+     */
+    private static class EndpointStatistics {
+
+        /**
+         * Durations of the requests in ns.
+         */
+        private final List<Long> durations = new ArrayList<>();
+
+        /**
+         * Number of responses by status code.
+         */
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+        /**
+         * Number of failed requests.
+         */
+        private int nbErrors;
+
+        /**
+         * Records a request.
+         *
+         * @param status status of the response
+         * @param duration duration of the request in ns
+         */
+        synchronized void record(final Status status, final long duration) {
+            this.durations.add(duration);
+            this.statuses.merge(status.getCode(), 1, Integer::sum);
+            if (!status.isSuccess()) {
+                this.nbErrors++;
+            }
+        }
+
+        /**
+         * Returns the number of requests.
+         *
+         * @return the number of requests
+         */
+        synchronized int getNbRequests() {
+            return this.durations.size();
+        }
+
+        /**
+         * Returns the number of failed requests.
+         *
+         * @return the number of errors
+         */
+        synchronized int getNbErrors() {
+            return this.nbErrors;
+        }
+
+        /**
+         * Returns the statistics to write in the report. The durations are
+         * given in ms.
+         *
+         * @param elapsedTime duration of the load test in ms
+         * @return the statistics
+         */
+        synchronized Map<String, Object> toMap(final long elapsedTime) {
+            final List<Long> sorted = new ArrayList<>(this.durations);
+            Collections.sort(sorted);
+            long total = 0;
+            for (final long duration : sorted) {
+                total += duration;
+            }
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", sorted.size());
+            result.put("errors", this.nbErrors);
+            result.put("statuses", new TreeMap<>(this.statuses));
+            result.put("throughput", throughput(sorted.size(), elapsedTime));
+            result.put("mean", sorted.isEmpty() ? 0 : toMillis(total / sorted.size()));
+            result.put("p50", percentile(sorted, 50));
+            result.put("p99", percentile(sorted, 99));
+            result.put("max", sorted.isEmpty() ? 0 : toMillis(sorted.get(sorted.size() - 1)));
+            return result;
+        }
+
+        /**
+         * Returns a percentile of the durations with the nearest-rank method.
+         *
+         * @param sorted sorted durations in ns
+         * @param percent percentage
+         * @return the percentile in ms
+         */
+        private static double percentile(final List<Long> sorted, final int percent) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            final int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+            return toMillis(sorted.get(Math.max(rank, 1) - 1));
+        }
+
+        /**
+         * Converts a duration in ms.
+         *
+         * @param duration duration in ns
+         * @return the duration in ms
+         */
+        private static double toMillis(final long duration) {
+            return duration / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+}
@@ -31,10 +31,20 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -58,30 +68,107 @@ import org.restlet.data.Header;
 import org.restlet.data.MediaType;
 import org.restlet.data.Parameter;
 import org.restlet.data.Protocol;
+import org.restlet.data.Status;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
 import org.restlet.util.Series;
 
-import edu.emory.mathcs.backport.java.util.concurrent.ConcurrentHashMap;
+import fr.cnes.doi.CrossCiteSpec;
 import fr.cnes.doi.InitServerForTest;
 import fr.cnes.doi.InitSettingsForTest;
 import fr.cnes.doi.MdsSpec;
 import fr.cnes.doi.UnitTest;
 import fr.cnes.doi.client.ClientProxyTest;
 import fr.cnes.doi.exception.ClientMdsException;
+import fr.cnes.doi.plugin.impl.db.impl.DOIDbDataAccessServiceImpl;
 import fr.cnes.doi.security.UtilsHeader;
 import fr.cnes.doi.settings.Consts;
 import fr.cnes.doi.settings.DoiSettings;
 
 /**
+ * Load test of the server in front of the DataCite and CrossCite mock server.
+ *
+ * <p>
+ * The load is configured by system properties, for instance
+ * {@code mvn test -Dtest=PerformanceTest -Ddoi.load.requests=5000
+ * -Ddoi.load.threads=50 -Ddoi.load.upstreamLatency=200
+ * -Ddoi.load.upstreamErrorRate=0.05}:
+ * <ul>
+ * <li>{@value #PROPERTY_REQUESTS} : number of operations</li>
+ * <li>{@value #PROPERTY_THREADS} : number of concurrent clients</li>
+ * <li>{@value #PROPERTY_MIX} : weights of the operations of the mixed
+ * workload, such as GET_METADATA:3,GET_DOIS:1</li>
+ * <li>{@value #PROPERTY_UPSTREAM_LATENCY} : latency of the mock server in
+ * ms</li>
+ * <li>{@value #PROPERTY_UPSTREAM_ERROR_RATE} : rate of the mock server
+ * responses replaced by an error</li>
+ * <li>{@value #PROPERTY_UPSTREAM_ERROR_STATUS} : status of these errors</li>
+ * <li>{@value #PROPERTY_SEED} : seed of the workload and of the errors, the
+ * same seed reproduces the same sequences</li>
+ * <li>{@value #PROPERTY_REPORT} : JSON report with the throughput, the p50/p99
+ * latencies and the errors by endpoint</li>
+ * <li>{@value #PROPERTY_MAX_MEAN_TIME} : maximum mean time in ms to create a
+ * DOI</li>
+ * </ul>
  *
  * @author Jean-Christophe Malapert (jean-christophe.malapert@cnes.fr)
  */
 @Category(UnitTest.class)
 public class PerformanceTest {
 
+    /**
+     * Number of operations.
+     */
+    public static final String PROPERTY_REQUESTS = "doi.load.requests";
+
+    /**
+     * Number of concurrent clients.
+     */
+    public static final String PROPERTY_THREADS = "doi.load.threads";
+
+    /**
+     * Weights of the operations of the mixed workload.
+     */
+    public static final String PROPERTY_MIX = "doi.load.mix";
+
+    /**
+     * Latency of the mock server in ms.
+     */
+    public static final String PROPERTY_UPSTREAM_LATENCY = "doi.load.upstreamLatency";
+
+    /**
+     * Rate of the mock server responses replaced by an error.
+     */
+    public static final String PROPERTY_UPSTREAM_ERROR_RATE = "doi.load.upstreamErrorRate";
+
+    /**
+     * Status of the errors of the mock server.
+     */
+    public static final String PROPERTY_UPSTREAM_ERROR_STATUS = "doi.load.upstreamErrorStatus";
+
+    /**
+     * Seed of the workload and of the errors.
+     */
+    public static final String PROPERTY_SEED = "doi.load.seed";
+
+    /**
+     * JSON report.
+     */
+    public static final String PROPERTY_REPORT = "doi.load.report";
+
+    /**
+     * Maximum mean time in ms to create a DOI.
+     */
+    public static final String PROPERTY_MAX_MEAN_TIME = "doi.load.maxMeanTime";
+
+    /**
+     * Default mix of the mixed workload.
+     */
+    public static final String DEFAULT_MIX = "CREATE_DOI:1,CREATE_METADATA_TOKEN:1,GET_METADATA:3,"
+            + "GET_DOIS:2,GET_MEDIA:1,GET_CITATION:1";
+
     /**
      * Logger
      */
@@ -91,7 +178,12 @@ public class PerformanceTest {
      * Client
      */
     private static Client cl;
-    
+
+    /**
+     * HTTP client of the load.
+     */
+    private static Client httpClient;
+
     /**
      * Is database configured
      */
@@ -111,15 +203,74 @@ public class PerformanceTest {
      * URI dois
      */
     private static final String DOIS_SERVICE = "/mds/dois";
-    
+
     /**
-     * Number of iteration
+     * URI media
      */
-    private static final int NB_ITERS = 100;
+    private static final String MEDIA_SERVICE = "/mds/media/";
 
-    private final ExecutorService clientExec = Executors.newFixedThreadPool(200);
+    /**
+     * URI citation format
+     */
+    private static final String CITATION_SERVICE = "/citation/format";
+
+    /**
+     * User of the load.
+     */
+    private static final String USER = "malapert";
+
+    /**
+     * Password of the user.
+     */
+    private static final String PASSWORD = "pwd";
+
+    /**
+     * Project of the user.
+     */
+    private static final String PROJECT = "828606";
+
+    /**
+     * Number of operations.
+     */
+    private static final int NB_ITERS = Integer.getInteger(PROPERTY_REQUESTS, 100);
+
+    /**
+     * Number of concurrent clients.
+     */
+    private static final int NB_THREADS = Integer.getInteger(PROPERTY_THREADS, 100);
+
+    /**
+     * Latency of the mock server in ms.
+     */
+    private static final long UPSTREAM_LATENCY = Long.getLong(PROPERTY_UPSTREAM_LATENCY, 0);
+
+    /**
+     * Rate of the mock server responses replaced by an error.
+     */
+    private static final double UPSTREAM_ERROR_RATE = Double.parseDouble(
+            System.getProperty(PROPERTY_UPSTREAM_ERROR_RATE, "0"));
+
+    /**
+     * Status of the errors of the mock server.
+     */
+    private static final int UPSTREAM_ERROR_STATUS = Integer.getInteger(
+            PROPERTY_UPSTREAM_ERROR_STATUS, Status.SERVER_ERROR_INTERNAL.getCode());
+
+    /**
+     * Seed of the workload and of the errors.
+     */
+    private static final long SEED = Long.getLong(PROPERTY_SEED, 1);
+
+    /**
+     * Maximum mean time in ms to create a DOI.
+     */
+    private static final double MAX_MEAN_TIME = Double.parseDouble(
+            System.getProperty(PROPERTY_MAX_MEAN_TIME, "50"));
+
+    private final ExecutorService clientExec = Executors.newFixedThreadPool(NB_THREADS);
     private InputStream inputStream;
     private String metadata;
+    private String token;
     
     @Rule
     public ExpectedException exceptions = ExpectedException.none();
@@ -139,6 +290,11 @@ public class PerformanceTest {
             parameters.add("truststorePath", JKS_DIRECTORY+File.separatorChar+JKS_FILE);
             parameters.add("truststorePassword", DoiSettings.getInstance().getSecret(Consts.SERVER_HTTPS_TRUST_STORE_PASSWD));
             parameters.add("truststoreType", "JKS");
+            httpClient = new Client(new Context(), Protocol.HTTP);
+            httpClient.getContext().getParameters().set(RESTLET_MAX_TOTAL_CONNECTIONS,
+                    String.valueOf(NB_THREADS));
+            httpClient.getContext().getParameters().set(RESTLET_MAX_CONNECTIONS_PER_HOST,
+                    String.valueOf(NB_THREADS));
         } catch (Error ex) {
             isDatabaseConfigured = false;
         }
@@ -171,168 +327,427 @@ public class PerformanceTest {
 
     @After
     public void tearDown() {        
+        clientExec.shutdownNow();
     }
 
     @Test
-    public void testCreateDOIs() {
-        long startTime = System.currentTimeMillis();
-        ConcurrentHashMap map = new ConcurrentHashMap();
-        map.put("nbErrors", 0);
-        mdsServerStub.createSpec(MdsSpec.Spec.PUT_METADATA_201);
-        mdsServerStub.createSpec(MdsSpec.Spec.PUT_DOI_201_2);
-        
-        
-        testMultiThreads(CreateDOI.class, map, NB_ITERS);        
-        clientExec.shutdown();
-
-        try {
-            clientExec.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            LOG.log(Level.SEVERE, null, e);
-        }
-        
-        long stopTime = System.currentTimeMillis();
-        long elapsedTime = stopTime - startTime;
-        double meanProcessingTime = elapsedTime / (NB_ITERS - (int) map.get("nbErrors"));
-
-        double expectedTime = 5.0 / 100.0 * 1000.0; //1 s per DOI
-        LOG.log(Level.INFO, "All working fine : Mean request processing time {0} ms with {1} error, expected time {2} ms", new Object[]{meanProcessingTime, (int) map.get("nbErrors"), expectedTime});        
-        Assert.assertTrue("Test the performances of DOIs creation",  meanProcessingTime <= expectedTime);
+    public void testCreateDOIs() throws IOException {
+        final LoadStatistics statistics = new LoadStatistics();
+        final List<Operation> workload = Collections.nCopies(NB_ITERS, Operation.CREATE_DOI);
+        createUpstreamSpecs(EnumSet.of(Operation.CREATE_DOI), 2 * NB_ITERS);
+
+        final long elapsedTime = run(workload, statistics);
+        final int nbErrors = statistics.getNbErrors();
+        writeReport(statistics, "createDOIs", workload, elapsedTime);
+
+        double meanProcessingTime = elapsedTime / (double) Math.max(1, NB_ITERS - nbErrors);
+        LOG.log(Level.INFO, "All working fine : Mean request processing time {0} ms with {1} error, expected time {2} ms", new Object[]{meanProcessingTime, nbErrors, MAX_MEAN_TIME});        
+        Assert.assertTrue("Test the performances of DOIs creation",  meanProcessingTime <= MAX_MEAN_TIME);
     }
     
     @Test
     public void testCreateDOI() {
-        long startTime = System.currentTimeMillis();
-        ConcurrentHashMap map = new ConcurrentHashMap();
-        map.put("nbErrors", 0);
+        final LoadStatistics statistics = new LoadStatistics();
         mdsServerStub.createSpec(MdsSpec.Spec.PUT_METADATA_201);
         mdsServerStub.createSpec(MdsSpec.Spec.PUT_DOI_201_2);
-        
-        
-        testMultiThreads(CreateDOI.class, map, 1);        
-        clientExec.shutdown();
 
-        try {
-            clientExec.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            LOG.log(Level.SEVERE, null, e);
-        }
-        
-        long stopTime = System.currentTimeMillis();
-        long elapsedTime = stopTime - startTime;
-        double meanProcessingTime = elapsedTime;
+        final long elapsedTime = run(Collections.singletonList(Operation.CREATE_DOI), statistics);
 
         double expectedTime = 1 * 1000; //1 s per DOI
-      
-        LOG.log(Level.INFO, "All working fine : Mean request processing time {0} ms, expected time {1} ms", new Object[]{meanProcessingTime, expectedTime});        
-        Assert.assertTrue("Test the performances of DOIs creation", (int) map.get("nbErrors") == 0 ); //&& meanProcessingTime <= expectedTime
-    }    
+        LOG.log(Level.INFO, "All working fine : Mean request processing time {0} ms, expected time {1} ms", new Object[]{elapsedTime, expectedTime});        
+        Assert.assertTrue("Test the performances of DOIs creation", statistics.getNbErrors() == 0 ); //&& meanProcessingTime <= expectedTime
+    }
 
-    private void testMultiThreads(final Class jobTask, final ConcurrentHashMap map, int nbIters) {
-        try {
-            for (int i = 0; i < nbIters; i++) {
-                try {
-                    JobTask task = (JobTask) jobTask.newInstance();
-                    task.setParameters(map, this.metadata);
-                    clientExec.execute((Runnable) task);
-                } catch (InstantiationException | IllegalAccessException ex) {
-                    LOG.log(Level.SEVERE, null, ex);
-                    int nbErrors = (int) map.get("nbErrors");
-                    map.put("nbErrors", nbErrors + 1);
+    /**
+     * Runs the mixed workload and writes the report. Without injected errors,
+     * all the requests must succeed.
+     *
+     * @throws IOException When the report cannot be written
+     */
+    @Test
+    public void testMixedWorkload() throws IOException {
+        final LoadStatistics statistics = new LoadStatistics();
+        final List<Operation> workload = createWorkload(
+                System.getProperty(PROPERTY_MIX, DEFAULT_MIX), NB_ITERS, new Random(SEED));
+        createUpstreamSpecs(EnumSet.copyOf(workload), 2 * NB_ITERS);
+        if (workload.contains(Operation.CREATE_METADATA_TOKEN)) {
+            this.token = createToken();
+        }
+
+        final long elapsedTime = run(workload, statistics);
+        final File report = writeReport(statistics, "mixedWorkload", workload, elapsedTime);
+
+        LOG.log(Level.INFO, "{0} requests in {1} ms with {2} errors, report in {3}",
+                new Object[]{statistics.getNbRequests(), elapsedTime, statistics.getNbErrors(),
+                    report});
+        Assert.assertTrue("Test the report of the load", report.isFile());
+        if (UPSTREAM_ERROR_RATE == 0) {
+            Assert.assertEquals("Test the mixed workload without errors", 0,
+                    statistics.getNbErrors());
+        }
+    }
+
+    /**
+     * Creates the workload by drawing the operations according to their
+     * weight.
+     *
+     * @param mix weights of the operations, such as GET_METADATA:3,GET_DOIS:1
+     * @param nbOperations number of operations
+     * @param random random generator
+     * @return the operations
+     */
+    private static List<Operation> createWorkload(final String mix, final int nbOperations,
+            final Random random) {
+        final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        int total = 0;
+        for (final String item : mix.split(",")) {
+            final String[] operationWeight = item.trim().split(":");
+            final int weight = operationWeight.length > 1
+                    ? Integer.parseInt(operationWeight[1].trim()) : 1;
+            weights.put(Operation.valueOf(operationWeight[0].trim()), weight);
+            total += weight;
+        }
+        final List<Operation> workload = new ArrayList<>(nbOperations);
+        for (int i = 0; i < nbOperations; i++) {
+            int draw = random.nextInt(total);
+            for (final Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+                draw -= weight.getValue();
+                if (draw < 0) {
+                    workload.add(weight.getKey());
                     break;
                 }
             }
-        } catch (RuntimeException ex) {
-            int nbErrors = (int) map.get("nbErrors");
-            map.put("nbErrors", nbErrors + 1); 
-            LOG.log(Level.SEVERE, null, ex);
         }
+        return workload;
+    }
 
+    /**
+     * Creates the specifications of the mock server used by the operations.
+     * The first responses of each specification are replaced by errors at the
+     * configured rate, the following responses succeed.
+     *
+     * @param operations operations of the workload
+     * @param nbResponses number of responses of each specification that may be
+     * replaced by an error
+     */
+    private void createUpstreamSpecs(final Set<Operation> operations, final int nbResponses) {
+        final Random random = new Random(SEED);
+        final Set<MdsSpec.Spec> specs = EnumSet.noneOf(MdsSpec.Spec.class);
+        for (final Operation operation : operations) {
+            Collections.addAll(specs, operation.getUpstream());
+        }
+        for (final MdsSpec.Spec spec : specs) {
+            createUpstreamSpec(spec.getStatus(), nbResponses, random,
+                    (status, times) -> mdsServerStub.createSpec(spec, status, UPSTREAM_LATENCY,
+                            times));
+        }
+        if (operations.contains(Operation.GET_CITATION)) {
+            final CrossCiteSpec.Spec spec = CrossCiteSpec.Spec.GET_FORMAT_200;
+            createUpstreamSpec(spec.getStatus(), nbResponses, random,
+                    (status, times) -> mdsServerStub.createSpec(spec, status, UPSTREAM_LATENCY,
+                            times));
+        }
     }
 
-    private static class CreateDOI implements Runnable, JobTask {
+    /**
+     * Creates the responses of a specification. The consecutive responses
+     * having the same status are created as one specification.
+     *
+     * @param status status of the specification
+     * @param nbResponses number of responses that may be replaced by an error
+     * @param random random generator
+     * @param creator creator of a specification from the status and the number
+     * of responses, 0 for an unlimited number
+     */
+    private static void createUpstreamSpec(final int status, final int nbResponses,
+            final Random random, final BiConsumer<Integer, Integer> creator) {
+        if (UPSTREAM_ERROR_RATE > 0) {
+            int current = status;
+            int times = 0;
+            for (int i = 0; i < nbResponses; i++) {
+                final int next = random.nextDouble() < UPSTREAM_ERROR_RATE
+                        ? UPSTREAM_ERROR_STATUS : status;
+                if (next != current && times > 0) {
+                    creator.accept(current, times);
+                    times = 0;
+                }
+                current = next;
+                times++;
+            }
+            creator.accept(current, times);
+        }
+        creator.accept(status, 0);
+    }
 
-        private ConcurrentHashMap map;
-        private String doiMetadata;
+    /**
+     * Runs the operations with the concurrent clients.
+     *
+     * @param workload operations
+     * @param statistics statistics of the requests
+     * @return the elapsed time in ms
+     */
+    private long run(final List<Operation> workload, final LoadStatistics statistics) {
+        final AtomicInteger nbFailedOperations = new AtomicInteger();
+        final long startTime = System.currentTimeMillis();
+        for (final Operation operation : workload) {
+            clientExec.execute(() -> {
+                try {
+                    execute(operation, statistics);
+                } catch (RuntimeException ex) {
+                    nbFailedOperations.incrementAndGet();
+                    LOG.log(Level.SEVERE, null, ex);
+                }
+            });
+        }
+        clientExec.shutdown();
+        try {
+            clientExec.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            LOG.log(Level.SEVERE, null, e);
+        }
+        Assert.assertEquals("Test the execution of the operations", 0, nbFailedOperations.get());
+        return System.currentTimeMillis() - startTime;
+    }
 
-        public CreateDOI() {
+    /**
+     * Writes the report of a load test.
+     *
+     * @param statistics statistics of the requests
+     * @param name name of the load test
+     * @param workload operations
+     * @param elapsedTime elapsed time in ms
+     * @return the report
+     * @throws IOException When the report cannot be written
+     */
+    private static File writeReport(final LoadStatistics statistics, final String name,
+            final List<Operation> workload, final long elapsedTime) throws IOException {
+        final DoiSettings settings = DoiSettings.getInstance();
+        final Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("name", name);
+        configuration.put("operations", workload.stream().collect(
+                Collectors.groupingBy(Operation::name, Collectors.counting())));
+        configuration.put("threads", NB_THREADS);
+        configuration.put("upstreamLatency", UPSTREAM_LATENCY);
+        configuration.put("upstreamErrorRate", UPSTREAM_ERROR_RATE);
+        configuration.put("upstreamErrorStatus", UPSTREAM_ERROR_STATUS);
+        configuration.put("seed", SEED);
+        final Map<String, String> server = new LinkedHashMap<>();
+        for (final String key : new String[]{Consts.JETTY_MIN_THREADS, Consts.JETTY_MAX_THREADS,
+            Consts.JETTY_ACCEPT_QUEUE_SIZE, Consts.CLIENT_MAX_TOTAL_CONNECTIONS,
+            Consts.CLIENT_MAX_CONNECTIONS_PER_HOST,
+            DOIDbDataAccessServiceImpl.DB_MIN_IDLE_CONNECTIONS,
+            DOIDbDataAccessServiceImpl.DB_MAX_IDLE_CONNECTIONS,
+            DOIDbDataAccessServiceImpl.DB_MAX_ACTIVE_CONNECTIONS}) {
+            server.put(key, settings.getString(key, ""));
         }
+        configuration.put("settings", server);
+        final String path = System.getProperty(PROPERTY_REPORT,
+                "target/load-test-" + name + ".json");
+        final File report = new File(path);
+        statistics.write(report, configuration, elapsedTime);
+        return report;
+    }
 
-        @Override
-        public void run() {
-            
-            final String userAdmin = "malapert";
-            final String password = "pwd";
-            
-            Form doiForm = new Form();
-            doiForm.add(new Parameter(DoisResource.DOI_PARAMETER, "10.80163/828606/8c3e91ad45ca855b477126bc073ae44b"));
-            doiForm.add(new Parameter(DoisResource.URL_PARAMETER, "http://www.cnes.fr"));
-
-            String port = DoiSettings.getInstance().getString(Consts.SERVER_HTTP_PORT);
-            ClientResource client = new ClientResource("http://localhost:" + port + DOIS_SERVICE);
-            client.setChallengeResponse(new ChallengeResponse(ChallengeScheme.HTTP_BASIC, userAdmin, password));
-            final String RESTLET_HTTP_HEADERS = "org.restlet.http.headers";
+    /**
+     * Creates a token for the user.
+     *
+     * @return the token
+     * @throws IOException When the token cannot be read
+     */
+    private static String createToken() throws IOException {
+        final String port = DoiSettings.getInstance().getString(Consts.SERVER_HTTPS_PORT);
+        final ClientResource client = new ClientResource("https://localhost:" + port + "/admin/token");
+        client.setChallengeResponse(ChallengeScheme.HTTP_BASIC, USER, PASSWORD);
+        client.setNext(cl);
+        final Form form = new Form();
+        form.add("identifier", USER);
+        form.add("projectID", PROJECT);
+        try {
+            final String token = client.post(form).getText();
+            return token.substring(1, token.length() - 1);
+        } finally {
+            client.release();
+        }
+    }
+
+    /**
+     * Executes an operation.
+     *
+     * @param operation operation
+     * @param statistics statistics of the requests
+     */
+    private void execute(final Operation operation, final LoadStatistics statistics) {
+        final String port = DoiSettings.getInstance().getString(Consts.SERVER_HTTP_PORT);
+        final String server = "http://localhost:" + port;
+        final ChallengeResponse basic = new ChallengeResponse(ChallengeScheme.HTTP_BASIC, USER,
+                PASSWORD);
+        switch (operation) {
+            case CREATE_DOI:
+                final Form doiForm = new Form();
+                doiForm.add(new Parameter(DoisResource.DOI_PARAMETER, MdsSpec.Spec.PUT_DOI_201_2.getTemplatePath()));
+                doiForm.add(new Parameter(DoisResource.URL_PARAMETER, "http://www.cnes.fr"));
+                send(statistics, "POST /mds/dois (basic)", createClient(server + DOIS_SERVICE,
+                        basic), client -> client.post(doiForm));
+                send(statistics, "POST /mds/metadata (basic)", createClient(server
+                        + METADATA_SERVICE, basic), client -> client.post(
+                        new StringRepresentation(this.metadata, MediaType.APPLICATION_XML)));
+                break;
+            case CREATE_METADATA_TOKEN:
+                final ChallengeResponse bearer = new ChallengeResponse(
+                        ChallengeScheme.HTTP_OAUTH_BEARER);
+                bearer.setRawValue(this.token);
+                send(statistics, "POST /mds/metadata (token)", createClient(server
+                        + METADATA_SERVICE, bearer), client -> client.post(
+                        new StringRepresentation(this.metadata, MediaType.APPLICATION_XML)));
+                break;
+            case GET_METADATA:
+                send(statistics, "GET /mds/metadata/{doiName}", createClient(server
+                        + METADATA_SERVICE + "/" + MdsSpec.Spec.GET_METADATA_200.getTemplatePath(),
+                        null), ClientResource::get);
+                break;
+            case GET_DOIS:
+                send(statistics, "GET /mds/dois", createClient(server + DOIS_SERVICE, null),
+                        ClientResource::get);
+                break;
+            case GET_MEDIA:
+                send(statistics, "GET /mds/media/{doiName}", createClient(server + MEDIA_SERVICE
+                        + MdsSpec.Spec.GET_MEDIA_200.getTemplatePath(), null), ClientResource::get);
+                break;
+            case GET_CITATION:
+                final ClientResource citation = createClient(server + CITATION_SERVICE, null);
+                citation.addQueryParameter("doi", "10.1145/2783446.2783605");
+                citation.addQueryParameter("lang", "af-ZA");
+                citation.addQueryParameter("style", "academy-of-management-review");
+                send(statistics, "GET /citation/format", citation, ClientResource::get);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
 
-            Map<String, Object> reqAttribs = client.getRequestAttributes();
+    /**
+     * Creates a client of the server.
+     *
+     * @param uri URI
+     * @param challengeResponse credentials or null
+     * @return the client
+     */
+    private static ClientResource createClient(final String uri,
+            final ChallengeResponse challengeResponse) {
+        final ClientResource client = new ClientResource(uri);
+        client.setNext(httpClient);
+        client.setRetryOnError(false);
+        if (challengeResponse != null) {
+            client.setChallengeResponse(challengeResponse);
+            final String RESTLET_HTTP_HEADERS = "org.restlet.http.headers";
+            final Map<String, Object> reqAttribs = client.getRequestAttributes();
             Series headers = (Series) reqAttribs.get(RESTLET_HTTP_HEADERS);
             if (headers == null) {
                 headers = new Series<>(Header.class);
                 reqAttribs.put(RESTLET_HTTP_HEADERS, headers);
             }
-            headers.add(UtilsHeader.SELECTED_ROLE_PARAMETER, "828606");
-            int code;
-            try {
-                Representation rep = client.post(doiForm);
-                rep.exhaust();
-                code = client.getStatus().getCode();
-            } catch (ResourceException ex) {
-                code = ex.getStatus().getCode();
-                int nbErrors = (int) this.map.get("nbErrors");
-                this.map.put("nbErrors", nbErrors + 1);
-            } catch (IOException ex) {
-                int nbErrors = (int) this.map.get("nbErrors");
-                this.map.put("nbErrors", nbErrors + 1);
-            } finally {
-                client.release();
-            }               
-
-            client = new ClientResource("http://localhost:" + port + METADATA_SERVICE);
-            client.setNext(cl);
-            client.setChallengeResponse(new ChallengeResponse(ChallengeScheme.HTTP_BASIC, userAdmin, password));
-            reqAttribs = client.getRequestAttributes();
-            headers = (Series) reqAttribs.get(RESTLET_HTTP_HEADERS);
-            if (headers == null) {
-                headers = new Series<>(Header.class);
-                reqAttribs.put(RESTLET_HTTP_HEADERS, headers);
-            }
-            headers.add(UtilsHeader.SELECTED_ROLE_PARAMETER, "828606");
+            headers.add(UtilsHeader.SELECTED_ROLE_PARAMETER, PROJECT);
+        }
+        return client;
+    }
 
-            try {
-                Representation rep = client.post(new StringRepresentation(this.doiMetadata, MediaType.APPLICATION_XML));
-                code = client.getStatus().getCode();
+    /**
+     * Sends a request and records its status and duration.
+     *
+     * @param statistics statistics of the requests
+     * @param endpoint endpoint name
+     * @param client client
+     * @param request request to send
+     */
+    private static void send(final LoadStatistics statistics, final String endpoint,
+            final ClientResource client, final Request request) {
+        final long start = System.nanoTime();
+        Status status;
+        try {
+            final Representation rep = request.send(client);
+            if (rep != null) {
                 rep.exhaust();
-            } catch (ResourceException ex) {
-                code = ex.getStatus().getCode();
-                int nbErrors = (int) this.map.get("nbErrors");
-                this.map.put("nbErrors", nbErrors + 1);
-            } catch (IOException ex) {
-                int nbErrors = (int) this.map.get("nbErrors");
-                this.map.put("nbErrors", nbErrors + 1);            
-            } finally {
-                client.release();
             }
+            status = client.getStatus();
+        } catch (ResourceException ex) {
+            status = ex.getStatus();
+        } catch (IOException ex) {
+            status = Status.CONNECTOR_ERROR_COMMUNICATION;
+        } finally {
+            client.release();
+        }
+        statistics.record(endpoint, status, System.nanoTime() - start);
+    }
+
+    /**
+     * Operations of the load.
+     */
+    private enum Operation {
+
+        /**
+         * Creates a DOI and its metadata with a Basic authentication.
+         */
+        CREATE_DOI(MdsSpec.Spec.PUT_METADATA_201, MdsSpec.Spec.PUT_DOI_201_2),
+        /**
+         * Creates metadata with a token authentication.
+         */
+        CREATE_METADATA_TOKEN(MdsSpec.Spec.PUT_METADATA_201),
+        /**
+         * Gets metadata.
+         */
+        GET_METADATA(MdsSpec.Spec.GET_METADATA_200),
+        /**
+         * Lists the DOIs.
+         */
+        GET_DOIS(MdsSpec.Spec.GET_DOIS),
+        /**
+         * Gets the media of a DOI.
+         */
+        GET_MEDIA(MdsSpec.Spec.GET_MEDIA_200),
+        /**
+         * Formats a citation, the CrossCite specification is not a DataCite
+         * one.
+         */
+        GET_CITATION();
+
+        /**
+         * DataCite specifications used by the operation.
+         */
+        private final MdsSpec.Spec[] upstream;
+
+        /**
+         * Creates an operation.
+         *
+         * @param upstream DataCite specifications used by the operation
+         */
+        Operation(final MdsSpec.Spec... upstream) {
+            this.upstream = upstream;
         }
 
-        @Override
-        public void setParameters(final ConcurrentHashMap map, final Object... parameters) {
-            this.map = map;
-            this.doiMetadata = String.valueOf(parameters[0]);
+        /**
+         * Returns the DataCite specifications used by the operation.
+         *
+         * @return the specifications
+         */
+        MdsSpec.Spec[] getUpstream() {
+            return this.upstream.clone();
         }
     }
 
-    public interface JobTask {
-
-        public void setParameters(final ConcurrentHashMap map, final Object... parameters);
+    /**
+     * Request sent by a client.
+     */
+    @FunctionalInterface
+    private interface Request {
+
+        /**
+         * Sends the request.
+         *
+         * @param client client
+         * @return the response entity
+         * @throws ResourceException When the response is an error
+         */
+        Representation send(ClientResource client) throws ResourceException;
     }
 
 }
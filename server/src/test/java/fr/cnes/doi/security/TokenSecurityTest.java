@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.security;
+
+import fr.cnes.doi.InitSettingsForTest;
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.exception.DoiRuntimeException;
+import fr.cnes.doi.settings.Consts;
+import fr.cnes.doi.settings.DoiSettings;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import java.util.Date;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.security.TokenSecurity}
+ */
+@Category(UnitTest.class)
+public class TokenSecurityTest {
+
+    private static boolean isDatabaseConfigured;
+
+    public TokenSecurityTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        try {
+            isDatabaseConfigured = true;
+            InitSettingsForTest.init(InitSettingsForTest.CONFIG_TEST_PROPERTIES);
+            TokenSecurity.getInstance();
+        } catch (Error ex) {
+            isDatabaseConfigured = false;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue("Database is not configured, please configure it and rerun the tests",
+                isDatabaseConfigured);
+    }
+
+    /**
+     * Test of verify method, of class TokenSecurity, with a valid token : the
+     * claims are returned and the token is verified only once.
+     */
+    @Test
+    public void testVerifyValidToken() {
+        final TokenSecurity tokenSecurity = TokenSecurity.getInstance();
+        final String token = tokenSecurity.generate("malapert", TokenSecurity.TimeUnit.HOUR, 1);
+        final VerifiedToken verifiedToken = tokenSecurity.verify(token);
+        assertNotNull(verifiedToken);
+        assertEquals("malapert", verifiedToken.getUserID());
+        assertNull(verifiedToken.getProjectID());
+        assertNull(verifiedToken.getProjectName());
+        assertFalse(verifiedToken.isExpired());
+        assertTrue(verifiedToken.getExpirationTime() > System.currentTimeMillis());
+        assertSame(verifiedToken, tokenSecurity.verify(token));
+        assertFalse(tokenSecurity.isExpired(token));
+    }
+
+    /**
+     * Test of verify method, of class TokenSecurity, with an expired token.
+     */
+    @Test
+    public void testVerifyExpiredToken() {
+        final TokenSecurity tokenSecurity = TokenSecurity.getInstance();
+        final String token = Jwts.builder()
+                .setIssuer(DoiSettings.getInstance().getString(Consts.APP_NAME))
+                .setIssuedAt(new Date(System.currentTimeMillis() - 7200000))
+                .setSubject("malapert")
+                .setExpiration(new Date(System.currentTimeMillis() - 3600000))
+                .signWith(SignatureAlgorithm.HS256,
+                        TextCodec.BASE64.decode(tokenSecurity.getTokenKey()))
+                .compact();
+        assertNull(tokenSecurity.verify(token));
+        assertTrue(tokenSecurity.isExpired(token));
+    }
+
+    /**
+     * Test of verify method, of class TokenSecurity, with a tampered token :
+     * the claims of a valid token are replaced by the claims of another user.
+     */
+    @Test(expected = DoiRuntimeException.class)
+    public void testVerifyTamperedToken() {
+        final TokenSecurity tokenSecurity = TokenSecurity.getInstance();
+        final String[] token = tokenSecurity.generate("malapert", TokenSecurity.TimeUnit.HOUR, 1)
+                .split("\\.");
+        final String[] other = tokenSecurity.generate("admin", TokenSecurity.TimeUnit.HOUR, 1)
+                .split("\\.");
+        tokenSecurity.verify(token[0] + "." + other[1] + "." + token[2]);
+    }
+
+    /**
+     * Test of verify method, of class TokenSecurity, with a token signed by
+     * another key.
+     */
+    @Test(expected = DoiRuntimeException.class)
+    public void testVerifyTokenOfAnotherKey() {
+        final TokenSecurity tokenSecurity = TokenSecurity.getInstance();
+        final String token = Jwts.builder()
+                .setIssuer(DoiSettings.getInstance().getString(Consts.APP_NAME))
+                .setSubject("malapert")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(SignatureAlgorithm.HS256,
+                        TextCodec.BASE64.decode(TokenSecurity.createKeySignatureHS256()))
+                .compact();
+        tokenSecurity.verify(token);
+    }
+
+    /**
+     * Test of verify method, of class TokenSecurity, without token.
+     */
+    @Test(expected = DoiRuntimeException.class)
+    public void testVerifyNullToken() {
+        TokenSecurity.getInstance().verify(null);
+    }
+}
@@ -125,5 +125,37 @@ public class DoiMonitoringTest {
         final String result = instance.getDescription(name, path);
         assertEquals(expResult, result);
     }
+
+    /**
+     * Test of getRecord method with a route template, of class DoiMonitoring.
+     */
+    @Test
+    public void testGetRecordWithTemplate() {
+        instance.register(Method.GET, "/mds/dois", "list");
+        instance.register(Method.GET, "/mds/dois/{doiName}", "get");
+        instance.addMeasurement(Method.GET, "/mds/dois/10.24400/12/abc", 10);
+        instance.addMeasurement(Method.GET, "/mds/dois/10.24400/12/def", 20);
+        assertEquals("get", instance.getDescription(Method.GET, "/mds/dois/10.24400/12/abc"));
+        assertEquals(15.0F, instance.getCurrentAverage(Method.GET, "/mds/dois/{doiName}"), 0.001);
+        assertEquals(0.0F, instance.getCurrentAverage(Method.GET, "/mds/dois"), 0.001);
+        assertFalse(instance.isRegistered(Method.POST, "/mds/dois/10.24400/12/abc"));
+    }
+
+    /**
+     * Test of getRecord method on a memorised request path, of class
+     * DoiMonitoring : a route template registered afterwards is taken into
+     * account.
+     */
+    @Test
+    public void testGetRecordMemorised() {
+        instance.register(Method.PUT, "/mds/media", "media");
+        assertNull(instance.getRecord(Method.PUT, "/mds/metadata/10.24400/12/abc"));
+        assertNull(instance.getRecord(Method.PUT, "/mds/metadata/10.24400/12/abc"));
+        instance.register(Method.PUT, "/mds/metadata/{doiName}", "metadata");
+        assertEquals("metadata",
+                instance.getRecord(Method.PUT, "/mds/metadata/10.24400/12/abc").getDescription());
+        assertSame(instance.getRecord(Method.PUT, "/mds/metadata/10.24400/12/abc"),
+                instance.getRecord(Method.PUT, "/mds/metadata/10.24400/12/def"));
+    }
     
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.services;
+
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.db.model.AuthSystemUser;
+import fr.cnes.doi.db.model.DOIUser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.services.DOIUsersUpdate}
+ */
+@Category(UnitTest.class)
+public class DOIUsersUpdateTest {
+
+    public DOIUsersUpdateTest() {
+    }
+
+    /**
+     * Test of computeChangeSet method, of class DOIUsersUpdate.
+     */
+    @Test
+    public void testComputeChangeSet() {
+        final List<AuthSystemUser> authMembers = Arrays.asList(
+                authUser("malapert", "malapert@mail.com"),
+                authUser("claire", "claire@mail.com"),
+                authUser("claire", "claire@mail.com"));
+        final List<DOIUser> dbusers = Arrays.asList(dbUser("malapert"), dbUser("former"));
+
+        final DOIUsersUpdate.ChangeSet changeSet = DOIUsersUpdate.computeChangeSet(authMembers,
+                dbusers);
+        assertEquals(Collections.singletonList("former"), changeSet.getUsersToRemove());
+        assertEquals(1, changeSet.getUsersToAdd().size());
+        final DOIUser added = changeSet.getUsersToAdd().get(0);
+        assertEquals("claire", added.getUsername());
+        assertEquals("claire@mail.com", added.getEmail());
+        assertFalse(added.isAdmin());
+
+        assertTrue(DOIUsersUpdate.computeChangeSet(authMembers.subList(0, 2),
+                Arrays.asList(dbUser("claire"), dbUser("malapert"))).isEmpty());
+    }
+
+    /**
+     * Test of computeFingerprint method, of class DOIUsersUpdate.
+     */
+    @Test
+    public void testComputeFingerprint() {
+        final List<AuthSystemUser> authMembers = new ArrayList<>(Arrays.asList(
+                authUser("malapert", "malapert@mail.com"),
+                authUser("claire", null)));
+        final String fingerprint = DOIUsersUpdate.computeFingerprint(authMembers);
+        Collections.reverse(authMembers);
+        assertEquals(fingerprint, DOIUsersUpdate.computeFingerprint(authMembers));
+
+        authMembers.set(0, authUser("claire", "claire@mail.com"));
+        assertNotEquals(fingerprint, DOIUsersUpdate.computeFingerprint(authMembers));
+    }
+
+    /**
+     * Test of isSynchronizationNeeded method, of class DOIUsersUpdate.
+     */
+    @Test
+    public void testIsSynchronizationNeeded() {
+        final DOIUsersUpdate usersUpdate = new DOIUsersUpdate(60);
+        final long now = System.currentTimeMillis();
+        assertTrue(usersUpdate.isSynchronizationNeeded("fingerprint", now));
+
+        usersUpdate.markSynchronized("fingerprint", now);
+        assertFalse(usersUpdate.isSynchronizationNeeded("fingerprint", now + 1000));
+        assertTrue(usersUpdate.isSynchronizationNeeded("other", now + 1000));
+        assertTrue(usersUpdate.isSynchronizationNeeded("fingerprint", now + 3600000));
+
+        final DOIUsersUpdate alwaysUpdate = new DOIUsersUpdate(0);
+        alwaysUpdate.markSynchronized("fingerprint", now);
+        assertTrue(alwaysUpdate.isSynchronizationNeeded("fingerprint", now));
+    }
+
+    /**
+     * Creates a member of the authentication system.
+     *
+     * @param username username
+     * @param email email
+     * @return the member
+     */
+    private AuthSystemUser authUser(final String username, final String email) {
+        final AuthSystemUser user = new AuthSystemUser();
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+
+    /**
+     * Creates a user of the database.
+     *
+     * @param username username
+     * @return the user
+     */
+    private DOIUser dbUser(final String username) {
+        final DOIUser user = new DOIUser();
+        user.setUsername(username);
+        user.setAdmin(false);
+        return user;
+    }
+}
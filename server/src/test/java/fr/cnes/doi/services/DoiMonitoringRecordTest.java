@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.services;
+
+import fr.cnes.doi.UnitTest;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.data.Method;
+
+/**
+ * Test class for {@link fr.cnes.doi.services.DoiMonitoringRecord}
+ */
+@Category(UnitTest.class)
+public class DoiMonitoringRecordTest {
+
+    public DoiMonitoringRecordTest() {
+    }
+
+    /**
+     * Test of match method, of class DoiMonitoringRecord.
+     */
+    @Test
+    public void testMatch() {
+        final DoiMonitoringRecord list = new DoiMonitoringRecord("list", Method.GET,
+                "/mds/dois", 1000, 10);
+        final DoiMonitoringRecord get = new DoiMonitoringRecord("get", Method.GET,
+                "/mds/dois/{doiName}", 1000, 10);
+        assertTrue(list.match("/mds/dois") > 0);
+        assertEquals(-1, list.match("/mds/dois/10.24400/12/abc"));
+        assertTrue(get.match("/mds/dois/10.24400/12/abc") > 0);
+        assertEquals(-1, get.match("/mds/metadata/10.24400/12/abc"));
+    }
+
+    /**
+     * Test of the sliding window, of class DoiMonitoringRecord.
+     */
+    @Test
+    public void testSlidingWindow() {
+        final DoiMonitoringRecord record = new DoiMonitoringRecord("window", Method.GET,
+                "/window", 1000, 10);
+        record.addMeasurement(100, 0);
+        record.addMeasurement(10, 950);
+        assertEquals(2, record.getWindow(999).getCount());
+        assertEquals(1, record.getWindow(1500).getCount());
+        assertEquals(10, record.getWindow(1500).getMax());
+        assertEquals(0, record.getWindow(5000).getCount());
+        assertEquals(2, record.getTotal().getCount());
+        assertEquals(55.0F, record.getAverage(), 0.001);
+    }
+}
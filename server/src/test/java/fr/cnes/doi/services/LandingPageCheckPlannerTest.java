@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.services;
+
+import fr.cnes.doi.UnitTest;
+import fr.cnes.doi.db.model.LandingPageState;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.services.LandingPageCheckPlanner}
+ */
+@Category(UnitTest.class)
+public class LandingPageCheckPlannerTest {
+
+    private static final long HOUR = 3600000L;
+
+    private static final long NOW = 1000L * HOUR;
+
+    private LandingPageCheckPlanner planner;
+
+    public LandingPageCheckPlannerTest() {
+    }
+
+    @Before
+    public void setUp() {
+        // run each hour, failing each hour, recent during 1 day checked each 6 hours,
+        // all healthy ones within 4 hours
+        planner = new LandingPageCheckPlanner(HOUR, HOUR, 24 * HOUR, 6 * HOUR, 4 * HOUR);
+    }
+
+    private static LandingPageState state(final String doi, final long firstSeen,
+            final long lastCheck, final int failures) {
+        final LandingPageState state = new LandingPageState();
+        state.setDoi(doi);
+        state.setFirstSeen(firstSeen);
+        state.setLastCheck(lastCheck);
+        state.setFailures(failures);
+        return state;
+    }
+
+    /**
+     * Test of selectDois method, of class LandingPageCheckPlanner.
+     */
+    @Test
+    public void testSelectDois() {
+        final Map<String, LandingPageState> states = new HashMap<>();
+        states.put("failingDue", state("failingDue", 0, NOW - HOUR, 2));
+        states.put("failingNotDue", state("failingNotDue", 0, NOW - HOUR / 2, 1));
+        states.put("recentDue", state("recentDue", NOW - HOUR * 7, NOW - HOUR * 6, 0));
+        states.put("recentNotDue", state("recentNotDue", NOW - HOUR * 2, NOW - HOUR, 0));
+        states.put("healthy1", state("healthy1", 0, NOW - HOUR, 0));
+        states.put("healthy2", state("healthy2", 0, NOW - HOUR * 4, 0));
+        states.put("healthy3", state("healthy3", 0, NOW - HOUR * 2, 0));
+        states.put("healthy4", state("healthy4", 0, NOW - HOUR * 3, 0));
+        final List<String> dois = Arrays.asList("new", "failingDue", "failingNotDue",
+                "recentDue", "recentNotDue", "healthy1", "healthy2", "healthy3", "healthy4");
+
+        final List<String> result = planner.selectDois(dois, states, NOW);
+
+        assertEquals(Arrays.asList("new", "failingDue", "recentDue", "healthy2"), result);
+    }
+
+    /**
+     * Test of update method, of class LandingPageCheckPlanner.
+     */
+    @Test
+    public void testUpdate() {
+        LandingPageState result = planner.update("doi", null, 404, true, NOW, 0L);
+        assertEquals(0L, result.getFirstSeen());
+        assertEquals(NOW, result.getLastCheck());
+        assertEquals(1, result.getFailures());
+
+        result = planner.update("doi", result, 500, true, NOW + HOUR, NOW);
+        assertEquals(0L, result.getFirstSeen());
+        assertEquals(2, result.getFailures());
+        assertEquals(500, result.getStatus());
+
+        result = planner.update("doi", result, 200, false, NOW + 2 * HOUR, NOW);
+        assertEquals(0, result.getFailures());
+        assertFalse(result.isFailing());
+    }
+
+    /**
+     * Test of the constructor with a wrong period, of class
+     * LandingPageCheckPlanner.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongPeriod() {
+        new LandingPageCheckPlanner(0, HOUR, HOUR, HOUR, HOUR);
+    }
+}
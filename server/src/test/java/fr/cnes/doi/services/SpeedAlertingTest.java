@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.services;
+
+import fr.cnes.doi.UnitTest;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+import org.restlet.data.Method;
+
+/**
+ * Test class for {@link fr.cnes.doi.services.SpeedAlerting}
+ */
+@Category(UnitTest.class)
+public class SpeedAlertingTest {
+
+    /**
+     * Duration of the sliding window in ms.
+     */
+    private static final long WINDOW = 10000;
+
+    /**
+     * Subjects of the sent digests.
+     */
+    private final List<String> digests = new ArrayList<>();
+
+    public SpeedAlertingTest() {
+    }
+
+    /**
+     * Test of the raise, the cooldown and the clear of an alert, of class
+     * SpeedAlerting.
+     */
+    @Test
+    public void testRaiseCooldownAndClear() {
+        final DoiMonitoring monitoring = new DoiMonitoring(WINDOW);
+        monitoring.register(Method.GET, "/mds/dois", "list");
+        final DoiMonitoringRecord record = monitoring.getRecord(Method.GET, "/mds/dois");
+        final SpeedAlerting alerting = new SpeedAlerting(monitoring,
+                (subject, message) -> digests.add(subject), 100, 50, 3 * WINDOW, 5);
+
+        addMeasurements(record, 0, 100);
+        assertNull(alerting.evaluate(WINDOW - 1));
+
+        // slowdown : only one alert per cooldown
+        addMeasurements(record, WINDOW, 500);
+        assertTrue(alerting.evaluate(2 * WINDOW - 1).contains("[RAISED]"));
+        addMeasurements(record, 2 * WINDOW, 500);
+        assertNull(alerting.evaluate(3 * WINDOW - 1));
+        addMeasurements(record, 3 * WINDOW, 500);
+        assertNull(alerting.evaluate(4 * WINDOW - 1));
+        addMeasurements(record, 4 * WINDOW, 500);
+        assertTrue(alerting.evaluate(5 * WINDOW - 1).contains("[STILL RAISED]"));
+
+        // hysteresis : still raised between the clear and the raise thresholds
+        addMeasurements(record, 5 * WINDOW, 170);
+        assertNull(alerting.evaluate(6 * WINDOW - 1));
+        addMeasurements(record, 6 * WINDOW, 100);
+        assertTrue(alerting.evaluate(7 * WINDOW - 1).contains("[CLEARED]"));
+        assertEquals(3, digests.size());
+    }
+
+    /**
+     * Test of the digest of several routes, of class SpeedAlerting.
+     */
+    @Test
+    public void testSingleDigest() {
+        final DoiMonitoring monitoring = new DoiMonitoring(WINDOW);
+        monitoring.register(Method.GET, "/mds/dois", "list");
+        monitoring.register(Method.GET, "/mds/dois/{doiName}", "get");
+        final SpeedAlerting alerting = new SpeedAlerting(monitoring,
+                (subject, message) -> digests.add(subject), 100, 50, WINDOW, 5);
+        for (final DoiMonitoringRecord record : monitoring.getRecords()) {
+            addMeasurements(record, 0, 100);
+        }
+        assertNull(alerting.evaluate(WINDOW - 1));
+        for (final DoiMonitoringRecord record : monitoring.getRecords()) {
+            addMeasurements(record, WINDOW, 1000);
+        }
+        final String digest = alerting.evaluate(2 * WINDOW - 1);
+        assertTrue(digest.contains("list"));
+        assertTrue(digest.contains("get"));
+        assertEquals(1, digests.size());
+    }
+
+    /**
+     * Test of a window without enough measurements, of class SpeedAlerting.
+     */
+    @Test
+    public void testNotEnoughMeasurements() {
+        final DoiMonitoring monitoring = new DoiMonitoring(WINDOW);
+        monitoring.register(Method.GET, "/mds/dois", "list");
+        final DoiMonitoringRecord record = monitoring.getRecord(Method.GET, "/mds/dois");
+        final SpeedAlerting alerting = new SpeedAlerting(monitoring,
+                (subject, message) -> digests.add(subject), 100, 50, WINDOW, 50);
+        addMeasurements(record, 0, 100);
+        addMeasurements(record, WINDOW, 1000);
+        assertNull(alerting.evaluate(2 * WINDOW - 1));
+        assertTrue(digests.isEmpty());
+    }
+
+    /**
+     * Adds 10 measurements in a window.
+     *
+     * @param record monitoring record
+     * @param start start of the window in ms
+     * @param duration duration of the requests in ms
+     */
+    private void addMeasurements(final DoiMonitoringRecord record, final long start,
+            final double duration) {
+        for (int i = 0; i < 10; i++) {
+            record.addMeasurement(duration, start + i * WINDOW / 10);
+        }
+    }
+}
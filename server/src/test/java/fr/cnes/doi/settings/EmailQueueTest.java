@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.settings;
+
+import fr.cnes.doi.UnitTest;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.settings.EmailQueue}
+ */
+@Category(UnitTest.class)
+public class EmailQueueTest {
+
+    /**
+     * Emails sent by the tested queue, as subject, message and receiver.
+     */
+    private final List<String[]> sentEmails = new ArrayList<>();
+
+    public EmailQueueTest() {
+    }
+
+    /**
+     * Test of the coalescing of the messages to a same receiver, of class
+     * EmailQueue.
+     */
+    @Test
+    public void testCoalesce() {
+        final EmailQueue queue = createQueue(10, EmailQueue.OverflowPolicy.DROP_NEWEST);
+        assertTrue(queue.offer("subject1", "message1", "admin@mail.com"));
+        assertTrue(queue.offer("subject2", "message2", "user@mail.com"));
+        assertTrue(queue.offer("subject3", "message3", "admin@mail.com"));
+        assertEquals(3, queue.getSize());
+
+        queue.flush(false);
+        assertTrue(sentEmails.isEmpty());
+
+        queue.flush(true);
+        assertEquals(0, queue.getSize());
+        assertEquals(2, sentEmails.size());
+        assertEquals("admin@mail.com", sentEmails.get(0)[2]);
+        assertEquals("subject1 (+1 other messages)", sentEmails.get(0)[0]);
+        assertTrue(sentEmails.get(0)[1].contains("message1"));
+        assertTrue(sentEmails.get(0)[1].contains("message3"));
+        assertEquals("subject2", sentEmails.get(1)[0]);
+        assertEquals("message2", sentEmails.get(1)[1]);
+        assertEquals(3, queue.getNbQueued());
+        assertEquals(1, queue.getNbCoalesced());
+        assertEquals(2, queue.getNbSent());
+    }
+
+    /**
+     * Test of the DROP_NEWEST policy, of class EmailQueue.
+     */
+    @Test
+    public void testDropNewest() {
+        final EmailQueue queue = createQueue(2, EmailQueue.OverflowPolicy.DROP_NEWEST);
+        assertTrue(queue.offer("subject1", "message1", "admin@mail.com"));
+        assertTrue(queue.offer("subject2", "message2", "admin@mail.com"));
+        assertFalse(queue.offer("subject3", "message3", "admin@mail.com"));
+        assertEquals(1, queue.getNbDropped());
+
+        queue.flush(true);
+        assertEquals(1, sentEmails.size());
+        assertFalse(sentEmails.get(0)[1].contains("message3"));
+    }
+
+    /**
+     * Test of the DROP_OLDEST policy, of class EmailQueue.
+     */
+    @Test
+    public void testDropOldest() {
+        final EmailQueue queue = createQueue(2, EmailQueue.OverflowPolicy.DROP_OLDEST);
+        assertTrue(queue.offer("subject1", "message1", "admin@mail.com"));
+        assertTrue(queue.offer("subject2", "message2", "user@mail.com"));
+        assertTrue(queue.offer("subject3", "message3", "other@mail.com"));
+        assertEquals(2, queue.getSize());
+        assertEquals(1, queue.getNbDropped());
+
+        queue.flush(true);
+        assertEquals(2, sentEmails.size());
+        assertEquals("subject2", sentEmails.get(0)[0]);
+        assertEquals("subject3", sentEmails.get(1)[0]);
+    }
+
+    /**
+     * Test of the BLOCK policy, of class EmailQueue. The caller waits for the
+     * offer timeout and the message is dropped.
+     */
+    @Test
+    public void testBlockTimeout() {
+        final EmailQueue queue = new EmailQueue(this::send, 1, 60000,
+                EmailQueue.OverflowPolicy.BLOCK, 50);
+        assertTrue(queue.offer("subject1", "message1", "admin@mail.com"));
+        final long start = System.currentTimeMillis();
+        assertFalse(queue.offer("subject2", "message2", "admin@mail.com"));
+        assertTrue(System.currentTimeMillis() - start >= 40);
+        assertEquals(1, queue.getNbDropped());
+    }
+
+    /**
+     * Test of the failed emails, of class EmailQueue.
+     */
+    @Test
+    public void testFailure() {
+        final EmailQueue queue = new EmailQueue((subject, message, receiver) -> {
+            throw new IllegalStateException("SMTP server unavailable");
+        }, 10, 60000, EmailQueue.OverflowPolicy.DROP_NEWEST, 0);
+        assertTrue(queue.offer("subject1", "message1", "admin@mail.com"));
+        queue.stop();
+        assertEquals(0, queue.getNbSent());
+        assertEquals(1, queue.getNbFailed());
+    }
+
+    /**
+     * Creates a queue with a long coalescing window, which is not started.
+     *
+     * @param capacity capacity
+     * @param policy overflow policy
+     * @return the queue
+     */
+    private EmailQueue createQueue(final int capacity, final EmailQueue.OverflowPolicy policy) {
+        return new EmailQueue(this::send, capacity, 60000, policy, 0);
+    }
+
+    /**
+     * Records a sent email.
+     *
+     * @param subject subject
+     * @param message message
+     * @param receiver receiver
+     * @return true
+     */
+    private boolean send(final String subject, final String message, final String receiver) {
+        sentEmails.add(new String[]{subject, message, receiver});
+        return true;
+    }
+}
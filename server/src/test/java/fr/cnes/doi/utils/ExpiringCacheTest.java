@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.utils;
+
+import fr.cnes.doi.UnitTest;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.utils.ExpiringCache}
+ */
+@Category(UnitTest.class)
+public class ExpiringCacheTest {
+
+    /**
+     * Test of get and put methods, of class ExpiringCache.
+     */
+    @Test
+    public void testGetPut() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60000);
+        cache.put("a", 1);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    /**
+     * Test of the LRU eviction, of class ExpiringCache.
+     */
+    @Test
+    public void testEviction() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(2, 60000);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    /**
+     * Test of the expiration, of class ExpiringCache.
+     */
+    @Test
+    public void testExpiration() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60000);
+        cache.put("a", 1, System.currentTimeMillis() - 1);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test of remove method, of class ExpiringCache.
+     */
+    @Test
+    public void testRemove() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60000);
+        cache.put("a", 1);
+        assertEquals(Integer.valueOf(1), cache.remove("a"));
+        assertNull(cache.get("a"));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2017-2019 Centre National d'Etudes Spatiales (CNES).
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package fr.cnes.doi.utils;
+
+import fr.cnes.doi.UnitTest;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import javax.xml.bind.JAXBException;
+import org.datacite.schema.kernel_4.Resource;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Test class for {@link fr.cnes.doi.utils.MetadataCodec}
+ */
+@Category(UnitTest.class)
+public class MetadataCodecTest {
+
+    public MetadataCodecTest() {
+    }
+
+    /**
+     * Test of getInstance method, of class MetadataCodec.
+     */
+    @Test
+    public void testGetInstance() {
+        MetadataCodec codec = MetadataCodec.getInstance();
+        assertSame(codec, MetadataCodec.getInstance());
+        assertNotNull(codec.getSchema());
+    }
+
+    /**
+     * Test of unmarshal and marshal methods, of class MetadataCodec.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        MetadataCodec codec = MetadataCodec.getInstance();
+        Resource resource;
+        try (InputStream is = MetadataCodecTest.class.getResourceAsStream("/test.xml")) {
+            resource = codec.unmarshal(is, null);
+        }
+        String xml = codec.marshal(resource);
+        Resource result = codec.unmarshal(new ByteArrayInputStream(xml.getBytes(
+                StandardCharsets.UTF_8)), null);
+        assertEquals(resource.getIdentifier().getValue(), result.getIdentifier().getValue());
+    }
+
+    /**
+     * Test of unmarshal method with a DOCTYPE declaring an external entity,
+     * of class MetadataCodec.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test
+    public void testUnmarshalRejectsExternalEntity() throws Exception {
+        String xml = "<?xml version=\"1.0\"?>"
+                + "<!DOCTYPE resource [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                + "<resource xmlns=\"http://datacite.org/schema/kernel-4\">"
+                + "<identifier identifierType=\"DOI\">&xxe;</identifier></resource>";
+        try {
+            MetadataCodec.getInstance().unmarshal(new ByteArrayInputStream(xml.getBytes(
+                    StandardCharsets.UTF_8)), null);
+            fail("The DOCTYPE declaration must be rejected");
+        } catch (JAXBException ex) {
+            // expected
+        }
+        try {
+            MetadataCodec.getInstance().unmarshalAndValidate(new ByteArrayInputStream(
+                    xml.getBytes(StandardCharsets.UTF_8)));
+            fail("The DOCTYPE declaration must be rejected");
+        } catch (JAXBException ex) {
+            // expected
+        }
+    }
+
+    /**
+     * Test of unmarshalAndValidate method with a document which is not
+     * DataCite metadata, of class MetadataCodec.
+     *
+     * @throws Exception - if an error happens
+     */
+    @Test(expected = JAXBException.class)
+    public void testUnmarshalAndValidateInvalid() throws Exception {
+        String xml = "<resource xmlns=\"http://datacite.org/schema/kernel-4\"><foo/></resource>";
+        MetadataCodec.getInstance().unmarshalAndValidate(new ByteArrayInputStream(xml.getBytes(
+                StandardCharsets.UTF_8)));
+    }
+}